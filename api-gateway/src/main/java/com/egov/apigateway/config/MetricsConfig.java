@@ -0,0 +1,21 @@
+package com.egov.apigateway.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.egov.apigateway.security.JwtUtil;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+@Configuration
+public class MetricsConfig {
+
+    // cache.gets (hit/miss), cache.evictions, cache.size tagged cache=jwtClaims
+    @Bean
+    public MeterBinder jwtClaimsCacheMetrics(JwtUtil jwtUtil) {
+        return new CaffeineCacheMetrics<>(jwtUtil.getClaimsCache(), "jwtClaims", List.of());
+    }
+}
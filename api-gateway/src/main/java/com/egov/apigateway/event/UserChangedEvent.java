@@ -0,0 +1,7 @@
+package com.egov.apigateway.event;
+
+import java.time.Instant;
+
+// published by user-service on profile, role and department changes
+public record UserChangedEvent(String userId, String changeType, Instant changedAt, Long tokenVersion) {
+}
@@ -0,0 +1,51 @@
+package com.egov.apigateway.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the X-USER-CONTEXT header forwarded to downstream services.
+ * Format: base64url(userId \n role \n departmentId \n tokenVersion \n issuedAtEpochSeconds) "." base64url(hmac-sha256)
+ */
+@Component
+public class IdentityContextSigner {
+
+    public static final String HEADER = "X-USER-CONTEXT";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+
+    public IdentityContextSigner(
+            @Value("${identity-context.secret:${jwt.secret:egov-secret-key-should-be-very-long-and-secure-256bit}}") String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("identity-context.secret not configured");
+        }
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+    }
+
+    public String sign(String userId, String role, String departmentId, long tokenVersion) {
+        String payload = userId + '\n' + role + '\n' + (departmentId != null ? departmentId : "") + '\n'
+                + tokenVersion + '\n' + Instant.now().getEpochSecond();
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(payloadBytes) + '.' + encoder.encodeToString(hmac(payloadBytes));
+    }
+
+    private byte[] hmac(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to sign identity context", e);
+        }
+    }
+}
@@ -15,21 +15,22 @@ import reactor.core.publisher.Mono;
 @Component
 public class JwtAuthFilter implements GlobalFilter {
 	
-	private static final String ROLE_ADMIN = "ADMIN";
-    private static final String ROLE_SUPERVISOR = "SUPERVISOR";
-    private static final String ROLE_OFFICER = "OFFICER";
-    private static final String ROLE_CITIZEN = "CITIZEN";
-    private static final String METHOD_PUT = "PUT";
-    private static final String METHOD_GET = "GET";
+	//role->route map  (role based security), compiled once
+	private static final RouteAccessTable ROUTE_ACCESS = new RouteAccessTable();
 
 	private final JwtUtil jwtUtil;
+	private final IdentityContextSigner identityContextSigner;
+	private final TokenVersionCache tokenVersionCache;
 
-	public JwtAuthFilter(JwtUtil jwtUtil) {
+	public JwtAuthFilter(JwtUtil jwtUtil, IdentityContextSigner identityContextSigner,
+			TokenVersionCache tokenVersionCache) {
 		this.jwtUtil = jwtUtil;
+		this.identityContextSigner = identityContextSigner;
+		this.tokenVersionCache = tokenVersionCache;
 	}
 
-	//public endpoints (no jwt required)
-	private static final List<String> PUBLIC_PATHS = List.of("/auth/login","/auth/register", "/reference","/reports/public");
+	//public endpoints (no jwt required) - /auth/refresh checks the token itself and must accept a stale one
+	private static final List<String> PUBLIC_PATHS = List.of("/auth/login","/auth/register", "/auth/refresh", "/reference","/reports/public");
 
 
 	@Override
@@ -39,8 +40,12 @@ public class JwtAuthFilter implements GlobalFilter {
 		String method = exchange.getRequest().getMethod().name();
 		String internalCall = exchange.getRequest().getHeaders().getFirst("X-INTERNAL-CALL");
 
-		// allow public endpoints
+		// allow public endpoints - never pass a client supplied identity context through
 		if (PUBLIC_PATHS.stream().anyMatch(path::startsWith)) {
+			if (exchange.getRequest().getHeaders().containsKey(IdentityContextSigner.HEADER)) {
+				return chain.filter(exchange.mutate()
+						.request(builder -> builder.headers(h -> h.remove(IdentityContextSigner.HEADER))).build());
+			}
 			return chain.filter(exchange);
 		}
 
@@ -62,16 +67,30 @@ public class JwtAuthFilter implements GlobalFilter {
 
 			String userId = claims.getSubject();
 			String role = claims.get("role", String.class);
+			String departmentId = claims.get("departmentId", String.class);
+			Long ver = claims.get("ver", Long.class);
+			long tokenVersion = ver != null ? ver : 0L;
+
+			// role or department changed since the token was issued - the client has to call /auth/refresh
+			if (tokenVersionCache.isStale(userId, tokenVersion)) {
+				exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+				return exchange.getResponse().setComplete();
+			}
 
 			// role-based route - authorization
-			if (!hasAccess(path, role, method, internalCall, userId)) {
+			if (!ROUTE_ACCESS.hasAccess(path, method, role, "true".equalsIgnoreCase(internalCall), userId)) {
 				exchange.getResponse().setStatusCode(HttpStatus.FORBIDDEN);
 				return exchange.getResponse().setComplete();
 			}
 
-			// forward headers to services
+			// forward headers to services, signed context lets them trust the department without a user lookup
+			String identityContext = identityContextSigner.sign(userId, role, departmentId, tokenVersion);
 			ServerWebExchange mutatedExchange = exchange.mutate()
-					.request(builder -> builder.header("X-USER-ID", userId).header("X-USER-ROLE", role)).build();
+					.request(builder -> builder.headers(h -> {
+						h.set("X-USER-ID", userId);
+						h.set("X-USER-ROLE", role);
+						h.set(IdentityContextSigner.HEADER, identityContext);
+					})).build();
 			return chain.filter(mutatedExchange);
 		} 
 		catch (Exception ex) {
@@ -80,68 +99,4 @@ public class JwtAuthFilter implements GlobalFilter {
 		}
 	}
 
-	//role->route map  (role based security)
-	private boolean hasAccess(String path, String role, String method,String internalCall, String tokenUserId) {
-
-		// assign grievance
-		if (path.matches(".*/grievances/.*/assign") && method.equals(METHOD_PUT)) {
-			return role.equals(ROLE_ADMIN) || role.equals(ROLE_SUPERVISOR);
-		}
-
-		// escalate grievance
-		if (path.matches(".*/grievances/.*/escalate") && method.equals(METHOD_PUT)) {
-			return role.equals(ROLE_CITIZEN);
-		}
-
-        //officer-only 
-        if ((path.matches(".*/grievances/.*/in-review")|| path.matches(".*/grievances/.*/resolve")) && method.equals(METHOD_PUT)) {
-			return role.equals(ROLE_OFFICER);
-		}
-
-        //close grievance
-		if (path.matches(".*/grievances/.*/close") && method.equals(METHOD_PUT)) {
-            return role.equals(ROLE_ADMIN)|| role.equals(ROLE_SUPERVISOR)|| role.equals(ROLE_OFFICER);
-		}
-
-		// user summary report (allow CITIZEN, OFFICER, SUPERVISOR, ADMIN)
-		if (path.startsWith("/reports/user/") && method.equals(METHOD_GET)) {
-			return role.equals(ROLE_ADMIN) || role.equals(ROLE_SUPERVISOR) || role.equals(ROLE_OFFICER) || role.equals(ROLE_CITIZEN);
-		}
-		// department performance (allow CITIZEN, ADMIN)
-		if (path.equals("/reports/department-performance") && method.equals(METHOD_GET)) {
-			return role.equals(ROLE_ADMIN) || role.equals(ROLE_CITIZEN);
-		}
-
-		// reports
-		if (path.startsWith("/reports") && method.equals(METHOD_GET)) {
-			return role.equals(ROLE_ADMIN) || role.equals(ROLE_SUPERVISOR) || role.equals(ROLE_OFFICER);
-		}
-
-		if (path.startsWith("/users/supervisor/department") && method.equals(METHOD_GET)) {
-			return "true".equalsIgnoreCase(internalCall); // trust internal call
-		}
-
-		if (path.matches("/users/[^/]+$") && method.equals(METHOD_GET)) {
-            if ("true".equalsIgnoreCase(internalCall)) return true;
-            if (role.equals(ROLE_ADMIN)) return true;
-			String pathId = path.substring(path.lastIndexOf('/') + 1);
-			return pathId.equals(tokenUserId);
-		}
-
-		// update own profile
-		if (path.matches("/users/[^/]+$") && method.equals(METHOD_PUT)) {
-            return role.equals(ROLE_CITIZEN) || role.equals(ROLE_OFFICER)|| role.equals(ROLE_SUPERVISOR) || role.equals(ROLE_ADMIN);
-		}
-
-		// admin-only operations
-		if (path.matches("/users/.*/role/.*") && method.equals(METHOD_PUT)
-				|| path.matches("/users/.*/department/.*") && method.equals(METHOD_PUT)
-				|| path.startsWith("/users/role/") && method.equals(METHOD_PUT)) {
-			return role.equals(ROLE_ADMIN);
-		}
-
-		// default -- authenticated user allowed
-		return true;
-	}
-
 }
@@ -1,33 +1,105 @@
 package com.egov.apigateway.security;
 
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
 
 import javax.crypto.SecretKey;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 
 @Component
 public class JwtUtil {
 
-    private final SecretKey secretKey;
+    private static final long DEFAULT_CACHE_SIZE = 10_000;
+    private static final Duration DEFAULT_CACHE_MAX_TTL = Duration.ofMinutes(15);
+
+    private final JwtParser parser;
+
+    // verified claims keyed by sha-256 of the token, each entry lives until the token's exp
+    private final Cache<String, Claims> claimsCache;
 
-    public JwtUtil(@Value("${jwt.secret:egov-secret-key-should-be-very-long-and-secure-256bit}") String secret) {
+    public JwtUtil(String secret) {
+        this(secret, DEFAULT_CACHE_SIZE, DEFAULT_CACHE_MAX_TTL);
+    }
+
+    @Autowired
+    public JwtUtil(@Value("${jwt.secret:egov-secret-key-should-be-very-long-and-secure-256bit}") String secret,
+            @Value("${jwt.claims-cache.max-size:10000}") long cacheMaxSize,
+            @Value("${jwt.claims-cache.max-ttl:15m}") Duration cacheMaxTtl) {
         if (secret == null || secret.isBlank()) {
             throw new IllegalStateException("jwt.secret not configured");
         }
-        this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        SecretKey secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
+        this.claimsCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new TokenExpiry(cacheMaxTtl.toNanos()))
+                .recordStats()
+                .build();
     }
 
     public Claims validateAndGetClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return claimsCache.get(digest(token), key -> parser.parseClaimsJws(token).getBody());
+    }
+
+    public Cache<String, Claims> getClaimsCache() {
+        return claimsCache;
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // expire at the token's own exp, capped so tokens without exp do not stay forever
+    private static final class TokenExpiry implements Expiry<String, Claims> {
+
+        private final long maxTtlNanos;
+
+        private TokenExpiry(long maxTtlNanos) {
+            this.maxTtlNanos = maxTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return maxTtlNanos;
+            }
+            long remainingNanos = Duration.ofMillis(expiration.getTime() - System.currentTimeMillis()).toNanos();
+            return Math.max(0, Math.min(remainingNanos, maxTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
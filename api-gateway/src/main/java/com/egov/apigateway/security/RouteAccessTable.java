@@ -0,0 +1,171 @@
+package com.egov.apigateway.security;
+
+import java.util.Map;
+
+/**
+ * Role based route rules, compiled once into a table keyed by http method.
+ * Rules are evaluated in order and the first matching rule decides; paths with
+ * no matching rule are open to any authenticated user.
+ * Matching only does index arithmetic over the path, nothing is allocated per request.
+ */
+final class RouteAccessTable {
+
+	static final int ADMIN = 1;
+	static final int SUPERVISOR = 1 << 1;
+	static final int OFFICER = 1 << 2;
+	static final int CITIZEN = 1 << 3;
+	static final int ANY_ROLE = ADMIN | SUPERVISOR | OFFICER | CITIZEN;
+
+	private static final String GRIEVANCES = "grievances";
+	private static final String USERS_PREFIX = "/users/";
+
+	// grievance workflow actions - last path segment -> allowed roles
+	private static final String[] GRIEVANCE_ACTIONS = { "assign", "escalate", "in-review", "resolve", "close" };
+	private static final int[] GRIEVANCE_ACTION_ROLES = {
+			ADMIN | SUPERVISOR,
+			CITIZEN,
+			OFFICER,
+			OFFICER,
+			ADMIN | SUPERVISOR | OFFICER };
+
+	private final Map<String, Rule[]> rulesByMethod;
+
+	RouteAccessTable() {
+		this.rulesByMethod = Map.of(
+				"PUT", new Rule[] {
+						RouteAccessTable::grievanceActionRule,
+						// update own profile
+						(path, role, internal, userId) -> isSingleUserPath(path) ? allowIf(role, ANY_ROLE) : NO_MATCH,
+						// admin-only operations
+						(path, role, internal, userId) -> isAdminUserOperation(path) ? allowIf(role, ADMIN) : NO_MATCH },
+				"GET", new Rule[] {
+						// user summary report
+						(path, role, internal, userId) -> path.startsWith("/reports/user/") ? allowIf(role, ANY_ROLE) : NO_MATCH,
+						// department performance
+						(path, role, internal, userId) -> path.equals("/reports/department-performance")
+								? allowIf(role, ADMIN | CITIZEN) : NO_MATCH,
+						// reports
+						(path, role, internal, userId) -> path.startsWith("/reports")
+								? allowIf(role, ADMIN | SUPERVISOR | OFFICER) : NO_MATCH,
+						// trust internal call
+						(path, role, internal, userId) -> path.startsWith("/users/supervisor/department")
+								? decision(internal) : NO_MATCH,
+						RouteAccessTable::userProfileReadRule },
+				"POST", new Rule[] {
+						// batch profile lookup - internal calls and admins only
+						(path, role, internal, userId) -> path.equals("/users/batch")
+								? decision(internal || role == ADMIN) : NO_MATCH });
+	}
+
+	boolean hasAccess(String path, String method, String role, boolean internalCall, String userId) {
+		Rule[] rules = rulesByMethod.get(method);
+		if (rules == null) {
+			return true;
+		}
+		int roleBit = roleBit(role);
+		for (Rule rule : rules) {
+			int result = rule.evaluate(path, roleBit, internalCall, userId);
+			if (result != NO_MATCH) {
+				return result == ALLOW;
+			}
+		}
+		// default -- authenticated user allowed
+		return true;
+	}
+
+	static int roleBit(String role) {
+		if (role == null) {
+			return 0;
+		}
+		return switch (role) {
+			case "ADMIN" -> ADMIN;
+			case "SUPERVISOR" -> SUPERVISOR;
+			case "OFFICER" -> OFFICER;
+			case "CITIZEN" -> CITIZEN;
+			default -> 0;
+		};
+	}
+
+	private static final int NO_MATCH = -1;
+	private static final int DENY = 0;
+	private static final int ALLOW = 1;
+
+	@FunctionalInterface
+	private interface Rule {
+		int evaluate(String path, int roleBit, boolean internalCall, String userId);
+	}
+
+	private static int allowIf(int roleBit, int allowedRoles) {
+		return decision((roleBit & allowedRoles) != 0);
+	}
+
+	private static int decision(boolean allowed) {
+		return allowed ? ALLOW : DENY;
+	}
+
+	// .../grievances/{anything}/{action}
+	private static int grievanceActionRule(String path, int roleBit, boolean internalCall, String userId) {
+		int lastSlash = path.lastIndexOf('/');
+		if (lastSlash < 0) {
+			return NO_MATCH;
+		}
+		int actionLength = path.length() - lastSlash - 1;
+		for (int i = 0; i < GRIEVANCE_ACTIONS.length; i++) {
+			String action = GRIEVANCE_ACTIONS[i];
+			if (action.length() == actionLength && path.regionMatches(lastSlash + 1, action, 0, actionLength)) {
+				return hasGrievancesSegmentBefore(path, lastSlash)
+						? allowIf(roleBit, GRIEVANCE_ACTION_ROLES[i]) : NO_MATCH;
+			}
+		}
+		return NO_MATCH;
+	}
+
+	// a "grievances" segment followed by at least one more segment before the last slash
+	private static boolean hasGrievancesSegmentBefore(String path, int lastSlash) {
+		int from = 0;
+		while (true) {
+			int slash = path.indexOf('/', from);
+			if (slash < 0) {
+				return false;
+			}
+			int end = slash + 1 + GRIEVANCES.length();
+			if (end >= lastSlash) {
+				return false;
+			}
+			if (path.charAt(end) == '/' && path.regionMatches(slash + 1, GRIEVANCES, 0, GRIEVANCES.length())) {
+				return true;
+			}
+			from = slash + 1;
+		}
+	}
+
+	// GET /users/{id} - internal calls, admins and the user themselves
+	private static int userProfileReadRule(String path, int roleBit, boolean internalCall, String userId) {
+		if (!isSingleUserPath(path)) {
+			return NO_MATCH;
+		}
+		if (internalCall || roleBit == ADMIN) {
+			return ALLOW;
+		}
+		int idLength = path.length() - USERS_PREFIX.length();
+		return decision(userId != null && userId.length() == idLength
+				&& path.regionMatches(USERS_PREFIX.length(), userId, 0, idLength));
+	}
+
+	// /users/{id}
+	private static boolean isSingleUserPath(String path) {
+		return path.startsWith(USERS_PREFIX)
+				&& path.length() > USERS_PREFIX.length()
+				&& path.indexOf('/', USERS_PREFIX.length()) < 0;
+	}
+
+	// /users/{id}/role/{role}, /users/{id}/department/{departmentId}, /users/role/...
+	private static boolean isAdminUserOperation(String path) {
+		if (!path.startsWith(USERS_PREFIX)) {
+			return false;
+		}
+		// "/users/role/" shares its slash with the prefix, the {id} forms need one more
+		return path.indexOf("/role/", USERS_PREFIX.length() - 1) >= 0
+				|| path.indexOf("/department/", USERS_PREFIX.length()) >= 0;
+	}
+}
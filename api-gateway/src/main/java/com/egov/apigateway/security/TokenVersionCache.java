@@ -0,0 +1,46 @@
+package com.egov.apigateway.security;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Latest token version per user, as announced by user-changed events. A token whose ver claim is older
+ * was issued before a role or department change and is refused until the client refreshes it. Entries
+ * only need to outlive the tokens they make stale, so they expire after the token lifetime.
+ */
+@Component
+public class TokenVersionCache {
+
+    private final Cache<String, Long> versions;
+    private final Duration ttl;
+
+    public TokenVersionCache(
+            @Value("${token-versions.max-size:100000}") long maxSize,
+            @Value("${token-versions.ttl:${jwt.expiration:86400000}ms}") Duration ttl) {
+        this.ttl = ttl;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    // events may be replayed or arrive out of order, the highest version wins
+    public void record(String userId, long version) {
+        versions.asMap().merge(userId, version, Math::max);
+    }
+
+    public boolean isStale(String userId, long tokenVersion) {
+        Long current = versions.getIfPresent(userId);
+        return current != null && tokenVersion < current;
+    }
+
+    // how far back the events have to be replayed to rebuild the cache after a restart
+    public Duration ttl() {
+        return ttl;
+    }
+}
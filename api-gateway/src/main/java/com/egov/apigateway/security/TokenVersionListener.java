@@ -0,0 +1,46 @@
+package com.egov.apigateway.security;
+
+import java.util.Map;
+
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import com.egov.apigateway.config.KafkaConsumerConfig;
+import com.egov.apigateway.event.UserChangedEvent;
+
+@Component
+public class TokenVersionListener implements ConsumerSeekAware {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenVersionListener.class);
+
+    private final TokenVersionCache tokenVersionCache;
+
+    public TokenVersionListener(TokenVersionCache tokenVersionCache) {
+        this.tokenVersionCache = tokenVersionCache;
+    }
+
+    @KafkaListener(
+            topics = KafkaConsumerConfig.USER_CHANGED_TOPIC,
+            containerFactory = "userChangedListenerContainerFactory",
+            autoStartup = "${token-versions.listener.auto-startup:true}")
+    public void consume(UserChangedEvent event) {
+        if (event == null || event.userId() == null || event.tokenVersion() == null) {
+            return;
+        }
+        log.debug("User {} is at token version {} after {} change", event.userId(), event.tokenVersion(),
+                event.changeType());
+        tokenVersionCache.record(event.userId(), event.tokenVersion());
+    }
+
+    // a token still valid now was issued within the last ttl, so replaying that window rebuilds every version
+    // that can make one stale
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToTimestamp(assignments.keySet(),
+                System.currentTimeMillis() - tokenVersionCache.ttl().toMillis());
+    }
+}
@@ -3,7 +3,8 @@ package com.egov.apigateway;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// no broker in unit tests
+@SpringBootTest(properties = "token-versions.listener.auto-startup=false")
 class ApiGatewayApplicationTests {
 
 	@Test
@@ -0,0 +1,27 @@
+package com.egov.apigateway.config;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KafkaConsumerConfigTest {
+
+    private static Map<String, Object> props() {
+        KafkaConsumerConfig config = new KafkaConsumerConfig();
+        ReflectionTestUtils.setField(config, "bootstrapServers", "localhost:9092");
+        return config.userChangedConsumerFactory().getConfigurationProperties();
+    }
+
+    @Test
+    void userChangedConsumer_subscribesInAGroupOfItsOwnAndNeverCommits() {
+        Map<String, Object> first = props();
+        Map<String, Object> second = props();
+
+        assertNotEquals(first.get(ConsumerConfig.GROUP_ID_CONFIG), second.get(ConsumerConfig.GROUP_ID_CONFIG));
+        assertEquals(false, first.get(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG));
+    }
+}
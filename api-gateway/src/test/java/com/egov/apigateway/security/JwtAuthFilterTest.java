@@ -1,9 +1,15 @@
 package com.egov.apigateway.security;
 
 import io.jsonwebtoken.Claims;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
@@ -11,10 +17,13 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
 import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -30,9 +39,79 @@ class JwtAuthFilterTest {
 
 	private JwtAuthFilter filter;
 
+	private TokenVersionCache tokenVersionCache;
+
 	@BeforeEach
 	void setup() {
-		filter = new JwtAuthFilter(jwtUtil);
+		tokenVersionCache = new TokenVersionCache(100, Duration.ofHours(24));
+		filter = new JwtAuthFilter(jwtUtil, new IdentityContextSigner("egov-secret-key-should-be-very-long-and-secure-256bit"),
+				tokenVersionCache);
+	}
+
+	private void setupVersionedClaims(String userId, String role, Long version) {
+		Claims claims = mock(Claims.class);
+		when(claims.getSubject()).thenReturn(userId);
+		when(claims.get("role", String.class)).thenReturn(role);
+		when(claims.get("departmentId", String.class)).thenReturn("D001");
+		when(claims.get("ver", Long.class)).thenReturn(version);
+		when(jwtUtil.validateAndGetClaims(anyString())).thenReturn(claims);
+	}
+
+	@Test
+	void staleTokenVersion_returns401() {
+		tokenVersionCache.record("SUP1", 2);
+		setupVersionedClaims("SUP1", "SUPERVISOR", 1L);
+		MockServerWebExchange exchange = MockServerWebExchange.from(
+				MockServerHttpRequest.get("/grievances").header(HttpHeaders.AUTHORIZATION, "Bearer token").build());
+
+		StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+		assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+		verifyNoInteractions(chain);
+	}
+
+	@Test
+	void tokenWithoutVersion_isStaleOnceTheUserChanged() {
+		tokenVersionCache.record("SUP1", 1);
+		setupVersionedClaims("SUP1", "SUPERVISOR", null);
+		MockServerWebExchange exchange = MockServerWebExchange.from(
+				MockServerHttpRequest.get("/grievances").header(HttpHeaders.AUTHORIZATION, "Bearer token").build());
+
+		StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+		assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+		verifyNoInteractions(chain);
+	}
+
+	@Test
+	void currentTokenVersion_isForwarded() {
+		when(chain.filter(any())).thenReturn(Mono.empty());
+		tokenVersionCache.record("SUP1", 2);
+		setupVersionedClaims("SUP1", "SUPERVISOR", 2L);
+		MockServerWebExchange exchange = MockServerWebExchange.from(
+				MockServerHttpRequest.get("/grievances").header(HttpHeaders.AUTHORIZATION, "Bearer token").build());
+
+		StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+		// downstream services compare the signed version with the user-changed events they have seen
+		ArgumentCaptor<ServerWebExchange> captor = ArgumentCaptor.forClass(ServerWebExchange.class);
+		verify(chain).filter(captor.capture());
+		String context = captor.getValue().getRequest().getHeaders().getFirst(IdentityContextSigner.HEADER);
+		String[] payload = new String(Base64.getUrlDecoder().decode(context.substring(0, context.indexOf('.'))),
+				StandardCharsets.UTF_8).split("\n", -1);
+		assertEquals("2", payload[3]);
+	}
+
+	@Test
+	void refresh_isReachableWithAStaleToken() {
+		when(chain.filter(any())).thenReturn(Mono.empty());
+		MockServerWebExchange exchange = MockServerWebExchange.from(
+				MockServerHttpRequest.post("/auth/refresh").header(HttpHeaders.AUTHORIZATION, "Bearer stale").build());
+
+		StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+		verify(chain).filter(any());
+		verifyNoInteractions(jwtUtil);
 	}
 
 	@Test
@@ -87,6 +166,43 @@ class JwtAuthFilterTest {
 		verify(chain).filter(any());
 	}
 
+	@Test
+	void validToken_forwardsSignedIdentityContext() {
+		when(chain.filter(any())).thenReturn(Mono.empty());
+		Claims claims = mock(Claims.class);
+		when(claims.getSubject()).thenReturn("SUP1");
+		when(claims.get("role", String.class)).thenReturn("SUPERVISOR");
+		when(claims.get("departmentId", String.class)).thenReturn("D001");
+		when(jwtUtil.validateAndGetClaims(anyString())).thenReturn(claims);
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/grievances")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer token")
+				.header(IdentityContextSigner.HEADER, "forged").build());
+
+		StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+		ArgumentCaptor<ServerWebExchange> captor = ArgumentCaptor.forClass(ServerWebExchange.class);
+		verify(chain).filter(captor.capture());
+		HttpHeaders forwarded = captor.getValue().getRequest().getHeaders();
+		assertEquals("SUP1", forwarded.getFirst("X-USER-ID"));
+		assertEquals("SUPERVISOR", forwarded.getFirst("X-USER-ROLE"));
+		assertEquals(1, forwarded.get(IdentityContextSigner.HEADER).size());
+		assertNotNull(forwarded.getFirst(IdentityContextSigner.HEADER));
+		assertFalse("forged".equals(forwarded.getFirst(IdentityContextSigner.HEADER)));
+	}
+
+	@Test
+	void publicEndpoint_stripsClientIdentityContext() {
+		when(chain.filter(any())).thenReturn(Mono.empty());
+		MockServerWebExchange exchange = MockServerWebExchange.from(
+				MockServerHttpRequest.get("/reference/departments").header(IdentityContextSigner.HEADER, "forged").build());
+
+		StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+		ArgumentCaptor<ServerWebExchange> captor = ArgumentCaptor.forClass(ServerWebExchange.class);
+		verify(chain).filter(captor.capture());
+		assertFalse(captor.getValue().getRequest().getHeaders().containsKey(IdentityContextSigner.HEADER));
+	}
+
 	@Test
 	void hasAccess_GrievanceAssign_AllowedForAdmin() {
 		when(chain.filter(any())).thenReturn(Mono.empty());
@@ -39,4 +39,50 @@ class JwtUtilTest {
         assertThrows(IllegalStateException.class,
                 () -> new JwtUtil(""));
     }
+
+    @Test
+    void validateAndGetClaims_repeatedToken_servedFromCache() {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        String token = Jwts.builder()
+                .setSubject("USER123")
+                .claim("role", "CITIZEN")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(key)
+                .compact();
+
+        JwtUtil jwtUtil = new JwtUtil(SECRET);
+        Claims first = jwtUtil.validateAndGetClaims(token);
+        Claims second = jwtUtil.validateAndGetClaims(token);
+
+        assertSame(first, second);
+        assertEquals(1, jwtUtil.getClaimsCache().stats().hitCount());
+        assertEquals(1, jwtUtil.getClaimsCache().stats().missCount());
+    }
+
+    @Test
+    void validateAndGetClaims_invalidSignature_notCached() {
+        SecretKey otherKey = Keys.hmacShaKeyFor(
+                "another-secret-key-that-is-also-long-enough-256bit".getBytes(StandardCharsets.UTF_8));
+        String token = Jwts.builder().setSubject("USER123").signWith(otherKey).compact();
+
+        JwtUtil jwtUtil = new JwtUtil(SECRET);
+
+        assertThrows(Exception.class, () -> jwtUtil.validateAndGetClaims(token));
+        assertThrows(Exception.class, () -> jwtUtil.validateAndGetClaims(token));
+        assertEquals(0, jwtUtil.getClaimsCache().estimatedSize());
+    }
+
+    @Test
+    void validateAndGetClaims_expiredToken_rejected() {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        String token = Jwts.builder()
+                .setSubject("USER123")
+                .setExpiration(new Date(System.currentTimeMillis() - 1_000))
+                .signWith(key)
+                .compact();
+
+        JwtUtil jwtUtil = new JwtUtil(SECRET);
+
+        assertThrows(Exception.class, () -> jwtUtil.validateAndGetClaims(token));
+    }
 }
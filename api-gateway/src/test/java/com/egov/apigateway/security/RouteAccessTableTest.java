@@ -0,0 +1,110 @@
+package com.egov.apigateway.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteAccessTableTest {
+
+	// paths taken from the EGGRS postman collection plus a few edge shapes
+	private static final List<String> PATHS = List.of(
+			"/users/CIT1", "/users/role/officer", "/users/CIT2/role/citizen", "/users/OFF1/department/D001",
+			"/users/department/D001/officers", "/users/supervisor/department/D001", "/users/", "/users//role/x",
+			"/grievances", "/grievances/G1", "/grievances/citizen/CIT1", "/grievances/department/D002",
+			"/grievances/G1/assign", "/grievances/G1/in-review", "/grievances/G1/resolve", "/grievances/G1/close",
+			"/grievances/G1/reopen", "/grievances/G1/escalate", "/grievances/G1/history", "/grievances/sla-breaches",
+			"/grievances/G1/documents", "/grievances/G1/documents/DOC1", "/grievances/assign", "/grievances//assign",
+			"/api/grievances/a/b/close", "/mygrievances/G1/assign",
+			"/feedback", "/feedback/grievance/G1", "/feedback/F1",
+			"/reports/grievances/status/closed", "/reports/grievances/department/D003", "/reports/avg-resolution-time",
+			"/reports/avg-resolution-time/department/D003", "/reports/department-performance", "/reports/user/CIT1",
+			"/reports/grievances/sla-breaches", "/reports", "/misc/info");
+
+	private static final List<String> ROLES = List.of("ADMIN", "SUPERVISOR", "OFFICER", "CITIZEN");
+
+	private final RouteAccessTable table = new RouteAccessTable();
+
+	@Test
+	void matchesLegacyRegexRules() {
+		for (String path : PATHS) {
+			for (String method : List.of("GET", "PUT", "POST")) {
+				for (String role : ROLES) {
+					for (boolean internal : new boolean[] { true, false }) {
+						boolean expected = legacyHasAccess(path, role, method, internal ? "true" : null, "CIT1");
+						assertEquals(expected, table.hasAccess(path, method, role, internal, "CIT1"),
+								method + " " + path + " as " + role + (internal ? " (internal)" : ""));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	void userProfile_onlyOwnIdForNonAdmin() {
+		assertTrue(table.hasAccess("/users/CIT1", "GET", "CITIZEN", false, "CIT1"));
+		assertFalse(table.hasAccess("/users/CIT1", "GET", "CITIZEN", false, "CIT"));
+		assertFalse(table.hasAccess("/users/CIT1", "GET", "OFFICER", false, null));
+	}
+
+	@Test
+	void userBatch_internalOrAdminOnly() {
+		assertTrue(table.hasAccess("/users/batch", "POST", "CITIZEN", true, "CIT1"));
+		assertTrue(table.hasAccess("/users/batch", "POST", "ADMIN", false, "A1"));
+		assertFalse(table.hasAccess("/users/batch", "POST", "SUPERVISOR", false, "S1"));
+		assertFalse(table.hasAccess("/users/batch", "POST", "CITIZEN", false, "CIT1"));
+		assertTrue(table.hasAccess("/grievances", "POST", "CITIZEN", false, "CIT1"));
+	}
+
+	@Test
+	void unknownRole_deniedOnRoleRules() {
+		assertFalse(table.hasAccess("/grievances/G1/assign", "PUT", "GUEST", false, "U1"));
+		assertFalse(table.hasAccess("/reports", "GET", null, false, "U1"));
+		assertTrue(table.hasAccess("/grievances", "GET", "GUEST", false, "U1"));
+	}
+
+	// the regex chain JwtAuthFilter used before the table was introduced
+	private static boolean legacyHasAccess(String path, String role, String method, String internalCall,
+			String tokenUserId) {
+		if (path.matches(".*/grievances/.*/assign") && method.equals("PUT")) {
+			return role.equals("ADMIN") || role.equals("SUPERVISOR");
+		}
+		if (path.matches(".*/grievances/.*/escalate") && method.equals("PUT")) {
+			return role.equals("CITIZEN");
+		}
+		if ((path.matches(".*/grievances/.*/in-review") || path.matches(".*/grievances/.*/resolve"))
+				&& method.equals("PUT")) {
+			return role.equals("OFFICER");
+		}
+		if (path.matches(".*/grievances/.*/close") && method.equals("PUT")) {
+			return role.equals("ADMIN") || role.equals("SUPERVISOR") || role.equals("OFFICER");
+		}
+		if (path.startsWith("/reports/user/") && method.equals("GET")) {
+			return ROLES.contains(role);
+		}
+		if (path.equals("/reports/department-performance") && method.equals("GET")) {
+			return role.equals("ADMIN") || role.equals("CITIZEN");
+		}
+		if (path.startsWith("/reports") && method.equals("GET")) {
+			return role.equals("ADMIN") || role.equals("SUPERVISOR") || role.equals("OFFICER");
+		}
+		if (path.startsWith("/users/supervisor/department") && method.equals("GET")) {
+			return "true".equalsIgnoreCase(internalCall);
+		}
+		if (path.matches("/users/[^/]+$") && method.equals("GET")) {
+			if ("true".equalsIgnoreCase(internalCall)) return true;
+			if (role.equals("ADMIN")) return true;
+			return path.substring(path.lastIndexOf('/') + 1).equals(tokenUserId);
+		}
+		if (path.matches("/users/[^/]+$") && method.equals("PUT")) {
+			return ROLES.contains(role);
+		}
+		if (path.matches("/users/.*/role/.*") && method.equals("PUT")
+				|| path.matches("/users/.*/department/.*") && method.equals("PUT")
+				|| path.startsWith("/users/role/") && method.equals("PUT")) {
+			return role.equals("ADMIN");
+		}
+		return true;
+	}
+}
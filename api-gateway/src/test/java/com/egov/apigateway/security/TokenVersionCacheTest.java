@@ -0,0 +1,61 @@
+package com.egov.apigateway.security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback;
+
+import com.egov.apigateway.event.UserChangedEvent;
+
+class TokenVersionCacheTest {
+
+    private final TokenVersionCache cache = new TokenVersionCache(100, Duration.ofHours(24));
+
+    @Test
+    void unknownUser_isNeverStale() {
+        assertFalse(cache.isStale("U1", 0));
+    }
+
+    @Test
+    void olderVersion_isStale() {
+        cache.record("U1", 3);
+        assertTrue(cache.isStale("U1", 2));
+        assertFalse(cache.isStale("U1", 3));
+        assertFalse(cache.isStale("U1", 4));
+    }
+
+    @Test
+    void replayedOlderEvent_doesNotLowerTheVersion() {
+        cache.record("U1", 3);
+        cache.record("U1", 1);
+        assertTrue(cache.isStale("U1", 2));
+    }
+
+    @Test
+    void listener_recordsVersionsAndReplaysTheTokenLifetime() {
+        TokenVersionListener listener = new TokenVersionListener(cache);
+        listener.consume(new UserChangedEvent("U1", "DEPARTMENT", Instant.now(), 2L));
+        listener.consume(new UserChangedEvent("U2", "PROFILE", Instant.now(), null));
+        assertTrue(cache.isStale("U1", 1));
+        assertFalse(cache.isStale("U2", 0));
+
+        ConsumerSeekCallback callback = mock(ConsumerSeekCallback.class);
+        TopicPartition partition = new TopicPartition("user-changed", 0);
+        long before = System.currentTimeMillis() - Duration.ofHours(24).toMillis();
+        listener.onPartitionsAssigned(Map.of(partition, 0L), callback);
+        verify(callback).seekToTimestamp(eq(Set.of(partition)),
+                longThat(ts -> ts >= before
+                        && ts <= System.currentTimeMillis() - Duration.ofHours(24).toMillis()));
+    }
+}
@@ -1,74 +1,140 @@
 package com.egov.grievance.config;
 
+import com.egov.grievance.dto.Category;
+import com.egov.grievance.dto.Department;
+import com.egov.grievance.dto.ReferenceDataSnapshot;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @Component
 public class DepartmentCategoryConfig {
-	private static final String CATEGORIES = "categories";
 
-	private Map<String, Map<String, Object>> departments;
+	static final String DEFAULT_LOCATION = "classpath:departments-categories-sla.json";
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private final ResourceLoader resourceLoader;
+	private final Supplier<String> location;
+
+	// departments and the flat sla table are built together and only ever replaced as a pair,
+	// readers take one volatile read and never lock
+	private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+	public DepartmentCategoryConfig() {
+		this(new DefaultResourceLoader(), () -> DEFAULT_LOCATION);
+	}
+
+	// the location is re-read on every reload so config-server can also move it (file:, classpath: or http:)
+	@Autowired
+	public DepartmentCategoryConfig(ResourceLoader resourceLoader, Environment environment) {
+		this(resourceLoader, () -> environment.getProperty("reference-data.location", DEFAULT_LOCATION));
+	}
+
+	DepartmentCategoryConfig(ResourceLoader resourceLoader, Supplier<String> location) {
+		this.resourceLoader = resourceLoader;
+		this.location = location;
+	}
 
 	@PostConstruct
 	public void load() {
 		try {
-			ObjectMapper mapper = new ObjectMapper();
-			InputStream is = new ClassPathResource("departments-categories-sla.json").getInputStream();
-
-			Map<String, Object> root = mapper.readValue(is, Map.class);
-			this.departments = (Map<String, Map<String, Object>>) root.get("departments");
-
+			reload();
 		} catch (Exception e) {
 			throw new IllegalArgumentException("Failed to load department-category config", e);
 		}
 	}
 
-    public Map<String, Map<String, Object>> getDepartments() {
-        return departments;
-    }
+	// reads the source again and swaps in a new snapshot if the content changed, returns whether it did.
+	// a bad file throws and leaves the current snapshot serving
+	public boolean reload() throws IOException {
+		byte[] content;
+		try (InputStream is = resourceLoader.getResource(location.get()).getInputStream()) {
+			content = is.readAllBytes();
+		}
+		String version = sha256(content);
+		if (version.equals(snapshot.data().version())) {
+			return false;
+		}
+		Root root = MAPPER.readValue(content, Root.class);
+		this.snapshot = Snapshot.of(root.departments(), version);
+		return true;
+	}
+
+	public ReferenceDataSnapshot getSnapshot() {
+		return snapshot.data();
+	}
+
+	public Map<String, Department> getDepartments() {
+		return snapshot.data().departments();
+	}
 
-    public Map<String, Object> getCategories(String departmentId) {
-        if (departments != null && departments.containsKey(departmentId)) {
-            return (Map<String, Object>) departments.get(departmentId).get(CATEGORIES);
-        }
-        return Map.of();
-    }
+	public Map<String, Category> getCategories(String departmentId) {
+		Department department = departmentId == null ? null : getDepartments().get(departmentId);
+		return department != null ? department.categories() : Map.of();
+	}
 
 	public boolean isValid(String departmentId, String categoryId) {
-		if (departments == null) {
-			return false;
-		}
-		return departments.containsKey(departmentId)
-				&& ((Map<?, ?>) departments.get(departmentId).get(CATEGORIES)).containsKey(categoryId);
+		return snapshot.slaTable().slaHours(departmentId, categoryId) != SlaLookupTable.MISSING;
 	}
 
 	public boolean isValidDepartment(String departmentId) {
-		if (departments == null) {
-			return false;
-		}
-		return departments.containsKey(departmentId);
+		return departmentId != null && getDepartments().containsKey(departmentId);
 	}
 
-	public Integer getSlaHours(String departmentId, String categoryId) {
-
-		if (departments == null || !departments.containsKey(departmentId)) {
+	public int getSlaHours(String departmentId, String categoryId) {
+		Snapshot current = snapshot;
+		int slaHours = current.slaTable().slaHours(departmentId, categoryId);
+		if (slaHours != SlaLookupTable.MISSING) {
+			return slaHours;
+		}
+		if (departmentId == null || !current.data().departments().containsKey(departmentId)) {
 			throw new IllegalArgumentException("Invalid department");
 		}
+		throw new IllegalArgumentException("Invalid category");
+	}
 
-		Map<String, Object> dept = departments.get(departmentId);
-		Map<String, Object> categories = (Map<String, Object>) dept.get(CATEGORIES);
-
-		if (!categories.containsKey(categoryId)) {
-			throw new IllegalArgumentException("Invalid category");
+	private static String sha256(byte[] content) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(content);
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
 		}
+	}
 
-		Map<String, Object> category = (Map<String, Object>) categories.get(categoryId);
+	private record Root(Map<String, Department> departments) {
+	}
 
-		return (Integer) category.get("slaHours");
+	private record Snapshot(ReferenceDataSnapshot data, SlaLookupTable slaTable) {
+
+		static final Snapshot EMPTY = of(Map.of(), "");
+
+		static Snapshot of(Map<String, Department> departments, String version) {
+			if (departments == null) {
+				throw new IllegalArgumentException("departments missing");
+			}
+			departments.forEach((departmentId, department) -> department.categories().forEach((categoryId, category) -> {
+				if (category.slaHours() <= 0) {
+					throw new IllegalArgumentException("slaHours must be positive for " + departmentId + "/" + categoryId);
+				}
+			}));
+			Map<String, Department> copy = Collections.unmodifiableMap(new LinkedHashMap<>(departments));
+			return new Snapshot(new ReferenceDataSnapshot(version, copy), new SlaLookupTable(copy));
+		}
 	}
 }
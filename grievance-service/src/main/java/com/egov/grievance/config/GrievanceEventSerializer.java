@@ -0,0 +1,55 @@
+package com.egov.grievance.config;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import com.egov.grievance.event.GrievanceStatusChangedEvent;
+import com.egov.grievance.event.GrievanceStatusChangedEventCodec;
+
+/**
+ * Value serializer for every grievance topic. With binary enabled, status changes go out in the compact
+ * codec and everything else stays JSON. Each record carries a content-type header, so consumers that read
+ * both formats can be deployed before binary is turned on.
+ */
+public class GrievanceEventSerializer implements Serializer<Object> {
+
+    public static final String CONTENT_TYPE_HEADER = "content-type";
+    public static final String JSON = "application/json";
+
+    private final JsonSerializer<Object> json = new JsonSerializer<>();
+    private final boolean binaryStatusEvents;
+
+    public GrievanceEventSerializer(boolean binaryStatusEvents) {
+        this.binaryStatusEvents = binaryStatusEvents;
+        //disable type headers
+        json.setAddTypeInfo(false);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return json.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (binaryStatusEvents && data instanceof GrievanceStatusChangedEvent event) {
+            contentType(headers, GrievanceStatusChangedEventCodec.CONTENT_TYPE);
+            return GrievanceStatusChangedEventCodec.encode(event);
+        }
+        contentType(headers, JSON);
+        return json.serialize(topic, headers, data);
+    }
+
+    private static void contentType(Headers headers, String contentType) {
+        headers.remove(CONTENT_TYPE_HEADER);
+        headers.add(CONTENT_TYPE_HEADER, contentType.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
@@ -1,5 +1,6 @@
 package com.egov.grievance.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -7,9 +8,10 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -19,28 +21,56 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
+    // status events are small json records keyed by grievance id, so batching them and compressing the batch
+    // cuts broker requests and bytes on the wire for a few ms of added latency
+    @Value("${kafka.producer.compression-type:lz4}")
+    private String compressionType;
+
+    @Value("${kafka.producer.linger-ms:10}")
+    private int lingerMs;
+
+    @Value("${kafka.producer.batch-size:65536}")
+    private int batchSize;
+
+    // how long send may block waiting for topic metadata or buffer space. kept well under outbox.lease so a
+    // relay stuck on an unreachable broker fails its batch before another instance can claim it
+    @Value("${kafka.producer.max-block:5s}")
+    private Duration maxBlock;
+
+    // json until every consumer reads the binary codec, then flip to true
+    @Value("${kafka.producer.binary-status-events:false}")
+    private boolean binaryStatusEvents;
+
     @Bean
-    public ProducerFactory<String, Object> producerFactory() {
+    public ProducerFactory<String, Object> producerFactory(MeterRegistry meterRegistry) {
 
         Map<String, Object> props = new HashMap<>();
 
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
 
-        //disable type headers
-        JsonSerializer<Object> valueSerializer = new JsonSerializer<>();
-        valueSerializer.setAddTypeInfo(false);
+        // the outbox relay only removes events the broker acked, so an ack must mean written to all replicas
+        // and a retried send must not be duplicated or reordered
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        props.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlock.toMillis());
 
-        return new DefaultKafkaProducerFactory<>(
+        DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(
                 props,
                 new StringSerializer(),
-                valueSerializer
+                new GrievanceEventSerializer(binaryStatusEvents)
         );
+        // exposes the client's own metrics (record-send-rate, batch-size-avg, compression-rate-avg,
+        // request-latency-avg, ...) as kafka.producer.* meters on /actuator/metrics
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
-    public KafkaTemplate<String, Object> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaTemplate<String, Object> kafkaTemplate(ProducerFactory<String, Object> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
     }
 }
@@ -0,0 +1,90 @@
+package com.egov.grievance.config;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.stereotype.Component;
+
+import com.egov.grievance.model.Grievance;
+import com.egov.grievance.model.GrievanceDocument;
+import com.egov.grievance.model.GrievanceStatusHistory;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+
+/**
+ * Compares the indexes declared on the documents with what the collections actually have once the
+ * app is ready, and builds the missing ones in the background. Runs detached from startup so an
+ * unreachable mongo only produces a warning, and existing indexes are never dropped or rebuilt.
+ */
+@Slf4j
+@Component
+public class MongoIndexReconciler {
+
+    static final List<Class<?>> INDEXED_DOCUMENTS =
+            List.of(Grievance.class, GrievanceStatusHistory.class, GrievanceDocument.class);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final boolean enabled;
+
+    public MongoIndexReconciler(ReactiveMongoTemplate mongoTemplate,
+            @Value("${mongo.index-reconciler.enabled:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        reconcile().subscribe(
+                name -> log.info("Created missing mongo index {}", name),
+                ex -> log.warn("Mongo index reconciliation failed: {}", ex.getMessage()));
+    }
+
+    // emits the name of every index it had to create
+    public Flux<String> reconcile() {
+        IndexResolver resolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+        return Flux.fromIterable(INDEXED_DOCUMENTS)
+                .concatMap(type -> reconcile(mongoTemplate.indexOps(type), resolver.resolveIndexFor(type)));
+    }
+
+    private Flux<String> reconcile(ReactiveIndexOperations indexOps, Iterable<? extends IndexDefinition> declared) {
+        return indexOps.getIndexInfo()
+                .map(IndexInfo::getName)
+                .collect(Collectors.toSet())
+                .flatMapMany(existing -> Flux.fromIterable(declared)
+                        .filter(definition -> !existing.contains(name(definition)))
+                        .concatMap(definition -> indexOps.ensureIndex(inBackground(definition))));
+    }
+
+    private static String name(IndexDefinition definition) {
+        return definition.getIndexOptions().getString("name");
+    }
+
+    private static IndexDefinition inBackground(IndexDefinition definition) {
+        Document options = new Document(definition.getIndexOptions()).append("background", true);
+        Document keys = definition.getIndexKeys();
+        return new IndexDefinition() {
+            @Override
+            public Document getIndexKeys() {
+                return keys;
+            }
+
+            @Override
+            public Document getIndexOptions() {
+                return options;
+            }
+        };
+    }
+}
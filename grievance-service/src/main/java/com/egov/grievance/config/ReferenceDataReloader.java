@@ -0,0 +1,73 @@
+package com.egov.grievance.config;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Keeps DepartmentCategoryConfig current without a restart. It polls the source every
+ * reference-data.refresh-interval (0 turns polling off) and also reloads right after a config-server
+ * refresh. Unchanged content is detected by hash and ignored; a broken file is logged and the last good
+ * snapshot keeps serving.
+ */
+@Slf4j
+@Component
+public class ReferenceDataReloader {
+
+    private final DepartmentCategoryConfig config;
+    private final Duration refreshInterval;
+    private final Scheduler scheduler = Schedulers.newSingle("reference-data-reload");
+    private final Counter reloadCounter;
+    private final Counter failureCounter;
+
+    public ReferenceDataReloader(DepartmentCategoryConfig config, MeterRegistry meterRegistry,
+            @Value("${reference-data.refresh-interval:30s}") Duration refreshInterval) {
+        this.config = config;
+        this.refreshInterval = refreshInterval;
+        this.reloadCounter = Counter.builder("reference.data.reloads").register(meterRegistry);
+        this.failureCounter = Counter.builder("reference.data.reload.failures").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!refreshInterval.isZero() && !refreshInterval.isNegative()) {
+            long millis = refreshInterval.toMillis();
+            scheduler.schedulePeriodically(this::reload, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @EventListener(EnvironmentChangeEvent.class)
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        scheduler.schedule(this::reload);
+    }
+
+    void reload() {
+        try {
+            if (config.reload()) {
+                reloadCounter.increment();
+                log.info("Reloaded reference data, version {}", config.getSnapshot().version());
+            }
+        } catch (Exception ex) {
+            failureCounter.increment();
+            log.warn("Reference data reload failed, keeping version {}: {}", config.getSnapshot().version(),
+                    ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+}
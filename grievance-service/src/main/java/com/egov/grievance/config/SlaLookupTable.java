@@ -0,0 +1,62 @@
+package com.egov.grievance.config;
+
+import java.util.Map;
+
+import com.egov.grievance.dto.Category;
+import com.egov.grievance.dto.Department;
+
+/**
+ * Flat open-addressing table from (departmentId, categoryId) to slaHours, built once from the typed
+ * reference data. A lookup hashes the two ids (String caches its hash), probes parallel arrays and
+ * compares the keys. It makes no nested map lookups, casts or allocations, so validation and the sla
+ * lookup on the create path are a single probe.
+ */
+final class SlaLookupTable {
+
+    static final int MISSING = -1;
+
+    private final String[] departmentIds;
+    private final String[] categoryIds;
+    private final int[] slaHours;
+    private final int mask;
+
+    SlaLookupTable(Map<String, Department> departments) {
+        int entries = departments.values().stream().mapToInt(department -> department.categories().size()).sum();
+        // at most half full keeps probe chains short
+        int capacity = Integer.highestOneBit(Math.max(1, entries) * 2 - 1) << 1;
+        this.departmentIds = new String[capacity];
+        this.categoryIds = new String[capacity];
+        this.slaHours = new int[capacity];
+        this.mask = capacity - 1;
+
+        departments.forEach((departmentId, department) -> department.categories()
+                .forEach((categoryId, category) -> put(departmentId, categoryId, category)));
+    }
+
+    int slaHours(String departmentId, String categoryId) {
+        if (departmentId == null || categoryId == null) {
+            return MISSING;
+        }
+        for (int i = index(departmentId, categoryId); departmentIds[i] != null; i = (i + 1) & mask) {
+            if (departmentIds[i].equals(departmentId) && categoryIds[i].equals(categoryId)) {
+                return slaHours[i];
+            }
+        }
+        return MISSING;
+    }
+
+    private void put(String departmentId, String categoryId, Category category) {
+        int i = index(departmentId, categoryId);
+        while (departmentIds[i] != null) {
+            i = (i + 1) & mask;
+        }
+        departmentIds[i] = departmentId;
+        categoryIds[i] = categoryId;
+        slaHours[i] = category.slaHours();
+    }
+
+    private int index(String departmentId, String categoryId) {
+        int h = departmentId.hashCode() * 31 + categoryId.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
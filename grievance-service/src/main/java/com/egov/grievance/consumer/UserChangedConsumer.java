@@ -0,0 +1,46 @@
+package com.egov.grievance.consumer;
+
+import java.util.Map;
+
+import com.egov.grievance.config.KafkaConsumerConfig;
+import com.egov.grievance.event.UserChangedEvent;
+import com.egov.grievance.service.UserProfileCache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserChangedConsumer implements ConsumerSeekAware {
+
+    private final UserProfileCache userProfileCache;
+
+    @KafkaListener(
+            topics = KafkaConsumerConfig.USER_CHANGED_TOPIC,
+            containerFactory = "userChangedListenerContainerFactory",
+            autoStartup = "${user-cache.listener.auto-startup:true}")
+    public void consume(UserChangedEvent event) {
+        if (event == null || event.getUserId() == null) {
+            return;
+        }
+        log.info("Evicting cached user {} after {} change", event.getUserId(), event.getChangeType());
+        if (event.getTokenVersion() != null) {
+            userProfileCache.recordTokenVersion(event.getUserId(), event.getTokenVersion());
+        }
+        userProfileCache.invalidate(event.getUserId());
+    }
+
+    // a token still valid now was issued within the last token ttl, replaying that window rebuilds every
+    // version a signed identity context is compared against
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToTimestamp(assignments.keySet(),
+                System.currentTimeMillis() - userProfileCache.tokenTtl().toMillis());
+    }
+}
@@ -1,8 +1,12 @@
 package com.egov.grievance.controller;
 
 import java.util.List;
+import java.util.function.Function;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.codec.multipart.FilePart;
@@ -16,9 +20,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
 
 import com.egov.grievance.dto.AssignGrievanceRequest;
 import com.egov.grievance.dto.CreateGrievanceRequest;
+import com.egov.grievance.dto.GrievanceCursor;
 import com.egov.grievance.model.Grievance;
 import com.egov.grievance.repository.GrievanceHistoryRepository;
 import com.egov.grievance.repository.GrievanceRepository;
@@ -39,6 +45,8 @@ import reactor.core.publisher.Mono;
 @RequiredArgsConstructor
 public class GrievanceController {
 
+        public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
         private final GrievanceService grievanceService;
 
         private final GrievanceHistoryRepository grievanceHistoryRepository;
@@ -56,20 +64,25 @@ public class GrievanceController {
                                 .map(id -> ResponseEntity.status(HttpStatus.CREATED).body(id));
         }
         @GetMapping
-        public Flux<Grievance> getAllGrievances(
+        public Mono<ResponseEntity<List<Grievance>>> getAllGrievances(
 		                @RequestHeader("X-USER-ID") String userId,
 		                @RequestHeader("X-USER-ROLE") String role,
 		                @RequestParam(required = false) String status,
-		                @RequestParam(required = false) String departmentId) {
+		                @RequestParam(required = false) String departmentId,
+		                @RequestParam(defaultValue = "" + GrievanceService.DEFAULT_PAGE_SIZE) int limit,
+		                @RequestParam(required = false) String after) {
 		
-		            return grievanceService.getGrievances(status, departmentId, role, userId);
+		            return toPage(grievanceService.getGrievances(status, departmentId, role, userId, after, limit), limit);
         }
 
         @GetMapping("/sla-breaches")
-        public Flux<Grievance> getSlaBreaches(
+        public Mono<ResponseEntity<List<Grievance>>> getSlaBreaches(
                 @RequestHeader("X-USER-ID") String userId,
-                @RequestHeader("X-USER-ROLE") String role) {
-                return grievanceService.getSlaBreaches(userId, role);
+                @RequestHeader("X-USER-ROLE") String role,
+                @RequestParam(defaultValue = "" + GrievanceService.DEFAULT_PAGE_SIZE) int limit,
+                @RequestParam(required = false) String after) {
+                return toPage(grievanceService.getSlaBreaches(userId, role, after, limit), limit,
+                                GrievanceCursor::bySlaDeadline);
         }
 
         @PutMapping("/{grievanceId}/assign")
@@ -126,25 +139,30 @@ public class GrievanceController {
         public Mono<ResponseEntity<List<GrievanceStatusHistory>>> history(
                 @PathVariable String grievanceId,
                 @RequestHeader("X-USER-ID") String userId,
-                @RequestHeader("X-USER-ROLE") String role) {
-            return grievanceService.getGrievanceHistory(grievanceId, userId, role)
-                    .collectList()
-                    .map(ResponseEntity::ok);
+                @RequestHeader("X-USER-ROLE") String role,
+                @RequestParam(defaultValue = "" + GrievanceService.DEFAULT_PAGE_SIZE) int limit,
+                @RequestParam(required = false) String after) {
+            return toPage(grievanceService.getGrievanceHistory(grievanceId, userId, role, after, limit), limit,
+                    GrievanceCursor::of);
         }
 
         @GetMapping("/citizen/{citizenId}")
-        public Flux<Grievance> getByCitizen(@PathVariable String citizenId,
+        public Mono<ResponseEntity<List<Grievance>>> getByCitizen(@PathVariable String citizenId,
                                             @RequestHeader("X-USER-ID") String userId,
-                                            @RequestHeader("X-USER-ROLE") String role) {
-                return grievanceService.getGrievancesByCitizen(citizenId, userId, role);
+                                            @RequestHeader("X-USER-ROLE") String role,
+                                            @RequestParam(defaultValue = "" + GrievanceService.DEFAULT_PAGE_SIZE) int limit,
+                                            @RequestParam(required = false) String after) {
+                return toPage(grievanceService.getGrievancesByCitizen(citizenId, userId, role, after, limit), limit);
         }
 
 
         @GetMapping("/department/{departmentId}")
-        public Flux<Grievance> getByDepartment(@PathVariable String departmentId,
+        public Mono<ResponseEntity<List<Grievance>>> getByDepartment(@PathVariable String departmentId,
                                                @RequestHeader("X-USER-ID") String userId,
-                                               @RequestHeader("X-USER-ROLE") String role) {
-                return grievanceService.getGrievancesByDepartment(departmentId, userId, role);
+                                               @RequestHeader("X-USER-ROLE") String role,
+                                               @RequestParam(defaultValue = "" + GrievanceService.DEFAULT_PAGE_SIZE) int limit,
+                                               @RequestParam(required = false) String after) {
+                return toPage(grievanceService.getGrievancesByDepartment(departmentId, userId, role, after, limit), limit);
         }
 
         @PutMapping("/{grievanceId}/escalate")
@@ -164,26 +182,80 @@ public class GrievanceController {
         }
         
         @GetMapping("/{grievanceId}/documents")
-        public Flux<GrievanceDocument> getGrievanceDocuments(
+        public Mono<ResponseEntity<List<GrievanceDocument>>> getGrievanceDocuments(
                 @PathVariable String grievanceId,
                 @RequestHeader("X-USER-ID") String userId,
-                @RequestHeader("X-USER-ROLE") String role) {
-            return grievanceService.getGrievanceDocuments(grievanceId, userId, role);
+                @RequestHeader("X-USER-ROLE") String role,
+                @RequestParam(defaultValue = "" + GrievanceService.DEFAULT_PAGE_SIZE) int limit,
+                @RequestParam(required = false) String after) {
+            return toPage(grievanceService.getGrievanceDocuments(grievanceId, userId, role, after, limit), limit,
+                    GrievanceCursor::of);
         }
 
+        // Range requests are answered with 206 by the resource writer, and a file resource goes out zero-copy
         @GetMapping("/{grievanceId}/documents/{documentId}")
         public Mono<ResponseEntity<Resource>> downloadDocument(
                 @PathVariable String grievanceId,
                 @PathVariable String documentId,
                 @RequestHeader("X-USER-ID") String userId,
-                @RequestHeader("X-USER-ROLE") String role) {
-            
-            return grievanceService.downloadDocument(grievanceId, documentId, userId, role)
-                    .map(resource -> ResponseEntity.ok()
-                            .header(HttpHeaders.CONTENT_DISPOSITION,
-                                    "attachment; filename=\"" + resource.getFilename() + "\"")
-                            .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                            .body(resource));
+                @RequestHeader("X-USER-ROLE") String role,
+                ServerWebExchange exchange) {
+
+            return grievanceService.getDocument(grievanceId, documentId, userId, role)
+                    .flatMap(doc -> {
+                        // documents stored before checksums were kept have no ETag
+                        String etag = doc.getSha256() != null ? "\"" + doc.getSha256() + "\"" : null;
+                        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+                        // the stored hash answers a revalidation without touching the file. it stays the hash of
+                        // the bytes on disk since DocumentStorage never writes an upload over an existing file
+                        if (etag != null && exchange.checkNotModified(etag)) {
+                            return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                    .eTag(etag)
+                                    .cacheControl(cacheControl)
+                                    .<Resource>build());
+                        }
+                        return grievanceService.documentFile(doc)
+                                .map(resource -> {
+                                    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                                            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                                                    .filename(doc.getFileName())
+                                                    .build()
+                                                    .toString())
+                                            .header("X-Content-Type-Options", "nosniff")
+                                            .contentType(contentType(doc))
+                                            .cacheControl(cacheControl);
+                                    if (etag != null) {
+                                        response.eTag(etag);
+                                    }
+                                    return response.body(resource);
+                                });
+                    });
+        }
+
+        private static MediaType contentType(GrievanceDocument doc) {
+                try {
+                        return doc.getFileType() != null ? MediaType.parseMediaType(doc.getFileType())
+                                        : MediaType.APPLICATION_OCTET_STREAM;
+                } catch (InvalidMediaTypeException e) {
+                        return MediaType.APPLICATION_OCTET_STREAM;
+                }
         }
 
+        private static Mono<ResponseEntity<List<Grievance>>> toPage(Flux<Grievance> page, int limit) {
+                return toPage(page, limit, GrievanceCursor::of);
+        }
+
+        // a full page may have more behind it - hand back the cursor of its last item
+        private static <T> Mono<ResponseEntity<List<T>>> toPage(Flux<T> page, int limit,
+                        Function<T, GrievanceCursor> cursor) {
+                return page.collectList()
+                                .map(items -> {
+                                        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                                        if (items.size() == limit) {
+                                                response.header(NEXT_CURSOR_HEADER,
+                                                                cursor.apply(items.get(items.size() - 1)).encode());
+                                        }
+                                        return response.body(items);
+                                });
+        }
 }
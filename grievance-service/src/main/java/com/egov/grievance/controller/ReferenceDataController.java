@@ -1,13 +1,18 @@
 package com.egov.grievance.controller;
 
+import java.time.Duration;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.egov.grievance.dto.Category;
+import com.egov.grievance.dto.Department;
 import com.egov.grievance.service.ReferenceDataService;
 
 import reactor.core.publisher.Mono;
@@ -17,20 +22,27 @@ import reactor.core.publisher.Mono;
 public class ReferenceDataController {
 
     private final ReferenceDataService referenceDataService;
+    private final CacheControl departmentsCacheControl;
 
-    public ReferenceDataController(ReferenceDataService referenceDataService) {
+    public ReferenceDataController(ReferenceDataService referenceDataService,
+            @Value("${reference-data.cache-max-age:60s}") Duration cacheMaxAge) {
         this.referenceDataService = referenceDataService;
+        this.departmentsCacheControl = CacheControl.maxAge(cacheMaxAge).cachePublic();
     }
     
+    // strong etag = hash of the loaded file, a matching If-None-Match gets a 304 before the map is serialized
     @GetMapping("/departments")
-    public Mono<ResponseEntity<Map<String, Map<String, Object>>>> getAllDepartments() {
+    public Mono<ResponseEntity<Map<String, Department>>> getAllDepartments() {
         return referenceDataService.getAllDepartments()
-                .map(ResponseEntity::ok)
+                .map(snapshot -> ResponseEntity.ok()
+                        .eTag(snapshot.version())
+                        .cacheControl(departmentsCacheControl)
+                        .body(snapshot.departments()))
                 .defaultIfEmpty(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/departments/{departmentId}/categories")
-    public Mono<ResponseEntity<Map<String, Object>>> getCategories(@PathVariable String departmentId) {
+    public Mono<ResponseEntity<Map<String, Category>>> getCategories(@PathVariable String departmentId) {
         return referenceDataService.getCategoriesByDepartment(departmentId)
                 .map(ResponseEntity::ok);
     }
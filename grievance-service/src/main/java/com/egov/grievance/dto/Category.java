@@ -0,0 +1,5 @@
+package com.egov.grievance.dto;
+
+// one grievance category of a department as configured in departments-categories-sla.json
+public record Category(String name, int slaHours) {
+}
@@ -0,0 +1,13 @@
+package com.egov.grievance.dto;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// a department and its categories keyed by categoryId, immutable once built
+public record Department(String name, Map<String, Category> categories) {
+
+    public Department {
+        categories = categories == null ? Map.of() : Collections.unmodifiableMap(new LinkedHashMap<>(categories));
+    }
+}
@@ -0,0 +1,62 @@
+package com.egov.grievance.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import com.egov.grievance.model.Grievance;
+import com.egov.grievance.model.GrievanceDocument;
+import com.egov.grievance.model.GrievanceStatusHistory;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// opaque keyset position (sort instant, id) of the last item of a page - createdAt for grievance listings,
+// slaDeadline for sla breaches, changedAt and uploadedAt for a grievance's history and documents
+@Data
+@AllArgsConstructor
+public class GrievanceCursor {
+
+    private Instant at;
+    private String id;
+
+    public static GrievanceCursor of(Grievance grievance) {
+        return new GrievanceCursor(grievance.getCreatedAt(), grievance.getId());
+    }
+
+    public static GrievanceCursor bySlaDeadline(Grievance grievance) {
+        return new GrievanceCursor(grievance.getSlaDeadline(), grievance.getId());
+    }
+
+    public static GrievanceCursor of(GrievanceStatusHistory history) {
+        return new GrievanceCursor(history.getChangedAt(), history.getId());
+    }
+
+    public static GrievanceCursor of(GrievanceDocument document) {
+        return new GrievanceCursor(document.getUploadedAt(), document.getId());
+    }
+
+    public String encode() {
+        String raw = at.toEpochMilli() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // null or blank means "first page"
+    public static GrievanceCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            if (sep <= 0 || sep == raw.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new GrievanceCursor(Instant.ofEpochMilli(Long.parseLong(raw.substring(0, sep))),
+                    raw.substring(sep + 1));
+        } catch (IllegalArgumentException e) {
+            // also covers bad base64 and NumberFormatException
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
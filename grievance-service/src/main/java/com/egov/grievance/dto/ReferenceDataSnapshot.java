@@ -0,0 +1,7 @@
+package com.egov.grievance.dto;
+
+import java.util.Map;
+
+// the departments of one loaded reference data version, version is a hash of the source content
+public record ReferenceDataSnapshot(String version, Map<String, Department> departments) {
+}
@@ -0,0 +1,22 @@
+package com.egov.grievance.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GrievanceSlaBreachedEvent {
+
+    private String grievanceId;
+    private String citizenId;
+    private String departmentId;
+    private String assignedOfficerId;
+    private String status;
+
+    private Instant slaDeadline;
+    private Instant breachedAt;
+}
@@ -1,10 +1,16 @@
 package com.egov.grievance.model;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -17,6 +23,23 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "egov_grievances")
+// one index per listing filter: equality fields first, then the (createdAt, _id) page order
+@CompoundIndexes({
+    @CompoundIndex(name = "created_page", def = "{'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "status_page", def = "{'status': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "department_page", def = "{'departmentId': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "department_status_page", def = "{'departmentId': 1, 'status': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "officer_page", def = "{'assignedOfficerId': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "officer_status_page", def = "{'assignedOfficerId': 1, 'status': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "citizen_page", def = "{'citizenId': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "citizen_status_page", def = "{'citizenId': 1, 'status': 1, 'createdAt': -1, '_id': -1}"),
+    // sla breach range scans: status IN (open) and slaDeadline < now, optionally per department, paged on (slaDeadline, _id)
+    @CompoundIndex(name = "status_sla_page", def = "{'status': 1, 'slaDeadline': 1, '_id': 1}"),
+    @CompoundIndex(name = "department_status_sla_page", def = "{'departmentId': 1, 'status': 1, 'slaDeadline': 1, '_id': 1}"),
+    // only grievances with unpublished events are in this index, which is all the outbox relay scans
+    @CompoundIndex(name = "outbox_pending", def = "{'outbox.createdAt': 1}",
+            partialFilter = "{'outbox.createdAt': {'$exists': true}}")
+})
 public class Grievance {
 
     @Id
@@ -50,4 +73,32 @@ public class Grievance {
     private Instant updatedAt;
 
     private Instant resolvedAt;
+
+    // createdAt + the department/category sla hours, fixed when the grievance is filed
+    private Instant slaDeadline;
+
+    // set once by the sla watchdog when it claims the breach, so it is raised only once
+    private Instant slaBreachedAt;
+
+    // bumped by every conditional write, a transition only applies to the version it was decided on
+    @JsonIgnore
+    private Long version;
+
+    // events not yet relayed to kafka, saved together with the change they describe
+    @JsonIgnore
+    private List<OutboxEvent> outbox;
+
+    // lease of the OutboxRelay instance currently publishing the outbox
+    @JsonIgnore
+    private String outboxClaimedBy;
+
+    @JsonIgnore
+    private Instant outboxClaimedUntil;
+
+    public void addOutboxEvent(OutboxEvent event) {
+        if (outbox == null) {
+            outbox = new ArrayList<>();
+        }
+        outbox.add(event);
+    }
 }
@@ -3,6 +3,7 @@ package com.egov.grievance.model;
 import java.time.Instant;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.AllArgsConstructor;
@@ -19,10 +20,13 @@ public class GrievanceDocument
 {
     @Id
     private String id;
+    @Indexed
     private String grievanceId;
     private String uploadedBy;
     private String fileName;
     private String fileType;
     private String filePath;
+    private long size;
+    private String sha256;
     private Instant uploadedAt;
 }
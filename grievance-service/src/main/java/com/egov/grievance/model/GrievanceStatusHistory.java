@@ -3,6 +3,7 @@ package com.egov.grievance.model;
 import java.time.Instant;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.AllArgsConstructor;
@@ -21,6 +22,7 @@ public class GrievanceStatusHistory {
     @Id
     private String id;
 
+    @Indexed
     private String grievanceId;
 
     private GRIEVANCE_STATUS oldStatus;
@@ -0,0 +1,61 @@
+package com.egov.grievance.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import com.egov.grievance.event.GrievanceSlaBreachedEvent;
+import com.egov.grievance.event.GrievanceStatusChangedEvent;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// a kafka record waiting on its grievance document until OutboxRelay has published it
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    public static final String STATUS_CHANGED_TOPIC = "grievance-status-changed";
+    public static final String SLA_BREACHED_TOPIC = "grievance-sla-breached";
+
+    private String eventId;
+
+    private String topic;
+
+    private String key;
+
+    private GrievanceStatusChangedEvent payload;
+
+    // set instead of payload on grievance-sla-breached events
+    private GrievanceSlaBreachedEvent slaBreached;
+
+    private Instant createdAt;
+
+    public static OutboxEvent statusChanged(GrievanceStatusChangedEvent event) {
+        return OutboxEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .topic(STATUS_CHANGED_TOPIC)
+                .key(event.getGrievanceId())
+                .payload(event)
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    public static OutboxEvent slaBreached(GrievanceSlaBreachedEvent event) {
+        return OutboxEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .topic(SLA_BREACHED_TOPIC)
+                .key(event.getGrievanceId())
+                .slaBreached(event)
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    // the record value sent to the topic
+    public Object message() {
+        return payload != null ? payload : slaBreached;
+    }
+}
@@ -6,6 +6,7 @@ import com.egov.grievance.model.GrievanceDocument;
 
 import reactor.core.publisher.Flux;
 
-public interface GrievanceDocumentRepository extends ReactiveMongoRepository<GrievanceDocument, String> {
+public interface GrievanceDocumentRepository extends ReactiveMongoRepository<GrievanceDocument, String>,
+        GrievanceDocumentRepositoryCustom {
     Flux<GrievanceDocument> findByGrievanceId(String grievanceId);
 }
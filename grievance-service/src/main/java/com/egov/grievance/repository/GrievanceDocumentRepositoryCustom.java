@@ -0,0 +1,12 @@
+package com.egov.grievance.repository;
+
+import com.egov.grievance.dto.GrievanceCursor;
+import com.egov.grievance.model.GrievanceDocument;
+
+import reactor.core.publisher.Flux;
+
+public interface GrievanceDocumentRepositoryCustom {
+
+	// keyset page of one grievance's documents ordered by uploadedAt asc, id asc
+	Flux<GrievanceDocument> findPage(String grievanceId, GrievanceCursor after, int limit);
+}
@@ -5,6 +5,7 @@ import com.egov.grievance.model.GrievanceStatusHistory;
 
 import reactor.core.publisher.Flux;
 
-public interface GrievanceHistoryRepository extends ReactiveMongoRepository<GrievanceStatusHistory, String> {
+public interface GrievanceHistoryRepository extends ReactiveMongoRepository<GrievanceStatusHistory, String>,
+		GrievanceHistoryRepositoryCustom {
 	Flux<GrievanceStatusHistory> findByGrievanceId(String grievanceId);
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.egov.grievance.repository;
+
+import com.egov.grievance.dto.GrievanceCursor;
+import com.egov.grievance.model.GrievanceStatusHistory;
+
+import reactor.core.publisher.Flux;
+
+public interface GrievanceHistoryRepositoryCustom {
+
+	// keyset page of one grievance's history ordered by changedAt asc, id asc
+	Flux<GrievanceStatusHistory> findPage(String grievanceId, GrievanceCursor after, int limit);
+}
@@ -0,0 +1,24 @@
+package com.egov.grievance.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import com.egov.grievance.dto.GrievanceCursor;
+import com.egov.grievance.model.GrievanceStatusHistory;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+
+@RequiredArgsConstructor
+public class GrievanceHistoryRepositoryCustomImpl implements GrievanceHistoryRepositoryCustom {
+
+	private final ReactiveMongoTemplate mongoTemplate;
+
+	@Override
+	public Flux<GrievanceStatusHistory> findPage(String grievanceId, GrievanceCursor after, int limit) {
+		return mongoTemplate.find(GrievanceRepositoryCustomImpl.keysetQuery(where("grievanceId").is(grievanceId),
+				"changedAt", Sort.Direction.ASC, after, limit), GrievanceStatusHistory.class);
+	}
+}
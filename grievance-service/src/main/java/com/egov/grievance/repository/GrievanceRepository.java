@@ -1,5 +1,8 @@
 package com.egov.grievance.repository;
 
+import java.time.Instant;
+import java.util.Collection;
+
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 
 import com.egov.grievance.model.GRIEVANCE_STATUS;
@@ -7,7 +10,7 @@ import com.egov.grievance.model.Grievance;
 
 import reactor.core.publisher.Flux;
 
-public interface GrievanceRepository extends ReactiveMongoRepository<Grievance, String> {
+public interface GrievanceRepository extends ReactiveMongoRepository<Grievance, String>, GrievanceRepositoryCustom {
 
 	Flux<Grievance> findByCitizenId(String citizenId);
 
@@ -22,4 +25,8 @@ public interface GrievanceRepository extends ReactiveMongoRepository<Grievance,
     Flux<Grievance> findByAssignedOfficerIdAndStatus(String assignedOfficerId, GRIEVANCE_STATUS status);
 	
 	Flux<Grievance> findByCitizenIdAndStatus(String citizenId, GRIEVANCE_STATUS status);
+
+	Flux<Grievance> findBySlaDeadlineAfterAndStatusIn(Instant from, Collection<GRIEVANCE_STATUS> statuses);
+
+	Flux<Grievance> findBySlaDeadlineIsNullAndStatusIn(Collection<GRIEVANCE_STATUS> statuses);
 }
@@ -0,0 +1,23 @@
+package com.egov.grievance.repository;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import com.egov.grievance.dto.GrievanceCursor;
+import com.egov.grievance.model.Grievance;
+import com.egov.grievance.model.OutboxEvent;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface GrievanceRepositoryCustom {
+
+	// keyset page ordered by createdAt desc, id desc - starts right after the cursor when given
+	Flux<Grievance> findPage(Criteria filter, GrievanceCursor after, int limit);
+
+	// keyset page ordered by slaDeadline asc, id asc - the longest overdue first
+	Flux<Grievance> findSlaBreachPage(Criteria filter, GrievanceCursor after, int limit);
+
+	// writes a status transition only if the grievance is still at the version it was read with, appending
+	// the event to the outbox - fails with OptimisticLockingFailureException when someone else got there first
+	Mono<Grievance> saveTransition(Grievance grievance, OutboxEvent event);
+}
@@ -0,0 +1,101 @@
+package com.egov.grievance.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import java.util.Set;
+
+import org.bson.Document;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.egov.grievance.dto.GrievanceCursor;
+import com.egov.grievance.model.Grievance;
+import com.egov.grievance.model.OutboxEvent;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+public class GrievanceRepositoryCustomImpl implements GrievanceRepositoryCustom {
+
+
+	static final Sort PAGE_ORDER = keysetOrder("createdAt", Sort.Direction.DESC);
+
+	// written by OutboxRelay with $pull and its lease, a transition only ever appends to the outbox
+	static final Set<String> RELAY_FIELDS = Set.of("outbox", "outboxClaimedBy", "outboxClaimedUntil");
+
+	private final ReactiveMongoTemplate mongoTemplate;
+
+	@Override
+	public Flux<Grievance> findPage(Criteria filter, GrievanceCursor after, int limit) {
+		return mongoTemplate.find(pageQuery(filter, after, limit), Grievance.class);
+	}
+
+	@Override
+	public Flux<Grievance> findSlaBreachPage(Criteria filter, GrievanceCursor after, int limit) {
+		return mongoTemplate.find(keysetQuery(filter, "slaDeadline", Sort.Direction.ASC, after, limit), Grievance.class);
+	}
+
+	@Override
+	public Mono<Grievance> saveTransition(Grievance grievance, OutboxEvent event) {
+		return mongoTemplate.findAndModify(transitionQuery(grievance),
+						transitionUpdate(mongoTemplate.getConverter(), grievance, event),
+						FindAndModifyOptions.options().returnNew(true), Grievance.class)
+				.switchIfEmpty(Mono.error(() -> new OptimisticLockingFailureException(
+						"Grievance " + grievance.getId() + " changed since it was read")));
+	}
+
+	// a missing version (documents written before versions were kept) matches null
+	static Query transitionQuery(Grievance grievance) {
+		return Query.query(where("_id").is(grievance.getId()).and("version").is(grievance.getVersion()));
+	}
+
+	// $set for every field the service owns ($unset when it became null), $push for the event
+	static Update transitionUpdate(MongoConverter converter, Grievance grievance, OutboxEvent event) {
+		Document written = new Document();
+		converter.write(grievance, written);
+		Update update = new Update();
+		for (MongoPersistentProperty property : converter.getMappingContext().getRequiredPersistentEntity(Grievance.class)) {
+			String field = property.getFieldName();
+			if (property.isIdProperty() || "version".equals(field) || RELAY_FIELDS.contains(field)) {
+				continue;
+			}
+			if (written.get(field) != null) {
+				update.set(field, written.get(field));
+			} else {
+				update.unset(field);
+			}
+		}
+		return update.push("outbox", event).inc("version", 1);
+	}
+
+	static Query pageQuery(Criteria filter, GrievanceCursor after, int limit) {
+		return keysetQuery(filter, "createdAt", Sort.Direction.DESC, after, limit);
+	}
+
+	// the range on (field, _id) lets mongo seek straight to the cursor, so deep pages cost the same as the first
+	static Query keysetQuery(Criteria filter, String field, Sort.Direction direction, GrievanceCursor after, int limit) {
+		Criteria criteria = filter;
+		if (after != null) {
+			boolean asc = direction.isAscending();
+			Criteria keyset = new Criteria().orOperator(
+					asc ? where(field).gt(after.getAt()) : where(field).lt(after.getAt()),
+					asc ? where(field).is(after.getAt()).and("_id").gt(after.getId())
+							: where(field).is(after.getAt()).and("_id").lt(after.getId()));
+			criteria = new Criteria().andOperator(filter, keyset);
+		}
+		return new Query(criteria).with(keysetOrder(field, direction)).limit(limit);
+	}
+
+	static Sort keysetOrder(String field, Sort.Direction direction) {
+		return Sort.by(direction, field).and(Sort.by(direction, "_id"));
+	}
+}
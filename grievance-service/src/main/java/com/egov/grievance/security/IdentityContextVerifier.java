@@ -0,0 +1,71 @@
+package com.egov.grievance.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Verifies the X-USER-CONTEXT header signed by the api-gateway.
+ * Format: base64url(userId \n role \n departmentId \n tokenVersion \n issuedAtEpochSeconds) "." base64url(hmac-sha256)
+ */
+public class IdentityContextVerifier {
+
+    public static final String HEADER = "X-USER-CONTEXT";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+    private final long maxAgeSeconds;
+
+    public IdentityContextVerifier(String secret, Duration maxAge) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.maxAgeSeconds = maxAge.toSeconds();
+    }
+
+    // context is only trusted when the signature holds, it is fresh and it matches the forwarded user headers
+    public Optional<IdentityContext> verify(String header, String userId, String role) {
+        if (header == null || userId == null || role == null) {
+            return Optional.empty();
+        }
+        int dot = header.indexOf('.');
+        if (dot <= 0) {
+            return Optional.empty();
+        }
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            byte[] payload = decoder.decode(header.substring(0, dot));
+            byte[] signature = decoder.decode(header.substring(dot + 1));
+            if (!MessageDigest.isEqual(hmac(payload), signature)) {
+                return Optional.empty();
+            }
+            String[] parts = new String(payload, StandardCharsets.UTF_8).split("\n", -1);
+            if (parts.length != 5 || !parts[0].equals(userId) || !parts[1].equals(role)) {
+                return Optional.empty();
+            }
+            long age = Instant.now().getEpochSecond() - Long.parseLong(parts[4]);
+            if (age < -maxAgeSeconds || age > maxAgeSeconds) {
+                return Optional.empty();
+            }
+            return Optional.of(new IdentityContext(parts[0], parts[1], parts[2].isEmpty() ? null : parts[2],
+                    Long.parseLong(parts[3])));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] hmac(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to verify identity context", e);
+        }
+    }
+}
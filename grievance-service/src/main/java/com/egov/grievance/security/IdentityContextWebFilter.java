@@ -0,0 +1,35 @@
+package com.egov.grievance.security;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import reactor.core.publisher.Mono;
+
+// puts a verified gateway identity context into the reactor context for the service layer
+@Component
+public class IdentityContextWebFilter implements WebFilter {
+
+    private final IdentityContextVerifier verifier;
+
+    public IdentityContextWebFilter(
+            @Value("${identity-context.secret:${jwt.secret:egov-secret-key-should-be-very-long-and-secure-256bit}}") String secret,
+            @Value("${identity-context.max-age:60s}") Duration maxAge) {
+        this.verifier = new IdentityContextVerifier(secret, maxAge);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        return verifier.verify(headers.getFirst(IdentityContextVerifier.HEADER),
+                        headers.getFirst("X-USER-ID"),
+                        headers.getFirst("X-USER-ROLE"))
+                .map(identity -> chain.filter(exchange).contextWrite(ctx -> ctx.put(IdentityContext.class, identity)))
+                .orElseGet(() -> chain.filter(exchange));
+    }
+}
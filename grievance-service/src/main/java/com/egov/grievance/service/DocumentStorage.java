@@ -0,0 +1,171 @@
+package com.egov.grievance.service;
+
+import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Writes uploaded files under uploads/{grievanceId}/{id} by streaming their buffers to an asynchronous file
+ * channel, one buffer at a time, and hashes them with SHA-256 on the way. Each file gets a fresh ObjectId as
+ * its name on disk, which also becomes its document id, so two uploads with the same submitted name never
+ * share a path. A file over the per-file limit, or one that takes the request over the per-request limit,
+ * fails the upload with 413 and every file already written for that request is removed again.
+ */
+@Component
+public class DocumentStorage {
+
+    private final Path root;
+    private final long maxFileBytes;
+    private final long maxRequestBytes;
+    private final int concurrency;
+
+    @Autowired
+    public DocumentStorage(
+            @Value("${uploads.dir:uploads}") String root,
+            @Value("${uploads.max-file-size:10MB}") DataSize maxFileSize,
+            @Value("${uploads.max-request-size:25MB}") DataSize maxRequestSize,
+            @Value("${uploads.concurrency:2}") int concurrency) {
+        this(Paths.get(root), maxFileSize.toBytes(), maxRequestSize.toBytes(), concurrency);
+    }
+
+    DocumentStorage(Path root, long maxFileBytes, long maxRequestBytes, int concurrency) {
+        this.root = root;
+        this.maxFileBytes = maxFileBytes;
+        this.maxRequestBytes = maxRequestBytes;
+        this.concurrency = concurrency;
+    }
+
+    public record StoredFile(String id, String fileName, String contentType, Path path, long size, String sha256) {
+    }
+
+    public Flux<StoredFile> store(String grievanceId, Flux<FilePart> files) {
+        return Flux.defer(() -> {
+            AtomicLong requestBytes = new AtomicLong();
+            Set<Path> written = ConcurrentHashMap.newKeySet();
+            // on failure the other uploads are cancelled, and whatever this request wrote is dropped
+            return files.flatMap(file -> store(grievanceId, file, requestBytes, written), concurrency)
+                    .onErrorResume(e -> Flux.fromIterable(written)
+                            .concatMap(DocumentStorage::delete)
+                            .then(Mono.error(e)));
+        });
+    }
+
+    // for a caller that could not record the stored files and has to undo the upload
+    public Mono<Void> discard(List<StoredFile> files) {
+        return Flux.fromIterable(files)
+                .concatMap(file -> delete(file.path()))
+                .then();
+    }
+
+    private Mono<StoredFile> store(String grievanceId, FilePart file, AtomicLong requestBytes, Set<Path> written) {
+        String fileName = fileName(file.filename());
+        String id = new ObjectId().toHexString();
+        Path dir = root.resolve(grievanceId);
+        Path path = dir.resolve(id);
+        written.add(path);
+        String contentType = file.headers().getContentType() != null
+                ? file.headers().getContentType().toString()
+                : "application/octet-stream";
+
+        return Mono.fromCallable(() -> Files.createDirectories(dir))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(Mono.using(
+                        () -> AsynchronousFileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                                StandardOpenOption.WRITE),
+                        channel -> {
+                            MessageDigest digest = sha256();
+                            AtomicLong size = new AtomicLong();
+                            Flux<DataBuffer> content = file.content().handle((buffer, sink) -> {
+                                int length = buffer.readableByteCount();
+                                if (size.addAndGet(length) > maxFileBytes) {
+                                    DataBufferUtils.release(buffer);
+                                    sink.error(tooLarge(fileName + " exceeds the " + maxFileBytes
+                                            + " byte limit per file"));
+                                    return;
+                                }
+                                if (requestBytes.addAndGet(length) > maxRequestBytes) {
+                                    DataBufferUtils.release(buffer);
+                                    sink.error(tooLarge("attachments exceed the " + maxRequestBytes
+                                            + " byte limit per request"));
+                                    return;
+                                }
+                                // read only views, the buffer's read position is left for the write
+                                try (DataBuffer.ByteBufferIterator views = buffer.readableByteBuffers()) {
+                                    while (views.hasNext()) {
+                                        digest.update(views.next());
+                                    }
+                                }
+                                sink.next(buffer);
+                            });
+                            return DataBufferUtils.write(content, channel)
+                                    .doOnNext(DataBufferUtils::release)
+                                    .then(Mono.fromSupplier(() -> new StoredFile(id, fileName, contentType, path,
+                                            size.get(), HexFormat.of().formatHex(digest.digest()))));
+                        },
+                        DocumentStorage::close));
+    }
+
+    // only the last path element counts. the name is only shown again on download, it never becomes a path
+    static String fileName(String submitted) {
+        Path name = submitted == null ? null : Paths.get(submitted.replace('\\', '/')).getFileName();
+        if (name == null || name.toString().isBlank() || name.toString().equals("..")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid file name");
+        }
+        return name.toString();
+    }
+
+    private static Mono<Void> delete(Path path) {
+        return Mono.<Void>fromRunnable(() -> {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                // a leftover file is orphaned under an id no document refers to
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static void close(AsynchronousFileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // nothing left to flush, the write already completed or failed
+        }
+    }
+
+    private static ResponseStatusException tooLarge(String reason) {
+        return new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, reason);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -1,22 +1,25 @@
 package com.egov.grievance.service;
 
-import com.egov.grievance.event.GrievanceStatusChangedEvent;
+import com.egov.grievance.model.OutboxEvent;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
-@Slf4j
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @RequiredArgsConstructor
 public class GrievanceEventPublisher {
 
-    private static final String TOPIC = "grievance-status-changed";
-
     private final KafkaTemplate<String, Object> kafkaTemplate;
 
-    public void publishStatusChange(GrievanceStatusChangedEvent event) {
-        kafkaTemplate.send(TOPIC, event);
-        log.info("Published grievance status change event: {}", event);
+    // completes once the broker acked the record, a send that cannot even start fails the future too
+    public CompletableFuture<SendResult<String, Object>> publish(OutboxEvent event) {
+        try {
+            return kafkaTemplate.send(event.getTopic(), event.getKey(), event.message());
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
     }
 }
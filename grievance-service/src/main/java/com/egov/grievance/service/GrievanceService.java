@@ -1,37 +1,47 @@
 package com.egov.grievance.service;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
 import java.time.Duration;
 import java.time.Instant;
-import java.io.File;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import org.bson.types.ObjectId;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.stereotype.Service;
-import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreaker;
-import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.query.Criteria;
 
 import com.egov.grievance.dto.CreateGrievanceRequest;
+import com.egov.grievance.dto.GrievanceCursor;
 import com.egov.grievance.dto.UserResponse;
 import com.egov.grievance.event.GrievanceStatusChangedEvent;
-import com.egov.grievance.exception.ServiceUnavailableException;
 import com.egov.grievance.model.GRIEVANCE_STATUS;
 import com.egov.grievance.model.Grievance;
 import com.egov.grievance.model.GrievanceDocument;
 import com.egov.grievance.model.GrievanceStatusHistory;
+import com.egov.grievance.model.OutboxEvent;
 import com.egov.grievance.repository.GrievanceDocumentRepository;
 import com.egov.grievance.repository.GrievanceHistoryRepository;
 import com.egov.grievance.repository.GrievanceRepository;
+import com.egov.grievance.security.IdentityContext;
 
 import org.springframework.web.reactive.function.client.WebClient;
 
 import lombok.RequiredArgsConstructor;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
 
 @Service
 @RequiredArgsConstructor
@@ -43,17 +53,31 @@ public class GrievanceService {
 	private static final String GRIEVANCE_NOT_FOUND = "Grievance not found";
 	private static final String SUPERVISOR_NOT_FOUND = "Supervisor not found";
 	private static final String ACCESS_DENIED = "Access Denied";
+	private static final String DEPARTMENT_ID = "departmentId";
+	private static final String CITIZEN_ID = "citizenId";
+	private static final String ASSIGNED_OFFICER_ID = "assignedOfficerId";
+	private static final String STATUS = "status";
+
+	public static final int DEFAULT_PAGE_SIZE = 50;
+	public static final Set<GRIEVANCE_STATUS> OPEN_STATUSES =
+			EnumSet.complementOf(EnumSet.of(GRIEVANCE_STATUS.RESOLVED, GRIEVANCE_STATUS.CLOSED));
+	public static final int MAX_PAGE_SIZE = 200;
+	// a transition that lost the race to another write is decided again on the fresh document
+	private static final Retry TRANSITION_RETRY = Retry.max(3)
+			.filter(OptimisticLockingFailureException.class::isInstance)
+			.onRetryExhaustedThrow((spec, signal) -> new ResponseStatusException(HttpStatus.CONFLICT,
+					"Grievance was changed concurrently, try again"));
 
     private final GrievanceRepository grievanceRepository;
     private final GrievanceDocumentRepository grievanceDocumentRepository;
     private final GrievanceHistoryService grievanceHistoryService;
     private final ReferenceDataService referenceDataService;
     private final WebClient.Builder webClientBuilder;
-    private final GrievanceEventPublisher grievanceEventPublisher;
     private final GrievanceHistoryRepository grievanceHistoryRepository;
-
-    private static final String USER_SERVICE_CB = "userServiceCB";
-    private final ReactiveCircuitBreakerFactory<?, ?> circuitBreakerFactory;
+    private final UserProfileCache userProfileCache;
+    private final UserBatchClient userBatchClient;
+    private final SlaWatchdog slaWatchdog;
+    private final DocumentStorage documentStorage;
 
     public Mono<String> createGrievance(String userId, String role, CreateGrievanceRequest request,
             Flux<FilePart> files) {
@@ -62,8 +86,12 @@ public class GrievanceService {
         }
         return referenceDataService
                 .validateDepartmentAndCategory(request.getDepartmentId(), request.getCategoryId())
-                .then(Mono.defer(() -> {
+                .then(referenceDataService.getSlaHours(request.getDepartmentId(), request.getCategoryId()))
+                .flatMap(slaHours -> {
+                    Instant createdAt = Instant.now();
+                    // id assigned up front so the SUBMITTED event can be stored with the insert
                     Grievance grievance = Grievance.builder()
+                            .id(new ObjectId().toHexString())
                             .citizenId(userId)
                             .departmentId(request.getDepartmentId())
                             .categoryId(request.getCategoryId())
@@ -71,33 +99,31 @@ public class GrievanceService {
                             .description(request.getDescription())
                             .status(GRIEVANCE_STATUS.SUBMITTED)
                             .isEscalated(false)
-                            .createdAt(Instant.now())
-                            .updatedAt(Instant.now())
+                            .createdAt(createdAt)
+                            .updatedAt(createdAt)
+                            .slaDeadline(createdAt.plus(Duration.ofHours(slaHours)))
                             .build();
-                    return grievanceRepository.save(grievance);
-                }))
-                .flatMap(savedGrievance -> {
-                    Flux<FilePart> fileFlux = files != null ? files : Flux.empty();
-                    return fileFlux
-                            .flatMap(file -> saveFile(file, savedGrievance.getId(), userId))
-                            .then()
-                            .then(grievanceHistoryService.createInitialHistory(
-                                    savedGrievance.getId(),
-                                    userId))
-                            .then(Mono.fromRunnable(() -> {
-                                grievanceEventPublisher.publishStatusChange(
-                                        new GrievanceStatusChangedEvent(
-                                                savedGrievance.getId(),
-                                                savedGrievance.getCitizenId(),
-                                                savedGrievance.getDepartmentId(),
-                                                null, // no officer yet
-                                                null, // no old status yet
-                                                GRIEVANCE_STATUS.SUBMITTED.name(),
-                                                userId,
-                                                Instant.now()));
-                            }))
-                            .thenReturn(savedGrievance.getId());
-                });
+                    // a new document, so the event simply goes in with the insert
+                    grievance.addOutboxEvent(OutboxEvent.statusChanged(new GrievanceStatusChangedEvent(
+                            grievance.getId(),
+                            userId,
+                            grievance.getDepartmentId(),
+                            null, // no officer yet
+                            null, // no old status yet
+                            GRIEVANCE_STATUS.SUBMITTED.name(),
+                            userId,
+                            createdAt)));
+                    // the attachments go first and the insert is the last write, so a rejected upload (413)
+                    // leaves neither a grievance nor its SUBMITTED event behind
+                    return saveFiles(files != null ? files : Flux.empty(), grievance.getId(), userId)
+                            .flatMap(stored -> grievanceRepository.save(grievance)
+                                    .onErrorResume(e -> discardFiles(stored).then(Mono.error(e))))
+                            .doOnNext(slaWatchdog::onStatusChange);
+                })
+                .flatMap(savedGrievance -> grievanceHistoryService.createInitialHistory(
+                                savedGrievance.getId(),
+                                userId)
+                        .thenReturn(savedGrievance.getId()));
     }
 
     public Mono<Void> assignGrievance(String grievanceId, String assignedBy, String role, String officerId) {
@@ -118,7 +144,7 @@ public class GrievanceService {
                     // if assigned by SUPERVISOR -validate their department
                     Mono<Void> supervisorValidation;
                     if (ROLE_SUPERVISOR.equalsIgnoreCase(role)) {
-                        supervisorValidation = fetchUserById(assignedBy, "Assigned By user not found")
+                        supervisorValidation = fetchCaller(assignedBy, "Assigned By user not found")
                                 .flatMap(supervisor -> {
                                     if (!grievance.getDepartmentId().equals(supervisor.getDepartmentId())) {
                                         return Mono.error( new ResponseStatusException(HttpStatus.FORBIDDEN,"Supervisor can only assign grievances for their own department"));
@@ -152,26 +178,23 @@ public class GrievanceService {
                                 grievance.setStatus(GRIEVANCE_STATUS.ASSIGNED);
                                 grievance.setUpdatedAt(Instant.now());
 
-                                return grievanceRepository.save(grievance)
+                                return saveStatusChange(grievance, new GrievanceStatusChangedEvent(
+                                        grievanceId,
+                                        grievance.getCitizenId(),
+                                        grievance.getDepartmentId(),
+                                        officerId,
+                                        oldStatus.name(),
+                                        GRIEVANCE_STATUS.ASSIGNED.name(),
+                                        assignedBy,
+                                        Instant.now()))
                                         .then(grievanceHistoryService
                                                 .addHistory(grievanceId,
                                                         oldStatus,
                                                         GRIEVANCE_STATUS.ASSIGNED,
-                                                        assignedBy))
-                                        .then(Mono.fromRunnable(() -> 
-                                            grievanceEventPublisher.publishStatusChange(
-                                                    new GrievanceStatusChangedEvent(
-                                                            grievanceId,
-                                                            grievance.getCitizenId(),
-                                                            grievance.getDepartmentId(),
-                                                            officerId,
-                                                            oldStatus.name(),
-                                                            GRIEVANCE_STATUS.ASSIGNED.name(),
-                                                            assignedBy,
-                                                            Instant.now()))
-                                        ));
+                                                        assignedBy));
                             }));
-                });
+                })
+                .retryWhen(TRANSITION_RETRY);
     }
 
     public Mono<Void> markInReview(
@@ -198,25 +221,22 @@ public class GrievanceService {
                     GRIEVANCE_STATUS oldStatus = grievance.getStatus();
                     grievance.setStatus(GRIEVANCE_STATUS.IN_REVIEW);
                     grievance.setUpdatedAt(Instant.now());
-                    return grievanceRepository.save(grievance)
+                    return saveStatusChange(grievance, new GrievanceStatusChangedEvent(
+                            grievanceId,
+                            grievance.getCitizenId(),
+                            grievance.getDepartmentId(),
+                            grievance.getAssignedOfficerId(),
+                            oldStatus.name(),
+                            GRIEVANCE_STATUS.IN_REVIEW.name(),
+                            officerId,
+                            Instant.now()))
                             .then(grievanceHistoryService.addHistory(
                                     grievanceId,
                                     oldStatus,
                                     GRIEVANCE_STATUS.IN_REVIEW,
-                                    officerId))
-                            .then(Mono.fromRunnable(() -> 
-                                grievanceEventPublisher.publishStatusChange(
-                                        new GrievanceStatusChangedEvent(
-                                                grievanceId,
-                                                grievance.getCitizenId(),
-                                                grievance.getDepartmentId(),
-                                                grievance.getAssignedOfficerId(),
-                                                oldStatus.name(),
-                                                GRIEVANCE_STATUS.IN_REVIEW.name(),
-                                                officerId,
-                                                Instant.now()))
-                            ));
-                });
+                                    officerId));
+                })
+                .retryWhen(TRANSITION_RETRY);
     }
 
     public Mono<Void> resolveGrievance(
@@ -250,25 +270,23 @@ public class GrievanceService {
                     grievance.setResolvedAt(Instant.now());
                     grievance.setUpdatedAt(Instant.now());
 
-                    return grievanceRepository.save(grievance)
+                    return saveStatusChange(grievance, new GrievanceStatusChangedEvent(
+                            grievanceId,
+                            grievance.getCitizenId(),
+                            grievance.getDepartmentId(),
+                            grievance.getAssignedOfficerId(),
+                            oldStatus.name(),
+                            GRIEVANCE_STATUS.RESOLVED.name(),
+                            officerId,
+                            Instant.now()))
+                            .doOnNext(slaWatchdog::onStatusChange)
                             .then(grievanceHistoryService.addHistory(
                                     grievanceId,
                                     oldStatus,
                                     GRIEVANCE_STATUS.RESOLVED,
-                                    officerId))
-                            .then(Mono.fromRunnable(() -> 
-                                grievanceEventPublisher.publishStatusChange(
-                                        new GrievanceStatusChangedEvent(
-                                                grievanceId,
-                                                grievance.getCitizenId(),
-                                                grievance.getDepartmentId(),
-                                                grievance.getAssignedOfficerId(),
-                                                oldStatus.name(),
-                                                GRIEVANCE_STATUS.RESOLVED.name(),
-                                                officerId,
-                                                Instant.now()))
-                            ));
-                });
+                                    officerId));
+                })
+                .retryWhen(TRANSITION_RETRY);
     }
 
     public Mono<Void> closeGrievance(
@@ -298,25 +316,23 @@ public class GrievanceService {
                     grievance.setStatus(GRIEVANCE_STATUS.CLOSED);
                     grievance.setUpdatedAt(Instant.now());
 
-                    return grievanceRepository.save(grievance)
+                    return saveStatusChange(grievance, new GrievanceStatusChangedEvent(
+                            grievanceId,
+                            grievance.getCitizenId(),
+                            grievance.getDepartmentId(),
+                            grievance.getAssignedOfficerId(),
+                            oldStatus.name(),
+                            GRIEVANCE_STATUS.CLOSED.name(),
+                            userId,
+                            Instant.now()))
+                            .doOnNext(slaWatchdog::onStatusChange)
                             .then(grievanceHistoryService.addHistory(
                                     grievanceId,
                                     oldStatus,
                                     GRIEVANCE_STATUS.CLOSED,
-                                    userId))
-                            .then(Mono.fromRunnable(() -> 
-                                grievanceEventPublisher.publishStatusChange(
-                                        new GrievanceStatusChangedEvent(
-                                                grievanceId,
-                                                grievance.getCitizenId(),
-                                                grievance.getDepartmentId(),
-                                                grievance.getAssignedOfficerId(),
-                                                oldStatus.name(),
-                                                GRIEVANCE_STATUS.CLOSED.name(),
-                                                userId,
-                                                Instant.now()))
-                            ));
-                });
+                                    userId));
+                })
+                .retryWhen(TRANSITION_RETRY);
     }
 
     public Mono<Void> reopenGrievance(
@@ -360,25 +376,23 @@ public class GrievanceService {
                     grievance.setAssignedOfficerId(null);
                     grievance.setIsEscalated(false);
 
-                    return grievanceRepository.save(grievance)
+                    return saveStatusChange(grievance, new GrievanceStatusChangedEvent(
+                            grievanceId,
+                            grievance.getCitizenId(),
+                            grievance.getDepartmentId(),
+                            null, // no officer after reopen
+                            oldStatus.name(),
+                            GRIEVANCE_STATUS.REOPENED.name(),
+                            citizenId,
+                            Instant.now()))
+                            .doOnNext(slaWatchdog::onStatusChange)
                             .then(grievanceHistoryService.addHistory(
                                     grievanceId,
                                     oldStatus,
                                     GRIEVANCE_STATUS.REOPENED,
-                                    citizenId))
-                            .then(Mono.fromRunnable(() -> 
-                                grievanceEventPublisher.publishStatusChange(
-                                        new GrievanceStatusChangedEvent(
-                                                grievanceId,
-                                                grievance.getCitizenId(),
-                                                grievance.getDepartmentId(),
-                                                null, // no officer after reopen
-                                                oldStatus.name(),
-                                                GRIEVANCE_STATUS.REOPENED.name(),
-                                                citizenId,
-                                                Instant.now()))
-                            ));
-                });
+                                    citizenId));
+                })
+                .retryWhen(TRANSITION_RETRY);
     }
 
     public Flux<Grievance> getGrievancesByCitizen(String citizenId) {
@@ -403,16 +417,17 @@ public class GrievanceService {
                     if (Boolean.TRUE.equals(grievance.getIsEscalated())) {
                         return Mono.error(new IllegalArgumentException("Grievance already escalated"));
                     }
-                    // SLA check
-                    return referenceDataService
-                            .getSlaHours(grievance.getDepartmentId(),
-                                    grievance.getCategoryId())
-                            .flatMap(slaHours -> {
-                                long hoursElapsed = Duration
-                                        .between(grievance.getCreatedAt(), Instant.now())
-                                        .toHours();
-
-                                if (hoursElapsed <= slaHours) {
+                    // SLA check - against the deadline fixed at creation, the same one /sla-breaches lists,
+                    // so a later change to the sla table cannot move it; only grievances stored before
+                    // deadlines were kept fall back to the current sla hours
+                    Mono<Instant> slaDeadline = grievance.getSlaDeadline() != null
+                            ? Mono.just(grievance.getSlaDeadline())
+                            : referenceDataService
+                                    .getSlaHours(grievance.getDepartmentId(), grievance.getCategoryId())
+                                    .map(slaHours -> grievance.getCreatedAt().plus(Duration.ofHours(slaHours)));
+                    return slaDeadline
+                            .flatMap(deadline -> {
+                                if (!Instant.now().isAfter(deadline)) {
                                     return Mono.error(new IllegalArgumentException("SLA not breached yet"));
                                 }
 
@@ -435,28 +450,31 @@ public class GrievanceService {
                                             grievance.setAssignedOfficerId(supervisorId);
                                             grievance.setUpdatedAt(Instant.now());
 
-                                            return grievanceRepository
-                                                    .save(grievance)
+                                            return saveStatusChange(grievance, new GrievanceStatusChangedEvent(
+                                                    grievanceId,
+                                                    grievance.getCitizenId(),
+                                                    grievance.getDepartmentId(),
+                                                    supervisorId,
+                                                    oldStatus.name(),
+                                                    GRIEVANCE_STATUS.ESCALATED.name(),
+                                                    citizenId,
+                                                    Instant.now()))
                                                     .then(grievanceHistoryService
                                                             .addHistory(grievanceId,
                                                                     oldStatus,
                                                                     GRIEVANCE_STATUS.ESCALATED,
-                                                                    citizenId))
-                                                    .then(Mono.fromRunnable(() -> 
-                                                        grievanceEventPublisher.publishStatusChange(
-                                                                new GrievanceStatusChangedEvent(
-                                                                        grievanceId,
-                                                                        grievance.getCitizenId(),
-                                                                        grievance.getDepartmentId(),
-                                                                        supervisorId,
-                                                                        oldStatus.name(),
-                                                                        GRIEVANCE_STATUS.ESCALATED.name(),
-                                                                        citizenId,
-                                                                        Instant.now()))
-                                                    ));
+                                                                    citizenId));
                                         });
                             });
-                });
+                })
+                .retryWhen(TRANSITION_RETRY);
+    }
+
+    // the event rides on the grievance document itself, so it is stored atomically with the change it
+    // describes and OutboxRelay publishes it once the write has succeeded. the write is conditional on the
+    // version the transition was decided on, so a concurrent transition fails it instead of being overwritten
+    private Mono<Grievance> saveStatusChange(Grievance grievance, GrievanceStatusChangedEvent event) {
+        return grievanceRepository.saveTransition(grievance, OutboxEvent.statusChanged(event));
     }
 
     public Mono<Grievance> getGrievanceById(String grievanceId, String userId, String role) {
@@ -483,7 +501,7 @@ public class GrievanceService {
                     }
 
                     if (ROLE_SUPERVISOR.equalsIgnoreCase(role)) {
-                        return fetchUserById(userId, SUPERVISOR_NOT_FOUND)
+                        return fetchCaller(userId, SUPERVISOR_NOT_FOUND)
                                 .flatMap(supervisor -> {
                                     if (grievance.getDepartmentId().equals(supervisor.getDepartmentId())) {
                                         return Mono.just(grievance);
@@ -499,32 +517,48 @@ public class GrievanceService {
                 });
     }
 
-    private Mono<UserResponse> fetchUserById(String userId, String errorMessage) {
+    // caller's own profile - the gateway signed context already carries the department, so skip user-service,
+    // unless a user-changed event announced a newer token version than the one the context was signed for
+    private Mono<UserResponse> fetchCaller(String userId, String errorMessage) {
+        return Mono.deferContextual(ctx -> ctx.<IdentityContext>getOrEmpty(IdentityContext.class)
+                .filter(identity -> userId.equals(identity.getUserId()) && identity.getDepartmentId() != null)
+                .filter(identity -> identity.getTokenVersion() >= userProfileCache.tokenVersion(userId))
+                .map(identity -> Mono.just(UserResponse.builder()
+                        .id(identity.getUserId())
+                        .role(identity.getRole())
+                        .departmentId(identity.getDepartmentId())
+                        .build()))
+                .orElseGet(() -> fetchUserById(userId, errorMessage)));
+    }
 
-        ReactiveCircuitBreaker cb = circuitBreakerFactory.create(USER_SERVICE_CB);
+    private Mono<UserResponse> fetchUserById(String userId, String errorMessage) {
+        return userProfileCache.get(userId, id -> loadUserById(id, errorMessage));
+    }
 
-        Mono<UserResponse> call = webClientBuilder.build()
-                .get()
-                .uri("http://user-service/users/{id}", userId)
-                .retrieve()
-                .onStatus(HttpStatusCode::is4xxClientError,
-                        response -> Mono.error(new IllegalArgumentException(errorMessage)))
-                .bodyToMono(UserResponse.class);
-        return cb.run(call, ex -> Mono.error(new ServiceUnavailableException("User service unavailable")));
+    // unknown ids come back empty from the batch endpoint
+    private Mono<UserResponse> loadUserById(String userId, String errorMessage) {
+        return userBatchClient.getUser(userId)
+                .switchIfEmpty(Mono.error(new IllegalArgumentException(errorMessage)));
     }
 
-    public Flux<GrievanceStatusHistory> getGrievanceHistory(String grievanceId, String userId, String role) {
-        return getGrievanceById(grievanceId, userId, role)
+    public Flux<GrievanceStatusHistory> getGrievanceHistory(String grievanceId, String userId, String role,
+            String after, int limit) {
+        return checkLimit(limit)
+                .then(Mono.defer(() -> getGrievanceById(grievanceId, userId, role)))
                 // if valid- get history
-                .flatMapMany(grievance -> grievanceHistoryRepository.findByGrievanceId(grievanceId));
+                .flatMapMany(grievance -> grievanceHistoryRepository.findPage(grievanceId,
+                        GrievanceCursor.decode(after), limit));
     }
 
-    public Flux<GrievanceDocument> getGrievanceDocuments(String grievanceId, String userId, String role) {
-        return getGrievanceById(grievanceId, userId, role)
-                .flatMapMany(grievance -> grievanceDocumentRepository.findByGrievanceId(grievanceId));
+    public Flux<GrievanceDocument> getGrievanceDocuments(String grievanceId, String userId, String role,
+            String after, int limit) {
+        return checkLimit(limit)
+                .then(Mono.defer(() -> getGrievanceById(grievanceId, userId, role)))
+                .flatMapMany(grievance -> grievanceDocumentRepository.findPage(grievanceId,
+                        GrievanceCursor.decode(after), limit));
     }
 
-    public Mono<Resource> downloadDocument(String grievanceId, String documentId, String userId, String role) {
+    public Mono<GrievanceDocument> getDocument(String grievanceId, String documentId, String userId, String role) {
         return getGrievanceById(grievanceId, userId, role)
                 .flatMap(grievance -> grievanceDocumentRepository.findById(documentId)
                         .switchIfEmpty(
@@ -534,49 +568,65 @@ public class GrievanceService {
                                 return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
                                         "Document does not belong to this grievance"));
                             }
-                            Path path = Paths.get(doc.getFilePath());
-                            Resource resource = new FileSystemResource(path);
-                            if (resource.exists() && resource.isReadable()) {
-                                return Mono.just(resource);
-                            } else {
-                                return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND,
-                                        "File not found on server"));
-                            }
+                            return Mono.just(doc);
                         }));
     }
 
-    private Mono<Void> saveFile(FilePart filePart, String grievanceId, String userId) {
-        return Mono.fromRunnable(() -> {
-            String uploadDir = "uploads/" + grievanceId;
-            File dir = new java.io.File(uploadDir);
-            if (!dir.exists()) {
-                dir.mkdirs();
-            }
-        }).subscribeOn(reactor.core.scheduler.Schedulers.boundedElastic())
-                .then(Mono.defer(() -> {
-                    String uploadDir = "uploads/" + grievanceId;
-                    String fileName = filePart.filename();
-                    Path filePath = Paths.get(uploadDir, fileName);
-
-                    GrievanceDocument doc = GrievanceDocument.builder()
-                            .grievanceId(grievanceId)
-                            .uploadedBy(userId)
-                            .fileName(fileName)
-                            .fileType(filePart.headers().getContentType() != null
-                                    ? filePart.headers().getContentType().toString()
-                                    : "application/octet-stream")
-                            .filePath(filePath.toString())
-                            .uploadedAt(Instant.now())
-                            .build();
+    // a file system resource, so the response writer can hand it to sendfile instead of copying it through the heap
+    public Mono<Resource> documentFile(GrievanceDocument doc) {
+        return Mono.fromCallable(() -> {
+                    Path path = Paths.get(doc.getFilePath());
+                    return Files.isRegularFile(path) && Files.isReadable(path)
+                            ? (Resource) new FileSystemResource(path)
+                            : null;
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "File not found on server")));
+    }
 
-                    return filePart.transferTo(filePath)
-                            .then(grievanceDocumentRepository.save(doc))
-                            .then();
-                }));
+    // the metadata is only written once every file is on disk, and should that write fail the documents it
+    // did save are removed together with the files, so a failed upload leaves no records behind
+    private Mono<List<DocumentStorage.StoredFile>> saveFiles(Flux<FilePart> files, String grievanceId, String userId) {
+        return documentStorage.store(grievanceId, files)
+                .collectList()
+                .flatMap(stored -> stored.isEmpty()
+                        ? Mono.just(stored)
+                        : grievanceDocumentRepository.saveAll(documents(stored, grievanceId, userId))
+                                .then(Mono.just(stored))
+                                .onErrorResume(e -> discardFiles(stored).then(Mono.error(e))));
     }
 
-    //get by dept and status - optional request parameters
-    public Flux<Grievance> getGrievances(String statusStr, String departmentId, String role, String userId) {
+    private Mono<Void> discardFiles(List<DocumentStorage.StoredFile> stored) {
+        if (stored.isEmpty()) {
+            return Mono.empty();
+        }
+        return grievanceDocumentRepository
+                .deleteAllById(stored.stream().map(DocumentStorage.StoredFile::id).toList())
+                .onErrorResume(cleanup -> Mono.empty())
+                .then(Mono.defer(() -> documentStorage.discard(stored)));
+    }
+
+    private static List<GrievanceDocument> documents(List<DocumentStorage.StoredFile> stored, String grievanceId,
+            String userId) {
+        Instant uploadedAt = Instant.now();
+        return stored.stream()
+                .map(file -> GrievanceDocument.builder()
+                        .id(file.id())
+                        .grievanceId(grievanceId)
+                        .uploadedBy(userId)
+                        .fileName(file.fileName())
+                        .fileType(file.contentType())
+                        .filePath(file.path().toString())
+                        .size(file.size())
+                        .sha256(file.sha256())
+                        .uploadedAt(uploadedAt)
+                        .build())
+                .toList();
+    }
+
+    //get by dept and status - optional request parameters, one keyset page at a time
+    public Flux<Grievance> getGrievances(String statusStr, String departmentId, String role, String userId,
+            String after, int limit) {
         GRIEVANCE_STATUS status = (statusStr != null && !statusStr.isBlank())
                 ? GRIEVANCE_STATUS.valueOf(statusStr.toUpperCase())
                 : null;
@@ -585,111 +635,121 @@ public class GrievanceService {
             // admin can filter or view all
             if (departmentId != null && status != null) {
                 return referenceDataService.validateDepartmentOnly(departmentId)
-                        .thenMany(grievanceRepository.findByDepartmentIdAndStatus(departmentId, status));
+                        .thenMany(page(where(DEPARTMENT_ID).is(departmentId).and(STATUS).is(status), after, limit));
             } else if (departmentId != null) {
                 return referenceDataService.validateDepartmentOnly(departmentId)
-                        .thenMany(grievanceRepository.findByDepartmentId(departmentId));
+                        .thenMany(page(where(DEPARTMENT_ID).is(departmentId), after, limit));
             } else if (status != null) {
-                return grievanceRepository.findByStatus(status);
+                return page(where(STATUS).is(status), after, limit);
             } else {
-                return grievanceRepository.findAll();
+                return page(new Criteria(), after, limit);
             }
         } else if (ROLE_SUPERVISOR.equalsIgnoreCase(role)) {
             // get supervisor profile to get the correct dept id
-            return fetchUserById(userId, SUPERVISOR_NOT_FOUND)
+            return fetchCaller(userId, SUPERVISOR_NOT_FOUND)
                     .flatMapMany(user -> {
                         // use the department from the user profile( ignore the passed deptId)
                         if (status != null) {
-                            return grievanceRepository.findByDepartmentIdAndStatus(user.getDepartmentId(), status);
+                            return page(where(DEPARTMENT_ID).is(user.getDepartmentId()).and(STATUS).is(status),
+                                    after, limit);
                         } else {
-                            return grievanceRepository.findByDepartmentId(user.getDepartmentId());
+                            return page(where(DEPARTMENT_ID).is(user.getDepartmentId()), after, limit);
                         }
                     });
         } else if (ROLE_OFFICER.equalsIgnoreCase(role)) {
             // get officer profile -to validate
-            return fetchUserById(userId, "Officer not found")
+            return fetchCaller(userId, "Officer not found")
                     .flatMapMany(user -> {
                         // pfficer can only view their assigned grievances
                         if (status != null) {
-                            return grievanceRepository.findByAssignedOfficerIdAndStatus(userId, status);
+                            return page(where(ASSIGNED_OFFICER_ID).is(userId).and(STATUS).is(status), after, limit);
                         } else {
-                            return grievanceRepository.findByAssignedOfficerId(userId);
+                            return page(where(ASSIGNED_OFFICER_ID).is(userId), after, limit);
                         }
                     });
         } 
         else if (ROLE_CITIZEN.equalsIgnoreCase(role)) {
             if (status != null) {
-                return grievanceRepository.findByCitizenIdAndStatus(userId, status);
+                return page(where(CITIZEN_ID).is(userId).and(STATUS).is(status), after, limit);
             } else {
-                return grievanceRepository.findByCitizenId(userId);
+                return page(where(CITIZEN_ID).is(userId), after, limit);
             }
         }
         return Flux.empty();
     }
 
-    public Flux<Grievance> getGrievancesByCitizen(String citizenId, String userId, String role) {
+    public Flux<Grievance> getGrievancesByCitizen(String citizenId, String userId, String role, String after,
+            int limit) {
         if (ROLE_ADMIN.equalsIgnoreCase(role)) 
         {
-            return grievanceRepository.findByCitizenId(citizenId)
-                    .switchIfEmpty(Flux.error(new ResponseStatusException(HttpStatus.NOT_FOUND, GRIEVANCE_NOT_FOUND)));
+            return notFoundIfFirstPageEmpty(page(where(CITIZEN_ID).is(citizenId), after, limit), after);
         }
         if (ROLE_CITIZEN.equalsIgnoreCase(role)) {
             if (!citizenId.equals(userId)) {
                  return Flux.error(new ResponseStatusException(HttpStatus.FORBIDDEN, "You can only view your own grievances"));
             }
-            return grievanceRepository.findByCitizenId(citizenId)
-                    .switchIfEmpty(Flux.error(new ResponseStatusException(HttpStatus.NOT_FOUND, GRIEVANCE_NOT_FOUND)));
+            return notFoundIfFirstPageEmpty(page(where(CITIZEN_ID).is(citizenId), after, limit), after);
         }
         return Flux.error(new ResponseStatusException(HttpStatus.FORBIDDEN, ACCESS_DENIED));
     }
 
-    public Flux<Grievance> getGrievancesByDepartment(String departmentId, String userId, String role) {
+    public Flux<Grievance> getGrievancesByDepartment(String departmentId, String userId, String role, String after,
+            int limit) {
         if (ROLE_ADMIN.equalsIgnoreCase(role)) {
             return referenceDataService.validateDepartmentOnly(departmentId)
-                    .thenMany(grievanceRepository.findByDepartmentId(departmentId))
-                    .switchIfEmpty(
-                            Flux.error(new ResponseStatusException(HttpStatus.NOT_FOUND, GRIEVANCE_NOT_FOUND)));
+                    .thenMany(notFoundIfFirstPageEmpty(page(where(DEPARTMENT_ID).is(departmentId), after, limit), after));
         }
         if (ROLE_SUPERVISOR.equalsIgnoreCase(role)) {
-            return fetchUserById(userId, SUPERVISOR_NOT_FOUND)
+            return fetchCaller(userId, SUPERVISOR_NOT_FOUND)
                     .flatMapMany(user -> {
                         if (!user.getDepartmentId().equals(departmentId)) {
                             return Flux.error(new ResponseStatusException(HttpStatus.FORBIDDEN, "You can only view grievances of your own department"));
                         }
-                        return grievanceRepository.findByDepartmentId(departmentId)
-                                .switchIfEmpty(Flux.error(new ResponseStatusException(HttpStatus.NOT_FOUND, GRIEVANCE_NOT_FOUND)));
+                        return notFoundIfFirstPageEmpty(page(where(DEPARTMENT_ID).is(departmentId), after, limit), after);
                     });
         }
         return Flux.error(new ResponseStatusException(HttpStatus.FORBIDDEN, ACCESS_DENIED));
     }
 
-    public Flux<Grievance> getSlaBreaches(String userId, String role) {
+    private Flux<Grievance> page(Criteria filter, String after, int limit) {
+        return checkLimit(limit)
+                .thenMany(Flux.defer(() -> grievanceRepository.findPage(filter, GrievanceCursor.decode(after), limit)));
+    }
+
+    private static Mono<Void> checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return Mono.error(new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE));
+        }
+        return Mono.empty();
+    }
+
+    // an empty later page just means the listing is exhausted
+    private static Flux<Grievance> notFoundIfFirstPageEmpty(Flux<Grievance> page, String after) {
+        if (after != null && !after.isBlank()) {
+            return page;
+        }
+        return page.switchIfEmpty(Flux.error(new ResponseStatusException(HttpStatus.NOT_FOUND, GRIEVANCE_NOT_FOUND)));
+    }
+
+    // escalation needs a breached sla and reopening keeps the old deadline, so the deadline alone decides a breach
+    public Flux<Grievance> getSlaBreaches(String userId, String role, String after, int limit) {
         if (!ROLE_ADMIN.equalsIgnoreCase(role) && !ROLE_SUPERVISOR.equalsIgnoreCase(role)) {
             return Flux.error(new ResponseStatusException(HttpStatus.FORBIDDEN,"Only ADMIN or SUPERVISOR can view SLA breaches"));
         }
 
-        Flux<Grievance> baseBreaches = grievanceRepository.findAll()
-                .filter(g -> g.getStatus() != GRIEVANCE_STATUS.RESOLVED && g.getStatus() != GRIEVANCE_STATUS.CLOSED)
-                .flatMap(grievance -> {
-                    // If already escalated- its at risk.
-                    if (Boolean.TRUE.equals(grievance.getIsEscalated())) {
-                        return Mono.just(grievance);
-                    }
-                    // check sla from data
-                    return referenceDataService.getSlaHours(grievance.getDepartmentId(), grievance.getCategoryId())
-                            .filter(slaHours -> {
-                                long hoursElapsed = Duration.between(grievance.getCreatedAt(), Instant.now()).toHours();
-                                return hoursElapsed > slaHours;
-                            })
-                            .map(sla -> grievance);
-                });
-
         if (ROLE_SUPERVISOR.equalsIgnoreCase(role)) {
-            // get supervisor department to filter
-            return fetchUserById(userId, SUPERVISOR_NOT_FOUND)
-                    .flatMapMany(user -> baseBreaches.filter(g -> user.getDepartmentId().equals(g.getDepartmentId())));
+            // scope the range query to the supervisor's department
+            return checkLimit(limit)
+                    .then(fetchCaller(userId, SUPERVISOR_NOT_FOUND))
+                    .flatMapMany(user -> slaBreachPage(where(DEPARTMENT_ID).is(user.getDepartmentId()), after, limit));
         }
 
-        return baseBreaches;
+        return checkLimit(limit).thenMany(Flux.defer(() -> slaBreachPage(new Criteria(), after, limit)));
+    }
+
+    private Flux<Grievance> slaBreachPage(Criteria filter, String after, int limit) {
+        return grievanceRepository.findSlaBreachPage(
+                filter.and(STATUS).in(OPEN_STATUSES).and("slaDeadline").lt(Instant.now()),
+                GrievanceCursor.decode(after), limit);
     }
 }
@@ -0,0 +1,184 @@
+package com.egov.grievance.service;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.egov.grievance.model.Grievance;
+import com.egov.grievance.model.OutboxEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Publishes the outbox events GrievanceService saves on the grievance document. Each poll picks up
+ * grievances with pending events and claims each one with a lease, so only one instance relays a grievance
+ * at a time. It sends the claimed grievance's events in order, waiting for the broker ack before the next,
+ * then pulls only the acknowledged events off the document and releases the lease. A failed send leaves it
+ * and everything after it for the next poll, and an instance that dies mid-batch only holds its grievances
+ * until the lease runs out, so delivery is at-least-once and in order per grievance.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    // grievances relayed in parallel, events of one grievance always go one at a time
+    private static final int CONCURRENCY = 16;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final GrievanceEventPublisher grievanceEventPublisher;
+    private final boolean enabled;
+    private final long pollMillis;
+    private final int batchSize;
+    private final Duration lease;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Scheduler scheduler;
+    private final AtomicBoolean polling = new AtomicBoolean();
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+
+    @Autowired
+    public OutboxRelay(
+            ReactiveMongoTemplate mongoTemplate,
+            GrievanceEventPublisher grievanceEventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${outbox.enabled:true}") boolean enabled,
+            @Value("${outbox.poll-interval:500ms}") Duration pollInterval,
+            @Value("${outbox.batch-size:200}") int batchSize,
+            @Value("${outbox.lease:30s}") Duration lease) {
+        this(mongoTemplate, grievanceEventPublisher, meterRegistry, enabled, pollInterval, batchSize, lease,
+                Schedulers.newSingle("outbox-relay"));
+    }
+
+    OutboxRelay(ReactiveMongoTemplate mongoTemplate, GrievanceEventPublisher grievanceEventPublisher,
+            MeterRegistry meterRegistry, boolean enabled, Duration pollInterval, int batchSize, Duration lease,
+            Scheduler scheduler) {
+        this.mongoTemplate = mongoTemplate;
+        this.grievanceEventPublisher = grievanceEventPublisher;
+        this.enabled = enabled;
+        this.pollMillis = pollInterval.toMillis();
+        this.batchSize = batchSize;
+        this.lease = lease;
+        this.scheduler = scheduler;
+        this.publishedCounter = Counter.builder("outbox.relay.published").register(meterRegistry);
+        this.failedCounter = Counter.builder("outbox.relay.failed").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            scheduler.schedulePeriodically(this::poll, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // a poll still draining a backlog makes the next ticks no-ops instead of relaying the same events twice
+    void poll() {
+        if (!polling.compareAndSet(false, true)) {
+            return;
+        }
+        relayPending()
+                .doFinally(signal -> polling.set(false))
+                .subscribe(
+                        count -> {
+                            if (count > 0) {
+                                log.debug("Relayed outbox events of {} grievances", count);
+                            }
+                        },
+                        ex -> log.warn("Outbox relay poll failed: {}", ex.getMessage()));
+    }
+
+    // keeps taking batches while they come back full and fully relayed, returns how many grievances it saw.
+    // a batch with a failed send ends the poll so a broker outage is not retried in a tight loop
+    Mono<Long> relayPending() {
+        return relayBatch()
+                .expand(drained -> drained.size() == batchSize && !drained.contains(false) ? relayBatch() : Mono.empty())
+                .reduce(0L, (count, drained) -> count + drained.size());
+    }
+
+    private Mono<List<Boolean>> relayBatch() {
+        Instant now = Instant.now();
+        Query pending = Query.query(where("outbox.createdAt").exists(true).and("outboxClaimedUntil").not().gt(now))
+                .limit(batchSize);
+        pending.fields().include("_id");
+        return mongoTemplate.find(pending, Grievance.class)
+                .flatMap(candidate -> claim(candidate.getId(), now), CONCURRENCY)
+                .flatMap(this::relay, CONCURRENCY)
+                .collectList();
+    }
+
+    // empty when another instance holds an unexpired lease on the grievance, otherwise its outbox as of the claim
+    private Mono<Grievance> claim(String grievanceId, Instant now) {
+        Query unclaimed = Query.query(where("_id").is(grievanceId).and("outboxClaimedUntil").not().gt(now));
+        unclaimed.fields().include("outbox");
+        Update lease = new Update().set("outboxClaimedBy", instanceId).set("outboxClaimedUntil", now.plus(this.lease));
+        return mongoTemplate.findAndModify(unclaimed, lease, FindAndModifyOptions.options().returnNew(true),
+                Grievance.class);
+    }
+
+    // emits whether every pending event of the grievance was published
+    private Mono<Boolean> relay(Grievance grievance) {
+        List<OutboxEvent> outbox = grievance.getOutbox() != null ? grievance.getOutbox() : List.of();
+        return Flux.fromIterable(outbox)
+                // send blocks for up to max.block.ms while topic metadata is missing, so not on the mongo thread
+                .concatMap(event -> Mono.fromFuture(() -> grievanceEventPublisher.publish(event))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .thenReturn(event.getEventId()))
+                .doOnNext(eventId -> publishedCounter.increment())
+                // stop at the first failure so later events of this grievance never overtake it
+                .onErrorResume(ex -> {
+                    failedCounter.increment();
+                    log.warn("Could not relay outbox event of grievance {}: {}", grievance.getId(), ex.getMessage());
+                    return Mono.empty();
+                })
+                .collectList()
+                .flatMap(published -> release(grievance.getId(), published)
+                        .thenReturn(published.size() == outbox.size()));
+    }
+
+    // pulls the acknowledged events and gives the lease back. a lease that ran out and went to another
+    // instance is left to it, the pull still happens so the events are not published a third time
+    private Mono<Void> release(String grievanceId, List<String> eventIds) {
+        Update release = new Update().unset("outboxClaimedBy").unset("outboxClaimedUntil");
+        if (!eventIds.isEmpty()) {
+            release.pull("outbox", acked(eventIds));
+        }
+        return mongoTemplate.updateFirst(Query.query(where("_id").is(grievanceId).and("outboxClaimedBy").is(instanceId)),
+                        release, Grievance.class)
+                .flatMap(result -> result.getMatchedCount() > 0 || eventIds.isEmpty()
+                        ? Mono.empty()
+                        : mongoTemplate.updateFirst(Query.query(where("_id").is(grievanceId)),
+                                new Update().pull("outbox", acked(eventIds)), Grievance.class))
+                .then();
+    }
+
+    private static Document acked(List<String> eventIds) {
+        return new Document("eventId", new Document("$in", eventIds));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+}
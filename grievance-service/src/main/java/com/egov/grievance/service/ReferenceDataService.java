@@ -5,6 +5,8 @@ import java.util.Map;
 import org.springframework.stereotype.Service;
 
 import com.egov.grievance.config.DepartmentCategoryConfig;
+import com.egov.grievance.dto.Category;
+import com.egov.grievance.dto.ReferenceDataSnapshot;
 
 import reactor.core.publisher.Mono;
 
@@ -17,11 +19,12 @@ public class ReferenceDataService {
         this.config = config;
     }
 
-    public Mono<Map<String, Map<String, Object>>> getAllDepartments() {
-        return Mono.justOrEmpty(config.getDepartments());
+    // departments and their version come from one snapshot, so the ETag always matches the body
+    public Mono<ReferenceDataSnapshot> getAllDepartments() {
+        return Mono.justOrEmpty(config.getSnapshot()).filter(snapshot -> !snapshot.departments().isEmpty());
     }
 
-    public Mono<Map<String, Object>> getCategoriesByDepartment(String departmentId) {
+    public Mono<Map<String, Category>> getCategoriesByDepartment(String departmentId) {
         if (!config.isValidDepartment(departmentId)) {
             return Mono.error(new org.springframework.web.server.ResponseStatusException(
                     org.springframework.http.HttpStatus.NOT_FOUND, "Department not found: " + departmentId));
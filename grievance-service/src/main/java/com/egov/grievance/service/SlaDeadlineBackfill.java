@@ -0,0 +1,69 @@
+package com.egov.grievance.service;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.egov.grievance.model.Grievance;
+import com.egov.grievance.repository.GrievanceRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Open grievances filed before slaDeadline was persisted would never show up in the breach query,
+ * so fill their deadline in once at startup. Only slaDeadline is written, so concurrent updates to
+ * the same grievance are not overwritten. Each filled-in deadline is handed to the SLA watchdog, so it is
+ * tracked whether or not the watchdog's own startup load has already run.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SlaDeadlineBackfill {
+
+    private final GrievanceRepository grievanceRepository;
+    private final ReferenceDataService referenceDataService;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final SlaWatchdog slaWatchdog;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        backfill().subscribe(
+                count -> {
+                    if (count > 0) {
+                        log.info("Backfilled slaDeadline on {} open grievances", count);
+                    }
+                },
+                ex -> log.warn("slaDeadline backfill failed: {}", ex.getMessage()));
+    }
+
+    Mono<Long> backfill() {
+        return grievanceRepository.findBySlaDeadlineIsNullAndStatusIn(GrievanceService.OPEN_STATUSES)
+                .concatMap(grievance -> referenceDataService
+                        .getSlaHours(grievance.getDepartmentId(), grievance.getCategoryId())
+                        .map(slaHours -> grievance.getCreatedAt().plus(Duration.ofHours(slaHours)))
+                        .flatMap(slaDeadline -> mongoTemplate.updateFirst(
+                                        Query.query(where("_id").is(grievance.getId())),
+                                        Update.update("slaDeadline", slaDeadline).inc("version", 1),
+                                        Grievance.class)
+                                .filter(result -> result.getModifiedCount() > 0)
+                                .doOnNext(result -> {
+                                    grievance.setSlaDeadline(slaDeadline);
+                                    slaWatchdog.onStatusChange(grievance);
+                                }))
+                        .onErrorResume(IllegalArgumentException.class, ex -> {
+                            // department or category no longer configured - nothing to compute a deadline from
+                            log.warn("Skipping slaDeadline for grievance {}: {}", grievance.getId(), ex.getMessage());
+                            return Mono.empty();
+                        }))
+                .count();
+    }
+}
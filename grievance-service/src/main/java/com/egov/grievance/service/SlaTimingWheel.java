@@ -0,0 +1,135 @@
+package com.egov.grievance.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hierarchical timing wheel of grievance deadlines. Level 0 has one bucket per tick; each higher level
+ * has buckets as wide as the whole level below it. An entry is placed in the lowest level whose span
+ * reaches its deadline, and it cascades one level down each time its bucket comes round. Scheduling and
+ * cancelling are O(1), and a tick only touches the buckets that are due. Deadlines beyond the top
+ * level wait in an overflow set until the top level wraps.
+ * Not thread safe - callers serialize access.
+ */
+final class SlaTimingWheel {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] levelTickMillis;
+    private final List<List<Set<Entry>>> levels = new ArrayList<>();
+    private final Set<Entry> overflow = new HashSet<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private long currentTime;
+
+    SlaTimingWheel(long tickMillis, int wheelSize, int levelCount, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levelTickMillis = new long[levelCount];
+        long levelTick = tickMillis;
+        for (int level = 0; level < levelCount; level++) {
+            levelTickMillis[level] = levelTick;
+            List<Set<Entry>> buckets = new ArrayList<>(wheelSize);
+            for (int i = 0; i < wheelSize; i++) {
+                buckets.add(new HashSet<>());
+            }
+            levels.add(buckets);
+            levelTick = Math.multiplyExact(levelTick, wheelSize);
+        }
+        this.currentTime = startMillis - Math.floorMod(startMillis, tickMillis);
+    }
+
+    // returns false when the deadline is already due, the wheel never fires for the past
+    boolean schedule(String id, long deadlineMillis) {
+        cancel(id);
+        // round up so an entry never fires before its deadline
+        long due = deadlineMillis + Math.floorMod(-deadlineMillis, tickMillis);
+        if (due <= currentTime) {
+            return false;
+        }
+        Entry entry = new Entry(id, due);
+        entries.put(id, entry);
+        place(entry);
+        return true;
+    }
+
+    void cancel(String id) {
+        Entry entry = entries.remove(id);
+        if (entry != null) {
+            entry.bucket.remove(entry);
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    // moves the wheel forward tick by tick up to now and returns the ids whose deadline passed
+    List<String> advanceTo(long nowMillis) {
+        List<String> expired = new ArrayList<>();
+        long topSpan = levelTickMillis[levelTickMillis.length - 1] * wheelSize;
+        while (currentTime + tickMillis <= nowMillis) {
+            currentTime += tickMillis;
+            if (currentTime % topSpan == 0 && !overflow.isEmpty()) {
+                reinsert(new ArrayList<>(overflow), expired);
+            }
+            // higher levels first so entries cascading into a lower bucket due now are flushed in the same tick
+            for (int level = levelTickMillis.length - 1; level >= 0; level--) {
+                if (currentTime % levelTickMillis[level] == 0) {
+                    Set<Entry> bucket = levels.get(level).get(slot(level, currentTime));
+                    if (!bucket.isEmpty()) {
+                        List<Entry> due = new ArrayList<>(bucket);
+                        bucket.clear();
+                        reinsert(due, expired);
+                    }
+                }
+            }
+        }
+        return expired;
+    }
+
+    private void reinsert(List<Entry> due, List<String> expired) {
+        for (Entry entry : due) {
+            entry.bucket.remove(entry);
+            if (entry.due <= currentTime) {
+                entries.remove(entry.id);
+                expired.add(entry.id);
+            } else {
+                place(entry);
+            }
+        }
+    }
+
+    private void place(Entry entry) {
+        for (int level = 0; level < levelTickMillis.length; level++) {
+            long levelTick = levelTickMillis[level];
+            long levelStart = currentTime - Math.floorMod(currentTime, levelTick);
+            if (entry.due < levelStart + levelTick * wheelSize) {
+                entry.bucket = levels.get(level).get(slot(level, entry.due));
+                entry.bucket.add(entry);
+                return;
+            }
+        }
+        entry.bucket = overflow;
+        overflow.add(entry);
+    }
+
+    private int slot(int level, long time) {
+        return (int) Math.floorMod(time / levelTickMillis[level], (long) wheelSize);
+    }
+
+    private static final class Entry {
+
+        private final String id;
+        private final long due;
+        private Set<Entry> bucket;
+
+        private Entry(String id, long due) {
+            this.id = id;
+            this.due = due;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.egov.grievance.service;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.egov.grievance.event.GrievanceSlaBreachedEvent;
+import com.egov.grievance.model.Grievance;
+import com.egov.grievance.model.OutboxEvent;
+import com.egov.grievance.repository.GrievanceRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+/**
+ * Raises grievance-sla-breached as soon as an open grievance's slaDeadline passes. Deadlines sit in an
+ * in-memory timing wheel that is loaded once at startup and then kept current by this instance's own status
+ * transitions. The breach is claimed with a conditional update on slaBreachedAt that also appends the event
+ * to the grievance's outbox, so OutboxRelay publishes it and a claimed breach cannot go unpublished. Instances
+ * that track the same grievance, or a restart that replays the catch-up window, therefore raise it once,
+ * and a grievance resolved elsewhere in the meantime is skipped.
+ */
+@Slf4j
+@Component
+public class SlaWatchdog {
+
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 4;
+    private static final Duration CLAIM_RETRY_DELAY = Duration.ofSeconds(30);
+    private static final int CLAIM_CONCURRENCY = 16;
+    // a transition landing between the read and the claim changes the version, the breach is read again
+    private static final Retry CLAIM_RACE_RETRY = Retry.max(3).filter(OptimisticLockingFailureException.class::isInstance);
+
+    private final GrievanceRepository grievanceRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final long tickMillis;
+    private final Duration catchUp;
+    private final Scheduler scheduler;
+    private final LongSupplier clock;
+    private final SlaTimingWheel wheel;
+    private final Counter breachCounter;
+
+    @Autowired
+    public SlaWatchdog(
+            GrievanceRepository grievanceRepository,
+            ReactiveMongoTemplate mongoTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${sla-watchdog.enabled:true}") boolean enabled,
+            @Value("${sla-watchdog.tick:1s}") Duration tick,
+            @Value("${sla-watchdog.catch-up:24h}") Duration catchUp) {
+        this(grievanceRepository, mongoTemplate, meterRegistry, enabled, tick, catchUp,
+                Schedulers.newSingle("sla-watchdog"), System::currentTimeMillis);
+    }
+
+    SlaWatchdog(GrievanceRepository grievanceRepository, ReactiveMongoTemplate mongoTemplate,
+            MeterRegistry meterRegistry, boolean enabled, Duration tick, Duration catchUp, Scheduler scheduler,
+            LongSupplier clock) {
+        this.grievanceRepository = grievanceRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.tickMillis = tick.toMillis();
+        this.catchUp = catchUp;
+        this.scheduler = scheduler;
+        this.clock = clock;
+        this.wheel = new SlaTimingWheel(tickMillis, WHEEL_SIZE, WHEEL_LEVELS, clock.getAsLong());
+        this.breachCounter = Counter.builder("sla.watchdog.breaches").register(meterRegistry);
+        Gauge.builder("sla.watchdog.tracked", this, SlaWatchdog::trackedCount).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        load().subscribe(
+                count -> log.info("SLA watchdog tracking {} open grievances", count),
+                ex -> log.warn("SLA watchdog could not load deadlines: {}", ex.getMessage()));
+        scheduler.schedulePeriodically(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // everything still open with a deadline inside the catch-up window, so breaches missed while down still fire
+    Mono<Long> load() {
+        Instant from = Instant.ofEpochMilli(clock.getAsLong()).minus(catchUp);
+        return grievanceRepository.findBySlaDeadlineAfterAndStatusIn(from, GrievanceService.OPEN_STATUSES)
+                .filter(grievance -> grievance.getSlaBreachedAt() == null)
+                .concatMap(grievance -> {
+                    if (track(grievance.getId(), grievance.getSlaDeadline())) {
+                        return Mono.just(grievance);
+                    }
+                    return claim(grievance.getId()).then(Mono.<Grievance>empty());
+                })
+                .count();
+    }
+
+    // called with the saved grievance after every transition that can open or close it, and by the
+    // deadline backfill. a deadline that has already passed (a reopen, or a backfilled old grievance) is
+    // claimed right away, as load does, since the wheel will not take it
+    public void onStatusChange(Grievance grievance) {
+        if (grievance.getId() == null) {
+            return;
+        }
+        if (GrievanceService.OPEN_STATUSES.contains(grievance.getStatus()) && grievance.getSlaDeadline() != null
+                && grievance.getSlaBreachedAt() == null) {
+            if (!track(grievance.getId(), grievance.getSlaDeadline())) {
+                claim(grievance.getId()).subscribe();
+            }
+        } else {
+            synchronized (wheel) {
+                wheel.cancel(grievance.getId());
+            }
+        }
+    }
+
+    void tick() {
+        List<String> due;
+        synchronized (wheel) {
+            due = new ArrayList<>(wheel.advanceTo(clock.getAsLong()));
+        }
+        if (!due.isEmpty()) {
+            // claims that fail are tracked again inside claim, so an error here is only ever unexpected
+            Flux.fromIterable(due)
+                    .flatMap(this::claim, CLAIM_CONCURRENCY)
+                    .count()
+                    .subscribe(
+                            count -> log.debug("Claimed {} of {} due sla breaches", count, due.size()),
+                            ex -> log.warn("SLA watchdog tick failed: {}", ex.getMessage()));
+        }
+    }
+
+    int trackedCount() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    private boolean track(String grievanceId, Instant slaDeadline) {
+        synchronized (wheel) {
+            return wheel.schedule(grievanceId, slaDeadline.toEpochMilli());
+        }
+    }
+
+    // only the caller whose update flips slaBreachedAt from null raises the breach. the event is built from
+    // the document as read and the claim only applies to that version, so it describes what was claimed
+    private Mono<Grievance> claim(String grievanceId) {
+        Instant now = Instant.ofEpochMilli(clock.getAsLong());
+        return Mono.defer(() -> mongoTemplate.findOne(unclaimedBreach(grievanceId, now), Grievance.class))
+                .flatMap(grievance -> mongoTemplate.findAndModify(
+                                unclaimedBreach(grievanceId, now).addCriteria(where("version").is(grievance.getVersion())),
+                                breachUpdate(grievance, now),
+                                FindAndModifyOptions.options().returnNew(true), Grievance.class)
+                        .switchIfEmpty(Mono.error(() -> new OptimisticLockingFailureException(
+                                "Grievance " + grievanceId + " changed while claiming its sla breach"))))
+                .retryWhen(CLAIM_RACE_RETRY)
+                .doOnNext(claimed -> breachCounter.increment())
+                .onErrorResume(ex -> {
+                    log.warn("Could not claim sla breach for grievance {}, retrying: {}", grievanceId, ex.getMessage());
+                    track(grievanceId, now.plus(CLAIM_RETRY_DELAY));
+                    return Mono.empty();
+                });
+    }
+
+    private static Query unclaimedBreach(String grievanceId, Instant now) {
+        return Query.query(where("_id").is(grievanceId)
+                .and("status").in(GrievanceService.OPEN_STATUSES)
+                .and("slaDeadline").lte(now)
+                .and("slaBreachedAt").is(null));
+    }
+
+    // the version bump makes a transition decided on the unclaimed document retry instead of clearing the claim
+    static Update breachUpdate(Grievance grievance, Instant now) {
+        OutboxEvent event = OutboxEvent.slaBreached(new GrievanceSlaBreachedEvent(
+                grievance.getId(),
+                grievance.getCitizenId(),
+                grievance.getDepartmentId(),
+                grievance.getAssignedOfficerId(),
+                grievance.getStatus().name(),
+                grievance.getSlaDeadline(),
+                now));
+        return Update.update("slaBreachedAt", now).push("outbox", event).inc("version", 1);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+}
@@ -0,0 +1,123 @@
+package com.egov.grievance.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.egov.grievance.dto.UserResponse;
+import com.egov.grievance.exception.ServiceUnavailableException;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Coalesces single user lookups into POST /users/batch calls. Ids requested within one short window
+ * (or until a batch is full) go out together and each caller gets back only its own user, or empty
+ * when user-service does not know the id. Self contained so other services can copy it as is.
+ */
+@Component
+public class UserBatchClient {
+
+    private static final String USER_SERVICE_CB = "userServiceCB";
+
+    private final WebClient.Builder webClientBuilder;
+    private final ReactiveCircuitBreakerFactory<?, ?> circuitBreakerFactory;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final Scheduler scheduler;
+
+    private final Queue<PendingLookup> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    @Autowired
+    public UserBatchClient(
+            WebClient.Builder webClientBuilder,
+            ReactiveCircuitBreakerFactory<?, ?> circuitBreakerFactory,
+            @Value("${user-batch.window:5ms}") Duration window,
+            @Value("${user-batch.max-size:100}") int maxBatchSize) {
+        this(webClientBuilder, circuitBreakerFactory, window, maxBatchSize, Schedulers.parallel());
+    }
+
+    UserBatchClient(WebClient.Builder webClientBuilder, ReactiveCircuitBreakerFactory<?, ?> circuitBreakerFactory,
+            Duration window, int maxBatchSize, Scheduler scheduler) {
+        this.webClientBuilder = webClientBuilder;
+        this.circuitBreakerFactory = circuitBreakerFactory;
+        this.windowMillis = window.toMillis();
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = scheduler;
+    }
+
+    public Mono<UserResponse> getUser(String userId) {
+        return Mono.defer(() -> {
+            Sinks.One<UserResponse> result = Sinks.one();
+            pending.add(new PendingLookup(userId, result));
+            scheduleFlush(windowMillis);
+            return result.asMono();
+        });
+    }
+
+    private void scheduleFlush(long delayMillis) {
+        if (flushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::flush, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+
+        Map<String, List<Sinks.One<UserResponse>>> batch = new LinkedHashMap<>();
+        PendingLookup lookup;
+        while (batch.size() < maxBatchSize && (lookup = pending.poll()) != null) {
+            batch.computeIfAbsent(lookup.userId(), id -> new ArrayList<>()).add(lookup.result());
+        }
+        // a full batch leaves the rest queued, send it right away instead of waiting another window
+        if (!pending.isEmpty()) {
+            scheduleFlush(0);
+        }
+        if (!batch.isEmpty()) {
+            fetch(batch);
+        }
+    }
+
+    private void fetch(Map<String, List<Sinks.One<UserResponse>>> batch) {
+        Mono<Map<String, UserResponse>> call = webClientBuilder.build()
+                .post()
+                .uri("http://user-service/users/batch")
+                .bodyValue(List.copyOf(batch.keySet()))
+                .retrieve()
+                .bodyToFlux(UserResponse.class)
+                .collectMap(UserResponse::getId);
+
+        circuitBreakerFactory.create(USER_SERVICE_CB)
+                .run(call, ex -> Mono.error(new ServiceUnavailableException("User service unavailable")))
+                .subscribe(
+                        found -> batch.forEach((id, waiters) -> {
+                            UserResponse user = found.get(id);
+                            waiters.forEach(waiter -> {
+                                if (user != null) {
+                                    waiter.tryEmitValue(user);
+                                } else {
+                                    waiter.tryEmitEmpty();
+                                }
+                            });
+                        }),
+                        ex -> batch.values().forEach(waiters -> waiters.forEach(waiter -> waiter.tryEmitError(ex))));
+    }
+
+    private record PendingLookup(String userId, Sinks.One<UserResponse> result) {
+    }
+}
@@ -0,0 +1,78 @@
+package com.egov.grievance.service;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.egov.grievance.dto.UserResponse;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Bounded near-cache of user-service profiles. Entries are written on the first successful lookup and
+ * live for a fixed ttl; user-changed events evict them early. Concurrent misses for one user share a
+ * single in-flight call, and an eviction during that call also drops its result so it is never cached stale.
+ * It also keeps the latest token version each user-changed event announced, for as long as a token can live,
+ * so a signed identity context issued for an older token is not trusted for the department.
+ */
+@Component
+public class UserProfileCache {
+
+    private final AsyncCache<String, UserResponse> cache;
+    private final Cache<String, Long> tokenVersions;
+    private final Duration tokenTtl;
+
+    @Autowired
+    public UserProfileCache(
+            @Value("${user-cache.max-size:10000}") long maxSize,
+            @Value("${user-cache.ttl:5m}") Duration ttl,
+            @Value("${token-versions.ttl:24h}") Duration tokenTtl) {
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .buildAsync();
+        this.tokenVersions = Caffeine.newBuilder()
+                .expireAfterWrite(tokenTtl)
+                .build();
+        this.tokenTtl = tokenTtl;
+    }
+
+    UserProfileCache(long maxSize, Duration ttl) {
+        this(maxSize, ttl, Duration.ofHours(24));
+    }
+
+    public Mono<UserResponse> get(String userId, Function<String, Mono<UserResponse>> loader) {
+        // failed or empty loads are not kept, the caller's own subscription cancel must not cancel the shared load
+        return Mono.defer(() -> Mono.fromFuture(
+                cache.get(userId, (id, executor) -> loader.apply(id).toFuture()), true));
+    }
+
+    public void invalidate(String userId) {
+        cache.synchronous().invalidate(userId);
+    }
+
+    // versions only move forward, a replayed older event must not lower them
+    public void recordTokenVersion(String userId, long version) {
+        tokenVersions.asMap().merge(userId, version, Math::max);
+    }
+
+    public long tokenVersion(String userId) {
+        Long version = tokenVersions.getIfPresent(userId);
+        return version != null ? version : 0L;
+    }
+
+    public Duration tokenTtl() {
+        return tokenTtl;
+    }
+
+    long size() {
+        return cache.synchronous().estimatedSize();
+    }
+}
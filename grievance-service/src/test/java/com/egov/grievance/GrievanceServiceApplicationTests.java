@@ -3,7 +3,7 @@ package com.egov.grievance;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "user-cache.listener.auto-startup=false")
 class GrievanceServiceApplicationTests {
 
 	@Test
@@ -2,7 +2,13 @@ package com.egov.grievance.config;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
 
 class DepartmentCategoryConfigTest {
 
@@ -79,10 +85,69 @@ class DepartmentCategoryConfigTest {
 		assertFalse(config.isValid("D001", "C101"));
 	}
 
+	@Test
+	void getSlaHours_everyConfiguredCategory() {
+		DepartmentCategoryConfig config = new DepartmentCategoryConfig();
+		config.load();
+		config.getDepartments().forEach((departmentId, department) -> department.categories()
+				.forEach((categoryId, category) -> {
+					assertTrue(config.isValid(departmentId, categoryId));
+					assertEquals(category.slaHours(), config.getSlaHours(departmentId, categoryId));
+				}));
+		assertFalse(config.isValid("D001", "C201"));
+		assertFalse(config.isValid(null, "C101"));
+	}
+
+	@Test
+	void departments_areImmutable() {
+		DepartmentCategoryConfig config = new DepartmentCategoryConfig();
+		config.load();
+		assertThrows(UnsupportedOperationException.class, () -> config.getDepartments().remove("D001"));
+		assertThrows(UnsupportedOperationException.class, () -> config.getCategories("D001").clear());
+	}
+
 	@Test
 	void isValidDepartment_whenDepartmentsNull_returnsFalse() {
 		DepartmentCategoryConfig config = new DepartmentCategoryConfig();
 		assertFalse(config.isValidDepartment("D001"));
 	}
 
+	@Test
+	void reload_swapsSnapshotOnlyWhenContentChanges(@TempDir Path dir) throws IOException {
+		Path file = dir.resolve("sla.json");
+		Files.writeString(file, sla(48));
+		DepartmentCategoryConfig config = new DepartmentCategoryConfig(new DefaultResourceLoader(),
+				() -> file.toUri().toString());
+		config.load();
+		String firstVersion = config.getSnapshot().version();
+
+		assertFalse(config.reload());
+		assertEquals(firstVersion, config.getSnapshot().version());
+
+		Files.writeString(file, sla(12));
+		assertTrue(config.reload());
+		assertEquals(12, config.getSlaHours("D001", "C101"));
+		assertNotEquals(firstVersion, config.getSnapshot().version());
+	}
+
+	@Test
+	void reload_brokenFile_keepsServingLastGoodSnapshot(@TempDir Path dir) throws IOException {
+		Path file = dir.resolve("sla.json");
+		Files.writeString(file, sla(48));
+		DepartmentCategoryConfig config = new DepartmentCategoryConfig(new DefaultResourceLoader(),
+				() -> file.toUri().toString());
+		config.load();
+
+		Files.writeString(file, "{\"departments\": {\"D001\": ");
+		assertThrows(IOException.class, config::reload);
+		Files.writeString(file, sla(0));
+		assertThrows(IllegalArgumentException.class, config::reload);
+
+		assertEquals(48, config.getSlaHours("D001", "C101"));
+	}
+
+	private static String sla(int hours) {
+		return "{\"departments\": {\"D001\": {\"name\": \"Water\", \"categories\": "
+				+ "{\"C101\": {\"name\": \"Leakage\", \"slaHours\": " + hours + "}}}}}";
+	}
 }
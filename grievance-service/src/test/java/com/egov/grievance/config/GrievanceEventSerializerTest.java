@@ -0,0 +1,56 @@
+package com.egov.grievance.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import com.egov.grievance.event.GrievanceSlaBreachedEvent;
+import com.egov.grievance.event.GrievanceStatusChangedEvent;
+import com.egov.grievance.event.GrievanceStatusChangedEventCodec;
+
+class GrievanceEventSerializerTest {
+
+	private static final GrievanceStatusChangedEvent STATUS_CHANGED = new GrievanceStatusChangedEvent("G1", "U1",
+			"D001", "O1", "SUBMITTED", "ASSIGNED", "ADMIN", Instant.parse("2025-01-01T00:00:00Z"));
+
+	private static String contentType(Headers headers) {
+		return new String(headers.lastHeader(GrievanceEventSerializer.CONTENT_TYPE_HEADER).value(),
+				StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void jsonByDefault_withContentTypeHeader() {
+		Headers headers = new RecordHeaders();
+		byte[] bytes = new GrievanceEventSerializer(false).serialize("grievance-status-changed", headers,
+				STATUS_CHANGED);
+
+		assertEquals(GrievanceEventSerializer.JSON, contentType(headers));
+		assertEquals('{', bytes[0]);
+		// no spring type headers, consumers bind to their own copy of the event
+		assertEquals(1, headers.toArray().length);
+	}
+
+	@Test
+	void binaryEnabled_encodesStatusChanges() {
+		Headers headers = new RecordHeaders();
+		byte[] bytes = new GrievanceEventSerializer(true).serialize("grievance-status-changed", headers,
+				STATUS_CHANGED);
+
+		assertEquals(GrievanceStatusChangedEventCodec.CONTENT_TYPE, contentType(headers));
+		assertEquals(STATUS_CHANGED, GrievanceStatusChangedEventCodec.decode(bytes));
+	}
+
+	@Test
+	void binaryEnabled_keepsOtherEventsJson() {
+		Headers headers = new RecordHeaders();
+		new GrievanceEventSerializer(true).serialize("grievance-sla-breached", headers,
+				new GrievanceSlaBreachedEvent("G1", "U1", "D001", "O1", "ASSIGNED", Instant.now(), Instant.now()));
+
+		assertEquals(GrievanceEventSerializer.JSON, contentType(headers));
+	}
+}
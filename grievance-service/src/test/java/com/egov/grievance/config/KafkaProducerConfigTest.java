@@ -0,0 +1,83 @@
+package com.egov.grievance.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.compress.Compression;
+import org.apache.kafka.common.record.MemoryRecords;
+import org.apache.kafka.common.record.MemoryRecordsBuilder;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.MicrometerProducerListener;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.egov.grievance.event.GrievanceStatusChangedEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class KafkaProducerConfigTest {
+
+	private static DefaultKafkaProducerFactory<String, Object> producerFactory() {
+		KafkaProducerConfig config = new KafkaProducerConfig();
+		ReflectionTestUtils.setField(config, "bootstrapServers", "localhost:9092");
+		ReflectionTestUtils.setField(config, "compressionType", "lz4");
+		ReflectionTestUtils.setField(config, "lingerMs", 10);
+		ReflectionTestUtils.setField(config, "batchSize", 65536);
+		ReflectionTestUtils.setField(config, "maxBlock", Duration.ofSeconds(5));
+		return (DefaultKafkaProducerFactory<String, Object>) config.producerFactory(new SimpleMeterRegistry());
+	}
+
+	@Test
+	void producerProfile_isIdempotentBatchedAndCompressed() {
+		DefaultKafkaProducerFactory<String, Object> factory = producerFactory();
+		Map<String, Object> props = factory.getConfigurationProperties();
+
+		assertEquals(true, props.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+		assertEquals("all", props.get(ProducerConfig.ACKS_CONFIG));
+		assertEquals("lz4", props.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+		assertEquals(10, props.get(ProducerConfig.LINGER_MS_CONFIG));
+		assertEquals(65536, props.get(ProducerConfig.BATCH_SIZE_CONFIG));
+		assertEquals(5000L, props.get(ProducerConfig.MAX_BLOCK_MS_CONFIG));
+		assertInstanceOf(MicrometerProducerListener.class, factory.getListeners().get(0));
+	}
+
+	// stands in for a broker benchmark: one linger window of status events as the producer would batch them
+	@Test
+	void compressedBatch_isAFractionOfTheUncompressedOne() {
+		int none = batchBytes(Compression.NONE);
+		int lz4 = batchBytes(Compression.lz4().build());
+		int zstd = batchBytes(Compression.zstd().build());
+
+		assertTrue(lz4 * 3 < none, "lz4 batch " + lz4 + " bytes vs " + none + " uncompressed");
+		assertTrue(zstd * 3 < none, "zstd batch " + zstd + " bytes vs " + none + " uncompressed");
+	}
+
+	private static int batchBytes(Compression compression) {
+		try (JsonSerializer<Object> serializer = new JsonSerializer<>()) {
+			serializer.setAddTypeInfo(false);
+			MemoryRecordsBuilder batch = MemoryRecords.builder(ByteBuffer.allocate(1 << 20), compression,
+					TimestampType.CREATE_TIME, 0L);
+			Instant now = Instant.parse("2025-01-01T00:00:00Z");
+			String[] statuses = { "SUBMITTED", "ASSIGNED", "IN_REVIEW", "RESOLVED" };
+			for (int i = 0; i < 500; i++) {
+				String grievanceId = String.format("65a1f0c2e4b0%012d", i / 4);
+				GrievanceStatusChangedEvent event = new GrievanceStatusChangedEvent(grievanceId, "U" + (i % 50),
+						"D00" + (i % 5), "O" + (i % 20), i % 4 == 0 ? null : statuses[i % 4 - 1], statuses[i % 4],
+						"ADMIN", now.plusMillis(i));
+				batch.append(now.toEpochMilli() + i, grievanceId.getBytes(StandardCharsets.UTF_8),
+						serializer.serialize("grievance-status-changed", event));
+			}
+			return batch.build().sizeInBytes();
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package com.egov.grievance.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import com.egov.grievance.model.Grievance;
+import com.egov.grievance.model.GrievanceDocument;
+import com.egov.grievance.model.GrievanceStatusHistory;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class MongoIndexReconcilerTest {
+
+    private final ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+    private final Map<Class<?>, ReactiveIndexOperations> indexOps = Map.of(
+            Grievance.class, mock(ReactiveIndexOperations.class),
+            GrievanceStatusHistory.class, mock(ReactiveIndexOperations.class),
+            GrievanceDocument.class, mock(ReactiveIndexOperations.class));
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.getConverter())
+                .thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext()));
+        indexOps.forEach((type, ops) -> {
+            when(mongoTemplate.indexOps(type)).thenReturn(ops);
+            when(ops.ensureIndex(any())).thenAnswer(inv -> Mono.just(
+                    inv.getArgument(0, IndexDefinition.class).getIndexOptions().getString("name")));
+        });
+    }
+
+    @Test
+    void emptyCollections_getEveryDeclaredIndexInBackground() {
+        indexOps.values().forEach(ops -> when(ops.getIndexInfo()).thenReturn(Flux.just(index("_id_"))));
+
+        List<String> created = new ArrayList<>();
+        StepVerifier.create(new MongoIndexReconciler(mongoTemplate, true).reconcile())
+                .recordWith(() -> created)
+                .expectNextCount(13)
+                .verifyComplete();
+
+        assertTrue(created.containsAll(List.of("created_page", "department_status_page", "citizen_page")));
+        ArgumentCaptor<IndexDefinition> captor = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(indexOps.get(GrievanceDocument.class)).ensureIndex(captor.capture());
+        assertEquals("grievanceId", captor.getValue().getIndexOptions().getString("name"));
+        assertEquals(true, captor.getValue().getIndexOptions().get("background"));
+    }
+
+    @Test
+    void existingIndexes_areLeftAlone() {
+        when(indexOps.get(Grievance.class).getIndexInfo()).thenReturn(Flux.just(index("_id_"),
+                index("created_page"), index("status_page"), index("department_page"),
+                index("department_status_page"), index("officer_page"), index("officer_status_page"),
+                index("citizen_page"), index("status_sla_page"), index("department_status_sla_page"),
+                index("outbox_pending")));
+        when(indexOps.get(GrievanceStatusHistory.class).getIndexInfo()).thenReturn(Flux.just(index("grievanceId")));
+        when(indexOps.get(GrievanceDocument.class).getIndexInfo()).thenReturn(Flux.just(index("grievanceId")));
+
+        StepVerifier.create(new MongoIndexReconciler(mongoTemplate, true).reconcile())
+                .expectNext("citizen_status_page")
+                .verifyComplete();
+
+        verify(indexOps.get(GrievanceDocument.class), never()).ensureIndex(any());
+    }
+
+    private static MongoMappingContext mappingContext() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        return mappingContext;
+    }
+
+    private static IndexInfo index(String name) {
+        return new IndexInfo(List.of(), name, false, false, null);
+    }
+}
@@ -0,0 +1,46 @@
+package com.egov.grievance.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.egov.grievance.dto.ReferenceDataSnapshot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReferenceDataReloaderTest {
+
+	private final DepartmentCategoryConfig config = mock(DepartmentCategoryConfig.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final ReferenceDataReloader reloader = new ReferenceDataReloader(config, meterRegistry, Duration.ZERO);
+
+	@Test
+	void changedContent_countsReload() throws IOException {
+		when(config.reload()).thenReturn(true, false);
+		when(config.getSnapshot()).thenReturn(new ReferenceDataSnapshot("v2", Map.of()));
+
+		reloader.reload();
+		reloader.reload();
+
+		assertEquals(1.0, meterRegistry.get("reference.data.reloads").counter().count());
+		reloader.shutdown();
+	}
+
+	@Test
+	void failedReload_isCountedNotThrown() throws IOException {
+		when(config.reload()).thenThrow(new IOException("missing file"));
+		when(config.getSnapshot()).thenReturn(new ReferenceDataSnapshot("v1", Map.of()));
+
+		reloader.reload();
+
+		assertEquals(1.0, meterRegistry.get("reference.data.reload.failures").counter().count());
+		assertEquals(0.0, meterRegistry.get("reference.data.reloads").counter().count());
+		reloader.shutdown();
+	}
+}
@@ -0,0 +1,72 @@
+package com.egov.grievance.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.egov.grievance.dto.Category;
+import com.egov.grievance.dto.Department;
+
+class SlaLookupTableTest {
+
+	private static Map<String, Department> departments(int departmentCount, int categoriesPerDepartment) {
+		Map<String, Department> departments = new LinkedHashMap<>();
+		for (int d = 0; d < departmentCount; d++) {
+			Map<String, Category> categories = new LinkedHashMap<>();
+			for (int c = 0; c < categoriesPerDepartment; c++) {
+				categories.put("C" + d + "_" + c, new Category("category", 1 + d * categoriesPerDepartment + c));
+			}
+			departments.put("D" + d, new Department("department", categories));
+		}
+		return departments;
+	}
+
+	@Test
+	void findsEveryEntryAndMissesUnknownPairs() {
+		SlaLookupTable table = new SlaLookupTable(departments(40, 25));
+
+		for (int d = 0; d < 40; d++) {
+			for (int c = 0; c < 25; c++) {
+				assertEquals(1 + d * 25 + c, table.slaHours("D" + d, "C" + d + "_" + c));
+			}
+		}
+		// category of another department, unknown ids and nulls
+		assertEquals(SlaLookupTable.MISSING, table.slaHours("D1", "C0_0"));
+		assertEquals(SlaLookupTable.MISSING, table.slaHours("D99", "C0_0"));
+		assertEquals(SlaLookupTable.MISSING, table.slaHours(null, "C0_0"));
+		assertEquals(SlaLookupTable.MISSING, table.slaHours("D0", null));
+	}
+
+	@Test
+	void emptyTable_missesEverything() {
+		assertEquals(SlaLookupTable.MISSING, new SlaLookupTable(Map.of()).slaHours("D001", "C101"));
+	}
+
+	// stands in for a benchmark: the create path lookup must not allocate
+	@Test
+	void lookup_doesNotAllocate() {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		SlaLookupTable table = new SlaLookupTable(departments(5, 4));
+		String[] departmentIds = { "D0", "D2", "D4", "D9" };
+		String[] categoryIds = { "C0_1", "C2_3", "C4_0", "C9_0" };
+		long sum = 0;
+		for (int i = 0; i < 200_000; i++) {
+			sum += table.slaHours(departmentIds[i & 3], categoryIds[i & 3]);
+		}
+
+		long threadId = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < 1_000_000; i++) {
+			sum += table.slaHours(departmentIds[i & 3], categoryIds[i & 3]);
+		}
+		long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+		assertTrue(sum != 0);
+		assertTrue(allocated < 64 * 1024, "lookups allocated " + allocated + " bytes");
+	}
+}
@@ -0,0 +1,71 @@
+package com.egov.grievance.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import org.apache.kafka.common.TopicPartition;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+
+import com.egov.grievance.event.UserChangedEvent;
+import com.egov.grievance.service.UserProfileCache;
+
+@ExtendWith(MockitoExtension.class)
+class UserChangedConsumerTest {
+
+    @Mock
+    private UserProfileCache userProfileCache;
+
+    @InjectMocks
+    private UserChangedConsumer consumer;
+
+    @Test
+    void consume_invalidatesCachedUserAndRecordsTokenVersion() {
+        consumer.consume(new UserChangedEvent("O1", "DEPARTMENT", Instant.now(), 4L));
+        verify(userProfileCache).recordTokenVersion("O1", 4L);
+        verify(userProfileCache).invalidate("O1");
+    }
+
+    @Test
+    void consume_eventWithoutTokenVersion_onlyInvalidates() {
+        consumer.consume(new UserChangedEvent("O1", "DEPARTMENT", Instant.now(), null));
+        verify(userProfileCache).invalidate("O1");
+        verifyNoMoreInteractions(userProfileCache);
+    }
+
+    @Test
+    void consume_ignoresEventWithoutUser() {
+        consumer.consume(new UserChangedEvent(null, "ROLE", Instant.now(), null));
+        verifyNoInteractions(userProfileCache);
+    }
+
+    @Test
+    void onPartitionsAssigned_replaysOneTokenLifetime() {
+        when(userProfileCache.tokenTtl()).thenReturn(Duration.ofHours(24));
+        ConsumerSeekAware.ConsumerSeekCallback callback = mock(ConsumerSeekAware.ConsumerSeekCallback.class);
+        Map<TopicPartition, Long> assignments = Map.of(new TopicPartition("user-changed", 0), 0L);
+        long before = System.currentTimeMillis();
+
+        consumer.onPartitionsAssigned(assignments, callback);
+
+        ArgumentCaptor<Long> timestamp = ArgumentCaptor.forClass(Long.class);
+        verify(callback).seekToTimestamp(eq(assignments.keySet()), timestamp.capture());
+        assertTrue(timestamp.getValue() <= before - Duration.ofHours(24).toMillis() + 1000);
+        assertTrue(timestamp.getValue() >= before - Duration.ofHours(24).toMillis());
+    }
+}
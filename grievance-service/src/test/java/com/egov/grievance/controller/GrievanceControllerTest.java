@@ -1,17 +1,28 @@
 package com.egov.grievance.controller;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
 import com.egov.grievance.dto.AssignGrievanceRequest;
+import com.egov.grievance.dto.GrievanceCursor;
 import com.egov.grievance.model.Grievance;
 import com.egov.grievance.model.GrievanceDocument;
 import com.egov.grievance.model.GrievanceStatusHistory;
@@ -43,16 +54,43 @@ class GrievanceControllerTest {
 
 	@Test
 	void getAllGrievances_admin() {
-		when(grievanceService.getGrievances(null, null, "ADMIN", "admin")).thenReturn(Flux.just(new Grievance()));
+		when(grievanceService.getGrievances(null, null, "ADMIN", "admin", null, 50)).thenReturn(Flux.just(new Grievance()));
 		webTestClient.get().uri("/grievances").header("X-USER-ID", "admin").header("X-USER-ROLE", "ADMIN").exchange()
-				.expectStatus().isOk();
+				.expectStatus().isOk()
+				.expectHeader().doesNotExist("X-Next-Cursor");
+	}
+
+	@Test
+	void getAllGrievances_fullPage_returnsNextCursor() {
+		Grievance first = Grievance.builder().id("G2").createdAt(Instant.ofEpochMilli(2000)).build();
+		Grievance last = Grievance.builder().id("G1").createdAt(Instant.ofEpochMilli(1000)).build();
+		when(grievanceService.getGrievances(null, null, "ADMIN", "admin", "abc", 2)).thenReturn(Flux.just(first, last));
+
+		webTestClient.get().uri("/grievances?limit=2&after=abc").header("X-USER-ID", "admin")
+				.header("X-USER-ROLE", "ADMIN").exchange()
+				.expectStatus().isOk()
+				.expectHeader().valueEquals("X-Next-Cursor", GrievanceCursor.of(last).encode())
+				.expectBodyList(Grievance.class).hasSize(2);
 	}
 
 	@Test
 	void getSlaBreaches_success() {
-		when(grievanceService.getSlaBreaches("admin", "ADMIN")).thenReturn(Flux.just(new Grievance()));
+		when(grievanceService.getSlaBreaches("admin", "ADMIN", null, 50)).thenReturn(Flux.just(new Grievance()));
 		webTestClient.get().uri("/grievances/sla-breaches").header("X-USER-ID", "admin").header("X-USER-ROLE", "ADMIN")
-				.exchange().expectStatus().isOk();
+				.exchange().expectStatus().isOk()
+				.expectHeader().doesNotExist("X-Next-Cursor");
+	}
+
+	@Test
+	void getSlaBreaches_fullPage_returnsSlaDeadlineCursor() {
+		Grievance last = Grievance.builder().id("G1").createdAt(Instant.ofEpochMilli(1000))
+				.slaDeadline(Instant.ofEpochMilli(9000)).build();
+		when(grievanceService.getSlaBreaches("admin", "ADMIN", null, 1)).thenReturn(Flux.just(last));
+
+		webTestClient.get().uri("/grievances/sla-breaches?limit=1").header("X-USER-ID", "admin")
+				.header("X-USER-ROLE", "ADMIN").exchange()
+				.expectStatus().isOk()
+				.expectHeader().valueEquals("X-Next-Cursor", GrievanceCursor.bySlaDeadline(last).encode());
 	}
 
 	@Test
@@ -95,7 +133,7 @@ class GrievanceControllerTest {
 
 	@Test
 	void history_success() {
-		when(grievanceService.getGrievanceHistory(any(), any(), any()))
+		when(grievanceService.getGrievanceHistory(any(), any(), any(), isNull(), eq(50)))
 				.thenReturn(Flux.just(new GrievanceStatusHistory()));
 		webTestClient.get().uri("/grievances/G1/history").header("X-USER-ID", "admin").header("X-USER-ROLE", "ADMIN")
 				.exchange().expectStatus().isOk();
@@ -103,14 +141,14 @@ class GrievanceControllerTest {
 
 	@Test
 	void getByCitizen() {
-		when(grievanceService.getGrievancesByCitizen(any(), any(), any())).thenReturn(Flux.just(new Grievance()));
+		when(grievanceService.getGrievancesByCitizen(any(), any(), any(), any(), anyInt())).thenReturn(Flux.just(new Grievance()));
 		webTestClient.get().uri("/grievances/citizen/U1").header("X-USER-ID", "U1").header("X-USER-ROLE", "CITIZEN")
 				.exchange().expectStatus().isOk();
 	}
 
 	@Test
 	void getByDepartment() {
-		when(grievanceService.getGrievancesByDepartment(any(), any(), any())).thenReturn(Flux.just(new Grievance()));
+		when(grievanceService.getGrievancesByDepartment(any(), any(), any(), any(), anyInt())).thenReturn(Flux.just(new Grievance()));
 		webTestClient.get().uri("/grievances/department/D1").header("X-USER-ID", "admin").header("X-USER-ROLE", "ADMIN")
 				.exchange().expectStatus().isOk();
 	}
@@ -124,18 +162,68 @@ class GrievanceControllerTest {
 
 	@Test
 	void getGrievanceDocuments() {
-		when(grievanceService.getGrievanceDocuments(any(), any(), any()))
-				.thenReturn(Flux.just(new GrievanceDocument()));
-		webTestClient.get().uri("/grievances/G1/documents").header("X-USER-ID", "admin").header("X-USER-ROLE", "ADMIN")
-				.exchange().expectStatus().isOk();
+		GrievanceDocument doc = GrievanceDocument.builder().id("D2").uploadedAt(Instant.ofEpochMilli(3000)).build();
+		when(grievanceService.getGrievanceDocuments("G1", "admin", "ADMIN", "abc", 1)).thenReturn(Flux.just(doc));
+		webTestClient.get().uri("/grievances/G1/documents?limit=1&after=abc").header("X-USER-ID", "admin")
+				.header("X-USER-ROLE", "ADMIN").exchange()
+				.expectStatus().isOk()
+				.expectHeader().valueEquals("X-Next-Cursor", GrievanceCursor.of(doc).encode());
+	}
+
+	private GrievanceDocument storedDocument(Path file) {
+		GrievanceDocument doc = GrievanceDocument.builder().id("D1").grievanceId("G1").fileName("scan.pdf")
+				.fileType("application/pdf").filePath(file.toString()).size(10).sha256("abc123").build();
+		when(grievanceService.getDocument("G1", "D1", "admin", "ADMIN")).thenReturn(Mono.just(doc));
+		when(grievanceService.documentFile(doc)).thenReturn(Mono.just(new FileSystemResource(file)));
+		return doc;
+	}
+
+	@Test
+	void downloadDocument(@TempDir Path dir) throws Exception {
+		storedDocument(Files.writeString(dir.resolve("scan.pdf"), "0123456789"));
+		webTestClient.get().uri("/grievances/G1/documents/D1").header("X-USER-ID", "admin")
+				.header("X-USER-ROLE", "ADMIN").exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentType(MediaType.APPLICATION_PDF)
+				.expectHeader().contentLength(10)
+				.expectHeader().valueEquals(HttpHeaders.ETAG, "\"abc123\"")
+				.expectHeader().valueEquals(HttpHeaders.ACCEPT_RANGES, "bytes")
+				.expectHeader().valueEquals(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"scan.pdf\"")
+				.expectBody(String.class).isEqualTo("0123456789");
+	}
+
+	@Test
+	void downloadDocument_range_returnsPartialContent(@TempDir Path dir) throws Exception {
+		storedDocument(Files.writeString(dir.resolve("scan.pdf"), "0123456789"));
+		webTestClient.get().uri("/grievances/G1/documents/D1").header("X-USER-ID", "admin")
+				.header("X-USER-ROLE", "ADMIN").header(HttpHeaders.RANGE, "bytes=4-7").exchange()
+				.expectStatus().isEqualTo(HttpStatus.PARTIAL_CONTENT)
+				.expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes 4-7/10")
+				.expectBody(String.class).isEqualTo("4567");
+	}
+
+	@Test
+	void downloadDocument_matchingEtag_isNotModifiedWithoutOpeningTheFile(@TempDir Path dir) throws Exception {
+		GrievanceDocument doc = storedDocument(dir.resolve("scan.pdf"));
+		webTestClient.get().uri("/grievances/G1/documents/D1").header("X-USER-ID", "admin")
+				.header("X-USER-ROLE", "ADMIN").header(HttpHeaders.IF_NONE_MATCH, "\"abc123\"").exchange()
+				.expectStatus().isNotModified()
+				.expectHeader().valueEquals(HttpHeaders.ETAG, "\"abc123\"")
+				.expectBody().isEmpty();
+		verify(grievanceService, never()).documentFile(doc);
 	}
 
 	@Test
-	void downloadDocument() {
-		when(grievanceService.downloadDocument(any(), any(), any(), any()))
-				.thenReturn(Mono.just(new ByteArrayResource("test".getBytes())));
+	void downloadDocument_withoutStoredHash_hasNoEtag() {
+		GrievanceDocument doc = GrievanceDocument.builder().id("D1").grievanceId("G1").fileName("old.txt")
+				.filePath("old.txt").build();
+		when(grievanceService.getDocument(any(), any(), any(), any())).thenReturn(Mono.just(doc));
+		when(grievanceService.documentFile(doc)).thenReturn(Mono.just(new ByteArrayResource("test".getBytes())));
 		webTestClient.get().uri("/grievances/G1/documents/D1").header("X-USER-ID", "admin")
-				.header("X-USER-ROLE", "ADMIN").exchange().expectStatus().isOk();
+				.header("X-USER-ROLE", "ADMIN").header(HttpHeaders.IF_NONE_MATCH, "*").exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentType(MediaType.APPLICATION_OCTET_STREAM)
+				.expectHeader().doesNotExist(HttpHeaders.ETAG);
 	}
 
 	@Test
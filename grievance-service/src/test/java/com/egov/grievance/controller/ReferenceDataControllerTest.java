@@ -10,6 +10,9 @@ import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import com.egov.grievance.dto.Category;
+import com.egov.grievance.dto.Department;
+import com.egov.grievance.dto.ReferenceDataSnapshot;
 import com.egov.grievance.service.ReferenceDataService;
 
 import reactor.core.publisher.Mono;
@@ -24,10 +27,37 @@ class ReferenceDataControllerTest {
 	@MockBean
 	private ReferenceDataService service;
 
+	private static ReferenceDataSnapshot snapshot() {
+		return new ReferenceDataSnapshot("v1",
+				Map.of("D1", new Department("Water", Map.of("C1", new Category("Leakage", 48)))));
+	}
+
 	@Test
 	void getDepartments_success() {
-		when(service.getAllDepartments()).thenReturn(Mono.just(Map.of("D1", Map.of("name", "Water"))));
-		webTestClient.get().uri("/reference/departments").exchange().expectStatus().isOk();
+		when(service.getAllDepartments()).thenReturn(Mono.just(snapshot()));
+		webTestClient.get().uri("/reference/departments").exchange().expectStatus().isOk()
+				.expectHeader().valueEquals("ETag", "\"v1\"")
+				.expectHeader().valueEquals("Cache-Control", "max-age=60, public")
+				.expectBody()
+				.jsonPath("$.D1.name").isEqualTo("Water")
+				.jsonPath("$.D1.categories.C1.slaHours").isEqualTo(48);
+	}
+
+	@Test
+	void getDepartments_matchingEtag_notModified() {
+		when(service.getAllDepartments()).thenReturn(Mono.just(snapshot()));
+		webTestClient.get().uri("/reference/departments").header("If-None-Match", "\"v1\"").exchange()
+				.expectStatus().isNotModified()
+				.expectHeader().valueEquals("ETag", "\"v1\"")
+				.expectBody().isEmpty();
+	}
+
+	@Test
+	void getDepartments_staleEtag_fullBody() {
+		when(service.getAllDepartments()).thenReturn(Mono.just(snapshot()));
+		webTestClient.get().uri("/reference/departments").header("If-None-Match", "\"v0\"").exchange()
+				.expectStatus().isOk()
+				.expectBody().jsonPath("$.D1.name").isEqualTo("Water");
 	}
 
 	@Test
@@ -38,7 +68,7 @@ class ReferenceDataControllerTest {
 
 	@Test
 	void getCategories_success() {
-		when(service.getCategoriesByDepartment("D001")).thenReturn(Mono.just(Map.of("C1", "Water Leakage")));
+		when(service.getCategoriesByDepartment("D001")).thenReturn(Mono.just(Map.of("C1", new Category("Water Leakage", 24))));
 		webTestClient.get().uri("/reference/departments/D001/categories").exchange().expectStatus().isOk();
 	}
 
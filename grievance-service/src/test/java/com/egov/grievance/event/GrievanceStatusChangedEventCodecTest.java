@@ -0,0 +1,89 @@
+package com.egov.grievance.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.HexFormat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+class GrievanceStatusChangedEventCodecTest {
+
+	private static final String WIRE_EVENT_ID = "65a1f0c2e4b0a1b2c3d4e5f6";
+	private static final String WIRE_HEX = "01f70165a1f0c2e4b0a1b2c3d4e5f6016f1c2d3e4a5b6c7d8e9f0a1b0844303031125355424d4954"
+			+ "5445441041535349474e45440a41444d494e8096a4f70c80cab5ee01";
+
+	private static GrievanceStatusChangedEvent event() {
+		return new GrievanceStatusChangedEvent("65a1f0c2e4b0a1b2c3d4e5f6", "6f1c2d3e4a5b6c7d8e9f0a1b",
+				"D001", "6f1c2d3e4a5b6c7d8e9f0a2c", "ASSIGNED", "IN_REVIEW", "6f1c2d3e4a5b6c7d8e9f0a2c",
+				Instant.parse("2025-03-14T09:26:53.589793238Z"));
+	}
+
+	@Test
+	void roundTrip_keepsEveryFieldIncludingNanos() {
+		GrievanceStatusChangedEvent event = event();
+		byte[] encoded = GrievanceStatusChangedEventCodec.encode(event);
+
+		assertEquals(GrievanceStatusChangedEventCodec.VERSION, encoded[0]);
+		assertEquals(event, GrievanceStatusChangedEventCodec.decode(encoded));
+	}
+
+	// the same bytes are pinned in the notification service's copy of the codec
+	@Test
+	void wireFormat_isStable() {
+		GrievanceStatusChangedEvent event = new GrievanceStatusChangedEvent(WIRE_EVENT_ID, "6f1c2d3e4a5b6c7d8e9f0a1b",
+				"D001", null, "SUBMITTED", "ASSIGNED", "ADMIN", Instant.parse("2025-01-01T00:00:00.5Z"));
+
+		assertEquals(WIRE_HEX, HexFormat.of().formatHex(GrievanceStatusChangedEventCodec.encode(event)));
+	}
+
+	@Test
+	void roundTrip_keepsNullsAndUnicode() {
+		GrievanceStatusChangedEvent event = new GrievanceStatusChangedEvent("G1", "U1", "D001", null, null,
+				"SUBMITTED", "नागरिक", null);
+
+		assertEquals(event, GrievanceStatusChangedEventCodec.decode(GrievanceStatusChangedEventCodec.encode(event)));
+	}
+
+	@Test
+	void unknownVersion_isRejected() {
+		byte[] encoded = GrievanceStatusChangedEventCodec.encode(event());
+		encoded[0] = 2;
+
+		assertThrows(IllegalArgumentException.class, () -> GrievanceStatusChangedEventCodec.decode(encoded));
+	}
+
+	// stands in for a benchmark: size always, and encode+decode cost against the json path it replaces
+	@Test
+	void binary_isSmallerAndCheaperThanJson() {
+		GrievanceStatusChangedEvent event = event();
+		try (JsonSerializer<Object> serializer = new JsonSerializer<>();
+				JsonDeserializer<GrievanceStatusChangedEvent> deserializer =
+						new JsonDeserializer<>(GrievanceStatusChangedEvent.class, false)) {
+			serializer.setAddTypeInfo(false);
+			byte[] json = serializer.serialize("grievance-status-changed", event);
+			byte[] binary = GrievanceStatusChangedEventCodec.encode(event);
+			assertTrue(binary.length * 3 < json.length, binary.length + " binary bytes vs " + json.length + " json");
+
+			long jsonNanos = Long.MAX_VALUE;
+			long binaryNanos = Long.MAX_VALUE;
+			for (int round = 0; round < 5; round++) {
+				long start = System.nanoTime();
+				for (int i = 0; i < 20_000; i++) {
+					deserializer.deserialize("t", serializer.serialize("t", event));
+				}
+				jsonNanos = Math.min(jsonNanos, System.nanoTime() - start);
+				start = System.nanoTime();
+				for (int i = 0; i < 20_000; i++) {
+					GrievanceStatusChangedEventCodec.decode(GrievanceStatusChangedEventCodec.encode(event));
+				}
+				binaryNanos = Math.min(binaryNanos, System.nanoTime() - start);
+			}
+			assertTrue(binaryNanos < jsonNanos, "binary " + binaryNanos + "ns vs json " + jsonNanos + "ns");
+		}
+	}
+}
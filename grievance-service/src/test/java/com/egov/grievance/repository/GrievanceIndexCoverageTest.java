@@ -0,0 +1,139 @@
+package com.egov.grievance.repository;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+
+import com.egov.grievance.model.Grievance;
+
+/**
+ * Checks every grievance query shape against the declared indexes without needing a mongod: a shape is
+ * covered when some index starts with exactly its equality fields followed by its sort keys, which is
+ * what lets the planner use an IXSCAN with no in-memory sort. GrievanceQueryPlanTest checks the same
+ * shapes with a real explain() when a mongo is available.
+ */
+class GrievanceIndexCoverageTest {
+
+	static final Document PAGE_SORT = sortDocument(GrievanceRepositoryCustomImpl.PAGE_ORDER);
+
+	// status IN (open) is answered by one index range per status merged on the sort keys
+	static final Document SLA_BREACH_SORT = sortDocument(
+			GrievanceRepositoryCustomImpl.keysetOrder("slaDeadline", Sort.Direction.ASC));
+
+	static final List<Set<String>> SLA_BREACH_FILTERS = List.of(
+			Set.of("status"),
+			Set.of("departmentId", "status"));
+
+	// equality filters GrievanceService passes to findPage
+	static final List<Set<String>> PAGE_FILTERS = List.of(
+			Set.of(),
+			Set.of("status"),
+			Set.of("departmentId"),
+			Set.of("departmentId", "status"),
+			Set.of("assignedOfficerId"),
+			Set.of("assignedOfficerId", "status"),
+			Set.of("citizenId"),
+			Set.of("citizenId", "status"));
+
+	private final List<Document> indexKeys = new ArrayList<>();
+
+	GrievanceIndexCoverageTest() {
+		IndexResolver.create(mappingContext()).resolveIndexFor(Grievance.class)
+				.forEach(definition -> indexKeys.add(((IndexDefinition) definition).getIndexKeys()));
+	}
+
+	@Test
+	void derivedFinders_areCoveredByAnIndex() {
+		for (Map.Entry<String, Set<String>> finder : derivedFinderFilters().entrySet()) {
+			assertTrue(covered(finder.getValue(), new Document()),
+					finder.getKey() + " has no index on " + finder.getValue());
+		}
+	}
+
+	@Test
+	void pageQueries_areCoveredIncludingSort() {
+		for (Set<String> filter : PAGE_FILTERS) {
+			assertTrue(covered(filter, PAGE_SORT), "findPage has no index on " + filter + " sorted by " + PAGE_SORT);
+		}
+	}
+
+	@Test
+	void slaBreachPages_areCoveredIncludingSort() {
+		for (Set<String> filter : SLA_BREACH_FILTERS) {
+			assertTrue(covered(filter, SLA_BREACH_SORT),
+					"findSlaBreachPage has no index on " + filter + " sorted by " + SLA_BREACH_SORT);
+		}
+	}
+
+	private static Document sortDocument(Sort sort) {
+		return sort.stream()
+				.collect(Document::new, (doc, order) -> doc.append(order.getProperty(), order.isAscending() ? 1 : -1),
+						Document::putAll);
+	}
+
+	// same simple types as the boot configured context, otherwise Instant is treated as an entity
+	static MongoMappingContext mappingContext() {
+		MongoMappingContext mappingContext = new MongoMappingContext();
+		mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+		mappingContext.afterPropertiesSet();
+		return mappingContext;
+	}
+
+	static Map<String, Set<String>> derivedFinderFilters() {
+		Map<String, Set<String>> filters = new TreeMap<>();
+		for (Method method : GrievanceRepository.class.getDeclaredMethods()) {
+			Set<String> fields = new LinkedHashSet<>();
+			for (Part part : new PartTree(method.getName(), Grievance.class).getParts()) {
+				fields.add(part.getProperty().toDotPath());
+			}
+			filters.put(method.getName(), fields);
+		}
+		return filters;
+	}
+
+	private boolean covered(Set<String> equalityFields, Document sort) {
+		return indexKeys.stream().anyMatch(keys -> covers(keys, equalityFields, sort));
+	}
+
+	private static boolean covers(Document keys, Set<String> equalityFields, Document sort) {
+		List<String> fields = new ArrayList<>(keys.keySet());
+		int equalityCount = equalityFields.size();
+		if (fields.size() < equalityCount + sort.size()
+				|| !equalityFields.equals(new LinkedHashSet<>(fields.subList(0, equalityCount)))) {
+			return false;
+		}
+		// the index can be walked forwards or backwards, but every sort key must follow in order
+		int forward = 0;
+		int backward = 0;
+		int i = equalityCount;
+		for (Map.Entry<String, Object> order : sort.entrySet()) {
+			String field = fields.get(i);
+			if (!field.equals(order.getKey())) {
+				return false;
+			}
+			if (((Number) keys.get(field)).intValue() == ((Number) order.getValue()).intValue()) {
+				forward++;
+			} else {
+				backward++;
+			}
+			i++;
+		}
+		return forward == 0 || backward == 0;
+	}
+}
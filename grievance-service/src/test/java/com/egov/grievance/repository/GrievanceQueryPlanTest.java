@@ -0,0 +1,106 @@
+package com.egov.grievance.repository;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.egov.grievance.config.MongoIndexReconciler;
+import com.egov.grievance.dto.GrievanceCursor;
+import com.egov.grievance.model.GRIEVANCE_STATUS;
+import com.egov.grievance.model.Grievance;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs explain() for every grievance query shape against a real mongod and fails if any winning plan
+ * contains a COLLSCAN. Needs a throwaway database, e.g.
+ * EXPLAIN_MONGODB_URI=mongodb://localhost:27017 mvn test -Dtest=GrievanceQueryPlanTest
+ */
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_MONGODB_URI", matches = ".+")
+class GrievanceQueryPlanTest {
+
+	private static MongoClient client;
+	private static ReactiveMongoTemplate mongoTemplate;
+
+	@BeforeAll
+	static void createIndexes() {
+		client = MongoClients.create(System.getenv("EXPLAIN_MONGODB_URI"));
+		mongoTemplate = new ReactiveMongoTemplate(client, "egov_query_plan_test");
+		mongoTemplate.dropCollection(Grievance.class).block();
+		mongoTemplate.createCollection(Grievance.class).block();
+		new MongoIndexReconciler(mongoTemplate, true).reconcile().blockLast();
+	}
+
+	@AfterAll
+	static void dropDatabase() {
+		mongoTemplate.getMongoDatabase().flatMap(db -> Mono.from(db.drop())).block();
+		client.close();
+	}
+
+	@Test
+	void derivedFinders_useAnIndex() {
+		GrievanceIndexCoverageTest.derivedFinderFilters()
+				.forEach((finder, fields) -> assertNoCollectionScan(finder, new Query(equalTo(fields))));
+	}
+
+	@Test
+	void pageQueries_useAnIndexForFirstAndLaterPages() {
+		GrievanceCursor cursor = new GrievanceCursor(Instant.now(), new ObjectId().toHexString());
+		for (Set<String> fields : GrievanceIndexCoverageTest.PAGE_FILTERS) {
+			assertNoCollectionScan("findPage" + fields, GrievanceRepositoryCustomImpl.pageQuery(equalTo(fields), null, 50));
+			assertNoCollectionScan("findPage" + fields + " after cursor",
+					GrievanceRepositoryCustomImpl.pageQuery(equalTo(fields), cursor, 50));
+		}
+	}
+
+	private static Criteria equalTo(Set<String> fields) {
+		Criteria criteria = new Criteria();
+		for (String field : fields) {
+			criteria = criteria.and(field).is("status".equals(field) ? GRIEVANCE_STATUS.SUBMITTED : "X1");
+		}
+		return criteria;
+	}
+
+	private static void assertNoCollectionScan(String shape, Query query) {
+		QueryMapper mapper = new QueryMapper(mongoTemplate.getConverter());
+		var entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(Grievance.class);
+		Document find = new Document("find", mongoTemplate.getCollectionName(Grievance.class))
+				.append("filter", mapper.getMappedObject(query.getQueryObject(), entity))
+				.append("sort", mapper.getMappedSort(query.getSortObject(), entity));
+		Document explain = mongoTemplate.executeCommand(
+				new Document("explain", find).append("verbosity", "queryPlanner")).block();
+
+		Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+		List<String> stages = new ArrayList<>();
+		collectStages(winningPlan, stages);
+		assertFalse(stages.contains("COLLSCAN"), shape + " falls back to COLLSCAN: " + winningPlan.toJson());
+	}
+
+	// plans nest their children under inputStage/inputStages (and queryPlan on newer servers)
+	private static void collectStages(Object node, List<String> stages) {
+		if (node instanceof Document plan) {
+			if (plan.get("stage") instanceof String stage) {
+				stages.add(stage);
+			}
+			plan.values().forEach(child -> collectStages(child, stages));
+		} else if (node instanceof List<?> children) {
+			children.forEach(child -> collectStages(child, stages));
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package com.egov.grievance.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.egov.grievance.dto.GrievanceCursor;
+import com.egov.grievance.event.GrievanceStatusChangedEvent;
+import com.egov.grievance.model.GRIEVANCE_STATUS;
+import com.egov.grievance.model.Grievance;
+import com.egov.grievance.model.OutboxEvent;
+
+class GrievanceRepositoryCustomImplTest {
+
+	@Test
+	void firstPage_filterSortAndLimitOnly() {
+		Query query = GrievanceRepositoryCustomImpl.pageQuery(where("departmentId").is("D001"), null, 25);
+
+		assertEquals(new Document("departmentId", "D001"), query.getQueryObject());
+		assertEquals(new Document("createdAt", -1).append("_id", -1), query.getSortObject());
+		assertEquals(25, query.getLimit());
+		assertNull(query.getQueryObject().get("$and"));
+	}
+
+	@Test
+	void laterPage_seeksPastCursorOnCreatedAtThenId() {
+		Instant createdAt = Instant.ofEpochMilli(1_700_000_000_000L);
+		Query query = GrievanceRepositoryCustomImpl.pageQuery(new Criteria(),
+				new GrievanceCursor(createdAt, "G5"), 25);
+
+		List<?> and = (List<?>) query.getQueryObject().get("$and");
+		Document keyset = (Document) and.get(1);
+		List<?> or = (List<?>) keyset.get("$or");
+		assertEquals(new Document("createdAt", new Document("$lt", createdAt)), or.get(0));
+		assertEquals(new Document("createdAt", createdAt).append("_id", new Document("$lt", "G5")), or.get(1));
+	}
+
+	@Test
+	void ascendingPage_seeksPastCursorWithGreaterThan() {
+		Instant deadline = Instant.ofEpochMilli(1_700_000_000_000L);
+		Query query = GrievanceRepositoryCustomImpl.keysetQuery(new Criteria(), "slaDeadline", Sort.Direction.ASC,
+				new GrievanceCursor(deadline, "G5"), 25);
+
+		assertEquals(new Document("slaDeadline", 1).append("_id", 1), query.getSortObject());
+		List<?> and = (List<?>) query.getQueryObject().get("$and");
+		List<?> or = (List<?>) ((Document) and.get(1)).get("$or");
+		assertEquals(new Document("slaDeadline", new Document("$gt", deadline)), or.get(0));
+		assertEquals(new Document("slaDeadline", deadline).append("_id", new Document("$gt", "G5")), or.get(1));
+	}
+
+	@Test
+	void cursor_roundTrips() {
+		GrievanceCursor cursor = new GrievanceCursor(Instant.ofEpochMilli(1234), "64b0c0ffee");
+		assertEquals(cursor, GrievanceCursor.decode(cursor.encode()));
+		assertNull(GrievanceCursor.decode(null));
+	}
+
+	@Test
+	void transition_onlyMatchesTheVersionItWasReadAt() {
+		Grievance grievance = Grievance.builder().id("G1").version(4L).build();
+
+		assertEquals(new Document("_id", "G1").append("version", 4L),
+				GrievanceRepositoryCustomImpl.transitionQuery(grievance).getQueryObject());
+	}
+
+	@Test
+	void transition_appendsTheEventAndLeavesTheRelayFieldsAlone() {
+		MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE,
+				GrievanceIndexCoverageTest.mappingContext());
+		converter.afterPropertiesSet();
+		Grievance grievance = Grievance.builder().id("G1").version(4L).status(GRIEVANCE_STATUS.IN_REVIEW)
+				.departmentId("D001").outboxClaimedBy("relay-1").build();
+		OutboxEvent event = OutboxEvent.statusChanged(new GrievanceStatusChangedEvent("G1", "U1", "D001", "O1",
+				"ASSIGNED", "IN_REVIEW", "O1", Instant.now()));
+
+		Document update = GrievanceRepositoryCustomImpl.transitionUpdate(converter, grievance, event).getUpdateObject();
+
+		Document set = update.get("$set", Document.class);
+		assertEquals("IN_REVIEW", set.get("status"));
+		assertEquals("D001", set.get("departmentId"));
+		for (String field : List.of("_id", "version", "outbox", "outboxClaimedBy", "outboxClaimedUntil")) {
+			assertFalse(set.containsKey(field), field);
+		}
+		assertTrue(update.get("$unset", Document.class).containsKey("assignedOfficerId"));
+		assertFalse(update.get("$unset", Document.class).containsKey("outbox"));
+		assertEquals(event, update.get("$push", Document.class).get("outbox"));
+		assertEquals(new Document("version", 1), update.get("$inc", Document.class));
+	}
+}
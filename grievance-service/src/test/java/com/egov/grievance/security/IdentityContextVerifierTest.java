@@ -0,0 +1,84 @@
+package com.egov.grievance.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.Test;
+
+class IdentityContextVerifierTest {
+
+	private static final String SECRET = "egov-secret-key-should-be-very-long-and-secure-256bit";
+
+	private final IdentityContextVerifier verifier = new IdentityContextVerifier(SECRET, Duration.ofSeconds(60));
+
+	@Test
+	void verify_validHeader() {
+		String header = sign(SECRET, "S1\nSUPERVISOR\nD001\n3\n" + Instant.now().getEpochSecond());
+
+		Optional<IdentityContext> identity = verifier.verify(header, "S1", "SUPERVISOR");
+
+		assertTrue(identity.isPresent());
+		assertEquals("D001", identity.get().getDepartmentId());
+		assertEquals(3, identity.get().getTokenVersion());
+	}
+
+	@Test
+	void verify_emptyDepartment_mappedToNull() {
+		String header = sign(SECRET, "U1\nCITIZEN\n\n0\n" + Instant.now().getEpochSecond());
+
+		assertNull(verifier.verify(header, "U1", "CITIZEN").orElseThrow().getDepartmentId());
+	}
+
+	@Test
+	void verify_wrongSecret_rejected() {
+		String header = sign("some-other-secret-key-that-is-long-enough-256", "S1\nSUPERVISOR\nD001\n3\n"
+				+ Instant.now().getEpochSecond());
+
+		assertTrue(verifier.verify(header, "S1", "SUPERVISOR").isEmpty());
+	}
+
+	@Test
+	void verify_userHeaderMismatch_rejected() {
+		String header = sign(SECRET, "S1\nSUPERVISOR\nD001\n3\n" + Instant.now().getEpochSecond());
+
+		assertTrue(verifier.verify(header, "S2", "SUPERVISOR").isEmpty());
+		assertTrue(verifier.verify(header, "S1", "ADMIN").isEmpty());
+	}
+
+	@Test
+	void verify_staleHeader_rejected() {
+		String header = sign(SECRET, "S1\nSUPERVISOR\nD001\n3\n" + Instant.now().minusSeconds(600).getEpochSecond());
+
+		assertTrue(verifier.verify(header, "S1", "SUPERVISOR").isEmpty());
+	}
+
+	@Test
+	void verify_malformedHeader_rejected() {
+		assertTrue(verifier.verify(null, "S1", "SUPERVISOR").isEmpty());
+		assertTrue(verifier.verify("not-a-context", "S1", "SUPERVISOR").isEmpty());
+		assertTrue(verifier.verify("%%%.###", "S1", "SUPERVISOR").isEmpty());
+		// the four-part format signed before token versions were carried
+		assertTrue(verifier.verify(sign(SECRET, "S1\nSUPERVISOR\nD001\n" + Instant.now().getEpochSecond()),
+				"S1", "SUPERVISOR").isEmpty());
+	}
+
+	private static String sign(String secret, String payload) {
+		try {
+			Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+			byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+			Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+			return encoder.encodeToString(bytes) + "." + encoder.encodeToString(mac.doFinal(bytes));
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
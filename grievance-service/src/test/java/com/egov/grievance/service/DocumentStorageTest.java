@@ -0,0 +1,183 @@
+package com.egov.grievance.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.web.server.ResponseStatusException;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+class DocumentStorageTest {
+
+    @TempDir
+    Path root;
+
+    private static FilePart part(String name, byte[] data, int chunk) {
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int from = 0; from < data.length; from += chunk) {
+            byte[] slice = Arrays.copyOfRange(data, from, Math.min(data.length, from + chunk));
+            buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(slice));
+        }
+        return part(name, Flux.fromIterable(buffers));
+    }
+
+    private static FilePart part(String name, Flux<DataBuffer> content) {
+        FilePart part = mock(FilePart.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        when(part.filename()).thenReturn(name);
+        when(part.headers()).thenReturn(headers);
+        when(part.content()).thenReturn(content);
+        return part;
+    }
+
+    private static byte[] bytes(int size) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) (i * 31);
+        }
+        return data;
+    }
+
+    @Test
+    void streamsTheFileToDisk_withItsSizeAndSha256() throws Exception {
+        DocumentStorage storage = new DocumentStorage(root, 1 << 20, 1 << 20, 2);
+        byte[] data = bytes(100_000);
+
+        DocumentStorage.StoredFile stored = storage.store("G1", Flux.just(part("scan.pdf", data, 8192)))
+                .single().block();
+
+        assertEquals("scan.pdf", stored.fileName());
+        assertEquals("application/pdf", stored.contentType());
+        assertEquals(root.resolve("G1").resolve(stored.id()), stored.path());
+        assertEquals(data.length, stored.size());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data)), stored.sha256());
+        assertArrayEquals(data, Files.readAllBytes(stored.path()));
+    }
+
+    @Test
+    void sameFileNameTwice_isStoredUnderTwoPaths() throws Exception {
+        DocumentStorage storage = new DocumentStorage(root, 1 << 20, 1 << 20, 2);
+        byte[] first = bytes(1000);
+        byte[] second = bytes(2000);
+
+        List<DocumentStorage.StoredFile> stored = storage.store("G1", Flux.just(part("scan.pdf", first, 512),
+                part("scan.pdf", second, 512))).collectList().block();
+
+        assertNotEquals(stored.get(0).path(), stored.get(1).path());
+        assertEquals(Set.of(first.length, second.length), Set.of(
+                Files.readAllBytes(stored.get(0).path()).length, Files.readAllBytes(stored.get(1).path()).length));
+    }
+
+    @Test
+    void reuploadUnderTheSameName_leavesTheEarlierFileMatchingItsHash() throws Exception {
+        DocumentStorage storage = new DocumentStorage(root, 1 << 20, 1 << 20, 2);
+        byte[] original = bytes(5000);
+        byte[] replacement = bytes(3000);
+
+        DocumentStorage.StoredFile earlier = storage.store("G1", Flux.just(part("scan.pdf", original, 1024)))
+                .single().block();
+        storage.store("G1", Flux.just(part("scan.pdf", replacement, 1024))).single().block();
+
+        // the earlier document's sha256 is its ETag, so it must still describe the bytes served for it
+        byte[] served = Files.readAllBytes(earlier.path());
+        assertArrayEquals(original, served);
+        assertEquals(earlier.sha256(), HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(served)));
+    }
+
+    private long filesIn(Path dir) throws Exception {
+        if (!Files.exists(dir)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void fileOverTheLimit_isRejectedAndRemoved() throws Exception {
+        DocumentStorage storage = new DocumentStorage(root, 10_000, 1 << 20, 2);
+
+        StepVerifier.create(storage.store("G1", Flux.just(part("big.pdf", bytes(20_000), 4096))))
+                .expectErrorSatisfies(e -> assertEquals(HttpStatus.PAYLOAD_TOO_LARGE,
+                        ((ResponseStatusException) e).getStatusCode()))
+                .verify();
+
+        assertEquals(0, filesIn(root.resolve("G1")));
+    }
+
+    @Test
+    void requestOverTheLimit_removesEveryFileOfTheRequest() throws Exception {
+        DocumentStorage storage = new DocumentStorage(root, 10_000, 15_000, 1);
+
+        StepVerifier.create(storage.store("G1", Flux.just(part("a.pdf", bytes(8_000), 4096),
+                part("b.pdf", bytes(8_000), 4096))))
+                .expectNextCount(1)
+                .expectError(ResponseStatusException.class)
+                .verify();
+
+        assertEquals(0, filesIn(root.resolve("G1")));
+    }
+
+    @Test
+    void discard_removesTheStoredFiles() throws Exception {
+        DocumentStorage storage = new DocumentStorage(root, 1 << 20, 1 << 20, 2);
+        List<DocumentStorage.StoredFile> stored = storage.store("G1", Flux.just(part("a.pdf", bytes(100), 64),
+                part("b.pdf", bytes(100), 64))).collectList().block();
+
+        storage.discard(stored).block();
+
+        assertEquals(0, filesIn(root.resolve("G1")));
+    }
+
+    @Test
+    void uploads_runAtMostConcurrencyAtATime() {
+        DocumentStorage storage = new DocumentStorage(root, 1 << 20, 1 << 20, 2);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        // counted down before the content's completion reaches the storage, doFinally would run only after
+        // it and let the next upload start first
+        Flux<FilePart> files = Flux.range(0, 6).map(i -> part("f" + i + ".pdf", Flux.defer(() -> {
+            peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+            return Flux.<DataBuffer>just(DefaultDataBufferFactory.sharedInstance.wrap(bytes(1000)))
+                    .delayElements(Duration.ofMillis(20));
+        }).doOnTerminate(active::decrementAndGet).doOnCancel(active::decrementAndGet)));
+
+        StepVerifier.create(storage.store("G1", files)).expectNextCount(6).verifyComplete();
+
+        assertEquals(2, peak.get());
+    }
+
+    @Test
+    void fileName_keepsOnlyTheLastPathElement() {
+        assertEquals("passwd", DocumentStorage.fileName("../../etc/passwd"));
+        assertEquals("evil.pdf", DocumentStorage.fileName("..\\..\\evil.pdf"));
+        assertThrows(ResponseStatusException.class, () -> DocumentStorage.fileName(".."));
+        assertThrows(ResponseStatusException.class, () -> DocumentStorage.fileName(""));
+    }
+}
@@ -1,8 +1,13 @@
 package com.egov.grievance.service;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import com.egov.grievance.event.GrievanceSlaBreachedEvent;
 import com.egov.grievance.event.GrievanceStatusChangedEvent;
+import com.egov.grievance.model.OutboxEvent;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -20,10 +25,26 @@ class GrievanceEventPublisherTest {
 	private GrievanceEventPublisher publisher;
 
 	@Test
-	void publishStatusChange_sendsEventToKafka() {
+	void publish_sendsOutboxEventKeyedByGrievanceId() {
 		GrievanceStatusChangedEvent event = new GrievanceStatusChangedEvent("G1", "C1", "D1", "O1", "SUBMITTED",
 				"ASSIGNED", "ADMIN", java.time.Instant.now());
-		publisher.publishStatusChange(event);
-		verify(kafkaTemplate).send("grievance-status-changed", event);
+		publisher.publish(OutboxEvent.statusChanged(event));
+		verify(kafkaTemplate).send("grievance-status-changed", "G1", event);
+	}
+
+	@Test
+	void publish_failsTheFutureWhenTheSendCannotStart() {
+		when(kafkaTemplate.send(any(), any(), any())).thenThrow(new IllegalStateException("metadata timeout"));
+		GrievanceStatusChangedEvent event = new GrievanceStatusChangedEvent("G1", "C1", "D1", "O1", "SUBMITTED",
+				"ASSIGNED", "ADMIN", java.time.Instant.now());
+		assertTrue(publisher.publish(OutboxEvent.statusChanged(event)).isCompletedExceptionally());
+	}
+
+	@Test
+	void publish_slaBreachedOutboxEvent_sendsItsOwnTopicAndPayload() {
+		GrievanceSlaBreachedEvent event = new GrievanceSlaBreachedEvent("G1", "C1", "D1", "O1", "ASSIGNED",
+				java.time.Instant.now(), java.time.Instant.now());
+		publisher.publish(OutboxEvent.slaBreached(event));
+		verify(kafkaTemplate).send("grievance-sla-breached", "G1", event);
 	}
 }
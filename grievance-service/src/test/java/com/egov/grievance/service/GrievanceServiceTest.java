@@ -1,24 +1,33 @@
 package com.egov.grievance.service;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 
-import org.junit.jupiter.api.BeforeEach;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreaker;
-import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.egov.grievance.dto.CreateGrievanceRequest;
+import com.egov.grievance.dto.GrievanceCursor;
 import com.egov.grievance.dto.UserResponse;
-import com.egov.grievance.event.GrievanceStatusChangedEvent;
 import com.egov.grievance.model.GRIEVANCE_STATUS;
 import com.egov.grievance.model.Grievance;
 import com.egov.grievance.model.GrievanceDocument;
@@ -26,9 +35,13 @@ import com.egov.grievance.model.GrievanceStatusHistory;
 import com.egov.grievance.repository.GrievanceDocumentRepository;
 import com.egov.grievance.repository.GrievanceHistoryRepository;
 import com.egov.grievance.repository.GrievanceRepository;
+import com.egov.grievance.security.IdentityContext;
 
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import reactor.core.publisher.Flux;
@@ -49,23 +62,19 @@ class GrievanceServiceTest {
 	@Mock
 	private WebClient.Builder webClientBuilder;
 	@Mock
-	private GrievanceEventPublisher publisher;
-	@Mock
 	private GrievanceHistoryRepository historyRepository;
 	@Mock
-	private ReactiveCircuitBreakerFactory<?, ?> cbFactory;
+	private UserBatchClient userBatchClient;
+	@Mock
+	private SlaWatchdog slaWatchdog;
 	@Mock
-	private ReactiveCircuitBreaker cb;
+	private DocumentStorage documentStorage;
+	@Spy
+	private UserProfileCache userProfileCache = new UserProfileCache(100, Duration.ofMinutes(1));
 
 	@InjectMocks
 	private GrievanceService service;
 
-	@BeforeEach
-	void setup() {
-		lenient().when(cbFactory.create(anyString())).thenReturn(cb);
-		lenient().when(cb.run(any(Mono.class), any())).thenAnswer(inv -> inv.getArgument(0));
-	}
-
 	private Grievance grievance(String status) {
 		return Grievance.builder().id("G1").citizenId("U1").departmentId("D001").categoryId("C101").title("Leak")
 				.description("Pipe leak").status(GRIEVANCE_STATUS.valueOf(status))
@@ -82,16 +91,21 @@ class GrievanceServiceTest {
 		req.setDescription("Pipe");
 
 		when(referenceDataService.validateDepartmentAndCategory(any(), any())).thenReturn(Mono.empty());
-		when(grievanceRepository.save(any())).thenAnswer(inv -> {
-			Grievance g = inv.getArgument(0);
-			g.setId("G1");
-			return Mono.just(g);
-		});
-		
-		when(historyService.createInitialHistory("G1", "U1")).thenReturn(Mono.just("G1"));
-		StepVerifier.create(service.createGrievance("U1", "CITIZEN", req, Flux.empty())).expectNext("G1")
+		when(referenceDataService.getSlaHours("D001", "C101")).thenReturn(Mono.just(48));
+		when(grievanceRepository.save(any())).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+		when(documentStorage.store(anyString(), any())).thenReturn(Flux.empty());
+		when(historyService.createInitialHistory(anyString(), eq("U1")))
+				.thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+		StepVerifier.create(service.createGrievance("U1", "CITIZEN", req, Flux.empty()))
+				.expectNextMatches(ObjectId::isValid)
 				.verifyComplete();
-		verify(publisher).publishStatusChange(any(GrievanceStatusChangedEvent.class));
+		verify(grievanceRepository).save(argThat(
+				g -> g.getSlaDeadline().equals(g.getCreatedAt().plus(Duration.ofHours(48)))));
+		// the SUBMITTED event is saved with the grievance, keyed by the id assigned before the save
+		verify(grievanceRepository).save(argThat(g -> g.getOutbox().size() == 1
+				&& "SUBMITTED".equals(g.getOutbox().get(0).getPayload().getNewStatus())
+				&& g.getId().equals(g.getOutbox().get(0).getKey())));
+		verify(slaWatchdog).onStatusChange(argThat(saved -> saved.getId() != null));
 	}
 
 	@Test
@@ -105,7 +119,7 @@ class GrievanceServiceTest {
 		Grievance g = grievance("SUBMITTED");
 
 		when(grievanceRepository.findById("G1")).thenReturn(Mono.just(g));
-		when(grievanceRepository.save(any())).thenReturn(Mono.just(g));
+		when(grievanceRepository.saveTransition(any(), any())).thenReturn(Mono.just(g));
 		when(historyService.addHistory(any(), any(), any(), any())).thenReturn(Mono.empty());
 
 		mockUser("O1", "OFFICER", "D001");
@@ -113,6 +127,42 @@ class GrievanceServiceTest {
 		StepVerifier.create(service.assignGrievance("G1", "ADMIN", "ADMIN", "O1")).verifyComplete();
 	}
 
+	@Test
+	void markInReview_concurrentChange_isDecidedAgainOnTheFreshDocument() {
+		// like the repository, every subscription reads the document again
+		when(grievanceRepository.findById("G1")).thenReturn(Mono.fromSupplier(() -> {
+			Grievance g = grievance("ASSIGNED");
+			g.setAssignedOfficerId("O1");
+			return g;
+		}));
+		when(grievanceRepository.saveTransition(any(), any()))
+				.thenReturn(Mono.error(new OptimisticLockingFailureException("changed")))
+				.thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+		when(historyService.addHistory(any(), any(), any(), any())).thenReturn(Mono.empty());
+
+		StepVerifier.create(service.markInReview("G1", "O1", "OFFICER")).verifyComplete();
+		verify(grievanceRepository, times(2)).saveTransition(any(), any());
+	}
+
+	@Test
+	void markInReview_keepsLosingTheRace_conflict() {
+		// like the repository, every subscription reads the document again
+		when(grievanceRepository.findById("G1")).thenReturn(Mono.fromSupplier(() -> {
+			Grievance g = grievance("ASSIGNED");
+			g.setAssignedOfficerId("O1");
+			return g;
+		}));
+		when(grievanceRepository.saveTransition(any(), any()))
+				.thenReturn(Mono.error(new OptimisticLockingFailureException("changed")));
+		when(historyService.addHistory(any(), any(), any(), any())).thenReturn(Mono.empty());
+
+		StepVerifier.create(service.markInReview("G1", "O1", "OFFICER"))
+				.expectErrorSatisfies(e -> assertEquals(HttpStatus.CONFLICT,
+						((ResponseStatusException) e).getStatusCode()))
+				.verify();
+		verify(grievanceRepository, times(4)).saveTransition(any(), any());
+	}
+
 	@Test
 	void assignGrievance_wrongRole() {
 		StepVerifier.create(service.assignGrievance("G1", "U1", "CITIZEN", "O1"))
@@ -125,7 +175,7 @@ class GrievanceServiceTest {
 		g.setAssignedOfficerId("O1");
 
 		when(grievanceRepository.findById("G1")).thenReturn(Mono.just(g));
-		when(grievanceRepository.save(any())).thenReturn(Mono.just(g));
+		when(grievanceRepository.saveTransition(any(), any())).thenReturn(Mono.just(g));
 		when(historyService.addHistory(any(), any(), any(), any())).thenReturn(Mono.empty());
 
 		StepVerifier.create(service.markInReview("G1", "O1", "OFFICER")).verifyComplete();
@@ -136,10 +186,11 @@ class GrievanceServiceTest {
 		Grievance g = grievance("IN_REVIEW");
 		g.setAssignedOfficerId("O1");
 		when(grievanceRepository.findById("G1")).thenReturn(Mono.just(g));
-		when(grievanceRepository.save(any())).thenReturn(Mono.just(g));
+		when(grievanceRepository.saveTransition(any(), any())).thenReturn(Mono.just(g));
 		when(historyService.addHistory(any(), any(), any(), any())).thenReturn(Mono.empty());
 
 		StepVerifier.create(service.resolveGrievance("G1", "O1", "OFFICER")).verifyComplete();
+		verify(slaWatchdog).onStatusChange(argThat(saved -> saved.getStatus() == GRIEVANCE_STATUS.RESOLVED));
 	}
 
 	@Test
@@ -148,24 +199,13 @@ class GrievanceServiceTest {
 		when(grievanceRepository.findById("G1")).thenReturn(Mono.just(g));
 		when(referenceDataService.getSlaHours(any(), any())).thenReturn(Mono.just(1));
 		mockSupervisor("S1", "D001");
-		when(grievanceRepository.save(any())).thenReturn(Mono.just(g));
+		when(grievanceRepository.saveTransition(any(), any())).thenReturn(Mono.just(g));
 		when(historyService.addHistory(any(), any(), any(), any())).thenReturn(Mono.empty());
 		StepVerifier.create(service.escalateGrievance("G1", "U1", "CITIZEN")).verifyComplete();
 	}
 
 	private void mockUser(String id, String role, String dept) {
-		WebClient webClient = mock(WebClient.class);
-		WebClient.RequestHeadersUriSpec uriSpec = mock(WebClient.RequestHeadersUriSpec.class);
-		WebClient.RequestHeadersSpec headersSpec = mock(WebClient.RequestHeadersSpec.class);
-		WebClient.ResponseSpec responseSpec = mock(WebClient.ResponseSpec.class);
-
-		when(webClientBuilder.build()).thenReturn(webClient);
-		when(webClient.get()).thenReturn(uriSpec);
-		when(uriSpec.uri(eq("http://user-service/users/{id}"), any(Object[].class))).thenReturn(headersSpec);
-		when(headersSpec.retrieve()).thenReturn(responseSpec);
-		when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
-		when(responseSpec.bodyToMono(UserResponse.class))
-				.thenReturn(Mono.just(new UserResponse(id, null, null, role, dept)));
+		when(userBatchClient.getUser(id)).thenReturn(Mono.just(new UserResponse(id, null, null, role, dept)));
 	}
 
 	private void mockSupervisor(String supervisorId, String departmentId) {
@@ -185,14 +225,14 @@ class GrievanceServiceTest {
 
 	@Test
 	void getGrievances_admin_all() {
-		when(grievanceRepository.findAll()).thenReturn(Flux.just(new Grievance()));
-		StepVerifier.create(service.getGrievances(null, null, "ADMIN", "admin")).expectNextCount(1).verifyComplete();
+		when(grievanceRepository.findPage(eq(new Criteria()), isNull(), eq(50))).thenReturn(Flux.just(new Grievance()));
+		StepVerifier.create(service.getGrievances(null, null, "ADMIN", "admin", null, 50)).expectNextCount(1).verifyComplete();
 	}
 
 	@Test
 	void getGrievances_citizen_onlyOwn() {
-		when(grievanceRepository.findByCitizenId("u1")).thenReturn(Flux.just(new Grievance()));
-		StepVerifier.create(service.getGrievances(null, null, "CITIZEN", "u1")).expectNextCount(1).verifyComplete();
+		when(grievanceRepository.findPage(eq(where("citizenId").is("u1")), isNull(), eq(50))).thenReturn(Flux.just(new Grievance()));
+		StepVerifier.create(service.getGrievances(null, null, "CITIZEN", "u1", null, 50)).expectNextCount(1).verifyComplete();
 	}
 
 	@Test
@@ -218,7 +258,7 @@ class GrievanceServiceTest {
 		Grievance g = grievance("RESOLVED");
 		g.setAssignedOfficerId("O1");
 		when(grievanceRepository.findById("G1")).thenReturn(Mono.just(g));
-		when(grievanceRepository.save(any())).thenReturn(Mono.just(g));
+		when(grievanceRepository.saveTransition(any(), any())).thenReturn(Mono.just(g));
 		when(historyService.addHistory(any(), any(), any(), any())).thenReturn(Mono.empty());
 
 		StepVerifier.create(service.closeGrievance("G1", "O1", "OFFICER")).verifyComplete();
@@ -230,134 +270,299 @@ class GrievanceServiceTest {
 		g.setCitizenId("U1");
 		g.setResolvedAt(Instant.now().minus(Duration.ofDays(2)));
 		when(grievanceRepository.findById("G1")).thenReturn(Mono.just(g));
-		when(grievanceRepository.save(any())).thenReturn(Mono.just(g));
+		when(grievanceRepository.saveTransition(any(), any())).thenReturn(Mono.just(g));
 		when(historyService.addHistory(any(), any(), any(), any())).thenReturn(Mono.empty());
 		StepVerifier.create(service.reopenGrievance("G1", "U1", "CITIZEN")).verifyComplete();
 	}
 
 	@Test
 	void getSlaBreaches_admin() {
-		Grievance g = grievance("SUBMITTED");
-		g.setCreatedAt(Instant.now().minus(Duration.ofHours(100)));
-		when(grievanceRepository.findAll()).thenReturn(Flux.just(g));
-		when(referenceDataService.getSlaHours(any(), any())).thenReturn(Mono.just(24));
-		StepVerifier.create(service.getSlaBreaches("admin", "ADMIN")).expectNextCount(1).verifyComplete();
+		when(grievanceRepository.findSlaBreachPage(any(), isNull(), eq(50)))
+				.thenReturn(Flux.just(grievance("SUBMITTED")));
+		StepVerifier.create(service.getSlaBreaches("admin", "ADMIN", null, 50)).expectNextCount(1).verifyComplete();
+		verify(grievanceRepository, never()).findAll();
+	}
+
+	@Test
+	void getSlaBreaches_supervisorScopedToOwnDepartment() {
+		mockUser("S1", "SUPERVISOR", "D002");
+		GrievanceCursor cursor = new GrievanceCursor(Instant.ofEpochMilli(5000), "G3");
+		ArgumentCaptor<Criteria> filter = ArgumentCaptor.forClass(Criteria.class);
+		when(grievanceRepository.findSlaBreachPage(filter.capture(), eq(cursor), eq(20)))
+				.thenReturn(Flux.just(grievance("ASSIGNED")));
+		StepVerifier.create(service.getSlaBreaches("S1", "SUPERVISOR", cursor.encode(), 20)).expectNextCount(1)
+				.verifyComplete();
+		assertEquals("D002", filter.getValue().getCriteriaObject().get("departmentId"));
+	}
+
+	@Test
+	void getSlaBreaches_citizenForbidden() {
+		StepVerifier.create(service.getSlaBreaches("U1", "CITIZEN", null, 50))
+				.expectError(ResponseStatusException.class).verify();
 	}
 
 	@Test
 	void getGrievanceHistory_ok() {
 		when(grievanceRepository.findById("G1")).thenReturn(Mono.just(grievance("SUBMITTED")));
-		when(historyRepository.findByGrievanceId("G1")).thenReturn(Flux.just(new GrievanceStatusHistory()));
-		StepVerifier.create(service.getGrievanceHistory("G1", "admin", "ADMIN")).expectNextCount(1).verifyComplete();
+		when(historyRepository.findPage("G1", null, 50)).thenReturn(Flux.just(new GrievanceStatusHistory()));
+		StepVerifier.create(service.getGrievanceHistory("G1", "admin", "ADMIN", null, 50)).expectNextCount(1)
+				.verifyComplete();
+	}
+
+	@Test
+	void getGrievanceHistory_invalidLimit_badRequest() {
+		StepVerifier.create(service.getGrievanceHistory("G1", "admin", "ADMIN", null, GrievanceService.MAX_PAGE_SIZE + 1))
+				.expectError(IllegalArgumentException.class).verify();
+		verifyNoInteractions(historyRepository);
 	}
 
 	@Test
 	void downloadDocument_notFound() {
 		when(grievanceRepository.findById("G1")).thenReturn(Mono.just(grievance("SUBMITTED")));
 		when(documentRepository.findById("D1")).thenReturn(Mono.empty());
-		StepVerifier.create(service.downloadDocument("G1", "D1", "admin", "ADMIN"))
+		StepVerifier.create(service.getDocument("G1", "D1", "admin", "ADMIN"))
 				.expectError(ResponseStatusException.class).verify();
 	}
 
 	@Test
 	void getGrievancesByCitizen_admin_success() {
-		when(grievanceRepository.findByCitizenId("U1")).thenReturn(Flux.just(new Grievance()));
+		when(grievanceRepository.findPage(eq(where("citizenId").is("U1")), isNull(), eq(50))).thenReturn(Flux.just(new Grievance()));
 
-		StepVerifier.create(service.getGrievancesByCitizen("U1", "admin", "ADMIN")).expectNextCount(1).verifyComplete();
+		StepVerifier.create(service.getGrievancesByCitizen("U1", "admin", "ADMIN", null, 50)).expectNextCount(1).verifyComplete();
 	}
 
 	@Test
 	void getGrievancesByCitizen_citizen_forbidden() {
-		StepVerifier.create(service.getGrievancesByCitizen("U1", "U2", "CITIZEN"))
+		StepVerifier.create(service.getGrievancesByCitizen("U1", "U2", "CITIZEN", null, 50))
 				.expectError(ResponseStatusException.class).verify();
 	}
 
 	@Test
 	void getGrievancesByCitizen_citizen_notFound() {
-		when(grievanceRepository.findByCitizenId("U1")).thenReturn(Flux.empty());
+		when(grievanceRepository.findPage(eq(where("citizenId").is("U1")), isNull(), eq(50))).thenReturn(Flux.empty());
 
-		StepVerifier.create(service.getGrievancesByCitizen("U1", "U1", "CITIZEN"))
+		StepVerifier.create(service.getGrievancesByCitizen("U1", "U1", "CITIZEN", null, 50))
 				.expectError(ResponseStatusException.class).verify();
 	}
 
 	@Test
 	void getGrievancesByDepartment_admin_success() {
 		when(referenceDataService.validateDepartmentOnly("D001")).thenReturn(Mono.empty());
-		when(grievanceRepository.findByDepartmentId("D001")).thenReturn(Flux.just(new Grievance()));
+		when(grievanceRepository.findPage(eq(where("departmentId").is("D001")), isNull(), eq(50))).thenReturn(Flux.just(new Grievance()));
 
-		StepVerifier.create(service.getGrievancesByDepartment("D001", "admin", "ADMIN")).expectNextCount(1)
+		StepVerifier.create(service.getGrievancesByDepartment("D001", "admin", "ADMIN", null, 50)).expectNextCount(1)
 				.verifyComplete();
 	}
 
 	@Test
 	void getGrievancesByDepartment_supervisor_forbidden() {
 		mockUser("S1", "SUPERVISOR", "D002");
-		StepVerifier.create(service.getGrievancesByDepartment("D001", "S1", "SUPERVISOR"))
+		StepVerifier.create(service.getGrievancesByDepartment("D001", "S1", "SUPERVISOR", null, 50))
 				.expectError(ResponseStatusException.class).verify();
 	}
 
 	@Test
 	void getGrievanceDocuments_success() {
 		when(grievanceRepository.findById("G1")).thenReturn(Mono.just(grievance("SUBMITTED")));
-		when(documentRepository.findByGrievanceId("G1")).thenReturn(Flux.just(new GrievanceDocument()));
-		StepVerifier.create(service.getGrievanceDocuments("G1", "admin", "ADMIN")).expectNextCount(1).verifyComplete();
+		when(documentRepository.findPage("G1", null, 50)).thenReturn(Flux.just(new GrievanceDocument()));
+		StepVerifier.create(service.getGrievanceDocuments("G1", "admin", "ADMIN", null, 50)).expectNextCount(1)
+				.verifyComplete();
 	}
 
 	@Test
 	void createGrievance_withFile_uploadsSuccessfully() {
 		FilePart filePart = mock(FilePart.class);
-		when(filePart.filename()).thenReturn("test.txt");
-		when(filePart.transferTo(any(Path.class))).thenReturn(Mono.empty());
-		when(filePart.headers()).thenReturn(new org.springframework.http.HttpHeaders());
+		when(documentStorage.store(anyString(), any())).thenAnswer(inv -> Flux.just(new DocumentStorage.StoredFile("D1",
+				"test.txt", "text/plain", Path.of("uploads", inv.getArgument(0), "D1"), 4, "abc")));
 		when(referenceDataService.validateDepartmentAndCategory(any(), any())).thenReturn(Mono.empty());
-		when(grievanceRepository.save(any())).thenAnswer(inv -> {
-			Grievance g = inv.getArgument(0);
-			g.setId("G1");
-			return Mono.just(g);
-		});
+		when(referenceDataService.getSlaHours(any(), any())).thenReturn(Mono.just(24));
+		when(grievanceRepository.save(any())).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
 
-		when(documentRepository.save(any())).thenReturn(Mono.just(new GrievanceDocument()));
+		when(documentRepository.saveAll(anyIterable())).thenReturn(Flux.just(new GrievanceDocument()));
 		when(historyService.createInitialHistory(any(), any())).thenReturn(Mono.just("G1"));
+		String id = service.createGrievance("U1", "CITIZEN",
+				new CreateGrievanceRequest("D001", "C101", "t", "d"), Flux.just(filePart)).block();
+
+		ArgumentCaptor<Iterable<GrievanceDocument>> saved = ArgumentCaptor.forClass(Iterable.class);
+		InOrder order = inOrder(documentRepository, grievanceRepository);
+		order.verify(documentRepository).saveAll(saved.capture());
+		order.verify(grievanceRepository).save(argThat(g -> id.equals(g.getId())));
+		GrievanceDocument document = saved.getValue().iterator().next();
+		assertEquals(id, document.getGrievanceId());
+		assertEquals("D1", document.getId());
+		assertEquals("test.txt", document.getFileName());
+		assertEquals(4, document.getSize());
+		assertEquals("abc", document.getSha256());
+		assertEquals(Path.of("uploads", id, "D1").toString(), document.getFilePath());
+	}
+
+	@Test
+	void createGrievance_metadataSaveFails_removesTheRecordsAndFiles() {
+		List<DocumentStorage.StoredFile> stored = List.of(
+				new DocumentStorage.StoredFile("D1", "a.pdf", "application/pdf", Path.of("uploads", "G1", "D1"), 4, "a"),
+				new DocumentStorage.StoredFile("D2", "a.pdf", "application/pdf", Path.of("uploads", "G1", "D2"), 4, "b"));
+		when(documentStorage.store(anyString(), any())).thenReturn(Flux.fromIterable(stored));
+		when(documentStorage.discard(stored)).thenReturn(Mono.empty());
+		when(referenceDataService.validateDepartmentAndCategory(any(), any())).thenReturn(Mono.empty());
+		when(referenceDataService.getSlaHours(any(), any())).thenReturn(Mono.just(24));
+		when(documentRepository.saveAll(anyIterable()))
+				.thenReturn(Flux.concat(Flux.just(new GrievanceDocument()), Flux.error(new IllegalStateException("down"))));
+		when(documentRepository.deleteAllById(List.of("D1", "D2"))).thenReturn(Mono.empty());
+
 		StepVerifier.create(service.createGrievance("U1", "CITIZEN",
-				new CreateGrievanceRequest("D001", "C101", "t", "d"), Flux.just(filePart))).expectNext("G1")
-				.verifyComplete();
+				new CreateGrievanceRequest("D001", "C101", "t", "d"), Flux.just(mock(FilePart.class), mock(FilePart.class))))
+				.expectError(IllegalStateException.class)
+				.verify();
+
+		verify(documentRepository).deleteAllById(List.of("D1", "D2"));
+		verify(documentStorage).discard(stored);
+		verify(grievanceRepository, never()).save(any());
+	}
+
+	@Test
+	void createGrievance_oversizedAttachment_leavesNoGrievanceOrEvent() {
+		when(documentStorage.store(anyString(), any())).thenReturn(Flux.error(
+				new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "big.pdf exceeds the limit")));
+		when(referenceDataService.validateDepartmentAndCategory(any(), any())).thenReturn(Mono.empty());
+		when(referenceDataService.getSlaHours(any(), any())).thenReturn(Mono.just(24));
+
+		StepVerifier.create(service.createGrievance("U1", "CITIZEN",
+				new CreateGrievanceRequest("D001", "C101", "t", "d"), Flux.just(mock(FilePart.class))))
+				.expectErrorSatisfies(e -> assertEquals(HttpStatus.PAYLOAD_TOO_LARGE,
+						((ResponseStatusException) e).getStatusCode()))
+				.verify();
+
+		// the SUBMITTED event only ever travels inside the grievance insert
+		verify(grievanceRepository, never()).save(any());
+		verify(documentRepository, never()).saveAll(anyIterable());
+		verify(slaWatchdog, never()).onStatusChange(any());
+		verify(historyService, never()).createInitialHistory(any(), any());
+	}
+
+	@Test
+	void createGrievance_insertFails_removesTheAttachments() {
+		List<DocumentStorage.StoredFile> stored = List.of(
+				new DocumentStorage.StoredFile("D1", "a.pdf", "application/pdf", Path.of("uploads", "G1", "D1"), 4, "a"));
+		when(documentStorage.store(anyString(), any())).thenReturn(Flux.fromIterable(stored));
+		when(documentStorage.discard(stored)).thenReturn(Mono.empty());
+		when(referenceDataService.validateDepartmentAndCategory(any(), any())).thenReturn(Mono.empty());
+		when(referenceDataService.getSlaHours(any(), any())).thenReturn(Mono.just(24));
+		when(documentRepository.saveAll(anyIterable())).thenReturn(Flux.just(new GrievanceDocument()));
+		when(documentRepository.deleteAllById(List.of("D1"))).thenReturn(Mono.empty());
+		when(grievanceRepository.save(any())).thenReturn(Mono.error(new IllegalStateException("down")));
+
+		StepVerifier.create(service.createGrievance("U1", "CITIZEN",
+				new CreateGrievanceRequest("D001", "C101", "t", "d"), Flux.just(mock(FilePart.class))))
+				.expectError(IllegalStateException.class)
+				.verify();
+
+		verify(documentStorage).discard(stored);
+		verify(slaWatchdog, never()).onStatusChange(any());
 	}
 
 	@Test
 	void getGrievances_admin_withStatus() {
-		when(grievanceRepository.findByStatus(GRIEVANCE_STATUS.SUBMITTED)).thenReturn(Flux.just(new Grievance()));
-		StepVerifier.create(service.getGrievances("SUBMITTED", null, "ADMIN", "admin")).expectNextCount(1)
+		when(grievanceRepository.findPage(eq(where("status").is(GRIEVANCE_STATUS.SUBMITTED)), isNull(), eq(50))).thenReturn(Flux.just(new Grievance()));
+		StepVerifier.create(service.getGrievances("SUBMITTED", null, "ADMIN", "admin", null, 50)).expectNextCount(1)
 				.verifyComplete();
 	}
 
 	@Test
 	void getGrievances_admin_withDepartmentAndStatus() {
 		when(referenceDataService.validateDepartmentOnly("D001")).thenReturn(Mono.empty());
-		when(grievanceRepository.findByDepartmentIdAndStatus("D001", GRIEVANCE_STATUS.SUBMITTED))
+		when(grievanceRepository.findPage(eq(where("departmentId").is("D001").and("status").is(GRIEVANCE_STATUS.SUBMITTED)), isNull(), eq(50)))
 				.thenReturn(Flux.just(new Grievance()));
-		StepVerifier.create(service.getGrievances("SUBMITTED", "D001", "ADMIN", "admin")).expectNextCount(1)
+		StepVerifier.create(service.getGrievances("SUBMITTED", "D001", "ADMIN", "admin", null, 50)).expectNextCount(1)
 				.verifyComplete();
 	}
 
 	@Test
 	void getGrievances_supervisor_filtersByDept() {
 		mockUser("S1", "SUPERVISOR", "D001");
-		when(grievanceRepository.findByDepartmentId("D001")).thenReturn(Flux.just(new Grievance()));
-		StepVerifier.create(service.getGrievances(null, null, "SUPERVISOR", "S1")).expectNextCount(1).verifyComplete();
+		when(grievanceRepository.findPage(eq(where("departmentId").is("D001")), isNull(), eq(50))).thenReturn(Flux.just(new Grievance()));
+		StepVerifier.create(service.getGrievances(null, null, "SUPERVISOR", "S1", null, 50)).expectNextCount(1).verifyComplete();
+	}
+
+	@Test
+	void getGrievances_supervisor_usesSignedIdentityContext() {
+		when(grievanceRepository.findPage(eq(where("departmentId").is("D001")), isNull(), eq(50))).thenReturn(Flux.just(new Grievance()));
+		StepVerifier.create(service.getGrievances(null, null, "SUPERVISOR", "S1", null, 50)
+				.contextWrite(ctx -> ctx.put(IdentityContext.class, new IdentityContext("S1", "SUPERVISOR", "D001", 0))))
+				.expectNextCount(1).verifyComplete();
+		verifyNoInteractions(userBatchClient);
+	}
+
+	@Test
+	void getGrievances_supervisor_contextForOlderTokenVersion_looksUpDepartment() {
+		// moved to D002 after the token was issued, the signed D001 must not be trusted any more
+		userProfileCache.recordTokenVersion("S1", 2);
+		mockUser("S1", "SUPERVISOR", "D002");
+		when(grievanceRepository.findPage(eq(where("departmentId").is("D002")), isNull(), eq(50))).thenReturn(Flux.just(new Grievance()));
+		StepVerifier.create(service.getGrievances(null, null, "SUPERVISOR", "S1", null, 50)
+				.contextWrite(ctx -> ctx.put(IdentityContext.class, new IdentityContext("S1", "SUPERVISOR", "D001", 1))))
+				.expectNextCount(1).verifyComplete();
+		verify(userBatchClient).getUser("S1");
+	}
+
+	@Test
+	void getGrievances_officer_secondCallServedFromUserCache() {
+		mockUser("O1", "OFFICER", "D001");
+		when(grievanceRepository.findPage(eq(where("assignedOfficerId").is("O1")), isNull(), eq(50))).thenReturn(Flux.just(new Grievance()));
+		StepVerifier.create(service.getGrievances(null, null, "OFFICER", "O1", null, 50)).expectNextCount(1).verifyComplete();
+		StepVerifier.create(service.getGrievances(null, null, "OFFICER", "O1", null, 50)).expectNextCount(1).verifyComplete();
+		verify(userBatchClient, times(1)).getUser("O1");
+
+		// a user-changed event forces the next call back to user-service
+		userProfileCache.invalidate("O1");
+		StepVerifier.create(service.getGrievances(null, null, "OFFICER", "O1", null, 50)).expectNextCount(1).verifyComplete();
+		verify(userBatchClient, times(2)).getUser("O1");
+	}
+
+	@Test
+	void getGrievances_nextPage_seeksFromCursor() {
+		GrievanceCursor cursor = new GrievanceCursor(Instant.ofEpochMilli(5000), "64b000000000000000000001");
+		when(grievanceRepository.findPage(eq(where("citizenId").is("U1")), eq(cursor), eq(10)))
+				.thenReturn(Flux.just(new Grievance()));
+		StepVerifier.create(service.getGrievances(null, null, "CITIZEN", "U1", cursor.encode(), 10)).expectNextCount(1)
+				.verifyComplete();
+	}
+
+	@Test
+	void getGrievancesByCitizen_emptyLaterPage_isNotNotFound() {
+		GrievanceCursor cursor = new GrievanceCursor(Instant.ofEpochMilli(5000), "G9");
+		when(grievanceRepository.findPage(eq(where("citizenId").is("U1")), eq(cursor), eq(50))).thenReturn(Flux.empty());
+		StepVerifier.create(service.getGrievancesByCitizen("U1", "U1", "CITIZEN", cursor.encode(), 50)).verifyComplete();
+	}
+
+	@Test
+	void getGrievances_invalidLimitOrCursor_badRequest() {
+		StepVerifier.create(service.getGrievances(null, null, "CITIZEN", "U1", null, 0))
+				.expectError(IllegalArgumentException.class).verify();
+		StepVerifier.create(service.getGrievances(null, null, "CITIZEN", "U1", null, GrievanceService.MAX_PAGE_SIZE + 1))
+				.expectError(IllegalArgumentException.class).verify();
+		StepVerifier.create(service.getGrievances(null, null, "CITIZEN", "U1", "not-a-cursor", 10))
+				.expectError(IllegalArgumentException.class).verify();
+	}
+
+	@Test
+	void getGrievances_officer_unknownUser() {
+		when(userBatchClient.getUser("O9")).thenReturn(Mono.empty());
+		StepVerifier.create(service.getGrievances(null, null, "OFFICER", "O9", null, 50))
+				.expectError(IllegalArgumentException.class).verify();
 	}
 
 	@Test
 	void getGrievances_officer_onlyAssigned() {
 		mockUser("O1", "OFFICER", "D001");
-		when(grievanceRepository.findByAssignedOfficerId("O1")).thenReturn(Flux.just(new Grievance()));
-		StepVerifier.create(service.getGrievances(null, null, "OFFICER", "O1")).expectNextCount(1).verifyComplete();
+		when(grievanceRepository.findPage(eq(where("assignedOfficerId").is("O1")), isNull(), eq(50))).thenReturn(Flux.just(new Grievance()));
+		StepVerifier.create(service.getGrievances(null, null, "OFFICER", "O1", null, 50)).expectNextCount(1).verifyComplete();
 	}
 
 	@Test
 	void getGrievances_citizen_withStatus() {
-		when(grievanceRepository.findByCitizenIdAndStatus("U1", GRIEVANCE_STATUS.SUBMITTED))
+		when(grievanceRepository.findPage(eq(where("citizenId").is("U1").and("status").is(GRIEVANCE_STATUS.SUBMITTED)), isNull(), eq(50)))
 				.thenReturn(Flux.just(new Grievance()));
-		StepVerifier.create(service.getGrievances("SUBMITTED", null, "CITIZEN", "U1")).expectNextCount(1)
+		StepVerifier.create(service.getGrievances("SUBMITTED", null, "CITIZEN", "U1", null, 50)).expectNextCount(1)
 				.verifyComplete();
 	}
 
@@ -367,7 +572,7 @@ class GrievanceServiceTest {
 		GrievanceDocument doc = GrievanceDocument.builder().id("D1").grievanceId("OTHER").filePath("fake").build();
 		when(grievanceRepository.findById("G1")).thenReturn(Mono.just(g));
 		when(documentRepository.findById("D1")).thenReturn(Mono.just(doc));
-		StepVerifier.create(service.downloadDocument("G1", "D1", "admin", "ADMIN"))
+		StepVerifier.create(service.getDocument("G1", "D1", "admin", "ADMIN"))
 				.expectError(ResponseStatusException.class).verify();
 	}
 
@@ -390,16 +595,31 @@ class GrievanceServiceTest {
 	}
 
 	@Test
-	void downloadDocument_fileMissingOnDisk() {
-		Grievance g = grievance("SUBMITTED");
+	void documentFile_missingOnDisk() {
 		GrievanceDocument doc = GrievanceDocument.builder().id("D1").grievanceId("G1").filePath("non-existing-path.txt")
 				.build();
-		when(grievanceRepository.findById("G1")).thenReturn(Mono.just(g));
-		when(documentRepository.findById("D1")).thenReturn(Mono.just(doc));
-		StepVerifier.create(service.downloadDocument("G1", "D1", "admin", "ADMIN"))
+		StepVerifier.create(service.documentFile(doc))
 				.expectError(ResponseStatusException.class).verify();
 	}
 
+	@Test
+	void documentFile_isAFileSystemResource(@TempDir Path dir) throws Exception {
+		Path file = Files.writeString(dir.resolve("scan.pdf"), "pdf");
+		GrievanceDocument doc = GrievanceDocument.builder().id("D1").grievanceId("G1").filePath(file.toString())
+				.build();
+		StepVerifier.create(service.documentFile(doc))
+				.expectNextMatches(resource -> resource instanceof FileSystemResource && resource.exists())
+				.verifyComplete();
+	}
+
+	@Test
+	void getDocument_success() {
+		GrievanceDocument doc = GrievanceDocument.builder().id("D1").grievanceId("G1").filePath("fake").build();
+		when(grievanceRepository.findById("G1")).thenReturn(Mono.just(grievance("SUBMITTED")));
+		when(documentRepository.findById("D1")).thenReturn(Mono.just(doc));
+		StepVerifier.create(service.getDocument("G1", "D1", "admin", "ADMIN")).expectNext(doc).verifyComplete();
+	}
+
 	@Test
 	void escalateGrievance_slaNotBreached() {
 		Grievance g = grievance("SUBMITTED");
@@ -411,11 +631,36 @@ class GrievanceServiceTest {
 	}
 
 	@Test
-	void getSlaBreaches_alreadyEscalated() {
+	void escalateGrievance_usesStoredDeadline_notTheCurrentSlaTable() {
+		// 100h old, the table now says 1h, but the deadline fixed at creation is still ahead
+		Grievance g = grievance("SUBMITTED");
+		g.setSlaDeadline(Instant.now().plus(Duration.ofHours(2)));
+		when(grievanceRepository.findById("G1")).thenReturn(Mono.just(g));
+		StepVerifier.create(service.escalateGrievance("G1", "U1", "CITIZEN"))
+				.expectErrorMessage("SLA not breached yet").verify();
+		verifyNoInteractions(referenceDataService);
+	}
+
+	@Test
+	void escalateGrievance_pastStoredDeadline_escalatesWithinTheFirstHour() {
+		// a truncated hour count would still read 0h elapsed here
 		Grievance g = grievance("SUBMITTED");
-		g.setIsEscalated(true);
-		when(grievanceRepository.findAll()).thenReturn(Flux.just(g));
-		StepVerifier.create(service.getSlaBreaches("admin", "ADMIN")).expectNextCount(1).verifyComplete();
+		g.setCreatedAt(Instant.now().minus(Duration.ofMinutes(50)));
+		g.setSlaDeadline(Instant.now().minus(Duration.ofMinutes(5)));
+		when(grievanceRepository.findById("G1")).thenReturn(Mono.just(g));
+		mockSupervisor("S1", "D001");
+		when(grievanceRepository.saveTransition(any(), any())).thenReturn(Mono.just(g));
+		when(historyService.addHistory(any(), any(), any(), any())).thenReturn(Mono.empty());
+		StepVerifier.create(service.escalateGrievance("G1", "U1", "CITIZEN")).verifyComplete();
+		assertEquals(GRIEVANCE_STATUS.ESCALATED, g.getStatus());
+	}
+
+	@Test
+	void openStatuses_excludeResolvedAndClosed() {
+		assertFalse(GrievanceService.OPEN_STATUSES.contains(GRIEVANCE_STATUS.RESOLVED));
+		assertFalse(GrievanceService.OPEN_STATUSES.contains(GRIEVANCE_STATUS.CLOSED));
+		assertTrue(GrievanceService.OPEN_STATUSES.contains(GRIEVANCE_STATUS.ESCALATED));
+		assertTrue(GrievanceService.OPEN_STATUSES.contains(GRIEVANCE_STATUS.REOPENED));
 	}
 
 	@Test
@@ -0,0 +1,229 @@
+package com.egov.grievance.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.egov.grievance.event.GrievanceStatusChangedEvent;
+import com.egov.grievance.model.Grievance;
+import com.egov.grievance.model.OutboxEvent;
+import com.mongodb.client.result.UpdateResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+class OutboxRelayTest {
+
+	private final ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+	private final GrievanceEventPublisher publisher = mock(GrievanceEventPublisher.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	// what the claim hands back per grievance id, a missing id is held by another instance
+	private final Map<String, Grievance> claimable = new ConcurrentHashMap<>();
+
+	@AfterEach
+	void tearDown() {
+		meterRegistry.close();
+	}
+
+	private OutboxRelay relay(int batchSize) {
+		when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Grievance.class)))
+				.thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+		when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+				eq(Grievance.class)))
+				.thenAnswer(invocation -> Mono.justOrEmpty(
+						claimable.get(invocation.getArgument(0, Query.class).getQueryObject().getString("_id"))));
+		return new OutboxRelay(mongoTemplate, publisher, meterRegistry, true, Duration.ofMillis(500), batchSize,
+				Duration.ofSeconds(30), Schedulers.immediate());
+	}
+
+	private Flux<Grievance> candidates(Grievance... grievances) {
+		for (Grievance grievance : grievances) {
+			claimable.put(grievance.getId(), grievance);
+		}
+		return Flux.fromArray(grievances).map(grievance -> Grievance.builder().id(grievance.getId()).build());
+	}
+
+	private static OutboxEvent event(String grievanceId, String newStatus) {
+		return OutboxEvent.statusChanged(new GrievanceStatusChangedEvent(grievanceId, "U1", "D001", "O1", null,
+				newStatus, "ADMIN", Instant.now()));
+	}
+
+	private static Grievance pending(String id, OutboxEvent... events) {
+		Grievance grievance = Grievance.builder().id(id).build();
+		for (OutboxEvent event : events) {
+			grievance.addOutboxEvent(event);
+		}
+		return grievance;
+	}
+
+	private Update release() {
+		ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+		verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(Grievance.class));
+		return update.getValue();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<String> pulledEventIds(Update update) {
+		Document pull = (Document) update.getUpdateObject().get("$pull", Document.class).get("outbox");
+		return (List<String>) ((Document) pull.get("eventId")).get("$in");
+	}
+
+	private List<String> pulledEventIds() {
+		Update release = release();
+		assertTrue(release.getUpdateObject().get("$unset", Document.class).containsKey("outboxClaimedBy"));
+		return pulledEventIds(release);
+	}
+
+	@Test
+	void publishesInOrderAndRemovesAckedEvents() {
+		OutboxEvent submitted = event("G1", "SUBMITTED");
+		OutboxEvent assigned = event("G1", "ASSIGNED");
+		OutboxRelay relay = relay(200);
+		when(mongoTemplate.find(any(Query.class), eq(Grievance.class)))
+				.thenReturn(candidates(pending("G1", submitted, assigned)));
+		when(publisher.publish(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+		StepVerifier.create(relay.relayPending()).expectNext(1L).verifyComplete();
+
+		InOrder order = inOrder(publisher);
+		order.verify(publisher).publish(submitted);
+		order.verify(publisher).publish(assigned);
+		assertEquals(List.of(submitted.getEventId(), assigned.getEventId()), pulledEventIds());
+		assertEquals(2.0, meterRegistry.get("outbox.relay.published").counter().count());
+	}
+
+	@Test
+	void send_runsOffTheThreadThatDeliveredTheClaim() {
+		OutboxRelay relay = relay(200);
+		when(mongoTemplate.find(any(Query.class), eq(Grievance.class)))
+				.thenReturn(candidates(pending("G1", event("G1", "SUBMITTED"))));
+		AtomicReference<String> sendThread = new AtomicReference<>();
+		when(publisher.publish(any())).thenAnswer(inv -> {
+			sendThread.set(Thread.currentThread().getName());
+			return CompletableFuture.completedFuture(null);
+		});
+
+		StepVerifier.create(relay.relayPending()).expectNext(1L).verifyComplete();
+
+		assertTrue(sendThread.get().startsWith("boundedElastic"), sendThread.get());
+	}
+
+	@Test
+	void failedSend_keepsItAndLaterEventsForTheNextPoll() {
+		OutboxEvent submitted = event("G1", "SUBMITTED");
+		OutboxEvent assigned = event("G1", "ASSIGNED");
+		OutboxEvent resolved = event("G1", "RESOLVED");
+		OutboxRelay relay = relay(200);
+		when(mongoTemplate.find(any(Query.class), eq(Grievance.class)))
+				.thenReturn(candidates(pending("G1", submitted, assigned, resolved)));
+		when(publisher.publish(submitted)).thenReturn(CompletableFuture.completedFuture(null));
+		when(publisher.publish(assigned)).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("down")));
+
+		StepVerifier.create(relay.relayPending()).expectNext(1L).verifyComplete();
+
+		verify(publisher, never()).publish(resolved);
+		assertEquals(List.of(submitted.getEventId()), pulledEventIds());
+		assertEquals(1.0, meterRegistry.get("outbox.relay.failed").counter().count());
+	}
+
+	@Test
+	void nothingPublished_onlyReleasesTheLease() {
+		OutboxRelay relay = relay(200);
+		when(mongoTemplate.find(any(Query.class), eq(Grievance.class)))
+				.thenReturn(candidates(pending("G1", event("G1", "SUBMITTED"))));
+		when(publisher.publish(any())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("down")));
+
+		StepVerifier.create(relay.relayPending()).expectNext(1L).verifyComplete();
+
+		Document update = release().getUpdateObject();
+		assertFalse(update.containsKey("$pull"));
+		assertTrue(update.get("$unset", Document.class).containsKey("outboxClaimedUntil"));
+	}
+
+	@Test
+	void grievanceLeasedByAnotherInstance_isSkipped() {
+		OutboxRelay relay = relay(200);
+		Flux<Grievance> found = candidates(pending("G1", event("G1", "SUBMITTED")));
+		claimable.clear();
+		when(mongoTemplate.find(any(Query.class), eq(Grievance.class))).thenReturn(found);
+
+		StepVerifier.create(relay.relayPending()).expectNext(0L).verifyComplete();
+
+		verify(publisher, never()).publish(any());
+		verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(Grievance.class));
+	}
+
+	@Test
+	void lostLease_stillPullsThePublishedEvents() {
+		OutboxEvent submitted = event("G1", "SUBMITTED");
+		OutboxRelay relay = relay(200);
+		when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Grievance.class)))
+				.thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)))
+				.thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+		when(mongoTemplate.find(any(Query.class), eq(Grievance.class))).thenReturn(candidates(pending("G1", submitted)));
+		when(publisher.publish(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+		StepVerifier.create(relay.relayPending()).expectNext(1L).verifyComplete();
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+		verify(mongoTemplate, times(2)).updateFirst(query.capture(), update.capture(), eq(Grievance.class));
+		assertFalse(query.getAllValues().get(1).getQueryObject().containsKey("outboxClaimedBy"));
+		assertFalse(update.getAllValues().get(1).getUpdateObject().containsKey("$unset"));
+		assertEquals(List.of(submitted.getEventId()), pulledEventIds(update.getAllValues().get(1)));
+	}
+
+	@Test
+	void fullBatch_isFollowedByAnotherUntilDrained() {
+		OutboxRelay relay = relay(2);
+		when(mongoTemplate.find(any(Query.class), eq(Grievance.class)))
+				.thenReturn(candidates(pending("G1", event("G1", "SUBMITTED")), pending("G2", event("G2", "SUBMITTED"))))
+				.thenReturn(candidates(pending("G3", event("G3", "SUBMITTED"))));
+		when(publisher.publish(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+		StepVerifier.create(relay.relayPending()).expectNext(3L).verifyComplete();
+
+		verify(mongoTemplate, times(2)).find(any(Query.class), eq(Grievance.class));
+	}
+
+	@Test
+	void fullBatchWithFailure_endsThePoll() {
+		OutboxRelay relay = relay(1);
+		when(mongoTemplate.find(any(Query.class), eq(Grievance.class)))
+				.thenReturn(candidates(pending("G1", event("G1", "SUBMITTED"))));
+		when(publisher.publish(any())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("down")));
+
+		StepVerifier.create(relay.relayPending()).expectNext(1L).verifyComplete();
+
+		verify(mongoTemplate, times(1)).find(any(Query.class), eq(Grievance.class));
+	}
+}
@@ -1,6 +1,9 @@
 package com.egov.grievance.service;
 
 import com.egov.grievance.config.DepartmentCategoryConfig;
+import com.egov.grievance.dto.Category;
+import com.egov.grievance.dto.Department;
+import com.egov.grievance.dto.ReferenceDataSnapshot;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -28,23 +31,31 @@ class ReferenceDataServiceTest {
 
     @Test
     void getAllDepartments_Success() {
-        when(config.getDepartments()).thenReturn(Map.of("DEPT_01", Map.of()));
+        when(config.getSnapshot()).thenReturn(
+                new ReferenceDataSnapshot("v1", Map.of("DEPT_01", new Department("Water", Map.of()))));
         StepVerifier.create(service.getAllDepartments())
-                .expectNextMatches(map -> map.containsKey("DEPT_01"))
+                .expectNextMatches(snapshot -> snapshot.departments().containsKey("DEPT_01") && "v1".equals(snapshot.version()))
                 .verifyComplete();
     }
 
     @Test
     void getAllDepartments_Empty() {
-        when(config.getDepartments()).thenReturn(null);
+        when(config.getSnapshot()).thenReturn(null);
         StepVerifier.create(service.getAllDepartments())
                 .verifyComplete(); // Mono.justOrEmpty(null) results in an empty Mono
     }
 
+    @Test
+    void getAllDepartments_NotLoaded() {
+        when(config.getSnapshot()).thenReturn(new ReferenceDataSnapshot("", Map.of()));
+        StepVerifier.create(service.getAllDepartments())
+                .verifyComplete();
+    }
+
     @Test
     void getCategoriesByDepartment_Success() {
         when(config.isValidDepartment("DEPT_01")).thenReturn(true);
-        when(config.getCategories("DEPT_01")).thenReturn(Map.of("CAT_01", Map.of()));
+        when(config.getCategories("DEPT_01")).thenReturn(Map.of("CAT_01", new Category("Leakage", 48)));
         StepVerifier.create(service.getCategoriesByDepartment("DEPT_01"))
                 .expectNextMatches(map -> map.containsKey("CAT_01"))
                 .verifyComplete();
@@ -0,0 +1,91 @@
+package com.egov.grievance.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.egov.grievance.model.GRIEVANCE_STATUS;
+import com.egov.grievance.model.Grievance;
+import com.egov.grievance.repository.GrievanceRepository;
+import com.mongodb.client.result.UpdateResult;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class SlaDeadlineBackfillTest {
+
+	@Mock
+	private GrievanceRepository grievanceRepository;
+	@Mock
+	private ReferenceDataService referenceDataService;
+	@Mock
+	private ReactiveMongoTemplate mongoTemplate;
+	@Mock
+	private SlaWatchdog slaWatchdog;
+
+	@InjectMocks
+	private SlaDeadlineBackfill backfill;
+
+	@Test
+	void setsDeadlineFromCreatedAtAndSkipsUnknownCategories() {
+		Instant createdAt = Instant.parse("2024-01-01T00:00:00Z");
+		Grievance known = Grievance.builder().id("G1").departmentId("D001").categoryId("C101")
+				.status(GRIEVANCE_STATUS.SUBMITTED).createdAt(createdAt).build();
+		Grievance unknown = Grievance.builder().id("G2").departmentId("D001").categoryId("GONE")
+				.status(GRIEVANCE_STATUS.ASSIGNED).createdAt(createdAt).build();
+		when(grievanceRepository.findBySlaDeadlineIsNullAndStatusIn(GrievanceService.OPEN_STATUSES))
+				.thenReturn(Flux.just(known, unknown));
+		when(referenceDataService.getSlaHours("D001", "C101")).thenReturn(Mono.just(72));
+		when(referenceDataService.getSlaHours("D001", "GONE"))
+				.thenReturn(Mono.error(new IllegalArgumentException("Invalid category")));
+		when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Grievance.class)))
+				.thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+		StepVerifier.create(backfill.backfill()).expectNext(1L).verifyComplete();
+
+		ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+		verify(mongoTemplate, times(1)).updateFirst(any(Query.class), update.capture(), eq(Grievance.class));
+		assertEquals(createdAt.plus(Duration.ofHours(72)),
+				update.getValue().getUpdateObject().get("$set", Document.class).get("slaDeadline"));
+		// handed to the watchdog so the deadline is tracked even if its startup load ran first
+		ArgumentCaptor<Grievance> tracked = ArgumentCaptor.forClass(Grievance.class);
+		verify(slaWatchdog).onStatusChange(tracked.capture());
+		assertEquals("G1", tracked.getValue().getId());
+		assertEquals(createdAt.plus(Duration.ofHours(72)), tracked.getValue().getSlaDeadline());
+	}
+
+	@Test
+	void grievanceChangedMeanwhile_isNotHandedToTheWatchdog() {
+		Grievance grievance = Grievance.builder().id("G1").departmentId("D001").categoryId("C101")
+				.status(GRIEVANCE_STATUS.SUBMITTED).createdAt(Instant.parse("2024-01-01T00:00:00Z")).build();
+		when(grievanceRepository.findBySlaDeadlineIsNullAndStatusIn(GrievanceService.OPEN_STATUSES))
+				.thenReturn(Flux.just(grievance));
+		when(referenceDataService.getSlaHours("D001", "C101")).thenReturn(Mono.just(72));
+		when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Grievance.class)))
+				.thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)));
+
+		StepVerifier.create(backfill.backfill()).expectNext(0L).verifyComplete();
+
+		verify(slaWatchdog, never()).onStatusChange(any());
+	}
+}
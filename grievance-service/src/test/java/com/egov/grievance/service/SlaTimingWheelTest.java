@@ -0,0 +1,80 @@
+package com.egov.grievance.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class SlaTimingWheelTest {
+
+	private static final long START = 1_700_000_000_000L;
+
+	@Test
+	void firesOnlyOnceDeadlinePassed() {
+		SlaTimingWheel wheel = new SlaTimingWheel(1000, 8, 3, START);
+		assertTrue(wheel.schedule("G1", START + 2500));
+
+		assertEquals(List.of(), wheel.advanceTo(START + 2999));
+		assertEquals(List.of("G1"), wheel.advanceTo(START + 3000));
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void pastDeadlines_areNotScheduled() {
+		SlaTimingWheel wheel = new SlaTimingWheel(1000, 8, 3, START);
+		assertFalse(wheel.schedule("G1", START - 1));
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void cancelAndReschedule() {
+		SlaTimingWheel wheel = new SlaTimingWheel(1000, 8, 3, START);
+		wheel.schedule("G1", START + 5_000);
+		wheel.schedule("G2", START + 5_000);
+		wheel.cancel("G1");
+		wheel.schedule("G2", START + 200_000);
+
+		assertEquals(List.of(), wheel.advanceTo(START + 10_000));
+		assertEquals(List.of("G2"), wheel.advanceTo(START + 200_000));
+	}
+
+	@Test
+	void deadlinesBeyondTopLevel_waitInOverflow() {
+		// 3 levels of 8 x 1s reach 512s
+		SlaTimingWheel wheel = new SlaTimingWheel(1000, 8, 3, START);
+		wheel.schedule("G1", START + 2_000_000);
+
+		assertEquals(List.of(), wheel.advanceTo(START + 1_999_000));
+		assertEquals(List.of("G1"), wheel.advanceTo(START + 2_000_000));
+	}
+
+	// every entry fires in the tick that reaches its deadline, whichever level it started in
+	@Test
+	void randomDeadlines_cascadeToTheRightTick() {
+		SlaTimingWheel wheel = new SlaTimingWheel(1000, 16, 3, START);
+		Random random = new Random(42);
+		Map<String, Long> deadlines = new HashMap<>();
+		for (int i = 0; i < 2000; i++) {
+			long deadline = START + 1 + random.nextInt(10_000_000);
+			deadlines.put("G" + i, deadline);
+			wheel.schedule("G" + i, deadline);
+		}
+
+		List<String> fired = new ArrayList<>();
+		for (long now = START; now <= START + 10_001_000; now += 1000) {
+			for (String id : wheel.advanceTo(now)) {
+				long deadline = deadlines.get(id);
+				assertTrue(deadline <= now && now - deadline < 1000, id + " fired at " + now + " for " + deadline);
+				fired.add(id);
+			}
+		}
+		assertEquals(deadlines.size(), fired.size());
+	}
+}
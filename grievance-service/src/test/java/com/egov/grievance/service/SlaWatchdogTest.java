@@ -0,0 +1,198 @@
+package com.egov.grievance.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.egov.grievance.event.GrievanceSlaBreachedEvent;
+import com.egov.grievance.model.GRIEVANCE_STATUS;
+import com.egov.grievance.model.Grievance;
+import com.egov.grievance.model.OutboxEvent;
+import com.egov.grievance.repository.GrievanceRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+class SlaWatchdogTest {
+
+	private static final long START = 1_700_000_000_000L;
+
+	private final GrievanceRepository grievanceRepository = mock(GrievanceRepository.class);
+	private final ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AtomicLong now = new AtomicLong(START);
+	private final Scheduler scheduler = Schedulers.immediate();
+	private SlaWatchdog watchdog;
+
+	@BeforeEach
+	void setUp() {
+		watchdog = new SlaWatchdog(grievanceRepository, mongoTemplate, meterRegistry, true,
+				Duration.ofSeconds(1), Duration.ofHours(24), scheduler, now::get);
+	}
+
+	@AfterEach
+	void tearDown() {
+		meterRegistry.close();
+	}
+
+	private static Grievance open(String id, long deadlineMillis) {
+		return Grievance.builder().id(id).citizenId("U1").departmentId("D001").status(GRIEVANCE_STATUS.ASSIGNED)
+				.assignedOfficerId("O1").slaDeadline(Instant.ofEpochMilli(deadlineMillis)).version(3L).build();
+	}
+
+	private void claimSucceeds(Grievance grievance) {
+		when(mongoTemplate.findOne(any(Query.class), eq(Grievance.class))).thenReturn(Mono.just(grievance));
+		when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+				eq(Grievance.class))).thenReturn(Mono.just(grievance));
+	}
+
+	private Update claimUpdate() {
+		ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+		verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class),
+				eq(Grievance.class));
+		return update.getValue();
+	}
+
+	private void verifyNoClaim() {
+		verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+				any(FindAndModifyOptions.class), eq(Grievance.class));
+	}
+
+	@Test
+	void deadlinePassing_publishesBreachOnce() {
+		Grievance grievance = open("G1", START + 5_000);
+		claimSucceeds(grievance);
+		watchdog.onStatusChange(grievance);
+
+		now.set(START + 4_000);
+		watchdog.tick();
+		verifyNoClaim();
+
+		now.set(START + 5_000);
+		watchdog.tick();
+		Document update = claimUpdate().getUpdateObject();
+		assertEquals(Instant.ofEpochMilli(START + 5_000), update.get("$set", Document.class).get("slaBreachedAt"));
+		assertEquals(new Document("version", 1), update.get("$inc", Document.class));
+		OutboxEvent event = (OutboxEvent) update.get("$push", Document.class).get("outbox");
+		assertEquals(OutboxEvent.SLA_BREACHED_TOPIC, event.getTopic());
+		assertNull(event.getPayload());
+		GrievanceSlaBreachedEvent breach = (GrievanceSlaBreachedEvent) event.message();
+		assertEquals("G1", breach.getGrievanceId());
+		assertEquals("O1", breach.getAssignedOfficerId());
+		assertEquals(1.0, meterRegistry.get("sla.watchdog.breaches").counter().count());
+		assertEquals(0, watchdog.trackedCount());
+	}
+
+	@Test
+	void resolvedGrievance_isNoLongerTracked() {
+		Grievance grievance = open("G1", START + 5_000);
+		watchdog.onStatusChange(grievance);
+		grievance.setStatus(GRIEVANCE_STATUS.RESOLVED);
+		watchdog.onStatusChange(grievance);
+
+		now.set(START + 10_000);
+		watchdog.tick();
+		verify(mongoTemplate, never()).findOne(any(Query.class), eq(Grievance.class));
+		verifyNoClaim();
+	}
+
+	@Test
+	void breachAlreadyClaimedElsewhere_raisesNothing() {
+		when(mongoTemplate.findOne(any(Query.class), eq(Grievance.class))).thenReturn(Mono.empty());
+		watchdog.onStatusChange(open("G1", START + 1_000));
+
+		now.set(START + 1_000);
+		watchdog.tick();
+		verifyNoClaim();
+		assertEquals(0.0, meterRegistry.get("sla.watchdog.breaches").counter().count());
+	}
+
+	@Test
+	void transitionBetweenReadAndClaim_readsTheGrievanceAgain() {
+		Grievance grievance = open("G1", START + 1_000);
+		when(mongoTemplate.findOne(any(Query.class), eq(Grievance.class))).thenReturn(Mono.fromSupplier(() -> grievance));
+		when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+				eq(Grievance.class))).thenReturn(Mono.empty()).thenReturn(Mono.just(grievance));
+		watchdog.onStatusChange(grievance);
+
+		now.set(START + 1_000);
+		watchdog.tick();
+
+		ArgumentCaptor<Query> claim = ArgumentCaptor.forClass(Query.class);
+		verify(mongoTemplate, times(2)).findAndModify(claim.capture(), any(Update.class),
+				any(FindAndModifyOptions.class), eq(Grievance.class));
+		assertEquals(3L, claim.getValue().getQueryObject().get("version"));
+		assertEquals(1.0, meterRegistry.get("sla.watchdog.breaches").counter().count());
+	}
+
+	@Test
+	void failedClaim_isTrackedAgain() {
+		when(mongoTemplate.findOne(any(Query.class), eq(Grievance.class)))
+				.thenReturn(Mono.error(new DataAccessResourceFailureException("down")));
+		watchdog.onStatusChange(open("G1", START + 1_000));
+
+		now.set(START + 1_000);
+		watchdog.tick();
+		assertEquals(1, watchdog.trackedCount());
+	}
+
+	@Test
+	void reopenedAfterDeadline_claimsTheBreachRightAway() {
+		Grievance grievance = open("G1", START + 5_000);
+		watchdog.onStatusChange(grievance);
+		grievance.setStatus(GRIEVANCE_STATUS.RESOLVED);
+		watchdog.onStatusChange(grievance);
+
+		now.set(START + 10_000);
+		watchdog.tick();
+		grievance.setStatus(GRIEVANCE_STATUS.REOPENED);
+		claimSucceeds(grievance);
+		watchdog.onStatusChange(grievance);
+
+		Document update = claimUpdate().getUpdateObject();
+		assertEquals(Instant.ofEpochMilli(START + 10_000), update.get("$set", Document.class).get("slaBreachedAt"));
+		assertEquals(1.0, meterRegistry.get("sla.watchdog.breaches").counter().count());
+		assertEquals(0, watchdog.trackedCount());
+	}
+
+	@Test
+	void load_tracksFutureAndClaimsMissedDeadlines() {
+		Grievance missed = open("G1", START - 60_000);
+		Grievance upcoming = open("G2", START + 60_000);
+		Grievance alreadyPublished = open("G3", START - 60_000);
+		alreadyPublished.setSlaBreachedAt(Instant.ofEpochMilli(START - 59_000));
+		when(grievanceRepository.findBySlaDeadlineAfterAndStatusIn(Instant.ofEpochMilli(START).minus(Duration.ofHours(24)),
+				GrievanceService.OPEN_STATUSES)).thenReturn(Flux.just(missed, upcoming, alreadyPublished));
+		claimSucceeds(missed);
+
+		StepVerifier.create(watchdog.load()).expectNext(1L).verifyComplete();
+
+		claimUpdate();
+		assertEquals(1, watchdog.trackedCount());
+	}
+}
@@ -0,0 +1,111 @@
+package com.egov.grievance.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreaker;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.egov.grievance.dto.UserResponse;
+import com.egov.grievance.exception.ServiceUnavailableException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+@SuppressWarnings({ "unchecked", "rawtypes" })
+class UserBatchClientTest {
+
+    private final WebClient.Builder webClientBuilder = mock(WebClient.Builder.class);
+    private final ReactiveCircuitBreakerFactory cbFactory = mock(ReactiveCircuitBreakerFactory.class);
+    private final ReactiveCircuitBreaker cb = mock(ReactiveCircuitBreaker.class);
+    private final WebClient.RequestHeadersSpec headersSpec = mock(WebClient.RequestHeadersSpec.class);
+    private final WebClient.ResponseSpec responseSpec = mock(WebClient.ResponseSpec.class);
+
+    private final List<List<String>> requestedBatches = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        WebClient webClient = mock(WebClient.class);
+        WebClient.RequestBodyUriSpec uriSpec = mock(WebClient.RequestBodyUriSpec.class);
+        WebClient.RequestBodySpec bodySpec = mock(WebClient.RequestBodySpec.class);
+
+        when(webClientBuilder.build()).thenReturn(webClient);
+        when(webClient.post()).thenReturn(uriSpec);
+        when(uriSpec.uri("http://user-service/users/batch")).thenReturn(bodySpec);
+        when(bodySpec.bodyValue(any())).thenAnswer(inv -> {
+            requestedBatches.add(inv.getArgument(0));
+            return headersSpec;
+        });
+        when(headersSpec.retrieve()).thenReturn(responseSpec);
+        when(cbFactory.create(anyString())).thenReturn(cb);
+        when(cb.run(any(Mono.class), any())).thenAnswer(inv -> ((Mono<?>) inv.getArgument(0))
+                .onErrorResume((Function) inv.getArgument(1)));
+    }
+
+    private UserBatchClient client(int maxBatchSize) {
+        return new UserBatchClient(webClientBuilder, cbFactory, Duration.ofMillis(20), maxBatchSize,
+                Schedulers.parallel());
+    }
+
+    private static UserResponse user(String id) {
+        return UserResponse.builder().id(id).role("OFFICER").build();
+    }
+
+    @Test
+    void lookupsInOneWindow_shareOneBatchCall() {
+        when(responseSpec.bodyToFlux(UserResponse.class)).thenReturn(Flux.just(user("u1"), user("u2")));
+        UserBatchClient client = client(100);
+
+        StepVerifier.create(Flux.merge(client.getUser("u1"), client.getUser("u2"), client.getUser("u1")))
+                .expectNextCount(3)
+                .verifyComplete();
+
+        assertEquals(List.of(List.of("u1", "u2")), requestedBatches);
+    }
+
+    @Test
+    void unknownId_completesEmpty() {
+        when(responseSpec.bodyToFlux(UserResponse.class)).thenReturn(Flux.just(user("u1")));
+        UserBatchClient client = client(100);
+
+        StepVerifier.create(Mono.zip(client.getUser("u1"), client.getUser("missing").defaultIfEmpty(user("none"))))
+                .expectNextMatches(pair -> "u1".equals(pair.getT1().getId()) && "none".equals(pair.getT2().getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void fullBatch_overflowGoesInNextCall() {
+        when(responseSpec.bodyToFlux(UserResponse.class))
+                .thenReturn(Flux.just(user("u1"), user("u2")), Flux.just(user("u3")));
+        UserBatchClient client = client(2);
+
+        StepVerifier.create(Flux.merge(client.getUser("u1"), client.getUser("u2"), client.getUser("u3")))
+                .expectNextCount(3)
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+
+        assertEquals(List.of(List.of("u1", "u2"), List.of("u3")), requestedBatches);
+    }
+
+    @Test
+    void batchFailure_failsEveryWaiter() {
+        when(responseSpec.bodyToFlux(UserResponse.class)).thenReturn(Flux.error(new RuntimeException("down")));
+        UserBatchClient client = client(100);
+
+        StepVerifier.create(client.getUser("u1")).expectError(ServiceUnavailableException.class).verify();
+        StepVerifier.create(client.getUser("u2")).expectError(ServiceUnavailableException.class).verify();
+    }
+}
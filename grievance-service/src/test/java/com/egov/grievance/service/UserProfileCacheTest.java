@@ -0,0 +1,93 @@
+package com.egov.grievance.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.egov.grievance.dto.UserResponse;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class UserProfileCacheTest {
+
+    private final UserProfileCache cache = new UserProfileCache(100, Duration.ofMinutes(1));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Mono<UserResponse> load(String id) {
+        loads.incrementAndGet();
+        return Mono.just(UserResponse.builder().id(id).role("OFFICER").departmentId("D001").build());
+    }
+
+    @Test
+    void hit_doesNotCallLoader() {
+        StepVerifier.create(cache.get("O1", this::load)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(cache.get("O1", this::load))
+                .expectNextMatches(user -> "D001".equals(user.getDepartmentId()))
+                .verifyComplete();
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidate_forcesReload() {
+        cache.get("O1", this::load).block();
+        cache.invalidate("O1");
+        cache.get("O1", this::load).block();
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void errorsAndEmptyResults_areNotCached() {
+        StepVerifier.create(cache.get("O1", id -> Mono.error(new IllegalArgumentException("Officer not found"))))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        StepVerifier.create(cache.get("O2", id -> Mono.empty())).verifyComplete();
+
+        assertEquals(0, cache.size());
+        StepVerifier.create(cache.get("O1", this::load)).expectNextCount(1).verifyComplete();
+    }
+
+    @Test
+    void concurrentMisses_shareOneLoad() {
+        Sinks.One<UserResponse> pending = Sinks.one();
+        Flux<UserResponse> callers = Flux.range(0, 10)
+                .flatMap(i -> cache.get("O1", id -> {
+                    loads.incrementAndGet();
+                    return pending.asMono();
+                }));
+
+        StepVerifier.create(callers)
+                .then(() -> pending.tryEmitValue(UserResponse.builder().id("O1").build()))
+                .expectNextCount(10)
+                .verifyComplete();
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidateDuringLoad_dropsInFlightResult() {
+        Sinks.One<UserResponse> pending = Sinks.one();
+        Mono<UserResponse> inFlight = cache.get("O1", id -> pending.asMono());
+
+        StepVerifier.create(inFlight)
+                .then(() -> cache.invalidate("O1"))
+                .then(() -> pending.tryEmitValue(UserResponse.builder().id("O1").role("CITIZEN").build()))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        cache.get("O1", this::load).block();
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void tokenVersion_onlyMovesForward() {
+        assertEquals(0, cache.tokenVersion("O1"));
+        cache.recordTokenVersion("O1", 3);
+        cache.recordTokenVersion("O1", 2);
+        assertEquals(3, cache.tokenVersion("O1"));
+    }
+}
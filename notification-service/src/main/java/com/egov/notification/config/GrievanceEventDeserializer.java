@@ -0,0 +1,51 @@
+package com.egov.notification.config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import com.egov.notification.event.GrievanceStatusChangedEvent;
+import com.egov.notification.event.GrievanceStatusChangedEventCodec;
+
+/**
+ * Reads grievance-status-changed records in either format the grievance service writes. The content-type
+ * header selects the binary codec, and anything else, including records from before the header existed,
+ * goes through the configured JsonDeserializer.
+ */
+public class GrievanceEventDeserializer implements Deserializer<GrievanceStatusChangedEvent> {
+
+    public static final String CONTENT_TYPE_HEADER = "content-type";
+
+    private static final byte[] BINARY = GrievanceStatusChangedEventCodec.CONTENT_TYPE.getBytes(StandardCharsets.UTF_8);
+
+    private final JsonDeserializer<GrievanceStatusChangedEvent> json = new JsonDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public GrievanceStatusChangedEvent deserialize(String topic, byte[] data) {
+        return json.deserialize(topic, data);
+    }
+
+    @Override
+    public GrievanceStatusChangedEvent deserialize(String topic, Headers headers, byte[] data) {
+        Header contentType = headers.lastHeader(CONTENT_TYPE_HEADER);
+        if (data != null && contentType != null && Arrays.equals(BINARY, contentType.value())) {
+            return GrievanceStatusChangedEventCodec.decode(data);
+        }
+        return json.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
@@ -0,0 +1,31 @@
+package com.egov.notification.config;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.egov.notification.event.GrievanceStatusChangedEvent;
+import com.egov.notification.event.GrievanceStatusChangedEventCodec;
+
+/**
+ * Writes the events this service republishes to its retry and dead-letter topics. They always go out in
+ * the binary codec, with the content-type header GrievanceEventDeserializer reads them back by, replacing
+ * whatever header the original record carried.
+ */
+public class GrievanceEventSerializer implements Serializer<GrievanceStatusChangedEvent> {
+
+    private static final byte[] BINARY = GrievanceStatusChangedEventCodec.CONTENT_TYPE.getBytes(StandardCharsets.UTF_8);
+
+    @Override
+    public byte[] serialize(String topic, GrievanceStatusChangedEvent data) {
+        return data == null ? null : GrievanceStatusChangedEventCodec.encode(data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, GrievanceStatusChangedEvent data) {
+        headers.remove(GrievanceEventDeserializer.CONTENT_TYPE_HEADER);
+        headers.add(GrievanceEventDeserializer.CONTENT_TYPE_HEADER, BINARY);
+        return serialize(topic, data);
+    }
+}
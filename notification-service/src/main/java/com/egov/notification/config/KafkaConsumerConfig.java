@@ -1,7 +1,12 @@
 package com.egov.notification.config;
 
 import com.egov.notification.event.GrievanceStatusChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -9,19 +14,43 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Configuration
 public class KafkaConsumerConfig {
 
+    public static final String STATUS_TOPIC = "grievance-status-changed";
+    public static final String RETRY_TOPIC_PREFIX = STATUS_TOPIC + "-retry-";
+    public static final String DEAD_LETTER_TOPIC = STATUS_TOPIC + "-dlt";
+
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
-    
+
+    // 0 means one consumer per partition of the status topic, capped at max-concurrency
+    @Value("${notification.listener.concurrency:0}")
+    private int concurrency;
+
+    @Value("${notification.listener.max-concurrency:16}")
+    private int maxConcurrency;
+
+    // upper bound on records per poll, and so per batch, in batch-listener mode
+    @Value("${notification.batch-listener.max-poll-records:500}")
+    private int batchMaxPollRecords;
+
     @Bean
     public ConsumerFactory<String, GrievanceStatusChangedEvent> consumerFactory() {
 
@@ -35,7 +64,8 @@ public class KafkaConsumerConfig {
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
 
         props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
-        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
+        // json or the binary codec, picked per record by its content-type header
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, GrievanceEventDeserializer.class);
 
         props.put(JsonDeserializer.VALUE_DEFAULT_TYPE,
                 "com.egov.notification.event.GrievanceStatusChangedEvent");
@@ -48,14 +78,103 @@ public class KafkaConsumerConfig {
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, GrievanceStatusChangedEvent>
-    kafkaListenerContainerFactory() {
+    kafkaListenerContainerFactory(KafkaTemplate<String, Object> retryKafkaTemplate) {
+
+        ConcurrentKafkaListenerContainerFactory<String, GrievanceStatusChangedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+
+        factory.setConsumerFactory(consumerFactory());
+        factory.setCommonErrorHandler(deadLetterErrorHandler(retryKafkaTemplate));
+        factory.setConcurrency(listenerConcurrency());
+
+        // GrievanceStatusConsumer acks each record from the thread that finished it, not in offset order
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(true);
+
+        return factory;
+    }
+
+    // hands the listener a whole poll, which it acks in one go once every notification in it is done
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, GrievanceStatusChangedEvent>
+    batchKafkaListenerContainerFactory(KafkaTemplate<String, Object> retryKafkaTemplate) {
+
+        ConcurrentKafkaListenerContainerFactory<String, GrievanceStatusChangedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+
+        factory.setConsumerFactory(consumerFactory());
+        factory.setCommonErrorHandler(deadLetterErrorHandler(retryKafkaTemplate));
+        factory.setConcurrency(listenerConcurrency());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchMaxPollRecords);
+        factory.getContainerProperties().setKafkaConsumerProperties(overrides);
+
+        return factory;
+    }
+
+    // one consumer per retry tier, see GrievanceStatusRetryConsumer. acks stay in offset order because a
+    // record that is not due yet is nacked, which seeks back to it and pauses the tier until it is
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, GrievanceStatusChangedEvent>
+    retryKafkaListenerContainerFactory(KafkaTemplate<String, Object> retryKafkaTemplate) {
 
         ConcurrentKafkaListenerContainerFactory<String, GrievanceStatusChangedEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
 
         factory.setConsumerFactory(consumerFactory());
-        factory.setCommonErrorHandler(new DefaultErrorHandler());
+        factory.setCommonErrorHandler(deadLetterErrorHandler(retryKafkaTemplate));
+        factory.setConcurrency(1);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
 
         return factory;
     }
+
+    // reads the dead-letter topic as raw bytes for DeadLetterReplayService, under its own group so replayed
+    // offsets are tracked apart from the listeners
+    @Bean
+    public ConsumerFactory<String, byte[]> deadLetterConsumerFactory() {
+
+        Map<String, Object> props = new HashMap<>();
+
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "notification-service-dlt-replay");
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new ByteArrayDeserializer());
+    }
+
+    // failures inside a notification are routed to the retry tiers by the listeners themselves. what reaches
+    // the container, mostly records that cannot be deserialized, would fail the same way on every attempt,
+    // so it goes straight to the dead-letter topic instead of being retried in place and then dropped
+    static DefaultErrorHandler deadLetterErrorHandler(KafkaOperations<String, Object> template) {
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(template,
+                (record, e) -> new TopicPartition(DEAD_LETTER_TOPIC, -1));
+        return new DefaultErrorHandler(recoverer, new FixedBackOff(0, 0));
+    }
+
+    // more consumers than partitions would sit idle, so the partition count is the natural concurrency
+    int listenerConcurrency() {
+        if (concurrency <= 0) {
+            concurrency = Math.max(1, Math.min(partitionCount(), maxConcurrency));
+        }
+        return concurrency;
+    }
+
+    private int partitionCount() {
+        Map<String, Object> props = Map.of(
+                AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, 5000,
+                AdminClientConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, 5000);
+        try (AdminClient admin = AdminClient.create(props)) {
+            return admin.describeTopics(List.of(STATUS_TOPIC)).allTopicNames().get(5, TimeUnit.SECONDS)
+                    .get(STATUS_TOPIC).partitions().size();
+        } catch (Exception e) {
+            log.warn("Could not read partition count of {}, using one consumer: {}", STATUS_TOPIC, e.getMessage());
+            return 1;
+        }
+    }
 }
@@ -0,0 +1,50 @@
+package com.egov.notification.config;
+
+import com.egov.notification.event.GrievanceStatusChangedEvent;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Configuration
+public class KafkaProducerConfig {
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    // sends failed events to the retry and dead-letter topics, and replays dead letters. values are either
+    // events, written with the binary codec, or the raw bytes of a record that could not be read at all
+    @Bean
+    public ProducerFactory<String, Object> retryProducerFactory() {
+
+        Map<String, Object> props = new HashMap<>();
+
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+
+        // the source offset is acked once this send completes, so it must not be lost or duplicated
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+
+        Map<Class<?>, Serializer<?>> values = new LinkedHashMap<>();
+        values.put(GrievanceStatusChangedEvent.class, new GrievanceEventSerializer());
+        values.put(byte[].class, new ByteArraySerializer());
+
+        return new DefaultKafkaProducerFactory<>(props, new StringSerializer(), new DelegatingByTypeSerializer(values));
+    }
+
+    @Bean
+    public KafkaTemplate<String, Object> retryKafkaTemplate(ProducerFactory<String, Object> retryProducerFactory) {
+        return new KafkaTemplate<>(retryProducerFactory);
+    }
+}
@@ -3,104 +3,361 @@ package com.egov.notification.consumer;
 import com.egov.notification.dto.UserResponse;
 import com.egov.notification.event.GrievanceStatusChangedEvent;
 import com.egov.notification.service.EmailService;
+import com.egov.notification.service.NotificationLedger;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class GrievanceStatusConsumer {
 
+    private static final int MAX_REMEMBERED_EVENTS = 100_000;
+
     private final EmailService emailService;
-    private final WebClient.Builder webClientBuilder;
+    private final RetryTopicRouter retryRouter;
+    private final NotificationLedger ledger;
+    private final WebClient webClient;
+    private final Duration userTimeout;
+    private final int maxInFlightPerPartition;
+    private final int userBatchSize;
+
+    // events of one grievance are notified in the order they were published, different grievances in parallel
+    private final KeyedSequencer sequencer = new KeyedSequencer();
+    private final Map<Integer, Semaphore> inFlight = new ConcurrentHashMap<>();
+    private final NotificationCoalescer coalescer;
+
+    // held events count against max-in-flight until their window is sent, so the limit leaves room for a
+    // window's worth of traffic per partition
+    public GrievanceStatusConsumer(
+            EmailService emailService,
+            RetryTopicRouter retryRouter,
+            NotificationLedger ledger,
+            WebClient.Builder webClientBuilder,
+            @Value("${notification.max-in-flight-per-partition:1024}") int maxInFlightPerPartition,
+            @Value("${notification.user-timeout:2s}") Duration userTimeout,
+            @Value("${notification.coalesce.window:5s}") Duration coalesceWindow,
+            @Value("${notification.coalesce.dedup-horizon:15m}") Duration dedupHorizon,
+            // the same key caps POST /users/batch in user-service, a bigger chunk is rejected there with 400
+            @Value("${users.batch.max-ids:200}") int userBatchSize) {
+        this.emailService = emailService;
+        this.retryRouter = retryRouter;
+        this.ledger = ledger;
+        this.webClient = webClientBuilder.build();
+        this.maxInFlightPerPartition = maxInFlightPerPartition;
+        this.userTimeout = userTimeout;
+        this.userBatchSize = userBatchSize;
+        this.coalescer = new NotificationCoalescer(coalesceWindow, dedupHorizon, MAX_REMEMBERED_EVENTS,
+                Schedulers.parallel(), Clock.systemUTC(), this::flush);
+    }
 
     // cmd to list topics: docker exec -it kafka kafka-topics --bootstrap-server
     // localhost:9092 --list
-    @KafkaListener(topics = "grievance-status-changed", groupId = "notification-service")
-    public void consume(GrievanceStatusChangedEvent event) {
+    //
+    // the listener thread only hands the event off. it blocks only when its partition already has
+    // max-in-flight events pending, and the offset is acked once the notifications for the event are done, or
+    // once the event was handed to the first retry tier when one of them failed. acks may complete out of
+    // order, the container commits each partition up to its first unfinished offset.
+    // events are held for coalesce.window per grievance so a burst of changes sends each recipient one mail
+    @KafkaListener(id = "grievance-status", topics = "grievance-status-changed", groupId = "notification-service",
+            autoStartup = "#{!${notification.batch-listener.enabled:false}}")
+    public void consume(ConsumerRecord<String, GrievanceStatusChangedEvent> record, Acknowledgment ack)
+            throws InterruptedException {
+
+        GrievanceStatusChangedEvent event = record.value();
+        if (!coalescer.firstSighting(event)) {
+            log.info("Dropping redelivered grievance event: {}", event);
+            ack.acknowledge();
+            return;
+        }
+
+        Semaphore permits = inFlight.computeIfAbsent(record.partition(),
+                partition -> new Semaphore(maxInFlightPerPartition));
+        permits.acquire();
+
+        coalescer.submit(key(event), event)
+                .whenComplete((ignored, ex) -> {
+                    ack.acknowledge();
+                    permits.release();
+                });
+    }
+
+    // a closed window: one mail per recipient, user lookups shared, sent after the grievance's previous window
+    private Mono<Void> flush(String key, List<GrievanceStatusChangedEvent> events) {
+        Map<String, Mono<UserResponse>> lookups = new ConcurrentHashMap<>();
+        Function<String, Mono<UserResponse>> users = id -> lookups.computeIfAbsent(id, i -> fetchUser(i).cache());
+        return Mono.fromFuture(() -> sequencer.submit(key, () -> deliver(coalesce(events), users)));
+    }
+
+    // batch mode: every user in the poll is resolved with one bulk lookup, then each grievance's events in the
+    // poll are coalesced like a window and the mails sent in parallel. the listener waits for the batch, which
+    // is what bounds the work in flight, and acks the whole poll at once. failed events are handed to the
+    // retry tiers first
+    @KafkaListener(id = "grievance-status-batch", topics = "grievance-status-changed", groupId = "notification-service",
+            containerFactory = "batchKafkaListenerContainerFactory",
+            autoStartup = "${notification.batch-listener.enabled:false}")
+    public void consumeBatch(List<ConsumerRecord<String, GrievanceStatusChangedEvent>> records, Acknowledgment ack) {
+        processBatch(records).block();
+        ack.acknowledge();
+    }
+
+    Mono<Void> processBatch(List<ConsumerRecord<String, GrievanceStatusChangedEvent>> records) {
+        Map<String, List<GrievanceStatusChangedEvent>> byGrievance = new LinkedHashMap<>();
+        List<Mono<Void>> deadLetters = new ArrayList<>();
+        for (ConsumerRecord<String, GrievanceStatusChangedEvent> record : records) {
+            GrievanceStatusChangedEvent event = record.value();
+            // a record that failed to deserialize arrives as null and goes to the dead-letter topic
+            if (event == null) {
+                deadLetters.add(Mono.fromFuture(() -> retryRouter.deadLetter(record))
+                        .onErrorResume(e -> {
+                            log.error("Failed to dead-letter record {}-{}@{}, dropping it",
+                                    record.topic(), record.partition(), record.offset(), e);
+                            return Mono.empty();
+                        }));
+                continue;
+            }
+            if (coalescer.firstSighting(event)) {
+                byGrievance.computeIfAbsent(key(event), key -> new ArrayList<>()).add(event);
+            }
+        }
+
+        List<Notification> notifications = new ArrayList<>();
+        byGrievance.values().forEach(events -> notifications.addAll(coalesce(events)));
+        Set<String> userIds = new LinkedHashSet<>();
+        notifications.forEach(notification -> userIds.add(notification.userId()));
+
+        // when the bulk lookup fails every user lookup of the batch fails with it, so each event is retried
+        Mono<Function<String, Mono<UserResponse>>> lookup = fetchUsers(userIds)
+                .<Function<String, Mono<UserResponse>>>map(users -> id -> Mono.justOrEmpty(users.get(id)))
+                .onErrorResume(e -> Mono.just(id -> Mono.error(e)));
+
+        return Mono.when(deadLetters).then(lookup.flatMap(users -> deliver(notifications, users)));
+    }
+
+    // fails when any of the event's notifications failed, after every recipient has been tried
+    Mono<Void> process(GrievanceStatusChangedEvent event) {
+        return Mono.whenDelayError(notifications(event).stream()
+                .map(notification -> send(notification, this::fetchUser))
+                .toList());
+    }
+
+    // sends every mail, then hands the events behind the ones that failed to the retry tiers
+    private Mono<Void> deliver(List<Notification> notifications, Function<String, Mono<UserResponse>> users) {
+        Map<GrievanceStatusChangedEvent, Throwable> failed = new ConcurrentHashMap<>();
+        return Flux.fromIterable(notifications)
+                .flatMap(notification -> send(notification, users)
+                        .onErrorResume(e -> {
+                            failed.putIfAbsent(notification.event(), e);
+                            return Mono.empty();
+                        }), maxInFlightPerPartition)
+                .thenMany(Flux.defer(() -> Flux.fromIterable(failed.entrySet())))
+                .concatMap(failure -> retry(failure.getKey(), failure.getValue()))
+                .then();
+    }
+
+    // should the hand-off itself fail the producer has already retried for delivery.timeout.ms, and the event
+    // is dropped with an error rather than holding back the partition's commits
+    private Mono<Void> retry(GrievanceStatusChangedEvent event, Throwable cause) {
+        return Mono.fromFuture(() -> retryRouter.retry(event, 1, cause))
+                .onErrorResume(e -> {
+                    log.error("Failed to hand grievance event {} to the retry topic, dropping it",
+                            event.getGrievanceId(), e);
+                    return Mono.empty();
+                });
+    }
+
+    private static String key(GrievanceStatusChangedEvent event) {
+        return event.getGrievanceId() != null ? event.getGrievanceId() : "";
+    }
+
+    private enum Recipient { CITIZEN, OFFICER, SUPERVISOR }
+
+    private record Notification(Recipient recipient, String userId, GrievanceStatusChangedEvent event) {
+
+        String ledgerKey() {
+            return NotificationLedger.key(event.getGrievanceId(), event.getNewStatus(), event.getChangedAt(),
+                    recipient + ":" + userId);
+        }
+
+        // the later notification, told as a change from the status the earlier one would have reported leaving
+        Notification since(Notification earlier) {
+            if (Objects.equals(earlier.event().getOldStatus(), event.getOldStatus())) {
+                return this;
+            }
+            GrievanceStatusChangedEvent merged = new GrievanceStatusChangedEvent();
+            merged.setGrievanceId(event.getGrievanceId());
+            merged.setCitizenId(event.getCitizenId());
+            merged.setDepartmentId(event.getDepartmentId());
+            merged.setAssignedOfficerId(event.getAssignedOfficerId());
+            merged.setOldStatus(earlier.event().getOldStatus());
+            merged.setNewStatus(event.getNewStatus());
+            merged.setChangedBy(event.getChangedBy());
+            merged.setChangedAt(event.getChangedAt());
+            return new Notification(recipient, userId, merged);
+        }
+    }
+
+    // one notification per recipient across a grievance's events, carrying the latest status
+    private static List<Notification> coalesce(List<GrievanceStatusChangedEvent> events) {
+        Map<String, Notification> latest = new LinkedHashMap<>();
+        for (GrievanceStatusChangedEvent event : events) {
+            for (Notification notification : notifications(event)) {
+                latest.merge(notification.recipient() + ":" + notification.userId(), notification,
+                        (earlier, later) -> later.since(earlier));
+            }
+        }
+        return new ArrayList<>(latest.values());
+    }
+
+    private static List<Notification> notifications(GrievanceStatusChangedEvent event) {
 
         log.info("Received grievance event: {}", event);
 
+        List<Notification> notifications = new ArrayList<>(2);
+
     	    //always notify citizen
-        notifyCitizen(event.getCitizenId(), event);
+        if (event.getCitizenId() != null) {
+            notifications.add(new Notification(Recipient.CITIZEN, event.getCitizenId(), event));
+        }
 
-    	    //notify assigned officer 
+    	    //notify assigned officer
         if (event.getAssignedOfficerId() != null &&
                 !"ESCALATED".equalsIgnoreCase(event.getNewStatus())) {
 
-            notifyOfficer(event.getAssignedOfficerId(), event);
+            notifications.add(new Notification(Recipient.OFFICER, event.getAssignedOfficerId(), event));
         }
 
     	  //Notify supervisor(of that dept) on escalation
         if ("ESCALATED".equalsIgnoreCase(event.getNewStatus()) &&
                 event.getAssignedOfficerId() != null) {
-            notifySupervisor(event.getAssignedOfficerId(), event);
+            notifications.add(new Notification(Recipient.SUPERVISOR, event.getAssignedOfficerId(), event));
         }
+
+        return notifications;
     }
 
+    // a mail the ledger has seen go out is not sent again, whichever path redelivered its event
+    private Mono<Void> send(Notification notification, Function<String, Mono<UserResponse>> users) {
+        String ledgerKey = notification.ledgerKey();
+        if (ledger.alreadySent(ledgerKey)) {
+            log.info("Skipping {} mail for grievance {}, it was already sent",
+                    notification.recipient(), notification.event().getGrievanceId());
+            return Mono.empty();
+        }
+        Mono<Void> mail = switch (notification.recipient()) {
+            case CITIZEN -> notifyCitizen(notification.userId(), notification.event(), users);
+            case OFFICER -> notifyOfficer(notification.userId(), notification.event(), users);
+            case SUPERVISOR -> notifySupervisor(notification.userId(), notification.event(), users);
+        };
+        return mail.then(Mono.fromRunnable(() -> ledger.recordSent(ledgerKey)));
+    }
 
-    private void notifyCitizen(
-            String userId,
-            GrievanceStatusChangedEvent event) {
 
-        UserResponse user = fetchUser(userId);
-        if (user == null) return;
+    private Mono<Void> notifyCitizen(
+            String userId,
+            GrievanceStatusChangedEvent event,
+            Function<String, Mono<UserResponse>> users) {
 
-        emailService.sendCitizenMail(
+        return user(users, userId).flatMap(user -> sendMail("citizen", user, () -> emailService.sendCitizenMail(
                 user.getEmail(),
                 user.getName(),
                 event.getGrievanceId(),
                 event.getOldStatus(),
-                event.getNewStatus());
+                event.getNewStatus())));
     }
 
-    private void notifyOfficer(
+    private Mono<Void> notifyOfficer(
             String officerId,
-            GrievanceStatusChangedEvent event) {
-
-        UserResponse user = fetchUser(officerId);
-        if (user == null) return;
+            GrievanceStatusChangedEvent event,
+            Function<String, Mono<UserResponse>> users) {
 
-        emailService.sendOfficerMail(
+        return user(users, officerId).flatMap(user -> sendMail("officer", user, () -> emailService.sendOfficerMail(
                 user.getEmail(),
                 user.getName(),
                 user.getRole(),
                 event.getGrievanceId(),
                 event.getNewStatus()
-        );
+        )));
     }
 
-    private void notifySupervisor(
+    private Mono<Void> notifySupervisor(
             String supervisorId,
-            GrievanceStatusChangedEvent event) {
+            GrievanceStatusChangedEvent event,
+            Function<String, Mono<UserResponse>> users) {
 
-        UserResponse user = fetchUser(supervisorId);
-        if (user == null) return;
-
-        emailService.sendSupervisorMail(
+        return user(users, supervisorId).flatMap(user -> sendMail("supervisor", user, () -> emailService.sendSupervisorMail(
                 user.getEmail(),
                 user.getName(),
                 user.getRole(),
-                event.getGrievanceId());
-    }
-
-    private UserResponse fetchUser(String userId) {
-        try {
-            return webClientBuilder.build()
-                    .get()
-                    .uri("http://user-service/users/{id}", userId)
-                    .retrieve()
-                    .bodyToMono(UserResponse.class)
-                    .block();
-        } catch (Exception e) {
-            log.error("Failed to fetch user {}", userId, e);
-            return null;
-        }
+                event.getGrievanceId())));
+    }
+
+    // the smtp round trips happen on the MailDeliveryEngine's connections, this only waits for the outcome
+    private Mono<Void> sendMail(String recipient, UserResponse user, Supplier<CompletableFuture<Void>> send) {
+        return Mono.fromFuture(send)
+                .doOnError(e -> log.error("Failed to send {} mail to {}", recipient, user.getEmail(), e));
+    }
+
+    private static Mono<UserResponse> user(Function<String, Mono<UserResponse>> users, String userId) {
+        return userId == null ? Mono.empty() : users.apply(userId);
     }
 
+    private Mono<UserResponse> fetchUser(String userId) {
+        return webClient
+                .get()
+                .uri("http://user-service/users/{id}", userId)
+                .retrieve()
+                .bodyToMono(UserResponse.class)
+                .timeout(userTimeout)
+                // an unknown user will not appear on a retry, anything else may be user-service having trouble
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> {
+                    log.warn("User {} not found, skipping their mail", userId);
+                    return Mono.empty();
+                })
+                .doOnError(e -> log.error("Failed to fetch user {}", userId, e));
+    }
+
+    // one POST /users/batch per chunk of ids, a failed lookup fails the batch's events like a failed single lookup
+    private Mono<Map<String, UserResponse>> fetchUsers(Set<String> userIds) {
+        if (userIds.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return Flux.fromIterable(userIds)
+                .buffer(userBatchSize)
+                .flatMap(ids -> webClient
+                        .post()
+                        .uri("http://user-service/users/batch")
+                        .bodyValue(ids)
+                        .retrieve()
+                        .bodyToFlux(UserResponse.class)
+                        .timeout(userTimeout))
+                .collectMap(UserResponse::getId)
+                .doOnError(e -> log.error("Failed to fetch {} users", userIds.size(), e));
+    }
 }
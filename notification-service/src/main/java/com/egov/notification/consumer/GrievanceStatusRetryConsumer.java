@@ -0,0 +1,106 @@
+package com.egov.notification.consumer;
+
+import com.egov.notification.event.GrievanceStatusChangedEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consumes the retry tiers, one container per tier topic. A tier only holds events that share its delay,
+ * so its records fall due in offset order: the consumer waits for the record at the head by nacking it,
+ * which pauses just that tier, and a tier still waiting never holds up the status topic or another tier.
+ */
+@Slf4j
+@Component
+public class GrievanceStatusRetryConsumer implements SmartLifecycle {
+
+    // nacked waits stay well below max.poll.interval.ms, a record due later is simply nacked again
+    private static final Duration MAX_WAIT = Duration.ofSeconds(30);
+
+    private final GrievanceStatusConsumer consumer;
+    private final RetryTopicRouter router;
+    private final Clock clock;
+    private final List<ConcurrentMessageListenerContainer<String, GrievanceStatusChangedEvent>> containers = new ArrayList<>();
+
+    @Autowired
+    public GrievanceStatusRetryConsumer(
+            GrievanceStatusConsumer consumer,
+            RetryTopicRouter router,
+            @Qualifier("retryKafkaListenerContainerFactory")
+            ConcurrentKafkaListenerContainerFactory<String, GrievanceStatusChangedEvent> factory) {
+        this(consumer, router, factory, Clock.systemUTC());
+    }
+
+    GrievanceStatusRetryConsumer(GrievanceStatusConsumer consumer, RetryTopicRouter router,
+            ConcurrentKafkaListenerContainerFactory<String, GrievanceStatusChangedEvent> factory, Clock clock) {
+        this.consumer = consumer;
+        this.router = router;
+        this.clock = clock;
+        for (String topic : router.retryTopics()) {
+            ConcurrentMessageListenerContainer<String, GrievanceStatusChangedEvent> container =
+                    factory.createContainer(topic);
+            container.setBeanName(topic);
+            container.setupMessageListener((AcknowledgingMessageListener<String, GrievanceStatusChangedEvent>) this::onMessage);
+            containers.add(container);
+        }
+    }
+
+    void onMessage(ConsumerRecord<String, GrievanceStatusChangedEvent> record, Acknowledgment ack) {
+        long wait = RetryTopicRouter.dueAt(record) - clock.millis();
+        if (wait > 0) {
+            ack.nack(Duration.ofMillis(Math.min(wait, MAX_WAIT.toMillis())));
+            return;
+        }
+
+        GrievanceStatusChangedEvent event = record.value();
+        int attempt = RetryTopicRouter.attempt(record);
+        log.info("Retrying grievance event {}, attempt {}", event.getGrievanceId(), attempt + 1);
+        // a failed hand-off to the next tier throws, and the container's error handler dead-letters the record
+        consumer.process(event)
+                .onErrorResume(e -> Mono.fromFuture(() -> router.retry(event, attempt + 1, e)))
+                .block();
+        ack.acknowledge();
+    }
+
+    List<ConcurrentMessageListenerContainer<String, GrievanceStatusChangedEvent>> containers() {
+        return containers;
+    }
+
+    @Override
+    public void start() {
+        containers.forEach(ConcurrentMessageListenerContainer::start);
+    }
+
+    @Override
+    public void stop() {
+        containers.forEach(ConcurrentMessageListenerContainer::stop);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return containers.stream().anyMatch(ConcurrentMessageListenerContainer::isRunning);
+    }
+
+    // started and stopped alongside the @KafkaListener containers
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE;
+    }
+}
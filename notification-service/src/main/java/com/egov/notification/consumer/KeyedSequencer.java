@@ -0,0 +1,31 @@
+package com.egov.notification.consumer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs tasks one after another per key and concurrently across keys. Each submit swaps itself in as the
+ * key's tail and starts when the previous tail completes, whether that tail succeeded or failed. The entry
+ * is dropped once the last task for a key is done, so the map only holds keys with work in flight.
+ */
+final class KeyedSequencer {
+
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    CompletableFuture<Void> submit(String key, Supplier<Mono<Void>> task) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        CompletableFuture<Void> previous = tails.put(key, done);
+        CompletableFuture<Void> start = previous != null ? previous : CompletableFuture.completedFuture(null);
+        start.whenComplete((ignored, previousError) -> Mono.defer(task)
+                .subscribe(null, done::completeExceptionally, () -> done.complete(null)));
+        done.whenComplete((ignored, error) -> tails.remove(key, done));
+        return done;
+    }
+
+    int activeKeys() {
+        return tails.size();
+    }
+}
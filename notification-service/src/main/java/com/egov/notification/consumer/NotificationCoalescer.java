@@ -0,0 +1,112 @@
+package com.egov.notification.consumer;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import com.egov.notification.event.GrievanceStatusChangedEvent;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Collects status events per grievance for a fixed window that opens with the first event, then hands them
+ * to the flush function in arrival order. Every submitted event completes with the flush of its window. It
+ * also remembers the events it saw within the dedup horizon, so a copy redelivered after a rebalance or a
+ * failed commit is recognised. Events without a changedAt cannot be told apart from a genuine repeat of the
+ * same transition and are never treated as copies.
+ */
+final class NotificationCoalescer {
+
+    private final Duration window;
+    private final long dedupHorizonMillis;
+    private final int maxRemembered;
+    private final Scheduler scheduler;
+    private final Clock clock;
+    private final BiFunction<String, List<GrievanceStatusChangedEvent>, Mono<Void>> flush;
+
+    private final Map<String, Window> open = new HashMap<>();
+    // fingerprint -> first seen at, in insertion order so the oldest entries are expired from the head
+    private final LinkedHashMap<String, Long> seen = new LinkedHashMap<>();
+
+    NotificationCoalescer(Duration window, Duration dedupHorizon, int maxRemembered, Scheduler scheduler, Clock clock,
+            BiFunction<String, List<GrievanceStatusChangedEvent>, Mono<Void>> flush) {
+        this.window = window;
+        this.dedupHorizonMillis = dedupHorizon.toMillis();
+        this.maxRemembered = maxRemembered;
+        this.scheduler = scheduler;
+        this.clock = clock;
+        this.flush = flush;
+    }
+
+    // false for a copy of an event already seen within the dedup horizon
+    synchronized boolean firstSighting(GrievanceStatusChangedEvent event) {
+        long now = clock.millis();
+        Iterator<Long> oldest = seen.values().iterator();
+        while (oldest.hasNext()) {
+            long seenAt = oldest.next();
+            if (seen.size() < maxRemembered && seenAt > now - dedupHorizonMillis) {
+                break;
+            }
+            oldest.remove();
+        }
+        if (event.getChangedAt() == null) {
+            return true;
+        }
+        return seen.putIfAbsent(fingerprint(event), now) == null;
+    }
+
+    CompletableFuture<Void> submit(String key, GrievanceStatusChangedEvent event) {
+        if (window.isZero()) {
+            Window single = new Window();
+            single.events.add(event);
+            close(key, single);
+            return single.done;
+        }
+        synchronized (this) {
+            Window pending = open.get(key);
+            if (pending == null) {
+                Window opened = new Window();
+                open.put(key, opened);
+                scheduler.schedule(() -> close(key, opened), window.toMillis(), TimeUnit.MILLISECONDS);
+                pending = opened;
+            }
+            pending.events.add(event);
+            return pending.done;
+        }
+    }
+
+    synchronized int openWindows() {
+        return open.size();
+    }
+
+    synchronized int remembered() {
+        return seen.size();
+    }
+
+    private void close(String key, Window closing) {
+        synchronized (this) {
+            open.remove(key, closing);
+        }
+        Mono.defer(() -> flush.apply(key, closing.events))
+                .subscribe(null, closing.done::completeExceptionally, () -> closing.done.complete(null));
+    }
+
+    private static String fingerprint(GrievanceStatusChangedEvent event) {
+        return event.getGrievanceId() + '|' + event.getOldStatus() + '|' + event.getNewStatus() + '|'
+                + event.getChangedAt();
+    }
+
+    private static final class Window {
+        private final List<GrievanceStatusChangedEvent> events = new ArrayList<>();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+    }
+}
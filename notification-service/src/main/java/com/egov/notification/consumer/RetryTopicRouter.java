@@ -0,0 +1,142 @@
+package com.egov.notification.consumer;
+
+import com.egov.notification.config.KafkaConsumerConfig;
+import com.egov.notification.event.GrievanceStatusChangedEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Moves status events whose notifications failed off the partition they came from. Attempt n goes to
+ * retry tier n-1, whose delay grows by the multiplier from one tier to the next, and an event that failed
+ * every tier lands on the dead-letter topic, where it stays until it is replayed.
+ */
+@Slf4j
+@Component
+public class RetryTopicRouter {
+
+    public static final String ATTEMPT_HEADER = "retry-attempt";
+    public static final String DUE_AT_HEADER = "retry-due-at";
+    public static final String ERROR_HEADER = "retry-error";
+
+    private static final LogAccessor LOG = new LogAccessor(RetryTopicRouter.class);
+
+    private final KafkaTemplate<String, Object> template;
+    private final int attempts;
+    private final Duration initialDelay;
+    private final double multiplier;
+    private final Clock clock;
+
+    @Autowired
+    public RetryTopicRouter(
+            KafkaTemplate<String, Object> retryKafkaTemplate,
+            @Value("${notification.retry.attempts:3}") int attempts,
+            @Value("${notification.retry.initial-delay:10s}") Duration initialDelay,
+            @Value("${notification.retry.multiplier:6}") double multiplier) {
+        this(retryKafkaTemplate, attempts, initialDelay, multiplier, Clock.systemUTC());
+    }
+
+    RetryTopicRouter(KafkaTemplate<String, Object> template, int attempts, Duration initialDelay, double multiplier,
+            Clock clock) {
+        this.template = template;
+        this.attempts = attempts;
+        this.initialDelay = initialDelay;
+        this.multiplier = multiplier;
+        this.clock = clock;
+    }
+
+    public List<String> retryTopics() {
+        List<String> topics = new ArrayList<>(attempts);
+        for (int tier = 0; tier < attempts; tier++) {
+            topics.add(KafkaConsumerConfig.RETRY_TOPIC_PREFIX + tier);
+        }
+        return topics;
+    }
+
+    // how long retry tier n holds an event: initial-delay * multiplier^n
+    Duration delay(int tier) {
+        return Duration.ofMillis(Math.round(initialDelay.toMillis() * Math.pow(multiplier, tier)));
+    }
+
+    // attempt counts the deliveries that have failed so far, 1 for a failure on the status topic itself
+    public CompletableFuture<Void> retry(GrievanceStatusChangedEvent event, int attempt, Throwable cause) {
+        boolean exhausted = attempt > attempts;
+        String topic = exhausted
+                ? KafkaConsumerConfig.DEAD_LETTER_TOPIC
+                : KafkaConsumerConfig.RETRY_TOPIC_PREFIX + (attempt - 1);
+
+        ProducerRecord<String, Object> record = new ProducerRecord<>(topic, event.getGrievanceId(), event);
+        header(record.headers(), ATTEMPT_HEADER, Integer.toString(attempt));
+        header(record.headers(), ERROR_HEADER, describe(cause));
+        if (exhausted) {
+            log.warn("Grievance event {} failed {} times, moving it to {}", event.getGrievanceId(), attempt, topic);
+        } else {
+            header(record.headers(), DUE_AT_HEADER, Long.toString(clock.millis() + delay(attempt - 1).toMillis()));
+        }
+        return template.send(record).thenApply(result -> null);
+    }
+
+    // a record whose value could not be read is dead-lettered with the bytes it arrived with, retrying it
+    // would fail the same way
+    public CompletableFuture<Void> deadLetter(ConsumerRecord<String, ?> record) {
+        DeserializationException failure = SerializationUtils.getExceptionFromHeader(record,
+                SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG);
+        byte[] data = failure != null ? failure.getData() : new byte[0];
+
+        ProducerRecord<String, Object> out =
+                new ProducerRecord<>(KafkaConsumerConfig.DEAD_LETTER_TOPIC, record.key(), data);
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith(SerializationUtils.DESERIALIZER_EXCEPTION_HEADER_PREFIX)) {
+                out.headers().add(header);
+            }
+        }
+        header(out.headers(), ERROR_HEADER, String.valueOf(failure));
+        log.warn("Unreadable record {}-{}@{}, moving it to {}", record.topic(), record.partition(), record.offset(),
+                KafkaConsumerConfig.DEAD_LETTER_TOPIC);
+        return template.send(out).thenApply(result -> null);
+    }
+
+    public static int attempt(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(ATTEMPT_HEADER);
+        return header == null ? 0 : Integer.parseInt(new String(header.value(), StandardCharsets.UTF_8));
+    }
+
+    public static long dueAt(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(DUE_AT_HEADER);
+        return header == null ? 0 : Long.parseLong(new String(header.value(), StandardCharsets.UTF_8));
+    }
+
+    // when several recipients failed, the composite exception carries each failure as a suppressed one
+    private static String describe(Throwable cause) {
+        Throwable[] failures = cause.getSuppressed();
+        if (failures.length == 0) {
+            return String.valueOf(cause);
+        }
+        return Arrays.stream(failures).map(String::valueOf).collect(Collectors.joining("; "));
+    }
+
+    private static void header(Headers headers, String key, String value) {
+        headers.remove(key);
+        headers.add(key, value.getBytes(StandardCharsets.UTF_8));
+    }
+}
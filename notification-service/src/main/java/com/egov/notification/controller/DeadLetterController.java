@@ -0,0 +1,48 @@
+package com.egov.notification.controller;
+
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.egov.notification.security.IdentityContext;
+import com.egov.notification.service.DeadLetterReplayService;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/notifications/dead-letters")
+@RequiredArgsConstructor
+public class DeadLetterController {
+
+    private static final String ROLE_ADMIN = "ADMIN";
+    private static final int MAX_REPLAY = 1000;
+
+    private final DeadLetterReplayService replayService;
+
+    // republishes up to limit dead-lettered status events, oldest first. the caller's role comes from the
+    // gateway-signed identity context, since the service port is reachable without going through the gateway
+    @PostMapping("/replay")
+    public Mono<Map<String, Integer>> replay(@RequestParam(defaultValue = "100") int limit) {
+        return Mono.deferContextual(ctx -> ctx.<IdentityContext>getOrEmpty(IdentityContext.class)
+                        .map(Mono::just)
+                        .orElseGet(() -> Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED,
+                                "Missing or invalid identity context"))))
+                .flatMap(identity -> {
+                    if (!ROLE_ADMIN.equalsIgnoreCase(identity.getRole())) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN,
+                                "Only ADMIN can replay dead letters"));
+                    }
+                    if (limit < 1 || limit > MAX_REPLAY) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                                "limit must be between 1 and " + MAX_REPLAY));
+                    }
+                    return replayService.replay(limit).map(replayed -> Map.of("replayed", replayed));
+                });
+    }
+}
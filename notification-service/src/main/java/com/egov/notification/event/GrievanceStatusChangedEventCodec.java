@@ -0,0 +1,156 @@
+package com.egov.notification.event;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Compact binary form of GrievanceStatusChangedEvent for the grievance-status-changed topic. Fields are
+ * written by position instead of by name: a schema version byte, a bitmask of the non-null fields,
+ * then each present string and changedAt as varint epoch seconds plus varint nanos. A string that is a
+ * Mongo ObjectId (24 lowercase hex chars, which every id in the event normally is) is stored as its
+ * 12 raw bytes behind a one byte tag, any other string as a varint length plus UTF-8 bytes. Any change
+ * to the field list needs a new version, and decoders reject versions they do not know. Records carry
+ * CONTENT_TYPE in the content-type header so consumers can tell this format from JSON. This is a copy of
+ * the grievance service's codec, the two must change together.
+ */
+public final class GrievanceStatusChangedEventCodec {
+
+    public static final String CONTENT_TYPE = "application/vnd.egov.grievance-status-changed.v1";
+    public static final byte VERSION = 1;
+
+    private static final int CHANGED_AT = 1 << 7;
+    private static final int OBJECT_ID_TAG = 1;
+    private static final int OBJECT_ID_CHARS = 24;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private GrievanceStatusChangedEventCodec() {
+    }
+
+    public static byte[] encode(GrievanceStatusChangedEvent event) {
+        String[] fields = fields(event);
+        int present = event.getChangedAt() != null ? CHANGED_AT : 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] != null) {
+                present |= 1 << i;
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(VERSION);
+        out.write(present);
+        for (String field : fields) {
+            if (field != null) {
+                writeString(out, field);
+            }
+        }
+        if (event.getChangedAt() != null) {
+            long seconds = event.getChangedAt().getEpochSecond();
+            // zigzag so the rare pre-1970 timestamp stays short as well
+            writeVarLong(out, (seconds << 1) ^ (seconds >> 63));
+            writeVarLong(out, event.getChangedAt().getNano());
+        }
+        return out.toByteArray();
+    }
+
+    public static GrievanceStatusChangedEvent decode(byte[] data) {
+        ByteBuffer in = ByteBuffer.wrap(data);
+        byte version = in.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported grievance event version " + version);
+        }
+        int present = in.get() & 0xff;
+        String[] fields = new String[7];
+        for (int i = 0; i < fields.length; i++) {
+            if ((present & (1 << i)) != 0) {
+                fields[i] = readString(in);
+            }
+        }
+        Instant changedAt = null;
+        if ((present & CHANGED_AT) != 0) {
+            long zigzag = readVarLong(in);
+            changedAt = Instant.ofEpochSecond((zigzag >>> 1) ^ -(zigzag & 1), readVarLong(in));
+        }
+        GrievanceStatusChangedEvent event = new GrievanceStatusChangedEvent();
+        event.setGrievanceId(fields[0]);
+        event.setCitizenId(fields[1]);
+        event.setDepartmentId(fields[2]);
+        event.setAssignedOfficerId(fields[3]);
+        event.setOldStatus(fields[4]);
+        event.setNewStatus(fields[5]);
+        event.setChangedBy(fields[6]);
+        event.setChangedAt(changedAt);
+        return event;
+    }
+
+    private static String[] fields(GrievanceStatusChangedEvent event) {
+        return new String[] { event.getGrievanceId(), event.getCitizenId(), event.getDepartmentId(),
+                event.getAssignedOfficerId(), event.getOldStatus(), event.getNewStatus(), event.getChangedBy() };
+    }
+
+    // tag 1 is an object id, otherwise the tag is the UTF-8 length shifted left by one
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (isObjectId(value)) {
+            out.write(OBJECT_ID_TAG);
+            for (int i = 0; i < OBJECT_ID_CHARS; i += 2) {
+                out.write(Character.digit(value.charAt(i), 16) << 4 | Character.digit(value.charAt(i + 1), 16));
+            }
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, (long) utf8.length << 1);
+        out.writeBytes(utf8);
+    }
+
+    private static String readString(ByteBuffer in) {
+        long tag = readVarLong(in);
+        if (tag == OBJECT_ID_TAG) {
+            char[] hex = new char[OBJECT_ID_CHARS];
+            for (int i = 0; i < OBJECT_ID_CHARS; i += 2) {
+                int b = in.get() & 0xff;
+                hex[i] = HEX[b >>> 4];
+                hex[i + 1] = HEX[b & 0x0f];
+            }
+            return new String(hex);
+        }
+        int length = (int) (tag >>> 1);
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static boolean isObjectId(String value) {
+        if (value.length() != OBJECT_ID_CHARS) {
+            return false;
+        }
+        for (int i = 0; i < OBJECT_ID_CHARS; i++) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        long v = value;
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return v;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in grievance event");
+    }
+}
@@ -0,0 +1,14 @@
+package com.egov.notification.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// caller identity as signed by the api-gateway (X-USER-CONTEXT)
+@Data
+@AllArgsConstructor
+public class IdentityContext {
+    private String userId;
+    private String role;
+    private String departmentId;
+    private long tokenVersion;   // ver of the token the gateway accepted
+}
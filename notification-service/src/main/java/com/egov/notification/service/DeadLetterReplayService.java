@@ -0,0 +1,130 @@
+package com.egov.notification.service;
+
+import com.egov.notification.config.KafkaConsumerConfig;
+import com.egov.notification.consumer.RetryTopicRouter;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Puts dead-lettered status events back on the status topic, once whatever made them fail has been fixed.
+ * Each replay reads on from where the previous one stopped and commits past what it republished, so a dead
+ * letter is replayed once. Replayed events start over with a full set of retry attempts.
+ */
+@Slf4j
+@Service
+public class DeadLetterReplayService {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    private final ConsumerFactory<String, byte[]> deadLetterConsumerFactory;
+    private final KafkaTemplate<String, Object> retryKafkaTemplate;
+    private final Duration readTimeout;
+
+    public DeadLetterReplayService(
+            ConsumerFactory<String, byte[]> deadLetterConsumerFactory,
+            KafkaTemplate<String, Object> retryKafkaTemplate,
+            @Value("${notification.dead-letter.read-timeout:10s}") Duration readTimeout) {
+        this.deadLetterConsumerFactory = deadLetterConsumerFactory;
+        this.retryKafkaTemplate = retryKafkaTemplate;
+        this.readTimeout = readTimeout;
+    }
+
+    // the kafka consumer blocks, so the replay runs off the request thread
+    public Mono<Integer> replay(int limit) {
+        return Mono.fromCallable(() -> replayNow(limit)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    int replayNow(int limit) {
+        try (Consumer<String, byte[]> consumer = deadLetterConsumerFactory.createConsumer()) {
+            consumer.subscribe(List.of(KafkaConsumerConfig.DEAD_LETTER_TOPIC));
+
+            List<ConsumerRecord<String, byte[]>> taken = new ArrayList<>();
+            long deadline = System.nanoTime() + readTimeout.toNanos();
+            while (taken.size() < limit) {
+                ConsumerRecords<String, byte[]> polled = consumer.poll(POLL_TIMEOUT);
+                if (polled.isEmpty()) {
+                    // an empty poll can just be a fetch still in flight, so only stop once every assigned
+                    // partition has been read to its end, or the group never got any in time
+                    if (caughtUp(consumer) || System.nanoTime() > deadline) {
+                        break;
+                    }
+                    continue;
+                }
+                for (ConsumerRecord<String, byte[]> record : polled) {
+                    if (taken.size() == limit) {
+                        break;
+                    }
+                    taken.add(record);
+                }
+            }
+
+            CompletableFuture.allOf(taken.stream()
+                    .map(this::republish)
+                    .toArray(CompletableFuture[]::new)).join();
+
+            // records of one partition come in offset order, so the last one taken sets the commit
+            Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+            for (ConsumerRecord<String, byte[]> record : taken) {
+                offsets.put(new TopicPartition(record.topic(), record.partition()),
+                        new OffsetAndMetadata(record.offset() + 1));
+            }
+            if (!offsets.isEmpty()) {
+                consumer.commitSync(offsets);
+            }
+            log.info("Replayed {} dead-lettered grievance events", taken.size());
+            return taken.size();
+        }
+    }
+
+    private static boolean caughtUp(Consumer<?, ?> consumer) {
+        Set<TopicPartition> assignment = consumer.assignment();
+        if (assignment.isEmpty()) {
+            return false;
+        }
+        Map<TopicPartition, Long> endOffsets = consumer.endOffsets(assignment);
+        return assignment.stream().allMatch(partition -> consumer.position(partition) >= endOffsets.get(partition));
+    }
+
+    // the value goes back as the bytes it was dead-lettered with, its content-type header still describes them
+    private CompletableFuture<?> republish(ConsumerRecord<String, byte[]> record) {
+        ProducerRecord<String, Object> out = new ProducerRecord<>(KafkaConsumerConfig.STATUS_TOPIC, record.key(),
+                record.value());
+        for (Header header : record.headers()) {
+            if (!isFailureHeader(header.key())) {
+                out.headers().add(header);
+            }
+        }
+        return retryKafkaTemplate.send(out);
+    }
+
+    private static boolean isFailureHeader(String key) {
+        return key.startsWith(KafkaHeaders.PREFIX + "dlt-")
+                || key.equals(RetryTopicRouter.ATTEMPT_HEADER)
+                || key.equals(RetryTopicRouter.DUE_AT_HEADER)
+                || key.equals(RetryTopicRouter.ERROR_HEADER);
+    }
+}
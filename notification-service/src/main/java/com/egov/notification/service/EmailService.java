@@ -1,5 +1,7 @@
 package com.egov.notification.service;
 
+import java.util.concurrent.CompletableFuture;
+
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 
@@ -8,17 +10,64 @@ import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 
-@Slf4j
 @Service
 @RequiredArgsConstructor
 public class EmailService {
 
         private final JavaMailSender mailSender;
+        private final MailDeliveryEngine deliveryEngine;
         private static final String UTF = "UTF-8";
 
-        public void sendCitizenMail(
+        // parsed once here instead of by String.format on every mail
+        private static final MailTemplate CITIZEN_TEMPLATE = MailTemplate.compile(
+                        """
+                                            <div style="font-family: Arial, sans-serif; color: #333; max-width: 600px; padding: 20px; border: 1px solid #ddd; border-radius: 5px;">
+                                                <h2 style="color: #2c3e50;">Grievance Status Update</h2>
+                                                <p>Dear <b>%s</b>,</p>
+                                                <p>Your grievance (ID: <b>%s</b>) has been updated.</p>
+                                                <div style="background-color: #f9f9f9; padding: 15px; border-radius: 5px; margin: 15px 0;">
+                                                    <p style="margin: 5px 0;"><b>Previous Status:</b> %s</p>
+                                                    <p style="margin: 5px 0;"><b>Current Status:</b> <span style="color: #2980b9;">%s</span></p>
+                                                </div>
+                                                <p>You can track your grievance on the portal.</p>
+                                                <br>
+                                                <p style="font-size: 14px; color: #7f8c8d;">Regards,<br>E-Governance Grievance System</p>
+                                            </div>
+                                         """);
+
+        private static final MailTemplate OFFICER_TEMPLATE = MailTemplate.compile(
+                        """
+                                        <div style="font-family: Arial, sans-serif; color: #333; max-width: 600px; padding: 20px; border: 1px solid #ddd; border-radius: 5px;">
+                                            <h2 style="color: #c0392b;">Action Required</h2>
+                                            <p>Dear <b>%s</b> (%s),</p>
+                                            <p>A grievance has been assigned/updated.</p>
+                                            <div style="background-color: #fff3cd; padding: 15px; border-radius: 5px; margin: 15px 0; border-left: 5px solid #ffc107;">
+                                                <p style="margin: 5px 0;"><b>Grievance ID:</b> %s</p>
+                                                <p style="margin: 5px 0;"><b>Current Status:</b> <b>%s</b></p>
+                                            </div>
+                                            <p>Please take necessary action.</p>
+                                            <br>
+                                            <p style="font-size: 14px; color: #7f8c8d;">Regards,<br>E-Governance Grievance System</p>
+                                        </div>
+                                        """);
+
+        private static final MailTemplate SUPERVISOR_TEMPLATE = MailTemplate.compile(
+                        """
+                                        <div style="font-family: Arial, sans-serif; color: #333; max-width: 600px; padding: 20px; border: 1px solid #ddd; border-radius: 5px;">
+                                            <h2 style="color: #e74c3c;">Grievance Escalated</h2>
+                                            <p>Dear <b>%s</b> (%s),</p>
+                                            <p>A grievance has been escalated and requires your attention.</p>
+                                            <div style="background-color: #fadbd8; padding: 15px; border-radius: 5px; margin: 15px 0; border-left: 5px solid #e74c3c;">
+                                                <p style="margin: 5px 0;"><b>Grievance ID:</b> %s</p>
+                                            </div>
+                                            <p>Please review and take appropriate action.</p>
+                                            <br>
+                                            <p style="font-size: 14px; color: #7f8c8d;">Regards,<br>E-Governance Grievance System</p>
+                                        </div>
+                                        """);
+
+        public CompletableFuture<Void> sendCitizenMail(
                         String to,
                         String name,
                         String grievanceId,
@@ -32,31 +81,16 @@ public class EmailService {
                         helper.setTo(to);
                         helper.setSubject("Grievance Status Update");
 
-                        String htmlContent = String.format(
-                                        """
-                                            <div style="font-family: Arial, sans-serif; color: #333; max-width: 600px; padding: 20px; border: 1px solid #ddd; border-radius: 5px;">
-                                                <h2 style="color: #2c3e50;">Grievance Status Update</h2>
-                                                <p>Dear <b>%s</b>,</p>
-                                                <p>Your grievance (ID: <b>%s</b>) has been updated.</p>
-                                                <div style="background-color: #f9f9f9; padding: 15px; border-radius: 5px; margin: 15px 0;">
-                                                    <p style="margin: 5px 0;"><b>Previous Status:</b> %s</p>
-                                                    <p style="margin: 5px 0;"><b>Current Status:</b> <span style="color: #2980b9;">%s</span></p>
-                                                </div>
-                                                <p>You can track your grievance on the portal.</p>
-                                                <br>
-                                                <p style="font-size: 14px; color: #7f8c8d;">Regards,<br>E-Governance Grievance System</p>
-                                            </div>
-                                         """,
-                                        name, grievanceId, oldStatus, newStatus);
+                        String htmlContent = CITIZEN_TEMPLATE.render(name, grievanceId, oldStatus, newStatus);
 
                         helper.setText(htmlContent, true);
-                        mailSender.send(message);
+                        return deliveryEngine.submit(message);
                 } catch (MessagingException e) {
-                        log.error("Failed to send citizen mail to {}", to, e);
+                        return CompletableFuture.failedFuture(e);
                 }
         }
 
-        public void sendOfficerMail(
+        public CompletableFuture<Void> sendOfficerMail(
                         String to,
                         String name,
                         String designation,
@@ -70,31 +104,16 @@ public class EmailService {
                         helper.setTo(to);
                         helper.setSubject("Grievance Action Required");
 
-                        String htmlContent = String.format(
-                                        """
-                                        <div style="font-family: Arial, sans-serif; color: #333; max-width: 600px; padding: 20px; border: 1px solid #ddd; border-radius: 5px;">
-                                            <h2 style="color: #c0392b;">Action Required</h2>
-                                            <p>Dear <b>%s</b> (%s),</p>
-                                            <p>A grievance has been assigned/updated.</p>
-                                            <div style="background-color: #fff3cd; padding: 15px; border-radius: 5px; margin: 15px 0; border-left: 5px solid #ffc107;">
-                                                <p style="margin: 5px 0;"><b>Grievance ID:</b> %s</p>
-                                                <p style="margin: 5px 0;"><b>Current Status:</b> <b>%s</b></p>
-                                            </div>
-                                            <p>Please take necessary action.</p>
-                                            <br>
-                                            <p style="font-size: 14px; color: #7f8c8d;">Regards,<br>E-Governance Grievance System</p>
-                                        </div>
-                                        """,
-                                        name, designation, grievanceId, newStatus);
+                        String htmlContent = OFFICER_TEMPLATE.render(name, designation, grievanceId, newStatus);
 
                         helper.setText(htmlContent, true);
-                        mailSender.send(message);
+                        return deliveryEngine.submit(message);
                 } catch (MessagingException e) {
-                        log.error("Failed to send officer mail to {}", to, e);
+                        return CompletableFuture.failedFuture(e);
                 }
         }
 
-        public void sendSupervisorMail(
+        public CompletableFuture<Void> sendSupervisorMail(
                         String to,
                         String name,
                         String designation,
@@ -107,26 +126,12 @@ public class EmailService {
                         helper.setTo(to);
                         helper.setSubject("Grievance Escalated");
 
-                        String htmlContent = String.format(
-                                        """
-                                        <div style="font-family: Arial, sans-serif; color: #333; max-width: 600px; padding: 20px; border: 1px solid #ddd; border-radius: 5px;">
-                                            <h2 style="color: #e74c3c;">Grievance Escalated</h2>
-                                            <p>Dear <b>%s</b> (%s),</p>
-                                            <p>A grievance has been escalated and requires your attention.</p>
-                                            <div style="background-color: #fadbd8; padding: 15px; border-radius: 5px; margin: 15px 0; border-left: 5px solid #e74c3c;">
-                                                <p style="margin: 5px 0;"><b>Grievance ID:</b> %s</p>
-                                            </div>
-                                            <p>Please review and take appropriate action.</p>
-                                            <br>
-                                            <p style="font-size: 14px; color: #7f8c8d;">Regards,<br>E-Governance Grievance System</p>
-                                        </div>
-                                        """,
-                                        name, designation, grievanceId);
+                        String htmlContent = SUPERVISOR_TEMPLATE.render(name, designation, grievanceId);
 
                         helper.setText(htmlContent, true);
-                        mailSender.send(message);
+                        return deliveryEngine.submit(message);
                 } catch (MessagingException e) {
-                        log.error("Failed to send supervisor mail to {}", to, e);
+                        return CompletableFuture.failedFuture(e);
                 }
         }
 }
\ No newline at end of file
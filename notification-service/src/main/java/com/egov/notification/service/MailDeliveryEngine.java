@@ -0,0 +1,190 @@
+package com.egov.notification.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends mail over a small pool of SMTP connections that stay open between messages. Each worker thread
+ * owns one Transport: it takes whatever is queued, up to batch-size messages, sends them one after another
+ * on its connection and only reconnects when the server dropped it. A connection idle for idle-timeout is
+ * closed, so a quiet service holds no sessions. JavaMailSender.send, in contrast, opens and closes a session
+ * around every call. At most queue-capacity messages wait for a worker; beyond that submit fails right away,
+ * so a slow relay sends events to the retry tiers instead of piling messages up in memory.
+ */
+@Slf4j
+@Component
+public class MailDeliveryEngine {
+
+    // queued once per worker on shutdown so none of them sits out its idle poll
+    private static final PendingMail WAKE_UP = new PendingMail(null, null);
+
+    private final JavaMailSenderImpl mailSender;
+    private final int batchSize;
+    private final long idleMillis;
+    private final BlockingQueue<PendingMail> queue;
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicLong connectionsOpened = new AtomicLong();
+    private volatile boolean running = true;
+
+    public MailDeliveryEngine(
+            JavaMailSenderImpl mailSender,
+            @Value("${mail.pool.size:4}") int poolSize,
+            @Value("${mail.pool.batch-size:50}") int batchSize,
+            @Value("${mail.pool.idle-timeout:30s}") Duration idleTimeout,
+            @Value("${mail.pool.queue-capacity:1000}") int queueCapacity) {
+        this.mailSender = mailSender;
+        this.batchSize = batchSize;
+        this.idleMillis = idleTimeout.toMillis();
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        for (int i = 0; i < poolSize; i++) {
+            Thread worker = new Thread(this::work, "mail-transport-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    // completes once the server accepted the message, or exceptionally when it could not be delivered. a full
+    // queue fails it without blocking, the caller may be on an event loop
+    public CompletableFuture<Void> submit(MimeMessage message) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Mail delivery is shut down"));
+        }
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        if (!queue.offer(new PendingMail(message, result))) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Mail queue is full"));
+        }
+        return result;
+    }
+
+    long connectionsOpened() {
+        return connectionsOpened.get();
+    }
+
+    private void work() {
+        Transport transport = null;
+        List<PendingMail> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            PendingMail first;
+            try {
+                first = queue.poll(idleMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (first == null) {
+                transport = close(transport);
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, batchSize - 1);
+            for (PendingMail mail : batch) {
+                if (mail != WAKE_UP) {
+                    transport = deliver(transport, mail);
+                }
+            }
+            batch.clear();
+        }
+        close(transport);
+    }
+
+    // a failed send may just be a connection the server closed, so it gets one more try on a fresh one
+    private Transport deliver(Transport transport, PendingMail mail) {
+        try {
+            transport = send(transport, mail.message());
+            mail.result().complete(null);
+            return transport;
+        } catch (SendFailedException e) {
+            // the server refused the addresses, not the connection, which stays usable
+            mail.result().completeExceptionally(e);
+            return transport;
+        } catch (MessagingException first) {
+            transport = close(transport);
+            try {
+                transport = send(null, mail.message());
+                mail.result().complete(null);
+            } catch (MessagingException | RuntimeException e) {
+                transport = close(transport);
+                mail.result().completeExceptionally(e);
+            }
+            return transport;
+        } catch (RuntimeException e) {
+            mail.result().completeExceptionally(e);
+            return transport;
+        }
+    }
+
+    private Transport send(Transport transport, MimeMessage message) throws MessagingException {
+        if (transport == null || !transport.isConnected()) {
+            close(transport);
+            transport = connect();
+        }
+        if (message.getSentDate() == null) {
+            message.setSentDate(new Date());
+        }
+        message.saveChanges();
+        transport.sendMessage(message, message.getAllRecipients());
+        return transport;
+    }
+
+    private Transport connect() throws MessagingException {
+        String username = mailSender.getUsername();
+        String password = mailSender.getPassword();
+        String protocol = mailSender.getProtocol();
+        Transport transport = mailSender.getSession()
+                .getTransport(protocol != null ? protocol : JavaMailSenderImpl.DEFAULT_PROTOCOL);
+        transport.connect(mailSender.getHost(), mailSender.getPort(),
+                "".equals(username) ? null : username, "".equals(password) ? null : password);
+        connectionsOpened.incrementAndGet();
+        return transport;
+    }
+
+    private static Transport close(Transport transport) {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Failed to close SMTP connection: {}", e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    // stops taking mail, lets the workers finish what is queued and closes their connections
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        // a full queue keeps every worker busy, so none of them needs waking
+        workers.forEach(worker -> queue.offer(WAKE_UP));
+        for (Thread worker : workers) {
+            try {
+                worker.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private record PendingMail(MimeMessage message, CompletableFuture<Void> result) {
+    }
+}
@@ -0,0 +1,58 @@
+package com.egov.notification.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A mail body split once, at startup, into the literal text around its %s placeholders. Rendering
+ * appends the segments and values into one presized builder, so sending a mail no longer scans the
+ * template for format specifiers the way String.format does on every call.
+ */
+final class MailTemplate {
+
+    private static final String PLACEHOLDER = "%s";
+
+    private final String[] segments;
+    private final int literalLength;
+
+    private MailTemplate(String[] segments) {
+        this.segments = segments;
+        int length = 0;
+        for (String segment : segments) {
+            length += segment.length();
+        }
+        this.literalLength = length;
+    }
+
+    static MailTemplate compile(String template) {
+        List<String> segments = new ArrayList<>();
+        int from = 0;
+        for (int at = template.indexOf(PLACEHOLDER); at >= 0; at = template.indexOf(PLACEHOLDER, from)) {
+            segments.add(template.substring(from, at));
+            from = at + PLACEHOLDER.length();
+        }
+        segments.add(template.substring(from));
+        return new MailTemplate(segments.toArray(String[]::new));
+    }
+
+    int placeholders() {
+        return segments.length - 1;
+    }
+
+    // values are inserted as given, like String.format would, a null renders as "null"
+    String render(String... values) {
+        if (values.length != placeholders()) {
+            throw new IllegalArgumentException("Template takes " + placeholders() + " values, got " + values.length);
+        }
+        int length = literalLength;
+        for (String value : values) {
+            length += value != null ? value.length() : 4;
+        }
+        StringBuilder out = new StringBuilder(length);
+        out.append(segments[0]);
+        for (int i = 0; i < values.length; i++) {
+            out.append(values[i]).append(segments[i + 1]);
+        }
+        return out.toString();
+    }
+}
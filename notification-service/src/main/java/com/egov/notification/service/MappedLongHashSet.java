@@ -0,0 +1,180 @@
+package com.egov.notification.service;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A set of 64-bit fingerprints in open-addressed tables inside a memory-mapped file, so it lives off the
+ * heap, costs a few probes per lookup and is still there after a restart. There are three generations of
+ * capacity slots each. Adds go to the current one and lookups check it and the previous one. The third is
+ * wiped a few slots per add, so once the current one is three quarters full it is already empty, takes over
+ * as current, and the previous one becomes the next to wipe. An entry therefore survives at least a full
+ * generation of later adds, no add pays for wiping a whole generation, and the file never grows.
+ *
+ * <p>Slot value 0 marks an empty slot, so a fingerprint of 0 is stored as 1.
+ */
+final class MappedLongHashSet implements AutoCloseable {
+
+    private static final int MAGIC = 0x4c454447;
+    private static final int VERSION = 2;
+    private static final int GENERATIONS = 3;
+    // magic, version, capacity, current generation, sizes of generations 0 to 2, slots of the next one wiped
+    private static final int HEADER_BYTES = 32;
+    private static final int CURRENT = 12;
+    private static final int SIZES = 16;
+    private static final int WIPED = 28;
+    // keeps all three generations inside one int-addressed mapping
+    private static final int MAX_CAPACITY = 1 << 26;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int mask;
+    private final int maxSize;
+    // enough that the next generation is wiped by the time the current one fills
+    private final int wipePerAdd;
+
+    MappedLongHashSet(Path file, int capacity) throws IOException {
+        if (Integer.bitCount(capacity) != 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity must be a power of two up to " + MAX_CAPACITY + ", got "
+                    + capacity);
+        }
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.maxSize = capacity / 4 * 3;
+        this.wipePerAdd = (capacity + maxSize - 1) / maxSize;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long length = HEADER_BYTES + (long) GENERATIONS * capacity * Long.BYTES;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+
+        // a new file, or one written with another layout or capacity, starts empty
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != capacity) {
+            for (int generation = 0; generation < GENERATIONS; generation++) {
+                wipe(generation, 0, capacity);
+                buffer.putInt(SIZES + generation * Integer.BYTES, 0);
+            }
+            buffer.putInt(CURRENT, 0);
+            buffer.putInt(WIPED, capacity);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, capacity);
+            buffer.putInt(0, MAGIC);
+        }
+    }
+
+    synchronized boolean contains(long fingerprint) {
+        long value = fingerprint == 0 ? 1 : fingerprint;
+        int current = current();
+        return find(current, value) >= 0 || find(previous(current), value) >= 0;
+    }
+
+    // false when the fingerprint was already present
+    synchronized boolean add(long fingerprint) {
+        long value = fingerprint == 0 ? 1 : fingerprint;
+        int current = current();
+        if (find(current, value) >= 0 || find(previous(current), value) >= 0) {
+            return false;
+        }
+        if (size(current) >= maxSize) {
+            current = rotate(current);
+        }
+        wipeNext(current, wipePerAdd);
+        int slot = mix(value) & mask;
+        while (buffer.getLong(offset(current, slot)) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        buffer.putLong(offset(current, slot), value);
+        buffer.putInt(SIZES + current * Integer.BYTES, size(current) + 1);
+        return true;
+    }
+
+    synchronized int size() {
+        int current = current();
+        return size(current) + size(previous(current));
+    }
+
+    // flushes the mapped pages to the file, without the set's lock so adds and lookups carry on meanwhile
+    void force() {
+        buffer.force();
+    }
+
+    // the next generation is normally wiped by now, only a file from an unclean stop can still need the rest
+    private int rotate(int current) {
+        wipeNext(current, capacity);
+        int retired = previous(current);
+        current = next(current);
+        buffer.putInt(CURRENT, current);
+        buffer.putInt(SIZES + retired * Integer.BYTES, 0);
+        buffer.putInt(WIPED, 0);
+        return current;
+    }
+
+    private void wipeNext(int current, int slots) {
+        int wiped = buffer.getInt(WIPED);
+        if (wiped < capacity) {
+            int upTo = Math.min(capacity, wiped + slots);
+            wipe(next(current), wiped, upTo);
+            buffer.putInt(WIPED, upTo);
+        }
+    }
+
+    // the slot holding value, or -1 when the probe reaches an empty slot first
+    private int find(int generation, long value) {
+        int slot = mix(value) & mask;
+        for (int probes = 0; probes < capacity; probes++) {
+            long stored = buffer.getLong(offset(generation, slot));
+            if (stored == value) {
+                return slot;
+            }
+            if (stored == 0) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int current() {
+        return buffer.getInt(CURRENT);
+    }
+
+    private static int previous(int generation) {
+        return (generation + GENERATIONS - 1) % GENERATIONS;
+    }
+
+    private static int next(int generation) {
+        return (generation + 1) % GENERATIONS;
+    }
+
+    private int size(int generation) {
+        return buffer.getInt(SIZES + generation * Integer.BYTES);
+    }
+
+    private void wipe(int generation, int from, int to) {
+        for (int slot = from; slot < to; slot++) {
+            buffer.putLong(offset(generation, slot), 0);
+        }
+    }
+
+    private int offset(int generation, int slot) {
+        return HEADER_BYTES + (generation * capacity + slot) * Long.BYTES;
+    }
+
+    private static int mix(long value) {
+        return (int) (value ^ (value >>> 32));
+    }
+
+    // pages already live in the OS page cache, force only bounds what an OS crash could lose
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
@@ -0,0 +1,89 @@
+package com.egov.notification.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Remembers which status mails went out, keyed by grievance, new status, changedAt and recipient, so an
+ * event consumed again after a restart or a rebalance does not mail anyone twice. Keys are kept as 64-bit
+ * fingerprints in a memory-mapped MappedLongHashSet: a check is a hash and a few probes with no I/O, and
+ * the file carries the ledger across restarts. A new key that shares a fingerprint with a recorded one
+ * would suppress its mail, which with a million keys recorded is a chance of about one in ten trillion.
+ * The mapping is forced to disk every force-interval, which bounds what an OS crash could take with it.
+ */
+@Slf4j
+@Component
+public class NotificationLedger {
+
+    private final MappedLongHashSet sent;
+    private final Scheduler forceScheduler = Schedulers.newSingle("notification-ledger");
+
+    public NotificationLedger(
+            @Value("${notification.ledger.path:data/notification-ledger.bin}") Path path,
+            @Value("${notification.ledger.capacity:1048576}") int capacity,
+            @Value("${notification.ledger.force-interval:10s}") Duration forceInterval) throws IOException {
+        this.sent = new MappedLongHashSet(path, capacity);
+        long intervalMillis = forceInterval.toMillis();
+        forceScheduler.schedulePeriodically(this::force, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Notification ledger at {} holds {} sent mails", path.toAbsolutePath(), sent.size());
+    }
+
+    // null when the event has no changedAt, a mail for it cannot be told apart from one for a real repeat
+    public static String key(String grievanceId, String newStatus, Instant changedAt, String recipient) {
+        if (changedAt == null) {
+            return null;
+        }
+        return grievanceId + '|' + newStatus + '|' + changedAt + '|' + recipient;
+    }
+
+    public boolean alreadySent(String key) {
+        return key != null && sent.contains(fingerprint(key));
+    }
+
+    // called once the mail server accepted the mail, a mail that failed stays eligible for its retry
+    public void recordSent(String key) {
+        if (key != null) {
+            sent.add(fingerprint(key));
+        }
+    }
+
+    // 64-bit FNV-1a over the key's chars, then the murmur3 finalizer to spread it over the table
+    static long fingerprint(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private void force() {
+        try {
+            sent.force();
+        } catch (RuntimeException e) {
+            log.warn("Could not force the notification ledger to disk: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        forceScheduler.dispose();
+        sent.close();
+    }
+}
@@ -0,0 +1,90 @@
+package com.egov.notification.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.Map;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import com.egov.notification.event.GrievanceStatusChangedEvent;
+import com.egov.notification.event.GrievanceStatusChangedEventCodec;
+
+class GrievanceEventDeserializerTest {
+
+    private static final String JSON = "{\"grievanceId\":\"G1\",\"citizenId\":\"U1\",\"newStatus\":\"ASSIGNED\","
+            + "\"changedAt\":\"2025-01-01T00:00:00Z\"}";
+
+    private final GrievanceEventDeserializer deserializer = new GrievanceEventDeserializer();
+
+    @BeforeEach
+    void setUp() {
+        deserializer.configure(Map.of(
+                JsonDeserializer.VALUE_DEFAULT_TYPE, GrievanceStatusChangedEvent.class.getName(),
+                JsonDeserializer.TRUSTED_PACKAGES, "*",
+                JsonDeserializer.USE_TYPE_INFO_HEADERS, false), false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        deserializer.close();
+    }
+
+    private static GrievanceStatusChangedEvent event(String grievanceId) {
+        GrievanceStatusChangedEvent event = new GrievanceStatusChangedEvent();
+        event.setGrievanceId(grievanceId);
+        event.setCitizenId("U1");
+        event.setNewStatus("ASSIGNED");
+        return event;
+    }
+
+    @Test
+    void binaryContentType_usesCodec() {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(GrievanceEventDeserializer.CONTENT_TYPE_HEADER,
+                GrievanceStatusChangedEventCodec.CONTENT_TYPE.getBytes(StandardCharsets.UTF_8));
+
+        GrievanceStatusChangedEvent event = deserializer.deserialize("grievance-status-changed", headers,
+                GrievanceStatusChangedEventCodec.encode(event("65a1f0c2e4b0a1b2c3d4e5f6")));
+
+        assertEquals("65a1f0c2e4b0a1b2c3d4e5f6", event.getGrievanceId());
+        assertEquals("ASSIGNED", event.getNewStatus());
+    }
+
+    @Test
+    void jsonContentType_usesJson() {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(GrievanceEventDeserializer.CONTENT_TYPE_HEADER, "application/json".getBytes(StandardCharsets.UTF_8));
+
+        GrievanceStatusChangedEvent event = deserializer.deserialize("grievance-status-changed", headers,
+                JSON.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("G1", event.getGrievanceId());
+    }
+
+    // records produced before the header existed
+    @Test
+    void noContentType_fallsBackToJson() {
+        GrievanceStatusChangedEvent event = deserializer.deserialize("grievance-status-changed", new RecordHeaders(),
+                JSON.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("G1", event.getGrievanceId());
+        assertEquals("U1", event.getCitizenId());
+    }
+
+    @Test
+    void pinnedBinaryRecord_decodes() {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(GrievanceEventDeserializer.CONTENT_TYPE_HEADER,
+                GrievanceStatusChangedEventCodec.CONTENT_TYPE.getBytes(StandardCharsets.UTF_8));
+        byte[] wire = HexFormat.of().parseHex("01f70165a1f0c2e4b0a1b2c3d4e5f6016f1c2d3e4a5b6c7d8e9f0a1b084430303112"
+                + "5355424d49545445441041535349474e45440a41444d494e8096a4f70c80cab5ee01");
+
+        assertEquals("D001", deserializer.deserialize("grievance-status-changed", headers, wire).getDepartmentId());
+    }
+}
@@ -0,0 +1,40 @@
+package com.egov.notification.config;
+
+import com.egov.notification.event.GrievanceStatusChangedEvent;
+import com.egov.notification.event.GrievanceStatusChangedEventCodec;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GrievanceEventSerializerTest {
+
+    private final GrievanceEventSerializer serializer = new GrievanceEventSerializer();
+
+    @Test
+    void writesTheBinaryCodecAndReplacesTheContentType() {
+        GrievanceStatusChangedEvent event = new GrievanceStatusChangedEvent();
+        event.setGrievanceId("G1");
+        event.setNewStatus("RESOLVED");
+        RecordHeaders headers = new RecordHeaders();
+        headers.add("content-type", "application/json".getBytes(StandardCharsets.UTF_8));
+
+        byte[] data = serializer.serialize("grievance-status-changed-retry-0", headers, event);
+
+        assertEquals(GrievanceStatusChangedEventCodec.CONTENT_TYPE,
+                new String(headers.lastHeader("content-type").value(), StandardCharsets.UTF_8));
+        assertEquals(1, headers.toArray().length);
+        GrievanceStatusChangedEvent read = new GrievanceEventDeserializer()
+                .deserialize("grievance-status-changed-retry-0", headers, data);
+        assertEquals("G1", read.getGrievanceId());
+        assertEquals("RESOLVED", read.getNewStatus());
+    }
+
+    @Test
+    void nullEvent_serializesToNull() {
+        assertNull(serializer.serialize("grievance-status-changed-dlt", null));
+    }
+}
@@ -3,19 +3,49 @@ package com.egov.notification.config;
 import com.egov.notification.event.GrievanceStatusChangedEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.ListenerExecutionFailedException;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class KafkaConsumerConfigTest {
 
 	private KafkaConsumerConfig config;
 
+	@SuppressWarnings("unchecked")
+	private final KafkaTemplate<String, Object> template = mock(KafkaTemplate.class);
+
 	@BeforeEach
 	void setUp() {
 		config = new KafkaConsumerConfig();
 		ReflectionTestUtils.setField(config, "bootstrapServers", "localhost:9092");
+		ReflectionTestUtils.setField(config, "concurrency", 3);
+		ReflectionTestUtils.setField(config, "batchMaxPollRecords", 500);
 	}
 
 	@Test
@@ -23,4 +53,56 @@ class KafkaConsumerConfigTest {
 		ConsumerFactory<String, GrievanceStatusChangedEvent> factory = config.consumerFactory();
 		assertNotNull(factory);
 	}
+
+	@Test
+	void listenerContainer_acksManuallyOutOfOrder() {
+		ContainerProperties properties = config.kafkaListenerContainerFactory(template).getContainerProperties();
+		assertEquals(ContainerProperties.AckMode.MANUAL, properties.getAckMode());
+		assertTrue(properties.isAsyncAcks());
+	}
+
+	@Test
+	void batchContainer_pollsUpToMaxRecordsWithConfiguredConcurrency() {
+		ConcurrentKafkaListenerContainerFactory<String, GrievanceStatusChangedEvent> factory =
+				config.batchKafkaListenerContainerFactory(template);
+		assertTrue(factory.isBatchListener());
+		assertEquals(500, factory.getContainerProperties().getKafkaConsumerProperties()
+				.get(ConsumerConfig.MAX_POLL_RECORDS_CONFIG));
+		assertEquals(3, ReflectionTestUtils.getField(factory, "concurrency"));
+	}
+
+	@Test
+	void retryContainer_acksManuallyInOffsetOrder() {
+		ContainerProperties properties = config.retryKafkaListenerContainerFactory(template).getContainerProperties();
+		assertEquals(ContainerProperties.AckMode.MANUAL, properties.getAckMode());
+		assertFalse(properties.isAsyncAcks());
+	}
+
+	// an unreadable record is published once to the dead-letter topic, with its original bytes, not retried in place
+	@Test
+	void unreadableRecord_isDeadLetteredWithoutRetries() {
+		when(template.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+		byte[] data = "{not json".getBytes(StandardCharsets.UTF_8);
+		ConsumerRecord<String, Object> record = new ConsumerRecord<>(KafkaConsumerConfig.STATUS_TOPIC, 2, 7L, "G1", null);
+		SerializationUtils.deserializationException(record.headers(), data, new IllegalStateException("bad"), false);
+
+		DefaultErrorHandler handler = KafkaConsumerConfig.deadLetterErrorHandler(template);
+		boolean handled = handler.handleOne(new ListenerExecutionFailedException("failed",
+				new DeserializationException("bad", data, false, new IllegalStateException("bad"))),
+				record, mock(Consumer.class), mock(MessageListenerContainer.class));
+
+		assertTrue(handled);
+		ArgumentCaptor<ProducerRecord<String, Object>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+		verify(template, times(1)).send(sent.capture());
+		assertEquals(KafkaConsumerConfig.DEAD_LETTER_TOPIC, sent.getValue().topic());
+		assertArrayEquals(data, (byte[]) sent.getValue().value());
+	}
+
+	// nothing listens on this port, so the partition count falls back to a single consumer
+	@Test
+	void unknownPartitionCount_fallsBackToOneConsumer() {
+		ReflectionTestUtils.setField(config, "bootstrapServers", "localhost:1");
+		ReflectionTestUtils.setField(config, "concurrency", 0);
+		assertEquals(1, config.listenerConcurrency());
+	}
 }
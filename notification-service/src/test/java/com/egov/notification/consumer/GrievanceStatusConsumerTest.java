@@ -3,16 +3,31 @@ package com.egov.notification.consumer;
 import com.egov.notification.dto.UserResponse;
 import com.egov.notification.event.GrievanceStatusChangedEvent;
 import com.egov.notification.service.EmailService;
+import com.egov.notification.service.NotificationLedger;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Answers;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -25,7 +40,15 @@ class GrievanceStatusConsumerTest {
     @Mock(answer = Answers.RETURNS_DEEP_STUBS)
     private WebClient.Builder webClientBuilder;
 
-    @InjectMocks
+    @Mock
+    private Acknowledgment ack;
+
+    @Mock
+    private RetryTopicRouter retryRouter;
+
+    @Mock
+    private NotificationLedger ledger;
+
     private GrievanceStatusConsumer consumer;
 
     private GrievanceStatusChangedEvent event;
@@ -33,26 +56,50 @@ class GrievanceStatusConsumerTest {
 
     @BeforeEach
     void setUp() {
-        event = new GrievanceStatusChangedEvent();
-        event.setGrievanceId("G123");
-        event.setCitizenId("CITIZEN1");
-        event.setOldStatus("OPEN");
-        event.setNewStatus("IN_PROGRESS");
-        event.setAssignedOfficerId("OFFICER1");
+        consumer = new GrievanceStatusConsumer(emailService, retryRouter, ledger, webClientBuilder, 2, Duration.ofSeconds(2),
+                Duration.ZERO, Duration.ofMinutes(15), 200);
+        lenient().when(emailService.sendCitizenMail(any(), any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        lenient().when(emailService.sendOfficerMail(any(), any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        lenient().when(emailService.sendSupervisorMail(any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        lenient().when(retryRouter.retry(any(), anyInt(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        lenient().when(retryRouter.deadLetter(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        event = event("G123", "IN_PROGRESS");
 
         mockUser = new UserResponse();
         mockUser.setEmail("test@test.com");
         mockUser.setName("Test User");
         mockUser.setRole("OFFICER");
+    }
 
+    private static GrievanceStatusChangedEvent event(String grievanceId, String newStatus) {
+        GrievanceStatusChangedEvent event = new GrievanceStatusChangedEvent();
+        event.setGrievanceId(grievanceId);
+        event.setCitizenId("CITIZEN1");
+        event.setOldStatus("OPEN");
+        event.setNewStatus(newStatus);
+        event.setAssignedOfficerId("OFFICER1");
+        return event;
+    }
+
+    private static ConsumerRecord<String, GrievanceStatusChangedEvent> record(long offset,
+            GrievanceStatusChangedEvent event) {
+        return new ConsumerRecord<>("grievance-status-changed", 0, offset, event.getGrievanceId(), event);
+    }
+
+    private void usersReturn(Mono<UserResponse> user) {
         when(webClientBuilder.build().get().uri(anyString(), anyString())
                 .retrieve().bodyToMono(UserResponse.class))
-                .thenReturn(Mono.just(mockUser));
+                .thenReturn(user);
     }
 
     @Test
     void consume_NormalStatus_ShouldNotifyCitizenAndOfficer() {
-        consumer.consume(event);
+        usersReturn(Mono.just(mockUser));
+        consumer.process(event).block();
         verify(emailService, times(1)).sendCitizenMail(eq("test@test.com"), anyString(), eq("G123"), anyString(), eq("IN_PROGRESS"));
         verify(emailService, times(1)).sendOfficerMail(eq("test@test.com"), anyString(), anyString(), eq("G123"), eq("IN_PROGRESS"));
         verify(emailService, never()).sendSupervisorMail(any(), any(), any(), any());
@@ -60,10 +107,317 @@ class GrievanceStatusConsumerTest {
 
     @Test
     void consume_EscalatedStatus_ShouldNotifyCitizenAndSupervisor() {
+        usersReturn(Mono.just(mockUser));
         event.setNewStatus("ESCALATED");
-        consumer.consume(event);
+        consumer.process(event).block();
         verify(emailService, times(1)).sendCitizenMail(anyString(), anyString(), anyString(), anyString(), eq("ESCALATED"));
         verify(emailService, times(1)).sendSupervisorMail(eq("test@test.com"), anyString(), anyString(), eq("G123"));
         verify(emailService, never()).sendOfficerMail(any(), any(), any(), any(), any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void consume_AcksOnlyAfterNotificationsComplete() throws InterruptedException {
+        Sinks.One<UserResponse> user = Sinks.one();
+        usersReturn(user.asMono());
+
+        consumer.consume(record(0, event), ack);
+        verify(ack, never()).acknowledge();
+
+        user.tryEmitValue(mockUser);
+        verify(emailService).sendCitizenMail(anyString(), anyString(), eq("G123"), anyString(), anyString());
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    void consume_SameGrievance_WaitsForThePreviousEvent() throws InterruptedException {
+        Sinks.One<UserResponse> first = Sinks.one();
+        when(webClientBuilder.build().get().uri(anyString(), anyString())
+                .retrieve().bodyToMono(UserResponse.class))
+                .thenReturn(first.asMono(), Mono.just(mockUser));
+        GrievanceStatusChangedEvent resolved = event("G123", "RESOLVED");
+        resolved.setAssignedOfficerId(null);
+        event.setAssignedOfficerId(null);
+
+        consumer.consume(record(0, event), ack);
+        consumer.consume(record(1, resolved), ack);
+        verify(emailService, never()).sendCitizenMail(any(), any(), any(), any(), any());
+
+        first.tryEmitValue(mockUser);
+        var order = inOrder(emailService);
+        order.verify(emailService).sendCitizenMail(anyString(), anyString(), eq("G123"), anyString(), eq("IN_PROGRESS"));
+        order.verify(emailService).sendCitizenMail(anyString(), anyString(), eq("G123"), anyString(), eq("RESOLVED"));
+        verify(ack, times(2)).acknowledge();
+    }
+
+    @Test
+    void consume_OtherGrievance_DoesNotWait() throws InterruptedException {
+        Sinks.One<UserResponse> stuck = Sinks.one();
+        when(webClientBuilder.build().get().uri(anyString(), anyString())
+                .retrieve().bodyToMono(UserResponse.class))
+                .thenReturn(stuck.asMono(), Mono.just(mockUser));
+        event.setAssignedOfficerId(null);
+        GrievanceStatusChangedEvent other = event("G999", "ASSIGNED");
+        other.setAssignedOfficerId(null);
+
+        consumer.consume(record(0, event), ack);
+        consumer.consume(record(1, other), ack);
+
+        verify(emailService).sendCitizenMail(anyString(), anyString(), eq("G999"), anyString(), eq("ASSIGNED"));
+        verify(ack, times(1)).acknowledge();
+    }
+
+    @Test
+    void consume_RedeliveredEvent_IsAckedWithoutMail() throws InterruptedException {
+        usersReturn(Mono.just(mockUser));
+        event.setChangedAt(Instant.parse("2026-01-01T10:00:00Z"));
+        GrievanceStatusChangedEvent copy = event("G123", "IN_PROGRESS");
+        copy.setChangedAt(event.getChangedAt());
+
+        consumer.consume(record(0, event), ack);
+        consumer.consume(record(0, copy), ack);
+
+        verify(emailService, times(1)).sendCitizenMail(anyString(), anyString(), eq("G123"), anyString(), anyString());
+        verify(ack, times(2)).acknowledge();
+    }
+
+    // SUBMITTED -> ASSIGNED -> IN_REVIEW -> RESOLVED inside one window: the citizen and the officer get one
+    // mail each with the latest status, and each of them is looked up once
+    @Test
+    void consume_BurstWithinTheWindow_SendsOneDigestPerRecipient() throws InterruptedException {
+        consumer = new GrievanceStatusConsumer(emailService, retryRouter, ledger, webClientBuilder, 64, Duration.ofSeconds(2),
+                Duration.ofMillis(200), Duration.ofMinutes(15), 200);
+        AtomicInteger lookups = new AtomicInteger();
+        usersReturn(Mono.fromCallable(() -> {
+            lookups.incrementAndGet();
+            return mockUser;
+        }));
+        String[] statuses = {"SUBMITTED", "ASSIGNED", "IN_REVIEW", "RESOLVED"};
+
+        for (int i = 1; i < statuses.length; i++) {
+            GrievanceStatusChangedEvent change = event("G123", statuses[i]);
+            change.setOldStatus(statuses[i - 1]);
+            consumer.consume(record(i, change), ack);
+        }
+        verify(emailService, never()).sendCitizenMail(any(), any(), any(), any(), any());
+
+        verify(ack, timeout(2000).times(3)).acknowledge();
+        verify(emailService, times(1)).sendCitizenMail(anyString(), anyString(), eq("G123"), eq("SUBMITTED"), eq("RESOLVED"));
+        verify(emailService, times(1)).sendOfficerMail(anyString(), anyString(), anyString(), eq("G123"), eq("RESOLVED"));
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    void consume_MailInTheLedger_IsNotSentAgain() throws InterruptedException {
+        usersReturn(Mono.just(mockUser));
+        event.setChangedAt(Instant.parse("2026-01-01T10:00:00Z"));
+        String citizenKey = NotificationLedger.key("G123", "IN_PROGRESS", event.getChangedAt(), "CITIZEN:CITIZEN1");
+        String officerKey = NotificationLedger.key("G123", "IN_PROGRESS", event.getChangedAt(), "OFFICER:OFFICER1");
+        when(ledger.alreadySent(citizenKey)).thenReturn(true);
+
+        consumer.consume(record(0, event), ack);
+
+        verify(emailService, never()).sendCitizenMail(any(), any(), any(), any(), any());
+        verify(emailService).sendOfficerMail(anyString(), anyString(), anyString(), eq("G123"), anyString());
+        verify(ledger).recordSent(officerKey);
+        verify(ledger, never()).recordSent(citizenKey);
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    void consume_FailedMail_IsNotRecordedInTheLedger() throws InterruptedException {
+        usersReturn(Mono.just(mockUser));
+        event.setChangedAt(Instant.parse("2026-01-01T10:00:00Z"));
+        when(emailService.sendCitizenMail(any(), any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("smtp down")));
+
+        consumer.consume(record(0, event), ack);
+
+        verify(ledger, never()).recordSent(NotificationLedger.key("G123", "IN_PROGRESS", event.getChangedAt(),
+                "CITIZEN:CITIZEN1"));
+        verify(ledger).recordSent(NotificationLedger.key("G123", "IN_PROGRESS", event.getChangedAt(),
+                "OFFICER:OFFICER1"));
+    }
+
+    @Test
+    void consume_UserLookupFails_RetriesTheEventAndAcks() throws InterruptedException {
+        usersReturn(Mono.error(new IllegalStateException("user-service down")));
+
+        consumer.consume(record(0, event), ack);
+
+        verify(emailService, never()).sendCitizenMail(any(), any(), any(), any(), any());
+        verify(retryRouter).retry(eq(event), eq(1), any());
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    void consume_UnknownUser_SkipsTheirMailWithoutRetry() throws InterruptedException {
+        usersReturn(Mono.error(WebClientResponseException.create(404, "Not Found", null, null, null)));
+
+        consumer.consume(record(0, event), ack);
+
+        verify(emailService, never()).sendCitizenMail(any(), any(), any(), any(), any());
+        verifyNoInteractions(retryRouter);
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    void consume_MailFailure_StillMailsTheOthersThenRetriesAndAcks() throws InterruptedException {
+        usersReturn(Mono.just(mockUser));
+        when(emailService.sendCitizenMail(any(), any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("smtp down")));
+
+        consumer.consume(record(0, event), ack);
+
+        verify(emailService).sendOfficerMail(anyString(), anyString(), anyString(), eq("G123"), anyString());
+        verify(retryRouter).retry(eq(event), eq(1), any(IllegalStateException.class));
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    void consume_RetryHandOffFails_StillAcks() throws InterruptedException {
+        usersReturn(Mono.error(new IllegalStateException("user-service down")));
+        when(retryRouter.retry(any(), anyInt(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        consumer.consume(record(0, event), ack);
+
+        verify(ack).acknowledge();
+    }
+
+    private UserResponse user(String id) {
+        UserResponse user = new UserResponse();
+        user.setId(id);
+        user.setEmail(id + "@test.com");
+        user.setName(id);
+        user.setRole("CITIZEN");
+        return user;
+    }
+
+    private static List<ConsumerRecord<String, GrievanceStatusChangedEvent>> records(
+            GrievanceStatusChangedEvent... events) {
+        List<ConsumerRecord<String, GrievanceStatusChangedEvent>> records = new ArrayList<>();
+        for (GrievanceStatusChangedEvent event : events) {
+            records.add(new ConsumerRecord<>("grievance-status-changed", 0, records.size(),
+                    event != null ? event.getGrievanceId() : null, event));
+        }
+        return records;
+    }
+
+    private void batchUsersReturn(Flux<UserResponse> users) {
+        when(webClientBuilder.build().post().uri(anyString()).bodyValue(any())
+                .retrieve().bodyToFlux(UserResponse.class))
+                .thenReturn(users);
+    }
+
+    @Test
+    void consumeBatch_ResolvesDistinctUsersOnceAndNotifiesEveryEvent() {
+        batchUsersReturn(Flux.just(user("CITIZEN1"), user("OFFICER1")));
+        GrievanceStatusChangedEvent escalated = event("G2", "ESCALATED");
+
+        List<ConsumerRecord<String, GrievanceStatusChangedEvent>> records = records(event, null, escalated);
+        consumer.consumeBatch(records, ack);
+
+        verify(webClientBuilder.build().post().uri("http://user-service/users/batch"))
+                .bodyValue(List.of("CITIZEN1", "OFFICER1"));
+        verify(webClientBuilder.build(), never()).get();
+        verify(emailService).sendCitizenMail(eq("CITIZEN1@test.com"), anyString(), eq("G123"), anyString(), eq("IN_PROGRESS"));
+        verify(emailService).sendOfficerMail(eq("OFFICER1@test.com"), anyString(), anyString(), eq("G123"), anyString());
+        verify(emailService).sendCitizenMail(anyString(), anyString(), eq("G2"), anyString(), eq("ESCALATED"));
+        verify(emailService).sendSupervisorMail(eq("OFFICER1@test.com"), anyString(), anyString(), eq("G2"));
+        verify(retryRouter).deadLetter(records.get(1));
+        verify(retryRouter, never()).retry(any(), anyInt(), any());
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void consumeBatch_MoreUsersThanUserServiceAccepts_LooksThemUpInChunks() {
+        batchUsersReturn(Flux.empty());
+        GrievanceStatusChangedEvent[] events = new GrievanceStatusChangedEvent[450];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = event("G" + i, "ASSIGNED");
+            events[i].setCitizenId("CITIZEN" + i);
+            events[i].setAssignedOfficerId(null);
+        }
+
+        consumer.consumeBatch(records(events), ack);
+
+        ArgumentCaptor<Object> chunks = ArgumentCaptor.forClass(Object.class);
+        // the deep stub's own bodyValue(any()) call is counted too, it captures null
+        verify(webClientBuilder.build().post().uri("http://user-service/users/batch"), atLeastOnce())
+                .bodyValue(chunks.capture());
+        assertEquals(List.of(200, 200, 50), chunks.getAllValues().stream()
+                .filter(List.class::isInstance)
+                .map(chunk -> ((List<String>) chunk).size()).toList());
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    void consumeBatch_CoalescesAGrievanceIntoOneMailPerRecipient() {
+        batchUsersReturn(Flux.just(user("CITIZEN1")));
+        GrievanceStatusChangedEvent first = event("G1", "ASSIGNED");
+        GrievanceStatusChangedEvent second = event("G1", "RESOLVED");
+        second.setOldStatus("ASSIGNED");
+        first.setAssignedOfficerId(null);
+        second.setAssignedOfficerId(null);
+
+        consumer.consumeBatch(records(first, second), ack);
+
+        verify(emailService, times(1)).sendCitizenMail(anyString(), anyString(), anyString(), anyString(), anyString());
+        verify(emailService).sendCitizenMail(anyString(), anyString(), eq("G1"), eq("OPEN"), eq("RESOLVED"));
+    }
+
+    @Test
+    void consumeBatch_DropsRedeliveredEvents() {
+        batchUsersReturn(Flux.just(user("CITIZEN1")));
+        event.setAssignedOfficerId(null);
+        event.setChangedAt(Instant.parse("2026-01-01T10:00:00Z"));
+
+        consumer.consumeBatch(records(event), ack);
+        consumer.consumeBatch(records(event), ack);
+
+        verify(emailService, times(1)).sendCitizenMail(anyString(), anyString(), eq("G123"), anyString(), anyString());
+        verify(ack, times(2)).acknowledge();
+    }
+
+    @Test
+    void consumeBatch_BulkLookupFails_RetriesEveryEventAndAcks() {
+        batchUsersReturn(Flux.error(new IllegalStateException("user-service down")));
+        GrievanceStatusChangedEvent other = event("G2", "ASSIGNED");
+
+        consumer.consumeBatch(records(event, other), ack);
+
+        verifyNoInteractions(emailService);
+        verify(retryRouter).retry(eq(event), eq(1), any());
+        verify(retryRouter).retry(eq(other), eq(1), any());
+        verify(ack).acknowledge();
+    }
+
+    // stands in for a broker benchmark: 500 events through the batch path at poll sizes 1, 50 and 500, with
+    // each user-service round trip costing 2ms, the cost the bulk lookup amortises
+    @Test
+    void consumeBatch_ThroughputGrowsWithBatchSize() {
+        when(webClientBuilder.build().post().uri(anyString()).bodyValue(any())
+                .retrieve().bodyToFlux(UserResponse.class))
+                .thenAnswer(inv -> Flux.just(user("CITIZEN1"), user("OFFICER1")).delaySubscription(Duration.ofMillis(2)));
+        List<ConsumerRecord<String, GrievanceStatusChangedEvent>> events = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            events.add(record(i, event("G" + (i % 100), "IN_PROGRESS")));
+        }
+
+        double perSecond1 = eventsPerSecond(events, 1);
+        double perSecond50 = eventsPerSecond(events, 50);
+        double perSecond500 = eventsPerSecond(events, 500);
+
+        assertTrue(perSecond50 > perSecond1 * 5, perSecond50 + " vs " + perSecond1 + " events/s");
+        assertTrue(perSecond500 > perSecond50, perSecond500 + " vs " + perSecond50 + " events/s");
+    }
+
+    private double eventsPerSecond(List<ConsumerRecord<String, GrievanceStatusChangedEvent>> events, int batchSize) {
+        long start = System.nanoTime();
+        for (int from = 0; from < events.size(); from += batchSize) {
+            consumer.consumeBatch(events.subList(from, Math.min(events.size(), from + batchSize)), ack);
+        }
+        return events.size() / ((System.nanoTime() - start) / 1e9);
+    }
+}
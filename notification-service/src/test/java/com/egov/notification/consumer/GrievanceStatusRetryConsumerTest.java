@@ -0,0 +1,117 @@
+package com.egov.notification.consumer;
+
+import com.egov.notification.event.GrievanceStatusChangedEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.support.Acknowledgment;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GrievanceStatusRetryConsumerTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Mock
+    private GrievanceStatusConsumer consumer;
+
+    @Mock
+    private RetryTopicRouter router;
+
+    @Mock
+    private ConsumerFactory<String, GrievanceStatusChangedEvent> consumerFactory;
+
+    @Mock
+    private Acknowledgment ack;
+
+    private GrievanceStatusRetryConsumer retryConsumer;
+    private GrievanceStatusChangedEvent event;
+
+    @BeforeEach
+    void setUp() {
+        when(router.retryTopics()).thenReturn(List.of("grievance-status-changed-retry-0",
+                "grievance-status-changed-retry-1"));
+        ConcurrentKafkaListenerContainerFactory<String, GrievanceStatusChangedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        retryConsumer = new GrievanceStatusRetryConsumer(consumer, router, factory, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        event = new GrievanceStatusChangedEvent();
+        event.setGrievanceId("G1");
+    }
+
+    private ConsumerRecord<String, GrievanceStatusChangedEvent> record(int attempt, Instant dueAt) {
+        ConsumerRecord<String, GrievanceStatusChangedEvent> record =
+                new ConsumerRecord<>("grievance-status-changed-retry-0", 0, 0L, "G1", event);
+        record.headers().add(RetryTopicRouter.ATTEMPT_HEADER,
+                Integer.toString(attempt).getBytes(StandardCharsets.UTF_8));
+        record.headers().add(RetryTopicRouter.DUE_AT_HEADER,
+                Long.toString(dueAt.toEpochMilli()).getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    @Test
+    void oneContainerPerTier() {
+        assertEquals(List.of("grievance-status-changed-retry-0", "grievance-status-changed-retry-1"),
+                retryConsumer.containers().stream()
+                        .map(container -> container.getContainerProperties().getTopics()[0])
+                        .toList());
+    }
+
+    @Test
+    void notYetDue_isNackedUntilItIs() {
+        retryConsumer.onMessage(record(1, NOW.plusSeconds(4)), ack);
+
+        verify(ack).nack(Duration.ofSeconds(4));
+        verify(ack, never()).acknowledge();
+        verifyNoInteractions(consumer);
+    }
+
+    @Test
+    void dueFarAhead_waitsAtMostThirtySecondsAtATime() {
+        retryConsumer.onMessage(record(2, NOW.plusSeconds(360)), ack);
+
+        verify(ack).nack(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void due_isNotifiedAndAcked() {
+        when(consumer.process(event)).thenReturn(Mono.empty());
+
+        retryConsumer.onMessage(record(1, NOW), ack);
+
+        verify(consumer).process(event);
+        verify(router, never()).retry(any(), anyInt(), any());
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    void failedAgain_movesOnToTheNextAttempt() {
+        IllegalStateException failure = new IllegalStateException("smtp down");
+        when(consumer.process(event)).thenReturn(Mono.error(failure));
+        when(router.retry(event, 2, failure)).thenReturn(CompletableFuture.completedFuture(null));
+
+        retryConsumer.onMessage(record(1, NOW.minusSeconds(1)), ack);
+
+        verify(router).retry(eq(event), eq(2), eq(failure));
+        verify(ack).acknowledge();
+    }
+}
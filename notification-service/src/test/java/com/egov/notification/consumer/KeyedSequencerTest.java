@@ -0,0 +1,61 @@
+package com.egov.notification.consumer;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyedSequencerTest {
+
+    private final KeyedSequencer sequencer = new KeyedSequencer();
+    private final List<String> started = new ArrayList<>();
+
+    private CompletableFuture<Void> submit(String key, String name, Mono<Void> work) {
+        return sequencer.submit(key, () -> {
+            started.add(name);
+            return work;
+        });
+    }
+
+    @Test
+    void sameKey_runsOneAfterAnother() {
+        Sinks.Empty<Void> first = Sinks.empty();
+        CompletableFuture<Void> a = submit("G1", "a", first.asMono());
+        CompletableFuture<Void> b = submit("G1", "b", Mono.empty());
+
+        assertEquals(List.of("a"), started);
+        assertFalse(b.isDone());
+
+        first.tryEmitEmpty();
+        assertTrue(a.isDone());
+        assertTrue(b.isDone());
+        assertEquals(List.of("a", "b"), started);
+        assertEquals(0, sequencer.activeKeys());
+    }
+
+    @Test
+    void otherKeys_runConcurrently() {
+        submit("G1", "a", Sinks.<Void>empty().asMono());
+        submit("G2", "b", Sinks.<Void>empty().asMono());
+
+        assertEquals(List.of("a", "b"), started);
+        assertEquals(2, sequencer.activeKeys());
+    }
+
+    @Test
+    void failedTask_doesNotBlockTheKey() {
+        CompletableFuture<Void> a = submit("G1", "a", Mono.error(new IllegalStateException("boom")));
+        CompletableFuture<Void> b = submit("G1", "b", Mono.empty());
+
+        assertTrue(a.isCompletedExceptionally());
+        assertTrue(b.isDone() && !b.isCompletedExceptionally());
+        assertEquals(0, sequencer.activeKeys());
+    }
+}
@@ -0,0 +1,147 @@
+package com.egov.notification.consumer;
+
+import com.egov.notification.event.GrievanceStatusChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationCoalescerTest {
+
+    private final Scheduler scheduler = Schedulers.newSingle("coalescer-test");
+    private final List<List<GrievanceStatusChangedEvent>> flushed = new CopyOnWriteArrayList<>();
+    private final MutableClock clock = new MutableClock();
+
+    @AfterEach
+    void tearDown() {
+        scheduler.dispose();
+    }
+
+    private NotificationCoalescer coalescer(Duration window, int maxRemembered) {
+        return new NotificationCoalescer(window, Duration.ofMinutes(15), maxRemembered, scheduler, clock,
+                (key, events) -> {
+                    flushed.add(List.copyOf(events));
+                    return Mono.empty();
+                });
+    }
+
+    private static GrievanceStatusChangedEvent event(String grievanceId, String newStatus, Instant changedAt) {
+        GrievanceStatusChangedEvent event = new GrievanceStatusChangedEvent();
+        event.setGrievanceId(grievanceId);
+        event.setOldStatus("OPEN");
+        event.setNewStatus(newStatus);
+        event.setChangedAt(changedAt);
+        return event;
+    }
+
+    @Test
+    void eventsOfOneGrievance_flushTogetherWhenTheWindowCloses() {
+        NotificationCoalescer coalescer = coalescer(Duration.ofMillis(100), 10);
+        GrievanceStatusChangedEvent assigned = event("G1", "ASSIGNED", null);
+        GrievanceStatusChangedEvent resolved = event("G1", "RESOLVED", null);
+        GrievanceStatusChangedEvent other = event("G2", "ASSIGNED", null);
+
+        CompletableFuture<Void> first = coalescer.submit("G1", assigned);
+        CompletableFuture<Void> second = coalescer.submit("G1", resolved);
+        CompletableFuture<Void> third = coalescer.submit("G2", other);
+        assertFalse(first.isDone());
+        assertEquals(2, coalescer.openWindows());
+
+        CompletableFuture.allOf(first, second, third).join();
+        assertSame(first, second);
+        assertTrue(flushed.contains(List.of(assigned, resolved)));
+        assertTrue(flushed.contains(List.of(other)));
+        assertEquals(0, coalescer.openWindows());
+    }
+
+    @Test
+    void eventAfterTheFlush_opensANewWindow() {
+        NotificationCoalescer coalescer = coalescer(Duration.ofMillis(20), 10);
+        coalescer.submit("G1", event("G1", "ASSIGNED", null)).join();
+        coalescer.submit("G1", event("G1", "RESOLVED", null)).join();
+        assertEquals(2, flushed.size());
+    }
+
+    @Test
+    void zeroWindow_flushesEachEventRightAway() {
+        NotificationCoalescer coalescer = coalescer(Duration.ZERO, 10);
+        assertTrue(coalescer.submit("G1", event("G1", "ASSIGNED", null)).isDone());
+        assertEquals(1, flushed.size());
+        assertEquals(0, coalescer.openWindows());
+    }
+
+    @Test
+    void failedFlush_failsEveryEventOfTheWindow() {
+        NotificationCoalescer coalescer = new NotificationCoalescer(Duration.ZERO, Duration.ofMinutes(15), 10,
+                scheduler, clock, (key, events) -> Mono.error(new IllegalStateException("smtp down")));
+        assertTrue(coalescer.submit("G1", event("G1", "ASSIGNED", null)).isCompletedExceptionally());
+    }
+
+    @Test
+    void copyWithinTheHorizon_isNotAFirstSighting() {
+        NotificationCoalescer coalescer = coalescer(Duration.ZERO, 10);
+        Instant at = Instant.parse("2026-01-01T10:00:00Z");
+
+        assertTrue(coalescer.firstSighting(event("G1", "ASSIGNED", at)));
+        assertFalse(coalescer.firstSighting(event("G1", "ASSIGNED", at)));
+        assertTrue(coalescer.firstSighting(event("G1", "ASSIGNED", at.plusSeconds(1))));
+
+        clock.advance(Duration.ofMinutes(16));
+        assertTrue(coalescer.firstSighting(event("G1", "ASSIGNED", at)));
+    }
+
+    @Test
+    void withoutChangedAt_repeatsAreNotCopies() {
+        NotificationCoalescer coalescer = coalescer(Duration.ZERO, 10);
+        assertTrue(coalescer.firstSighting(event("G1", "ESCALATED", null)));
+        assertTrue(coalescer.firstSighting(event("G1", "ESCALATED", null)));
+        assertEquals(0, coalescer.remembered());
+    }
+
+    @Test
+    void remembersAtMostTheLimit_forgettingTheOldest() {
+        NotificationCoalescer coalescer = coalescer(Duration.ZERO, 3);
+        Instant at = Instant.parse("2026-01-01T10:00:00Z");
+        for (int i = 0; i < 5; i++) {
+            coalescer.firstSighting(event("G" + i, "ASSIGNED", at));
+        }
+        assertEquals(3, coalescer.remembered());
+        assertTrue(coalescer.firstSighting(event("G0", "ASSIGNED", at)));
+        assertFalse(coalescer.firstSighting(event("G4", "ASSIGNED", at)));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2026-01-01T10:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
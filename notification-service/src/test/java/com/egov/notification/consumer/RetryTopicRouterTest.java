@@ -0,0 +1,146 @@
+package com.egov.notification.consumer;
+
+import com.egov.notification.event.GrievanceStatusChangedEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import reactor.core.Exceptions;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RetryTopicRouterTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Mock
+    private KafkaTemplate<String, Object> template;
+
+    private RetryTopicRouter router;
+    private GrievanceStatusChangedEvent event;
+
+    @BeforeEach
+    void setUp() {
+        router = new RetryTopicRouter(template, 3, Duration.ofSeconds(10), 6, Clock.fixed(NOW, ZoneOffset.UTC));
+        event = new GrievanceStatusChangedEvent();
+        event.setGrievanceId("G1");
+        event.setNewStatus("RESOLVED");
+    }
+
+    @SuppressWarnings("unchecked")
+    private ProducerRecord<String, Object> sent() {
+        ArgumentCaptor<ProducerRecord<String, Object>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(template).send(captor.capture());
+        return captor.getValue();
+    }
+
+    private static String header(ConsumerRecord<?, ?> record, String key) {
+        return new String(record.headers().lastHeader(key).value(), StandardCharsets.UTF_8);
+    }
+
+    private static ConsumerRecord<String, Object> asConsumed(ProducerRecord<String, Object> record) {
+        ConsumerRecord<String, Object> consumed = new ConsumerRecord<>(record.topic(), 0, 0L, record.key(), record.value());
+        record.headers().forEach(consumed.headers()::add);
+        return consumed;
+    }
+
+    @Test
+    void tiers_growByTheMultiplier() {
+        assertEquals(List.of("grievance-status-changed-retry-0", "grievance-status-changed-retry-1",
+                "grievance-status-changed-retry-2"), router.retryTopics());
+        assertEquals(Duration.ofSeconds(10), router.delay(0));
+        assertEquals(Duration.ofSeconds(60), router.delay(1));
+        assertEquals(Duration.ofSeconds(360), router.delay(2));
+    }
+
+    @Test
+    void retry_goesToTheTierOfItsAttemptWithADueTime() {
+        when(template.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        router.retry(event, 2, new IllegalStateException("smtp down")).join();
+
+        ConsumerRecord<String, Object> record = asConsumed(sent());
+        assertEquals("grievance-status-changed-retry-1", record.topic());
+        assertEquals("G1", record.key());
+        assertSame(event, record.value());
+        assertEquals(2, RetryTopicRouter.attempt(record));
+        assertEquals(NOW.plusSeconds(60).toEpochMilli(), RetryTopicRouter.dueAt(record));
+        assertEquals("java.lang.IllegalStateException: smtp down", header(record, RetryTopicRouter.ERROR_HEADER));
+    }
+
+    @Test
+    void retry_severalFailures_listsEachInTheErrorHeader() {
+        when(template.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        RuntimeException failures = Exceptions.multiple(new IllegalStateException("smtp down"),
+                new IllegalStateException("user-service down"));
+
+        router.retry(event, 1, failures).join();
+
+        assertEquals("java.lang.IllegalStateException: smtp down; java.lang.IllegalStateException: user-service down",
+                header(asConsumed(sent()), RetryTopicRouter.ERROR_HEADER));
+    }
+
+    @Test
+    void retry_pastTheLastTier_isDeadLettered() {
+        when(template.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        router.retry(event, 4, new IllegalStateException("smtp down")).join();
+
+        ConsumerRecord<String, Object> record = asConsumed(sent());
+        assertEquals("grievance-status-changed-dlt", record.topic());
+        assertEquals(4, RetryTopicRouter.attempt(record));
+        assertNull(record.headers().lastHeader(RetryTopicRouter.DUE_AT_HEADER));
+    }
+
+    @Test
+    void retry_sendFailure_failsTheFuture() {
+        when(template.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        CompletableFuture<Void> result = router.retry(event, 1, new IllegalStateException("smtp down"));
+
+        assertTrue(result.isCompletedExceptionally());
+    }
+
+    @Test
+    void deadLetter_keepsTheUnreadableBytesAndHeaders() {
+        when(template.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        byte[] data = {1, 2, 3};
+        ConsumerRecord<String, Object> unreadable = new ConsumerRecord<>("grievance-status-changed", 1, 9L, "G1", null);
+        unreadable.headers().add("content-type", "application/json".getBytes(StandardCharsets.UTF_8));
+        SerializationUtils.deserializationException(unreadable.headers(), data, new IllegalStateException("bad"), false);
+
+        router.deadLetter(unreadable).join();
+
+        ConsumerRecord<String, Object> record = asConsumed(sent());
+        assertEquals("grievance-status-changed-dlt", record.topic());
+        assertArrayEquals(data, (byte[]) record.value());
+        assertEquals("application/json", header(record, "content-type"));
+        assertNull(record.headers().lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER));
+    }
+
+    @Test
+    void firstDelivery_hasNoAttemptsAndIsDue() {
+        ConsumerRecord<String, Object> record = new ConsumerRecord<>("grievance-status-changed", 0, 0L, "G1", event);
+        assertEquals(0, RetryTopicRouter.attempt(record));
+        assertEquals(0, RetryTopicRouter.dueAt(record));
+    }
+}
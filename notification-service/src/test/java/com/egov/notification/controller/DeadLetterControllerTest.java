@@ -0,0 +1,103 @@
+package com.egov.notification.controller;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.egov.notification.security.IdentityContextVerifier;
+import com.egov.notification.security.IdentityContextWebFilter;
+import com.egov.notification.service.DeadLetterReplayService;
+
+import reactor.core.publisher.Mono;
+
+@WebFluxTest(controllers = DeadLetterController.class, properties = { "spring.cloud.config.enabled=false",
+		"spring.config.import=optional:configserver:" })
+@Import(IdentityContextWebFilter.class)
+class DeadLetterControllerTest {
+
+	private static final String SECRET = "egov-secret-key-should-be-very-long-and-secure-256bit";
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@MockBean
+	private DeadLetterReplayService replayService;
+
+	private static String sign(String secret, String payload) {
+		try {
+			Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+			Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+			byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+			return encoder.encodeToString(bytes) + "." + encoder.encodeToString(mac.doFinal(bytes));
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private WebTestClient.RequestHeadersSpec<?> replay(String uri, String userId, String role, String secret) {
+		return webTestClient.post().uri(uri)
+				.header("X-USER-ID", userId)
+				.header("X-USER-ROLE", role)
+				.header(IdentityContextVerifier.HEADER,
+						sign(secret, userId + "\n" + role + "\n\n0\n" + Instant.now().getEpochSecond()));
+	}
+
+	@Test
+	void replay_admin_replaysUpToTheLimit() {
+		when(replayService.replay(50)).thenReturn(Mono.just(7));
+		replay("/notifications/dead-letters/replay?limit=50", "A1", "ADMIN", SECRET)
+				.exchange().expectStatus().isOk()
+				.expectBody().jsonPath("$.replayed").isEqualTo(7);
+	}
+
+	@Test
+	void replay_defaultLimit() {
+		when(replayService.replay(100)).thenReturn(Mono.just(0));
+		replay("/notifications/dead-letters/replay", "A1", "admin", SECRET)
+				.exchange().expectStatus().isOk();
+	}
+
+	@Test
+	void replay_notAdmin_forbidden() {
+		replay("/notifications/dead-letters/replay", "O1", "OFFICER", SECRET)
+				.exchange().expectStatus().isForbidden();
+		verifyNoInteractions(replayService);
+	}
+
+	@Test
+	void replay_limitOutOfRange_badRequest() {
+		replay("/notifications/dead-letters/replay?limit=0", "A1", "ADMIN", SECRET)
+				.exchange().expectStatus().isBadRequest();
+		verifyNoInteractions(replayService);
+	}
+
+	@Test
+	void replay_plainRoleHeaderWithoutContext_unauthorized() {
+		webTestClient.post().uri("/notifications/dead-letters/replay")
+				.header("X-USER-ID", "A1")
+				.header("X-USER-ROLE", "ADMIN")
+				.exchange().expectStatus().isUnauthorized();
+		verifyNoInteractions(replayService);
+	}
+
+	@Test
+	void replay_contextNotSignedByTheGateway_unauthorized() {
+		replay("/notifications/dead-letters/replay", "A1", "ADMIN", "some-other-secret-key-that-is-long-enough-256")
+				.exchange().expectStatus().isUnauthorized();
+		verifyNoInteractions(replayService);
+	}
+}
@@ -0,0 +1,46 @@
+package com.egov.notification.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+import java.util.HexFormat;
+
+import org.junit.jupiter.api.Test;
+
+class GrievanceStatusChangedEventCodecTest {
+
+    // written by the grievance service's codec, pinned there as well
+    static final String WIRE_HEX = "01f70165a1f0c2e4b0a1b2c3d4e5f6016f1c2d3e4a5b6c7d8e9f0a1b0844303031125355424d4954"
+            + "5445441041535349474e45440a41444d494e8096a4f70c80cab5ee01";
+
+    @Test
+    void decodesWhatTheGrievanceServiceWrites() {
+        GrievanceStatusChangedEvent event = GrievanceStatusChangedEventCodec.decode(HexFormat.of().parseHex(WIRE_HEX));
+
+        assertEquals("65a1f0c2e4b0a1b2c3d4e5f6", event.getGrievanceId());
+        assertEquals("6f1c2d3e4a5b6c7d8e9f0a1b", event.getCitizenId());
+        assertEquals("D001", event.getDepartmentId());
+        assertNull(event.getAssignedOfficerId());
+        assertEquals("SUBMITTED", event.getOldStatus());
+        assertEquals("ASSIGNED", event.getNewStatus());
+        assertEquals("ADMIN", event.getChangedBy());
+        assertEquals(Instant.parse("2025-01-01T00:00:00.5Z"), event.getChangedAt());
+    }
+
+    @Test
+    void encode_matchesTheGrievanceServiceBytes() {
+        GrievanceStatusChangedEvent event = GrievanceStatusChangedEventCodec.decode(HexFormat.of().parseHex(WIRE_HEX));
+
+        assertEquals(WIRE_HEX, HexFormat.of().formatHex(GrievanceStatusChangedEventCodec.encode(event)));
+    }
+
+    @Test
+    void unknownVersion_isRejected() {
+        byte[] encoded = HexFormat.of().parseHex(WIRE_HEX);
+        encoded[0] = 2;
+
+        assertThrows(IllegalArgumentException.class, () -> GrievanceStatusChangedEventCodec.decode(encoded));
+    }
+}
@@ -0,0 +1,142 @@
+package com.egov.notification.service;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeadLetterReplayServiceTest {
+
+    private static final TopicPartition DLT = new TopicPartition("grievance-status-changed-dlt", 0);
+
+    @Mock
+    private ConsumerFactory<String, byte[]> consumerFactory;
+
+    @Mock
+    private KafkaTemplate<String, Object> template;
+
+    private MockConsumer<String, byte[]> consumer;
+    private DeadLetterReplayService service;
+
+    @BeforeEach
+    void setUp() {
+        // stays readable after the service closes it, so the committed offsets can be checked
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST) {
+            @Override
+            public synchronized void close() {
+            }
+        };
+        when(consumerFactory.createConsumer()).thenReturn(consumer);
+        service = new DeadLetterReplayService(consumerFactory, template, Duration.ofSeconds(2));
+    }
+
+    private void deadLetters(int count) {
+        consumer.schedulePollTask(() -> {
+            consumer.rebalance(List.of(DLT));
+            consumer.updateBeginningOffsets(Map.of(DLT, 0L));
+            consumer.updateEndOffsets(Map.of(DLT, (long) count));
+            for (int i = 0; i < count; i++) {
+                ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(DLT.topic(), 0, i, "G" + i,
+                        ("event " + i).getBytes(StandardCharsets.UTF_8));
+                record.headers().add("content-type", "application/json".getBytes(StandardCharsets.UTF_8));
+                record.headers().add("kafka_dlt-exception-fqcn", "x".getBytes(StandardCharsets.UTF_8));
+                record.headers().add("retry-attempt", "4".getBytes(StandardCharsets.UTF_8));
+                consumer.addRecord(record);
+            }
+        });
+    }
+
+    @Test
+    void replay_republishesOntoTheStatusTopicAndCommitsPastThem() {
+        when(template.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        deadLetters(3);
+
+        assertEquals(3, service.replay(10).block());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, Object>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(template, times(3)).send(sent.capture());
+        ProducerRecord<String, Object> first = sent.getAllValues().get(0);
+        assertEquals("grievance-status-changed", first.topic());
+        assertEquals("G0", first.key());
+        assertArrayEquals("event 0".getBytes(StandardCharsets.UTF_8), (byte[]) first.value());
+        assertNotNull(first.headers().lastHeader("content-type"));
+        assertNull(first.headers().lastHeader("kafka_dlt-exception-fqcn"));
+        assertNull(first.headers().lastHeader("retry-attempt"));
+        assertEquals(new OffsetAndMetadata(3), consumer.committed(Set.of(DLT)).get(DLT));
+    }
+
+    @Test
+    void replay_stopsAtTheLimit() {
+        when(template.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        deadLetters(5);
+
+        assertEquals(2, service.replay(2).block());
+
+        verify(template, times(2)).send(any(ProducerRecord.class));
+        assertEquals(new OffsetAndMetadata(2), consumer.committed(Set.of(DLT)).get(DLT));
+    }
+
+    @Test
+    void replay_emptyPollBeforeTheEnd_keepsReading() {
+        when(template.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        consumer.schedulePollTask(() -> {
+            consumer.rebalance(List.of(DLT));
+            consumer.updateBeginningOffsets(Map.of(DLT, 0L));
+            consumer.updateEndOffsets(Map.of(DLT, 3L));
+        });
+        // the first fetch after the assignment comes back empty
+        consumer.schedulePollTask(() -> { });
+        deadLetters(3);
+
+        assertEquals(3, service.replay(10).block());
+
+        assertEquals(new OffsetAndMetadata(3), consumer.committed(Set.of(DLT)).get(DLT));
+    }
+
+    @Test
+    void replay_nothingDeadLettered_replaysNothing() {
+        consumer.schedulePollTask(() -> {
+            consumer.rebalance(List.of(DLT));
+            consumer.updateBeginningOffsets(Map.of(DLT, 0L));
+            consumer.updateEndOffsets(Map.of(DLT, 0L));
+        });
+
+        assertEquals(0, service.replay(10).block());
+
+        verifyNoInteractions(template);
+    }
+
+    @Test
+    void replay_sendFails_commitsNothing() {
+        when(template.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        deadLetters(1);
+
+        assertThrows(RuntimeException.class, () -> service.replay(10).block());
+
+        assertNull(consumer.committed(Set.of(DLT)).get(DLT));
+    }
+}
@@ -1,11 +1,18 @@
 package com.egov.notification.service;
 
+import jakarta.mail.Session;
 import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.mail.javamail.JavaMailSender;
 
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 class EmailServiceTest {
@@ -13,33 +20,67 @@ class EmailServiceTest {
 	@Mock
 	private JavaMailSender mailSender;
 
+	@Mock
+	private MailDeliveryEngine deliveryEngine;
+
 	@InjectMocks
 	private EmailService emailService;
 
 	@BeforeEach
 	void setup() {
 		MockitoAnnotations.openMocks(this);
-		when(mailSender.createMimeMessage()).thenReturn(mock(MimeMessage.class));
+		when(mailSender.createMimeMessage()).thenAnswer(inv -> new MimeMessage(Session.getInstance(new Properties())));
+		when(deliveryEngine.submit(any(MimeMessage.class))).thenReturn(CompletableFuture.completedFuture(null));
+	}
+
+	private MimeMessage submitted() {
+		ArgumentCaptor<MimeMessage> message = ArgumentCaptor.forClass(MimeMessage.class);
+		verify(deliveryEngine).submit(message.capture());
+		verify(mailSender, never()).send(any(MimeMessage.class));
+		return message.getValue();
+	}
+
+	private static String html(MimeMessage message) throws Exception {
+		message.saveChanges();
+		MimeMultipart mixed = (MimeMultipart) message.getContent();
+		MimeMultipart related = (MimeMultipart) mixed.getBodyPart(0).getContent();
+		return (String) related.getBodyPart(0).getContent();
+	}
+
+	@Test
+	void sendCitizenMail_success() throws Exception {
+		emailService.sendCitizenMail("a@test.com", "A", "G1", "OPEN", "CLOSED").join();
+
+		MimeMessage message = submitted();
+		assertEquals("Grievance Status Update", message.getSubject());
+		String html = html(message);
+		assertTrue(html.contains("Dear <b>A</b>,"));
+		assertTrue(html.contains("<b>Previous Status:</b> OPEN"));
+		assertTrue(html.contains("<span style=\"color: #2980b9;\">CLOSED</span>"));
 	}
 
 	@Test
-	void sendCitizenMail_success() {
-		emailService.sendCitizenMail("a@test.com", "A", "G1", "OPEN", "CLOSED");
+	void sendOfficerMail_success() throws Exception {
+		emailService.sendOfficerMail("o@test.com", "Officer", "OFFICER", "G1", "IN_PROGRESS").join();
 
-		verify(mailSender).send(any(MimeMessage.class));
+		String html = html(submitted());
+		assertTrue(html.contains("Dear <b>Officer</b> (OFFICER),"));
+		assertTrue(html.contains("<b>Current Status:</b> <b>IN_PROGRESS</b>"));
 	}
 
 	@Test
-	void sendOfficerMail_success() {
-		emailService.sendOfficerMail("o@test.com", "Officer", "OFFICER", "G1", "IN_PROGRESS");
+	void sendSupervisorMail_success() throws Exception {
+		emailService.sendSupervisorMail("s@test.com", "Supervisor", "SUPERVISOR", "G1").join();
 
-		verify(mailSender).send(any(MimeMessage.class));
+		String html = html(submitted());
+		assertTrue(html.contains("<b>Grievance ID:</b> G1"));
 	}
 
 	@Test
-	void sendSupervisorMail_success() {
-		emailService.sendSupervisorMail("s@test.com", "Supervisor", "SUPERVISOR", "G1");
+	void invalidAddress_failsWithoutSubmitting() {
+		CompletableFuture<Void> sent = emailService.sendCitizenMail("not an address", "A", "G1", "OPEN", "CLOSED");
 
-		verify(mailSender).send(any(MimeMessage.class));
+		assertTrue(sent.isCompletedExceptionally());
+		verify(deliveryEngine, never()).submit(any());
 	}
 }
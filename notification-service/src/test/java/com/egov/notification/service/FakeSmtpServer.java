@@ -0,0 +1,112 @@
+package com.egov.notification.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Just enough of an SMTP server on a local port for mail tests: it accepts every command, counts
+ * connections and delivered messages, and can make each new session cost a fixed handshake delay
+ * the way a remote relay with TLS and auth would.
+ */
+class FakeSmtpServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final long handshakeMillis;
+    private final List<Socket> sessions = new CopyOnWriteArrayList<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger messages = new AtomicInteger();
+
+    FakeSmtpServer(long handshakeMillis) throws IOException {
+        this.serverSocket = new ServerSocket(0);
+        this.handshakeMillis = handshakeMillis;
+        Thread acceptor = new Thread(this::accept, "fake-smtp");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    int connections() {
+        return connections.get();
+    }
+
+    int messages() {
+        return messages.get();
+    }
+
+    // simulates the server timing out idle sessions
+    void dropSessions() throws IOException {
+        for (Socket session : sessions) {
+            session.close();
+        }
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket session = serverSocket.accept();
+                connections.incrementAndGet();
+                sessions.add(session);
+                Thread handler = new Thread(() -> serve(session), "fake-smtp-session");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket session) {
+        try (session;
+                BufferedReader in = new BufferedReader(new InputStreamReader(session.getInputStream(),
+                        StandardCharsets.US_ASCII));
+                OutputStream out = session.getOutputStream()) {
+            Thread.sleep(handshakeMillis);
+            reply(out, "220 localhost fake smtp");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                switch (command) {
+                    case "DATA" -> {
+                        reply(out, "354 end with .");
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            // message body is not kept
+                        }
+                        messages.incrementAndGet();
+                        reply(out, "250 queued");
+                    }
+                    case "QUIT" -> {
+                        reply(out, "221 bye");
+                        return;
+                    }
+                    default -> reply(out, "250 OK");
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            // client or test closed the session
+        } finally {
+            sessions.remove(session);
+        }
+    }
+
+    private static void reply(OutputStream out, String line) throws IOException {
+        out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        dropSessions();
+    }
+}
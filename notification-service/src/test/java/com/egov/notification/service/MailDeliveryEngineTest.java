@@ -0,0 +1,162 @@
+package com.egov.notification.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+
+class MailDeliveryEngineTest {
+
+    private FakeSmtpServer server;
+    private MailDeliveryEngine engine;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (engine != null) {
+            engine.shutdown();
+        }
+        server.close();
+    }
+
+    private JavaMailSenderImpl mailSender() {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(server.port());
+        // skips the local hostname lookup for EHLO, which can be slow on build machines
+        Properties properties = new Properties();
+        properties.setProperty("mail.smtp.localhost", "localhost");
+        mailSender.setJavaMailProperties(properties);
+        return mailSender;
+    }
+
+    private static MimeMessage message(JavaMailSenderImpl mailSender, int i) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        message.setFrom(new InternetAddress("noreply@egov.test"));
+        message.setRecipient(MimeMessage.RecipientType.TO, new InternetAddress("user" + i + "@egov.test"));
+        message.setSubject("Grievance Status Update");
+        message.setText("<p>update " + i + "</p>", "UTF-8", "html");
+        return message;
+    }
+
+    private static void sendAll(MailDeliveryEngine engine, JavaMailSenderImpl mailSender, int count)
+            throws MessagingException {
+        List<CompletableFuture<Void>> sent = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            sent.add(engine.submit(message(mailSender, i)));
+        }
+        CompletableFuture.allOf(sent.toArray(CompletableFuture[]::new)).join();
+    }
+
+    @Test
+    void deliversEverythingOverThePooledConnections() throws Exception {
+        server = new FakeSmtpServer(0);
+        JavaMailSenderImpl mailSender = mailSender();
+        engine = new MailDeliveryEngine(mailSender, 2, 50, Duration.ofSeconds(30), 1000);
+
+        sendAll(engine, mailSender, 100);
+
+        assertEquals(100, server.messages());
+        assertTrue(server.connections() <= 2, server.connections() + " connections");
+        assertEquals(server.connections(), engine.connectionsOpened());
+    }
+
+    @Test
+    void droppedConnection_isReopened() throws Exception {
+        server = new FakeSmtpServer(0);
+        JavaMailSenderImpl mailSender = mailSender();
+        engine = new MailDeliveryEngine(mailSender, 1, 50, Duration.ofSeconds(30), 1000);
+        sendAll(engine, mailSender, 3);
+
+        server.dropSessions();
+        sendAll(engine, mailSender, 3);
+
+        assertEquals(6, server.messages());
+        assertEquals(2, server.connections());
+    }
+
+    @Test
+    void idleConnection_isClosed() throws Exception {
+        server = new FakeSmtpServer(0);
+        JavaMailSenderImpl mailSender = mailSender();
+        engine = new MailDeliveryEngine(mailSender, 1, 50, Duration.ofMillis(50), 1000);
+        sendAll(engine, mailSender, 1);
+
+        Thread.sleep(300);
+        sendAll(engine, mailSender, 1);
+
+        assertEquals(2, server.connections());
+    }
+
+    @Test
+    void unreachableServer_failsTheMail() throws Exception {
+        server = new FakeSmtpServer(0);
+        JavaMailSenderImpl mailSender = mailSender();
+        mailSender.setPort(1);
+        engine = new MailDeliveryEngine(mailSender, 1, 50, Duration.ofSeconds(30), 1000);
+
+        CompletableFuture<Void> sent = engine.submit(message(mailSender, 0));
+
+        assertTrue(sent.handle((ignored, ex) -> ex != null).join());
+    }
+
+    @Test
+    void fullQueue_rejectsInsteadOfGrowing() throws Exception {
+        server = new FakeSmtpServer(200);
+        JavaMailSenderImpl mailSender = mailSender();
+        engine = new MailDeliveryEngine(mailSender, 1, 1, Duration.ofSeconds(30), 2);
+
+        // the one worker takes a single message and connects, two more fit the queue
+        List<CompletableFuture<Void>> sent = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            sent.add(engine.submit(message(mailSender, i)));
+        }
+
+        long rejected = sent.stream()
+                .filter(future -> future.isCompletedExceptionally()
+                        && future.handle((ignored, ex) -> ex instanceof RejectedExecutionException).join())
+                .count();
+        assertTrue(rejected >= 2, rejected + " rejected");
+        List<CompletableFuture<Void>> accepted = sent.stream().filter(future -> !future.isDone()).toList();
+        CompletableFuture.allOf(accepted.toArray(CompletableFuture[]::new)).join();
+        assertEquals(5 - rejected, server.messages());
+    }
+
+    // stands in for a benchmark: each smtp session costs a 5ms handshake, as a remote relay would
+    @Test
+    void pooledDelivery_outrunsASessionPerMail() throws Exception {
+        server = new FakeSmtpServer(5);
+        JavaMailSenderImpl mailSender = mailSender();
+        int count = 200;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            mailSender.send(message(mailSender, i));
+        }
+        long perMailSessions = System.nanoTime() - start;
+        int perMailConnections = server.connections();
+
+        engine = new MailDeliveryEngine(mailSender, 4, 50, Duration.ofSeconds(30), 1000);
+        start = System.nanoTime();
+        sendAll(engine, mailSender, count);
+        long pooled = System.nanoTime() - start;
+
+        assertEquals(2 * count, server.messages());
+        assertEquals(count, perMailConnections);
+        assertTrue(server.connections() - perMailConnections <= 4);
+        assertTrue(pooled * 3 < perMailSessions, "pooled " + pooled / 1_000_000 + "ms vs "
+                + perMailSessions / 1_000_000 + "ms with a session per mail");
+    }
+}
@@ -0,0 +1,36 @@
+package com.egov.notification.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class MailTemplateTest {
+
+    private static final String TEMPLATE = """
+            <p>Dear <b>%s</b> (%s),</p>
+            <p style="margin: 5px 0;"><b>Grievance ID:</b> %s</p>
+            """;
+
+    @Test
+    void render_matchesStringFormat() {
+        MailTemplate template = MailTemplate.compile(TEMPLATE);
+
+        assertEquals(3, template.placeholders());
+        assertEquals(String.format(TEMPLATE, "Asha", "OFFICER", "G1"), template.render("Asha", "OFFICER", "G1"));
+        assertEquals(String.format(TEMPLATE, null, "", "G1"), template.render(null, "", "G1"));
+    }
+
+    @Test
+    void placeholdersAtTheEdges_renderToo() {
+        assertEquals("a-b", MailTemplate.compile("%s-%s").render("a", "b"));
+        assertEquals("plain", MailTemplate.compile("plain").render());
+    }
+
+    @Test
+    void wrongValueCount_isRejected() {
+        MailTemplate template = MailTemplate.compile(TEMPLATE);
+
+        assertThrows(IllegalArgumentException.class, () -> template.render("only one"));
+    }
+}
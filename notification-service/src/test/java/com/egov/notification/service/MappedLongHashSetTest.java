@@ -0,0 +1,141 @@
+package com.egov.notification.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedLongHashSetTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void addedFingerprints_areFound() throws Exception {
+        try (MappedLongHashSet set = new MappedLongHashSet(dir.resolve("set.bin"), 16)) {
+            assertTrue(set.add(42));
+            assertFalse(set.add(42));
+            assertTrue(set.add(0));
+            assertTrue(set.contains(42));
+            assertTrue(set.contains(0));
+            assertFalse(set.contains(7));
+            assertEquals(2, set.size());
+        }
+    }
+
+    @Test
+    void contents_surviveReopening() throws Exception {
+        Path file = dir.resolve("nested/set.bin");
+        try (MappedLongHashSet set = new MappedLongHashSet(file, 64)) {
+            for (long i = 1; i <= 20; i++) {
+                set.add(i * 7919);
+            }
+        }
+        try (MappedLongHashSet set = new MappedLongHashSet(file, 64)) {
+            assertEquals(20, set.size());
+            assertTrue(set.contains(7919));
+            assertTrue(set.contains(20 * 7919));
+        }
+    }
+
+    @Test
+    void otherCapacity_startsEmpty() throws Exception {
+        Path file = dir.resolve("set.bin");
+        try (MappedLongHashSet set = new MappedLongHashSet(file, 64)) {
+            set.add(5);
+        }
+        try (MappedLongHashSet set = new MappedLongHashSet(file, 128)) {
+            assertFalse(set.contains(5));
+            assertEquals(0, set.size());
+        }
+    }
+
+    // capacity 16 holds 12 per generation: the first 12 outlive the next 12, then make way
+    @Test
+    void fullGeneration_retiresTheOldestOne() throws Exception {
+        try (MappedLongHashSet set = new MappedLongHashSet(dir.resolve("set.bin"), 16)) {
+            for (long i = 1; i <= 24; i++) {
+                set.add(i);
+            }
+            assertTrue(set.contains(1));
+            assertEquals(24, set.size());
+
+            set.add(25);
+            assertFalse(set.contains(1));
+            assertTrue(set.contains(13));
+            assertTrue(set.contains(25));
+            assertEquals(13, set.size());
+        }
+    }
+
+    // every generation takes its turn as current, previous and the one being wiped
+    @Test
+    void generations_keepRotating() throws Exception {
+        try (MappedLongHashSet set = new MappedLongHashSet(dir.resolve("set.bin"), 16)) {
+            for (long i = 1; i <= 12 * 7; i++) {
+                assertTrue(set.add(i));
+                long generation = (i - 1) / 12;
+                long previousStart = Math.max(1, (generation - 1) * 12 + 1);
+                assertTrue(set.contains(previousStart));
+                if (previousStart > 1) {
+                    assertFalse(set.contains(previousStart - 1));
+                }
+                assertEquals(i - previousStart + 1, set.size());
+            }
+        }
+    }
+
+    @Test
+    void wipeInProgress_carriesOnAfterReopening() throws Exception {
+        Path file = dir.resolve("set.bin");
+        try (MappedLongHashSet set = new MappedLongHashSet(file, 16)) {
+            for (long i = 1; i <= 30; i++) {
+                set.add(i);
+            }
+        }
+        try (MappedLongHashSet set = new MappedLongHashSet(file, 16)) {
+            for (long i = 31; i <= 48; i++) {
+                set.add(i);
+            }
+            assertFalse(set.contains(24));
+            assertTrue(set.contains(25));
+            assertTrue(set.contains(48));
+            // the generation that held 1 to 12 has been wiped and refilled, none of them came back
+            assertFalse(set.contains(1));
+            assertEquals(24, set.size());
+        }
+    }
+
+    @Test
+    void capacity_mustBeAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new MappedLongHashSet(dir.resolve("set.bin"), 100));
+    }
+
+    // stands in for a benchmark: a million lookups, half of them hits, on a table at its working load
+    @Test
+    void lookups_takeWellUnderAMicrosecond() throws Exception {
+        try (MappedLongHashSet set = new MappedLongHashSet(dir.resolve("set.bin"), 1 << 20)) {
+            SplittableRandom random = new SplittableRandom(1);
+            long[] keys = new long[500_000];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = random.nextLong();
+                set.add(keys[i]);
+            }
+            int hits = 0;
+            for (int round = 0; round < 3; round++) {
+                hits = 0;
+                long start = System.nanoTime();
+                for (int i = 0; i < keys.length; i++) {
+                    hits += set.contains(keys[i]) ? 1 : 0;
+                    hits += set.contains(random.nextLong()) ? 1 : 0;
+                }
+                long perLookup = (System.nanoTime() - start) / (2L * keys.length);
+                assertTrue(perLookup < 1000, perLookup + "ns per lookup");
+            }
+            assertEquals(keys.length, hits);
+        }
+    }
+}
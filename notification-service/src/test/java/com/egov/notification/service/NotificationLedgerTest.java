@@ -0,0 +1,50 @@
+package com.egov.notification.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationLedgerTest {
+
+    private static final Instant CHANGED_AT = Instant.parse("2026-01-01T10:00:00Z");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recordedMail_isAlreadySentAfterARestart() throws Exception {
+        String key = NotificationLedger.key("G1", "RESOLVED", CHANGED_AT, "CITIZEN:C1");
+        NotificationLedger ledger = new NotificationLedger(dir.resolve("ledger.bin"), 1024, Duration.ofSeconds(10));
+        assertFalse(ledger.alreadySent(key));
+        ledger.recordSent(key);
+        ledger.close();
+
+        NotificationLedger restarted = new NotificationLedger(dir.resolve("ledger.bin"), 1024, Duration.ofSeconds(10));
+        assertTrue(restarted.alreadySent(key));
+        assertFalse(restarted.alreadySent(NotificationLedger.key("G1", "RESOLVED", CHANGED_AT, "OFFICER:O1")));
+        assertFalse(restarted.alreadySent(NotificationLedger.key("G1", "RESOLVED", CHANGED_AT.plusSeconds(1),
+                "CITIZEN:C1")));
+        restarted.close();
+    }
+
+    @Test
+    void withoutChangedAt_nothingIsTracked() throws Exception {
+        NotificationLedger ledger = new NotificationLedger(dir.resolve("ledger.bin"), 1024, Duration.ofSeconds(10));
+        String key = NotificationLedger.key("G1", "ESCALATED", null, "SUPERVISOR:O1");
+        assertNull(key);
+        ledger.recordSent(key);
+        assertFalse(ledger.alreadySent(key));
+        ledger.close();
+    }
+
+    @Test
+    void fingerprint_isStableAndSpreads() {
+        assertEquals(NotificationLedger.fingerprint("G1|RESOLVED"), NotificationLedger.fingerprint("G1|RESOLVED"));
+        assertNotEquals(NotificationLedger.fingerprint("G1|RESOLVED"), NotificationLedger.fingerprint("G2|RESOLVED"));
+    }
+}
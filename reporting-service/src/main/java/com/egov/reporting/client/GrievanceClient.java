@@ -1,43 +1,61 @@
 package com.egov.reporting.client;
 
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import com.egov.reporting.dto.GrievanceDTO;
 import lombok.RequiredArgsConstructor;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Component
 @RequiredArgsConstructor
 public class GrievanceClient {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int PAGE_SIZE = 200;
+
     private final WebClient.Builder webClientBuilder;
 
+    // grievance-service pages its listings, follow the next-cursor header until the last page
     public Flux<GrievanceDTO> getGrievances(String userId, String role, String status, String departmentId) {
+        return fetchAll("/grievances", userId, role, status, departmentId);
+    }
+
+    public Flux<GrievanceDTO> getSlaBreaches(String userId, String role) {
+        return fetchAll("/grievances/sla-breaches", userId, role, null, null);
+    }
+
+    private Flux<GrievanceDTO> fetchAll(String path, String userId, String role, String status, String departmentId) {
+        return fetchPage(path, userId, role, status, departmentId, null)
+                .expand(page -> {
+                    String next = page.getHeaders().getFirst(NEXT_CURSOR_HEADER);
+                    return next != null ? fetchPage(path, userId, role, status, departmentId, next) : Mono.empty();
+                })
+                .flatMapIterable(page -> page.getBody() != null ? page.getBody() : List.of());
+    }
+
+    private Mono<ResponseEntity<List<GrievanceDTO>>> fetchPage(String path, String userId, String role,
+            String status, String departmentId, String after) {
         return webClientBuilder.build()
                 .get()
                 .uri(uriBuilder -> {
                     uriBuilder.scheme("http")
                               .host("grievance-service")
-                              .path("/grievances");
+                              .path(path)
+                              .queryParam("limit", PAGE_SIZE);
                     
                     if (status != null) uriBuilder.queryParam("status", status);
                     if (departmentId != null) uriBuilder.queryParam("departmentId", departmentId);
+                    if (after != null) uriBuilder.queryParam("after", after);
                     
                     return uriBuilder.build();
                 })
                 .header("X-USER-ID", userId)
                 .header("X-USER-ROLE", role)
                 .retrieve()
-                .bodyToFlux(GrievanceDTO.class);
-    }
-
-    public Flux<GrievanceDTO> getSlaBreaches(String userId, String role) {
-        return webClientBuilder.build()
-                .get()
-                .uri("http://grievance-service/grievances/sla-breaches")
-                .header("X-USER-ID", userId)
-                .header("X-USER-ROLE", role)
-                .retrieve()
-                .bodyToFlux(GrievanceDTO.class);
+                .toEntityList(GrievanceDTO.class);
     }
 }
\ No newline at end of file
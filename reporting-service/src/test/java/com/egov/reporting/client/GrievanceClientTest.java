@@ -7,12 +7,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.List;
 import java.util.function.Function;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 
@@ -50,24 +53,36 @@ class GrievanceClientTest {
 		when(requestHeadersUriSpec.uri(any(Function.class))).thenReturn(requestHeadersSpec);
 		when(requestHeadersSpec.header(anyString(), any())).thenReturn(requestHeadersSpec);
 		when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-		when(responseSpec.bodyToFlux(GrievanceDTO.class)).thenReturn(Flux.just(dto));
+		when(responseSpec.toEntityList(GrievanceDTO.class)).thenReturn(Mono.just(ResponseEntity.ok(List.of(dto))));
 		StepVerifier.create(grievanceClient.getGrievances("user1", "ADMIN", "OPEN", "DEPT1"))
 				.expectNextMatches(result -> result.getId().equals("123")).verifyComplete();
 	}
 
 	@Test
-	void getSlaBreaches_Success() {
-		GrievanceDTO dto = new GrievanceDTO();
-		dto.setId("SLA-123");
+	void getSlaBreaches_followsNextCursorAcrossPages() {
+		GrievanceDTO first = new GrievanceDTO();
+		first.setId("SLA-1");
+		GrievanceDTO second = new GrievanceDTO();
+		second.setId("SLA-2");
 
 		when(webClient.get()).thenReturn(requestHeadersUriSpec);
-		when(requestHeadersUriSpec.uri(anyString())).thenReturn(requestHeadersSpec);
+		ArgumentCaptor<Function<org.springframework.web.util.UriBuilder, java.net.URI>> captor = ArgumentCaptor
+				.forClass(Function.class);
+		when(requestHeadersUriSpec.uri(captor.capture())).thenReturn(requestHeadersSpec);
 		when(requestHeadersSpec.header(anyString(), any())).thenReturn(requestHeadersSpec);
 		when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-		when(responseSpec.bodyToFlux(GrievanceDTO.class)).thenReturn(Flux.just(dto));
+		when(responseSpec.toEntityList(GrievanceDTO.class)).thenReturn(
+				Mono.just(ResponseEntity.ok().header("X-Next-Cursor", "c1").body(List.of(first))),
+				Mono.just(ResponseEntity.ok(List.of(second))));
 
 		StepVerifier.create(grievanceClient.getSlaBreaches("user1", "ADMIN"))
-				.expectNextMatches(result -> result.getId().equals("SLA-123")).verifyComplete();
+				.expectNextMatches(result -> result.getId().equals("SLA-1"))
+				.expectNextMatches(result -> result.getId().equals("SLA-2"))
+				.verifyComplete();
+		java.net.URI nextPage = captor.getAllValues().get(1)
+				.apply(new org.springframework.web.util.DefaultUriBuilderFactory().builder());
+		assertEquals("/grievances/sla-breaches", nextPage.getPath());
+		assertEquals("limit=200&after=c1", nextPage.getQuery());
 	}
 
 	@Test
@@ -78,7 +93,7 @@ class GrievanceClientTest {
 		when(requestHeadersUriSpec.uri(any(Function.class))).thenReturn(requestHeadersSpec);
 		when(requestHeadersSpec.header(anyString(), any())).thenReturn(requestHeadersSpec);
 		when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-		when(responseSpec.bodyToFlux(GrievanceDTO.class)).thenReturn(Flux.just(dto));
+		when(responseSpec.toEntityList(GrievanceDTO.class)).thenReturn(Mono.just(ResponseEntity.ok(List.of(dto))));
 		StepVerifier.create(grievanceClient.getGrievances("user1", "ADMIN", "OPEN", "DEPT1"))
 				.expectNextMatches(result -> result.getId().equals("456")).verifyComplete();
 	}
@@ -91,11 +106,31 @@ class GrievanceClientTest {
 		when(requestHeadersUriSpec.uri(any(Function.class))).thenReturn(requestHeadersSpec);
 		when(requestHeadersSpec.header(anyString(), any())).thenReturn(requestHeadersSpec);
 		when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-		when(responseSpec.bodyToFlux(GrievanceDTO.class)).thenReturn(Flux.just(dto));
+		when(responseSpec.toEntityList(GrievanceDTO.class)).thenReturn(Mono.just(ResponseEntity.ok(List.of(dto))));
 		StepVerifier.create(grievanceClient.getGrievances("user1", "ADMIN", null, null)).expectNextCount(1)
 				.verifyComplete();
 	}
 
+	@Test
+	void getGrievances_followsNextCursorAcrossPages() {
+		GrievanceDTO first = new GrievanceDTO();
+		first.setId("1");
+		GrievanceDTO second = new GrievanceDTO();
+		second.setId("2");
+		when(webClient.get()).thenReturn(requestHeadersUriSpec);
+		when(requestHeadersUriSpec.uri(any(Function.class))).thenReturn(requestHeadersSpec);
+		when(requestHeadersSpec.header(anyString(), any())).thenReturn(requestHeadersSpec);
+		when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+		when(responseSpec.toEntityList(GrievanceDTO.class)).thenReturn(
+				Mono.just(ResponseEntity.ok().header("X-Next-Cursor", "c1").body(List.of(first))),
+				Mono.just(ResponseEntity.ok(List.of(second))));
+
+		StepVerifier.create(grievanceClient.getGrievances("user1", "ADMIN", null, null))
+				.expectNextMatches(dto -> dto.getId().equals("1"))
+				.expectNextMatches(dto -> dto.getId().equals("2"))
+				.verifyComplete();
+	}
+
 	@Test
 	void getGrievances_uriBuilder_lambda_covered() {
 		GrievanceDTO dto = new GrievanceDTO();
@@ -106,7 +141,7 @@ class GrievanceClientTest {
 		when(requestHeadersUriSpec.uri(captor.capture())).thenReturn(requestHeadersSpec);
 		when(requestHeadersSpec.header(anyString(), any())).thenReturn(requestHeadersSpec);
 		when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-		when(responseSpec.bodyToFlux(GrievanceDTO.class)).thenReturn(Flux.just(dto));
+		when(responseSpec.toEntityList(GrievanceDTO.class)).thenReturn(Mono.just(ResponseEntity.ok(List.of(dto))));
 		StepVerifier.create(grievanceClient.getGrievances("user1", "ADMIN", "OPEN", "DEPT1")).expectNextCount(1)
 				.verifyComplete();
 		org.springframework.web.util.DefaultUriBuilderFactory factory = new org.springframework.web.util.DefaultUriBuilderFactory();
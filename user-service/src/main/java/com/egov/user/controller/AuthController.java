@@ -1,16 +1,22 @@
 package com.egov.user.controller;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.egov.user.dto.LoginRequest;
 import com.egov.user.dto.LoginResponse;
 import com.egov.user.dto.RegisterRequest;
+import com.egov.user.exception.InvalidTokenException;
+import com.egov.user.exception.TooManyAttemptsException;
+import com.egov.user.security.LoginThrottle;
 import com.egov.user.service.UserService;
 
 import jakarta.validation.Valid;
@@ -22,9 +28,11 @@ import reactor.core.publisher.Mono;
 public class AuthController {
 
     private final UserService userService;
+    private final LoginThrottle loginThrottle;
 
-    public AuthController(UserService userService) {
+    public AuthController(UserService userService, LoginThrottle loginThrottle) {
         this.userService = userService;
+        this.loginThrottle = loginThrottle;
     }
 
     @PostMapping("/register")
@@ -39,7 +47,37 @@ public class AuthController {
     }
     
     @PostMapping("/login")
-    public Mono<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
-        return userService.login(request);
+    public Mono<LoginResponse> login(@Valid @RequestBody LoginRequest request, ServerHttpRequest httpRequest) {
+
+        // throttled attempts are rejected before any mongo lookup or bcrypt work
+        String clientIp = clientIp(httpRequest);
+        if (loginThrottle.isBlocked(request.getEmail(), clientIp)) {
+            return Mono.error(new TooManyAttemptsException(
+                    "Too many failed login attempts, try again later", loginThrottle.retryAfterSeconds(request.getEmail(), clientIp)));
+        }
+
+        return userService.login(request)
+                .doOnError(IllegalArgumentException.class,
+                        ex -> loginThrottle.recordFailure(request.getEmail(), clientIp));
+    }
+
+    // exchange a still valid token for one carrying the current role, department and token version
+    @PostMapping("/refresh")
+    public Mono<LoginResponse> refresh(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader) {
+        if (!authHeader.startsWith("Bearer ")) {
+            return Mono.error(new InvalidTokenException("Bearer token required"));
+        }
+        return userService.refreshToken(authHeader.substring(7));
+    }
+
+    // the gateway appends the peer it saw to X-Forwarded-For, earlier entries are client supplied
+    private static String clientIp(ServerHttpRequest request) {
+        String forwardedFor = request.getHeaders().getFirst("X-Forwarded-For");
+        if (forwardedFor != null && !forwardedFor.isBlank()) {
+            return forwardedFor.substring(forwardedFor.lastIndexOf(',') + 1).trim();
+        }
+        return request.getRemoteAddress() != null && request.getRemoteAddress().getAddress() != null
+                ? request.getRemoteAddress().getAddress().getHostAddress()
+                : null;
     }
-}
\ No newline at end of file
+}
@@ -2,12 +2,15 @@ package com.egov.user.controller;
 
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 import com.egov.user.dto.UserResponse;
 import com.egov.user.dto.UserUpdateRequest;
 import com.egov.user.model.ROLE;
@@ -47,6 +50,13 @@ public class UserController {
                         .build());
     }
 
+    // INTERNAL API
+    // batch form of GET /users/{id}, one $in query instead of one call per id
+    @PostMapping("/batch")
+    public Flux<UserResponse> getUsersByIds(@RequestBody List<String> ids) {
+        return userService.getUsersByIds(ids);
+    }
+
     @PutMapping("/{userId}")
     public Mono<Void> updateProfile(@PathVariable String userId, @RequestBody UserUpdateRequest request,
             @RequestHeader("X-USER-ID") String loggedInUserId,
@@ -0,0 +1,18 @@
+package com.egov.user.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserChangedEvent {
+
+    private String userId;
+    private String changeType;   // PROFILE, ROLE, DEPARTMENT
+    private Instant changedAt;
+    private Long tokenVersion;   // the user's token version after the change, older tokens are stale
+}
@@ -1,5 +1,7 @@
 package com.egov.user.exception;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -13,6 +15,9 @@ import java.util.Map;
 public class GlobalExceptionHandler {
 	
 	private static final String ERROR = "error";
+
+	@Value("${password-hashing.retry-after-seconds:1}")
+	private long retryAfterSeconds;
 	
 	@ExceptionHandler(WebExchangeBindException.class)
 	public ResponseEntity<Map<String, String>> handleValidationExceptions(WebExchangeBindException ex) {
@@ -49,4 +54,29 @@ public class GlobalExceptionHandler {
 	    error.put(ERROR, ex.getMessage());
 	    return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
 	}
+
+	@ExceptionHandler(InvalidTokenException.class)
+	public ResponseEntity<Map<String, String>> handleInvalidToken(InvalidTokenException ex) {
+		Map<String, String> error = new HashMap<>();
+		error.put(ERROR, ex.getMessage());
+		return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+	}
+
+	@ExceptionHandler(ServiceBusyException.class)
+	public ResponseEntity<Map<String, String>> handleServiceBusy(ServiceBusyException ex) {
+		Map<String, String> error = new HashMap<>();
+		error.put(ERROR, ex.getMessage());
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+				.body(error);
+	}
+
+	@ExceptionHandler(TooManyAttemptsException.class)
+	public ResponseEntity<Map<String, String>> handleTooManyAttempts(TooManyAttemptsException ex) {
+		Map<String, String> error = new HashMap<>();
+		error.put(ERROR, ex.getMessage());
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+				.body(error);
+	}
 }
@@ -39,6 +39,9 @@ public class User {
     //can be null for citizen and admin , mandatory for officer and supervisor
     private String departmentId;
 
+    //bumped when role or department change, issued tokens carry it as "ver"
+    private Long tokenVersion;
+
     @NotNull(message = "Created timestamp is mandatory")
     private Instant createdAt;
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.egov.user.repository;
 
+import java.util.Collection;
+
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 
 import com.egov.user.model.ROLE;
@@ -17,4 +19,7 @@ public interface UserRepository extends ReactiveMongoRepository<User, String>
 	Flux<User> findByRole(ROLE role);
 
 	Mono<User> findById(String id);
+
+	// single { _id: { $in: [...] } } query for batch lookups
+	Flux<User> findByIdIn(Collection<String> ids);
 }
\ No newline at end of file
@@ -5,6 +5,8 @@ import java.util.Date;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -14,7 +16,12 @@ import javax.crypto.SecretKey;
 @Component
 public class JwtUtil {
 
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_DEPARTMENT = "departmentId";
+    public static final String CLAIM_VERSION = "ver";
+
     private final SecretKey secretKey;
+    private final JwtParser parser;
     private final long expirationMillis;
 
     public JwtUtil(
@@ -22,23 +29,36 @@ public class JwtUtil {
             @Value("${jwt.expiration:86400000}") long expirationMillis) {
 
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(secretKey).build();
         this.expirationMillis = expirationMillis;
     }
 
     public String generateToken(String userId, String role) {
+        return generateToken(userId, role, null, 0);
+    }
+
+    // departmentId lets downstream services authorize department scoped calls without a user lookup,
+    // ver is the user's token version - bumped whenever role or department change
+    public String generateToken(String userId, String role, String departmentId, long tokenVersion) {
 
         return Jwts.builder()
                 .setSubject(userId)
-                .claim("role", role)
+                .claim(CLAIM_ROLE, role)
+                .claim(CLAIM_DEPARTMENT, departmentId)
+                .claim(CLAIM_VERSION, tokenVersion)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expirationMillis))
                 .signWith(secretKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    public Claims parseClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(secretKey).build().parseClaimsJws(token);
+            parser.parseClaimsJws(token);
             return true;
         } catch (Exception e) {
             return false;
@@ -46,11 +66,10 @@ public class JwtUtil {
     }
 
     public String getUserIdFromToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(secretKey).build().parseClaimsJws(token).getBody().getSubject();
+        return parseClaims(token).getSubject();
     }
 
     public String getRoleFromToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(secretKey).build().parseClaimsJws(token).getBody().get("role",
-                String.class);
+        return parseClaims(token).get(CLAIM_ROLE, String.class);
     }
 }
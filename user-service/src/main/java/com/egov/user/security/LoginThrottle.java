@@ -0,0 +1,162 @@
+package com.egov.user.security;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sliding-window counter of failed logins per email and per client ip, checked before any
+ * mongo lookup or password hashing. Keys are hashed into a fixed number of stripes so memory
+ * stays bounded no matter how many emails an attacker sprays - a collision can only over count.
+ * Each stripe is one packed long updated with CAS: window index | previous count | current count.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long WINDOW_MASK = (1L << (64 - 2 * COUNT_BITS)) - 1;
+
+    private final AtomicLongArray emailStripes;
+    private final AtomicLongArray ipStripes;
+    private final int stripeMask;
+    private final long windowMillis;
+    private final int maxFailuresPerEmail;
+    private final int maxFailuresPerIp;
+    private final LongSupplier clock;
+    private final Counter throttledCounter;
+
+    @Autowired
+    public LoginThrottle(
+            MeterRegistry meterRegistry,
+            @Value("${login-throttle.window:5m}") Duration window,
+            @Value("${login-throttle.max-failures-per-email:5}") int maxFailuresPerEmail,
+            @Value("${login-throttle.max-failures-per-ip:20}") int maxFailuresPerIp,
+            @Value("${login-throttle.stripes:65536}") int stripes) {
+        this(meterRegistry, window, maxFailuresPerEmail, maxFailuresPerIp, stripes, System::currentTimeMillis);
+    }
+
+    LoginThrottle(MeterRegistry meterRegistry, Duration window, int maxFailuresPerEmail, int maxFailuresPerIp,
+            int stripes, LongSupplier clock) {
+
+        if (Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("login-throttle.stripes must be a power of two");
+        }
+        this.emailStripes = new AtomicLongArray(stripes);
+        this.ipStripes = new AtomicLongArray(stripes);
+        this.stripeMask = stripes - 1;
+        this.windowMillis = window.toMillis();
+        this.maxFailuresPerEmail = maxFailuresPerEmail;
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.clock = clock;
+        this.throttledCounter = Counter.builder("login.throttled").register(meterRegistry);
+    }
+
+    public boolean isBlocked(String email, String clientIp) {
+        long now = clock.getAsLong();
+        boolean blocked = estimate(emailStripes, stripe(normalize(email)), now) >= maxFailuresPerEmail
+                || clientIp != null && estimate(ipStripes, stripe(clientIp), now) >= maxFailuresPerIp;
+        if (blocked) {
+            throttledCounter.increment();
+        }
+        return blocked;
+    }
+
+    public void recordFailure(String email, String clientIp) {
+        long now = clock.getAsLong();
+        increment(emailStripes, stripe(normalize(email)), now);
+        if (clientIp != null) {
+            increment(ipStripes, stripe(clientIp), now);
+        }
+    }
+
+    // seconds until the sliding estimate of every key that blocks drops back under its limit, assuming no
+    // further failures. a full current window keeps counting once it becomes the previous one, so this can
+    // be well past the next rollover
+    public long retryAfterSeconds(String email, String clientIp) {
+        long now = clock.getAsLong();
+        long wait = waitMillis(emailStripes, stripe(normalize(email)), now, maxFailuresPerEmail);
+        if (clientIp != null) {
+            wait = Math.max(wait, waitMillis(ipStripes, stripe(clientIp), now, maxFailuresPerIp));
+        }
+        return Math.max(1, (wait + 999) / 1000);
+    }
+
+    private double estimate(AtomicLongArray stripes, int index, long now) {
+        long packed = roll(stripes.get(index), now / windowMillis);
+        double previousWeight = 1.0 - (double) (now % windowMillis) / windowMillis;
+        return previous(packed) * previousWeight + current(packed);
+    }
+
+    // solves previous * (1 - elapsed / window) + current < limit for the elapsed time, in this window or,
+    // when current alone is over the limit, in the next one where it is weighted as previous
+    private long waitMillis(AtomicLongArray stripes, int index, long now, int limit) {
+        long packed = roll(stripes.get(index), now / windowMillis);
+        long previous = previous(packed);
+        long current = current(packed);
+        long elapsed = now % windowMillis;
+        double until;
+        if (current >= limit) {
+            until = windowMillis + windowMillis * (1.0 - (double) limit / current);
+        } else if (previous > 0) {
+            until = windowMillis * (1.0 - (double) (limit - current) / previous);
+        } else {
+            return 0;
+        }
+        // the estimate has to fall strictly below the limit
+        return Math.max(0, (long) Math.floor(until) + 1 - elapsed);
+    }
+
+    private void increment(AtomicLongArray stripes, int index, long now) {
+        long windowIndex = now / windowMillis;
+        long seen;
+        long updated;
+        do {
+            seen = stripes.get(index);
+            long rolled = roll(seen, windowIndex);
+            updated = pack(windowIndex, previous(rolled), Math.min(current(rolled) + 1, COUNT_MASK));
+        } while (!stripes.compareAndSet(index, seen, updated));
+    }
+
+    // shift the packed counters forward to windowIndex without writing anything back
+    private static long roll(long packed, long windowIndex) {
+        long window = packed >>> (2 * COUNT_BITS);
+        long current = windowIndex & WINDOW_MASK;
+        if (window == current) {
+            return packed;
+        }
+        if (window == ((windowIndex - 1) & WINDOW_MASK)) {
+            return pack(windowIndex, current(packed), 0);
+        }
+        return pack(windowIndex, 0, 0);
+    }
+
+    private static long pack(long windowIndex, long previous, long current) {
+        return (windowIndex & WINDOW_MASK) << (2 * COUNT_BITS) | previous << COUNT_BITS | current;
+    }
+
+    private static long previous(long packed) {
+        return (packed >>> COUNT_BITS) & COUNT_MASK;
+    }
+
+    private static long current(long packed) {
+        return packed & COUNT_MASK;
+    }
+
+    private int stripe(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & stripeMask;
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,39 @@
+package com.egov.user.service;
+
+import java.time.Instant;
+
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import com.egov.user.event.UserChangedEvent;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserEventPublisher {
+
+    public static final String TOPIC = "user-changed";
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    // keyed by userId so changes to one user stay ordered within a partition; send() itself can block for
+    // max.block.ms while metadata is missing, so it runs off the event loop. a failed publish is logged only,
+    // the change is already saved and the caches fall back to their ttl
+    public Mono<Void> publishUserChanged(String userId, String changeType, long tokenVersion) {
+        UserChangedEvent event = new UserChangedEvent(userId, changeType, Instant.now(), tokenVersion);
+        return Mono.fromFuture(() -> kafkaTemplate.send(TOPIC, userId, event))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnSuccess(result -> log.info("Published user changed event: {}", event))
+                .then()
+                .onErrorResume(ex -> {
+                    log.warn("Failed to publish user changed event {}: {}", event, ex.getMessage());
+                    return Mono.empty();
+                });
+    }
+}
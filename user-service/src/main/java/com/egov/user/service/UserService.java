@@ -1,8 +1,10 @@
 package com.egov.user.service;
 
 import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.beans.factory.annotation.Value;
@@ -14,12 +16,14 @@ import com.egov.user.dto.RegisterRequest;
 import com.egov.user.dto.UserResponse;
 import com.egov.user.dto.UserUpdateRequest;
 import com.egov.user.exception.ForbiddenException;
+import com.egov.user.exception.InvalidTokenException;
 import com.egov.user.exception.ResourceNotFoundException;
 import com.egov.user.exception.UserAlreadyExistsException;
 import com.egov.user.model.ROLE;
 import com.egov.user.model.User;
 import com.egov.user.repository.UserRepository;
 import com.egov.user.security.JwtUtil;
+import com.egov.user.security.PasswordHasher;
 
 import jakarta.annotation.PostConstruct;
 import reactor.core.publisher.Flux;
@@ -31,25 +35,33 @@ public class UserService {
     @Value("${app.default-admin-password}")
     private String defaultAdminPassword;
 
+    // shared with notification-service, which chunks its bulk lookups by the same key
+    @Value("${users.batch.max-ids:" + MAX_BATCH_IDS + "}")
+    private int maxBatchIds = MAX_BATCH_IDS;
+
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtUtil jwtUtil;
     private final WebClient.Builder webClientBuilder;
+    private final UserEventPublisher userEventPublisher;
 
     public UserService(
             UserRepository userRepository,
-            PasswordEncoder passwordEncoder,
+            PasswordHasher passwordHasher,
             JwtUtil jwtUtil,
-            WebClient.Builder webClientBuilder) {
+            WebClient.Builder webClientBuilder,
+            UserEventPublisher userEventPublisher) {
 
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.jwtUtil = jwtUtil;
         this.webClientBuilder = webClientBuilder;
+        this.userEventPublisher = userEventPublisher;
     }
     
 
 	private static final String USER_NOT_FOUND = "User not found";
+	public static final int MAX_BATCH_IDS = 200;
 
     public Mono<String> register(RegisterRequest request) {
 
@@ -65,17 +77,15 @@ public class UserService {
 
                             return validateDepartmentRuleReactive(role, request.getDepartmentId())
                                     .then(validateDepartmentFromGrievanceService(role, request.getDepartmentId()))
-                                    .then(Mono.fromCallable(() -> {
-
-                                        return User.builder()
+                                    .then(passwordHasher.encode(request.getPassword()))
+                                    .map(passwordHash -> User.builder()
                                                 .name(request.getName())
                                                 .email(request.getEmail())
-                                                .passwordHash(passwordEncoder.encode(request.getPassword()))
+                                                .passwordHash(passwordHash)
                                                 .role(role)
                                                 .departmentId(request.getDepartmentId())
                                                 .createdAt(Instant.now())
-                                                .build();
-                                    }))
+                                                .build())
 
                                     .flatMap(user -> userRepository.save(user));
 
@@ -87,37 +97,58 @@ public class UserService {
 
         return userRepository.findByEmail(request.getEmail())
                 .switchIfEmpty(Mono.error(new IllegalArgumentException("Email not found")))
-                .flatMap(user -> {
+                .flatMap(user -> passwordHasher.matches(request.getPassword(), user.getPasswordHash())
+                        .flatMap(matches -> {
 
-                    if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
-                        return Mono.error(new IllegalArgumentException("Incorrect Password"));
-                    }
+                            if (!Boolean.TRUE.equals(matches)) {
+                                return Mono.error(new IllegalArgumentException("Incorrect Password"));
+                            }
+
+                            return Mono.just(issueToken(user));
+                        }));
+    }
+
+    // re-issue a token from the current user record, picks up role/department changes made after login
+    public Mono<LoginResponse> refreshToken(String token) {
+
+        return Mono.fromCallable(() -> jwtUtil.parseClaims(token))
+                .onErrorMap(ex -> new InvalidTokenException("Invalid or expired token"))
+                .flatMap(claims -> userRepository.findById(claims.getSubject()))
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException(USER_NOT_FOUND)))
+                .map(this::issueToken);
+    }
 
-                    String token = jwtUtil.generateToken(
-                            user.getId(),
-                            user.getRole().name());
+    private LoginResponse issueToken(User user) {
+        String token = jwtUtil.generateToken(
+                user.getId(),
+                user.getRole().name(),
+                user.getDepartmentId(),
+                tokenVersion(user));
+
+        return new LoginResponse(
+                token,
+                user.getId(),
+                user.getRole().name());
+    }
 
-                    return Mono.just(
-                            new LoginResponse(
-                                    token,
-                                    user.getId(),
-                                    user.getRole().name()));
-                });
+    private static long tokenVersion(User user) {
+        return user.getTokenVersion() != null ? user.getTokenVersion() : 0L;
     }
 
     @PostConstruct
     public void createDefaultAdmin() {
         userRepository.findByEmail("admin@egov.com")
-                .switchIfEmpty(Mono.defer(() -> {
-                    User admin = User.builder()
-                            .name("Admin")
-                            .email("admin@egov.com")
-                            .passwordHash(passwordEncoder.encode(defaultAdminPassword))
-                            .role(ROLE.ADMIN)
-                            .createdAt(Instant.now())
-                            .build();
-                    return userRepository.save(admin);
-                }))
+                .switchIfEmpty(passwordHasher.encode(defaultAdminPassword)
+                        .flatMap(passwordHash -> {
+                            User admin = User.builder()
+                                    .name("Admin")
+                                    .email("admin@egov.com")
+                                    .passwordHash(passwordHash)
+                                    .role(ROLE.ADMIN)
+                                    .createdAt(Instant.now())
+                                    .build();
+                            return userRepository.save(admin);
+                        }))
                 .subscribe();
     }
 
@@ -197,6 +228,8 @@ public class UserService {
                     return Mono.just(user);
                 })
                 .flatMap(userRepository::save)
+                .flatMap(saved -> userEventPublisher.publishUserChanged(saved.getId(), "PROFILE", tokenVersion(saved))
+                        .thenReturn(saved))
                 .map(this::mapToResponse);
     }
 
@@ -223,8 +256,11 @@ public class UserService {
                     if (newRole == ROLE.CITIZEN) {
                         user.setDepartmentId(null);
                     }
+                    user.setTokenVersion(tokenVersion(user) + 1);
                     return userRepository.save(user);
                 })
+                .flatMap(saved -> userEventPublisher.publishUserChanged(saved.getId(), "ROLE", tokenVersion(saved))
+                        .thenReturn(saved))
                 .then();
     }
 
@@ -253,9 +289,12 @@ public class UserService {
                     return validateDepartmentFromGrievanceService(user.getRole(), departmentId)
                             .then(Mono.defer(() -> {
                                 user.setDepartmentId(departmentId);
+                                user.setTokenVersion(tokenVersion(user) + 1);
                                 return userRepository.save(user);
                             }));
                 })
+                .flatMap(saved -> userEventPublisher.publishUserChanged(saved.getId(), "DEPARTMENT", tokenVersion(saved))
+                        .thenReturn(saved))
                 .then();
     }
 
@@ -273,6 +312,20 @@ public class UserService {
                 .map(this::mapToResponse);
     }
 
+    // unknown ids are simply left out of the result, callers match responses back by id
+    public Flux<UserResponse> getUsersByIds(List<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Flux.empty();
+        }
+        Set<String> distinctIds = new LinkedHashSet<>(ids);
+        if (distinctIds.size() > maxBatchIds) {
+            return Flux.error(new IllegalArgumentException(
+                    "At most " + maxBatchIds + " ids can be requested at once"));
+        }
+        return userRepository.findByIdIn(distinctIds)
+                .map(this::mapToResponse);
+    }
+
     public Flux<UserResponse> getOfficersByDepartment(
             String departmentId,
             String loggedInUserId,
@@ -10,6 +10,7 @@ import org.springframework.test.web.reactive.server.WebTestClient;
 import com.egov.user.dto.LoginRequest;
 import com.egov.user.dto.LoginResponse;
 import com.egov.user.dto.RegisterRequest;
+import com.egov.user.security.LoginThrottle;
 import com.egov.user.service.UserService;
 
 import reactor.core.publisher.Mono;
@@ -28,6 +29,9 @@ class AuthControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private LoginThrottle loginThrottle;
+
     @Test
     void register_success() {
         RegisterRequest request = new RegisterRequest();
@@ -62,6 +66,44 @@ class AuthControllerTest {
                 .expectStatus().isOk();
     }
 
+    @Test
+    void login_throttled_tooManyRequests() {
+        LoginRequest request = new LoginRequest();
+        request.setEmail("test@test.com");
+        request.setPassword("StrongPass1!");
+
+        Mockito.when(loginThrottle.isBlocked(Mockito.eq("test@test.com"), Mockito.any())).thenReturn(true);
+        Mockito.when(loginThrottle.retryAfterSeconds(Mockito.eq("test@test.com"), Mockito.any())).thenReturn(42L);
+
+        webTestClient.post()
+                .uri("/auth/login")
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isEqualTo(429)
+                .expectHeader().valueEquals("Retry-After", "42");
+
+        Mockito.verifyNoInteractions(userService);
+    }
+
+    @Test
+    void login_badCredentials_recordsFailureForForwardedIp() {
+        LoginRequest request = new LoginRequest();
+        request.setEmail("test@test.com");
+        request.setPassword("WrongPass1!");
+
+        Mockito.when(userService.login(Mockito.any()))
+                .thenReturn(Mono.error(new IllegalArgumentException("Incorrect Password")));
+
+        webTestClient.post()
+                .uri("/auth/login")
+                .header("X-Forwarded-For", "1.2.3.4, 10.0.0.7")
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        Mockito.verify(loginThrottle).recordFailure("test@test.com", "10.0.0.7");
+    }
+
     @Test
     void login_validation_error() {
         LoginRequest request = new LoginRequest();
@@ -73,4 +115,26 @@ class AuthControllerTest {
                 .expectStatus().isBadRequest();
     }
 
+
+    @Test
+    void refresh_success() {
+        Mockito.when(userService.refreshToken("old-token"))
+                .thenReturn(Mono.just(new LoginResponse("new-token", "id", "SUPERVISOR")));
+
+        webTestClient.post()
+                .uri("/auth/refresh")
+                .header("Authorization", "Bearer old-token")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.token").isEqualTo("new-token");
+    }
+
+    @Test
+    void refresh_withoutBearer_unauthorized() {
+        webTestClient.post()
+                .uri("/auth/refresh")
+                .header("Authorization", "Basic abc")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
 }
@@ -4,6 +4,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
@@ -72,6 +74,21 @@ class UserControllerTest {
                                 .expectStatus().isNotFound();
         }
 
+        @Test
+        void getUsersByIds_streamsMatches() {
+                when(userService.getUsersByIds(List.of("u1", "u2")))
+                                .thenReturn(Flux.just(
+                                                UserResponse.builder().id("u1").role(ROLE.OFFICER).build(),
+                                                UserResponse.builder().id("u2").role(ROLE.CITIZEN).build()));
+
+                webTestClient.post()
+                                .uri("/users/batch")
+                                .bodyValue(List.of("u1", "u2"))
+                                .exchange()
+                                .expectStatus().isOk()
+                                .expectBodyList(UserResponse.class).hasSize(2);
+        }
+
         @Test
         void updateProfile_success() {
                 UserUpdateRequest request = new UserUpdateRequest();
@@ -127,4 +127,18 @@ class GlobalExceptionHandlerTest {
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
         assertEquals("Access denied", response.getBody().get("error"));
     }
+
+
+    @Test
+    void handleTooManyAttempts() {
+        TooManyAttemptsException ex =
+                new TooManyAttemptsException("Too many failed login attempts", 30);
+
+        ResponseEntity<Map<String, String>> response =
+                handler.handleTooManyAttempts(ex);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("30", response.getHeaders().getFirst("Retry-After"));
+        assertEquals("Too many failed login attempts", response.getBody().get("error"));
+    }
 }
@@ -6,6 +6,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
+import io.jsonwebtoken.Claims;
+
 class JwtUtilTest {
 
     JwtUtil jwtUtil = new JwtUtil("test-secret-test-secret-test-secret", 100000);
@@ -19,6 +21,15 @@ class JwtUtilTest {
         assertEquals("ADMIN", jwtUtil.getRoleFromToken(token));
     }
 
+    @Test
+    void generateToken_carriesDepartmentAndVersion() {
+        String token = jwtUtil.generateToken("user1", "SUPERVISOR", "D001", 4);
+
+        Claims claims = jwtUtil.parseClaims(token);
+        assertEquals("D001", claims.get(JwtUtil.CLAIM_DEPARTMENT, String.class));
+        assertEquals(4L, claims.get(JwtUtil.CLAIM_VERSION, Long.class));
+    }
+
     @Test
     void invalid_token() {
         assertFalse(jwtUtil.validateToken("invalid.token"));
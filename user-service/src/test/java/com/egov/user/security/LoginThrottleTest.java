@@ -0,0 +1,143 @@
+package com.egov.user.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LoginThrottleTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private LoginThrottle throttle(int perEmail, int perIp) {
+        return new LoginThrottle(meterRegistry, Duration.ofMinutes(1), perEmail, perIp, 1024, now::get);
+    }
+
+    @Test
+    void blocksEmail_afterMaxFailures() {
+        LoginThrottle throttle = throttle(3, 100);
+
+        for (int i = 0; i < 3; i++) {
+            assertFalse(throttle.isBlocked("a@test.com", "10.0.0.1"));
+            throttle.recordFailure("a@test.com", "10.0.0.1");
+        }
+
+        assertTrue(throttle.isBlocked("A@Test.com ", "10.0.0.2"));
+        assertFalse(throttle.isBlocked("b@test.com", "10.0.0.1"));
+        assertEquals(1.0, meterRegistry.get("login.throttled").counter().count());
+    }
+
+    @Test
+    void blocksIp_sprayingManyEmails() {
+        LoginThrottle throttle = throttle(3, 5);
+
+        for (int i = 0; i < 5; i++) {
+            throttle.recordFailure("user" + i + "@test.com", "10.0.0.9");
+        }
+
+        assertTrue(throttle.isBlocked("fresh@test.com", "10.0.0.9"));
+        assertFalse(throttle.isBlocked("fresh@test.com", "10.0.0.10"));
+    }
+
+    @Test
+    void previousWindow_decaysAsWindowSlides() {
+        LoginThrottle throttle = throttle(4, 100);
+        now.set(60_000L * 100);
+        for (int i = 0; i < 4; i++) {
+            throttle.recordFailure("a@test.com", null);
+        }
+        assertTrue(throttle.isBlocked("a@test.com", null));
+
+        // a quarter into the next window 75% of the previous count still applies
+        now.addAndGet(75_000L);
+        assertFalse(throttle.isBlocked("a@test.com", null));
+        throttle.recordFailure("a@test.com", null);
+        assertTrue(throttle.isBlocked("a@test.com", null));
+
+        // two windows later everything has expired
+        now.addAndGet(120_000L);
+        assertFalse(throttle.isBlocked("a@test.com", null));
+    }
+
+    @Test
+    void concurrentFailures_areNotLost() throws InterruptedException {
+        LoginThrottle throttle = throttle(4000, 100_000);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        for (int i = 0; i < 4000; i++) {
+            pool.execute(() -> throttle.recordFailure("a@test.com", "10.0.0.1"));
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertTrue(throttle.isBlocked("a@test.com", null));
+    }
+
+    @Test
+    void retryAfter_waitsForThePreviousWindowToDecay() {
+        LoginThrottle throttle = throttle(4, 100);
+        now.set(60_000L * 10);
+        for (int i = 0; i < 4; i++) {
+            throttle.recordFailure("a@test.com", null);
+        }
+
+        // a quarter into the next window the 4 failures still weigh 3, and with two more the estimate only
+        // drops under 4 once the previous window weighs less than 2 - half way through
+        now.set(60_000L * 11 + 15_000L);
+        throttle.recordFailure("a@test.com", null);
+        throttle.recordFailure("a@test.com", null);
+        assertTrue(throttle.isBlocked("a@test.com", null));
+        long retryAfter = throttle.retryAfterSeconds("a@test.com", null);
+        assertEquals(16, retryAfter);
+
+        now.addAndGet(retryAfter * 1000);
+        assertFalse(throttle.isBlocked("a@test.com", null));
+    }
+
+    @Test
+    void retryAfter_fullCurrentWindow_reachesIntoTheNextOne() {
+        LoginThrottle throttle = throttle(2, 100);
+        now.set(60_000L * 10 + 45_000L);
+        for (int i = 0; i < 4; i++) {
+            throttle.recordFailure("a@test.com", "10.0.0.1");
+        }
+
+        // 15s to the rollover, then 4 * (1 - g) < 2 needs half of the next window
+        long retryAfter = throttle.retryAfterSeconds("a@test.com", "10.0.0.1");
+        assertEquals(46, retryAfter);
+
+        now.addAndGet(retryAfter * 1000 - 2000);
+        assertTrue(throttle.isBlocked("a@test.com", null));
+        now.addAndGet(2000);
+        assertFalse(throttle.isBlocked("a@test.com", null));
+    }
+
+    @Test
+    void retryAfter_takesTheLongerOfEmailAndIp() {
+        LoginThrottle throttle = throttle(100, 2);
+        now.set(60_000L * 10);
+        for (int i = 0; i < 4; i++) {
+            throttle.recordFailure("user" + i + "@test.com", "10.0.0.9");
+        }
+
+        assertEquals(91, throttle.retryAfterSeconds("fresh@test.com", "10.0.0.9"));
+        assertEquals(1, throttle.retryAfterSeconds("fresh@test.com", "10.0.0.10"));
+    }
+
+    @Test
+    void stripes_mustBePowerOfTwo() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new LoginThrottle(meterRegistry, Duration.ofMinutes(1), 1, 1, 1000, now::get));
+    }
+}
@@ -0,0 +1,113 @@
+package com.egov.user.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.egov.user.exception.ServiceBusyException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+class PasswordHasherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void encode_and_matches() {
+        PasswordHasher hasher = new PasswordHasher(new BCryptPasswordEncoder(4), meterRegistry, 2, 10);
+
+        String hash = hasher.encode("Secret@1").block();
+
+        StepVerifier.create(hasher.matches("Secret@1", hash)).expectNext(true).verifyComplete();
+        StepVerifier.create(hasher.matches("wrong", hash)).expectNext(false).verifyComplete();
+        assertEquals(1, meterRegistry.get("password.hash.duration").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("password.hash.duration").tag("operation", "matches").timer().count());
+        hasher.shutdown();
+    }
+
+    @Test
+    void fullQueue_rejectsWithServiceBusy() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = mock(PasswordEncoder.class);
+        when(blockingEncoder.matches(any(), any())).thenAnswer(inv -> release.await(5, TimeUnit.SECONDS));
+        PasswordHasher hasher = new PasswordHasher(blockingEncoder, meterRegistry, 1, 2);
+
+        // one running + two queued fill the pool
+        List<Mono<Boolean>> accepted = List.of(
+                hasher.matches("a", "h").cache(), hasher.matches("b", "h").cache(), hasher.matches("c", "h").cache());
+        accepted.forEach(Mono::subscribe);
+
+        StepVerifier.create(hasher.matches("d", "h")).expectError(ServiceBusyException.class).verify();
+        assertEquals(1.0, meterRegistry.get("password.hash.rejected").counter().count());
+
+        release.countDown();
+        StepVerifier.create(Flux.concat(accepted)).expectNextCount(3).verifyComplete();
+        hasher.shutdown();
+    }
+
+    // 500 concurrent logins issued from a single "event loop" thread - the loop must keep serving other work
+    @Test
+    void concurrentLogins_doNotStallCallingThread() throws InterruptedException {
+        PasswordEncoder slowEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return "hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        PasswordHasher hasher = new PasswordHasher(slowEncoder, meterRegistry, 2, 600);
+        Scheduler eventLoop = Schedulers.newSingle("test-event-loop");
+        List<Long> probeLagMillis = new CopyOnWriteArrayList<>();
+
+        Mono<Long> logins = Flux.range(0, 500)
+                .flatMap(i -> hasher.matches("pwd" + i, "hash"), 500)
+                .count()
+                .subscribeOn(eventLoop);
+
+        // probes scheduled on the same thread every 10ms record how late they actually ran
+        CountDownLatch probesDone = new CountDownLatch(30);
+        long start = System.nanoTime();
+        for (int i = 0; i < 30; i++) {
+            long dueNanos = start + TimeUnit.MILLISECONDS.toNanos(i * 10L);
+            eventLoop.schedule(() -> {
+                probeLagMillis.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - dueNanos));
+                probesDone.countDown();
+            }, i * 10L, TimeUnit.MILLISECONDS);
+        }
+
+        StepVerifier.create(logins).expectNext(500L).verifyComplete();
+        assertTrue(probesDone.await(5, TimeUnit.SECONDS));
+
+        // hashing inline would hold the loop for ~1s (500 x 2ms)
+        long worstLag = probeLagMillis.stream().mapToLong(Long::longValue).max().orElse(0);
+        assertTrue(worstLag < 250, "event loop lagged " + worstLag + "ms");
+        assertEquals(0, hasher.queueDepth());
+        eventLoop.dispose();
+        hasher.shutdown();
+    }
+}
@@ -0,0 +1,71 @@
+package com.egov.user.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import com.egov.user.event.UserChangedEvent;
+
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class UserEventPublisherTest {
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @InjectMocks
+    private UserEventPublisher publisher;
+
+    @Test
+    void publishUserChanged_keyedByUserId() {
+        when(kafkaTemplate.send(eq("user-changed"), eq("u1"), any()))
+                .thenReturn(CompletableFuture.<SendResult<String, Object>>completedFuture(null));
+
+        StepVerifier.create(publisher.publishUserChanged("u1", "ROLE", 2L)).verifyComplete();
+
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(kafkaTemplate).send(eq("user-changed"), eq("u1"), captor.capture());
+        UserChangedEvent event = (UserChangedEvent) captor.getValue();
+        assertEquals("u1", event.getUserId());
+        assertEquals("ROLE", event.getChangeType());
+        assertEquals(2L, event.getTokenVersion());
+    }
+
+    @Test
+    void publishUserChanged_brokerFailure_doesNotPropagate() {
+        when(kafkaTemplate.send(eq("user-changed"), eq("u1"), any()))
+                .thenThrow(new org.apache.kafka.common.errors.TimeoutException("metadata"));
+
+        StepVerifier.create(publisher.publishUserChanged("u1", "PROFILE", 0L)).verifyComplete();
+    }
+
+    @Test
+    void publishUserChanged_failedSend_completesEmpty() {
+        when(kafkaTemplate.send(eq("user-changed"), eq("u1"), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("not acked")));
+
+        StepVerifier.create(publisher.publishUserChanged("u1", "ROLE", 1L)).verifyComplete();
+    }
+
+    @Test
+    void publishUserChanged_isLazy() {
+        publisher.publishUserChanged("u1", "ROLE", 1L);
+
+        verifyNoInteractions(kafkaTemplate);
+    }
+}
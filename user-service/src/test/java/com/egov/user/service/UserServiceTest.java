@@ -2,11 +2,17 @@ package com.egov.user.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,19 +20,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import com.egov.user.dto.LoginRequest;
 import com.egov.user.dto.RegisterRequest;
 import com.egov.user.dto.UserUpdateRequest;
 import com.egov.user.exception.ForbiddenException;
+import com.egov.user.exception.InvalidTokenException;
 import com.egov.user.exception.UserAlreadyExistsException;
 import com.egov.user.model.ROLE;
 import com.egov.user.model.User;
 import com.egov.user.repository.UserRepository;
 import com.egov.user.security.JwtUtil;
+import com.egov.user.security.PasswordHasher;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -38,7 +47,7 @@ class UserServiceTest {
         private UserRepository userRepository;
 
         @Mock
-        private PasswordEncoder passwordEncoder;
+        private PasswordHasher passwordHasher;
 
         @Mock
         private JwtUtil jwtUtil;
@@ -46,6 +55,9 @@ class UserServiceTest {
         @Mock
         private WebClient.Builder webClientBuilder;
 
+        @Mock
+        private UserEventPublisher userEventPublisher;
+
         @InjectMocks
         private UserService userService;
 
@@ -72,8 +84,8 @@ class UserServiceTest {
 
                 when(userRepository.findByEmail(req.getEmail()))
                                 .thenReturn(Mono.empty());
-                when(passwordEncoder.encode(any()))
-                                .thenReturn("hashed");
+                when(passwordHasher.encode(any()))
+                                .thenReturn(Mono.just("hashed"));
                 when(userRepository.save(any()))
                                 .thenReturn(Mono.just(user));
 
@@ -103,9 +115,9 @@ class UserServiceTest {
 
                 when(userRepository.findByEmail(req.getEmail()))
                                 .thenReturn(Mono.just(user));
-                when(passwordEncoder.matches(any(), any()))
-                                .thenReturn(true);
-                when(jwtUtil.generateToken("u1", "CITIZEN"))
+                when(passwordHasher.matches(any(), any()))
+                                .thenReturn(Mono.just(true));
+                when(jwtUtil.generateToken("u1", "CITIZEN", null, 0L))
                                 .thenReturn("token");
 
                 StepVerifier.create(userService.login(req))
@@ -124,8 +136,8 @@ class UserServiceTest {
 
                 when(userRepository.findByEmail(req.getEmail()))
                                 .thenReturn(Mono.just(user));
-                when(passwordEncoder.matches(any(), any()))
-                                .thenReturn(false);
+                when(passwordHasher.matches(any(), any()))
+                                .thenReturn(Mono.just(false));
 
                 StepVerifier.create(userService.login(req))
                                 .expectError(IllegalArgumentException.class)
@@ -142,10 +154,41 @@ class UserServiceTest {
                 when(userRepository.save(any()))
                                 .thenReturn(Mono.just(user));
 
+                when(userEventPublisher.publishUserChanged("u1", "PROFILE", 0L)).thenReturn(Mono.empty());
+
                 StepVerifier.create(
                                 userService.updateProfile("u1", req, "u1", ROLE.CITIZEN))
                                 .expectNextCount(1)
                                 .verifyComplete();
+
+                verify(userEventPublisher).publishUserChanged("u1", "PROFILE", 0L);
+        }
+
+        @Test
+        void getUsersByIds_singleInQueryOverDistinctIds() {
+                when(userRepository.findByIdIn(Set.of("u1", "u2")))
+                                .thenReturn(Flux.just(user));
+
+                StepVerifier.create(userService.getUsersByIds(List.of("u1", "u2", "u1")))
+                                .expectNextMatches(response -> "u1".equals(response.getId()))
+                                .verifyComplete();
+        }
+
+        @Test
+        void getUsersByIds_tooManyIds_rejected() {
+                List<String> ids = IntStream.rangeClosed(0, UserService.MAX_BATCH_IDS)
+                                .mapToObj(i -> "u" + i)
+                                .toList();
+
+                StepVerifier.create(userService.getUsersByIds(ids))
+                                .expectError(IllegalArgumentException.class)
+                                .verify();
+        }
+
+        @Test
+        void getUsersByIds_empty() {
+                StepVerifier.create(userService.getUsersByIds(List.of()))
+                                .verifyComplete();
         }
 
         @Test
@@ -163,9 +206,13 @@ class UserServiceTest {
                 when(userRepository.save(any()))
                                 .thenReturn(Mono.just(user));
 
+                when(userEventPublisher.publishUserChanged("u1", "ROLE", 1L)).thenReturn(Mono.empty());
+
                 StepVerifier.create(
                                 userService.updateRole("u1", "OFFICER", "admin", ROLE.ADMIN))
                                 .verifyComplete();
+
+                verify(userEventPublisher).publishUserChanged("u1", "ROLE", 1L);
         }
 
         @Test
@@ -231,6 +278,8 @@ class UserServiceTest {
                                 userService.updateDepartment("u1", "D1", "admin", ROLE.ADMIN))
                                 .expectError(IllegalArgumentException.class)
                                 .verify();
+
+                verify(userEventPublisher, never()).publishUserChanged(anyString(), anyString(), anyLong());
         }
 
         @Test
@@ -351,7 +400,7 @@ class UserServiceTest {
                 when(responseSpec.bodyToMono(Void.class)).thenReturn(Mono.empty());
 
                 when(userRepository.findByEmail(anyString())).thenReturn(Mono.empty());
-                when(passwordEncoder.encode(anyString())).thenReturn("hashed");
+                when(passwordHasher.encode(anyString())).thenReturn(Mono.just("hashed"));
                 when(userRepository.save(any())).thenReturn(Mono.just(user));
 
                 StepVerifier.create(userService.register(req))
@@ -380,8 +429,41 @@ class UserServiceTest {
                 when(userRepository.findById("u1")).thenReturn(Mono.just(user));
                 when(userRepository.save(any())).thenReturn(Mono.just(user));
 
+                when(userEventPublisher.publishUserChanged("u1", "DEPARTMENT", 1L)).thenReturn(Mono.empty());
+
                 StepVerifier.create(userService.updateDepartment("u1", "D1", "admin", ROLE.ADMIN))
                                 .verifyComplete();
+
+                assertEquals(1L, user.getTokenVersion());
+                verify(userEventPublisher).publishUserChanged("u1", "DEPARTMENT", 1L);
+        }
+
+        @Test
+        void refreshToken_issuesTokenWithCurrentDepartmentAndVersion() {
+                user.setRole(ROLE.SUPERVISOR);
+                user.setDepartmentId("D2");
+                user.setTokenVersion(3L);
+                Claims claims = mock(Claims.class);
+                when(claims.getSubject()).thenReturn("u1");
+                when(jwtUtil.parseClaims("old")).thenReturn(claims);
+                when(userRepository.findById("u1")).thenReturn(Mono.just(user));
+                when(jwtUtil.generateToken("u1", "SUPERVISOR", "D2", 3L)).thenReturn("fresh");
+
+                StepVerifier.create(userService.refreshToken("old"))
+                                .assertNext(res -> {
+                                        assertEquals("fresh", res.getToken());
+                                        assertEquals("SUPERVISOR", res.getRole());
+                                })
+                                .verifyComplete();
+        }
+
+        @Test
+        void refreshToken_invalidToken() {
+                when(jwtUtil.parseClaims("bad")).thenThrow(new JwtException("bad signature"));
+
+                StepVerifier.create(userService.refreshToken("bad"))
+                                .expectError(InvalidTokenException.class)
+                                .verify();
         }
 
         @Test
@@ -392,6 +474,7 @@ class UserServiceTest {
                 when(userRepository.findById("u1")).thenReturn(Mono.just(user));
                 when(userRepository.findByEmail("new@test.com")).thenReturn(Mono.empty());
                 when(userRepository.save(any())).thenReturn(Mono.just(user));
+                when(userEventPublisher.publishUserChanged("u1", "PROFILE", 0L)).thenReturn(Mono.empty());
 
                 StepVerifier.create(userService.updateProfile("u1", req, "u1", ROLE.CITIZEN))
                                 .expectNextCount(1)
@@ -405,11 +488,13 @@ class UserServiceTest {
 
                 when(userRepository.findById("u1")).thenReturn(Mono.just(user));
                 when(userRepository.save(any())).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+                when(userEventPublisher.publishUserChanged("u1", "ROLE", 1L)).thenReturn(Mono.empty());
 
                 StepVerifier.create(userService.updateRole("u1", "CITIZEN", "admin", ROLE.ADMIN))
                                 .verifyComplete();
 
                 assertEquals(ROLE.CITIZEN, user.getRole());
                 assertEquals(null, user.getDepartmentId());
+                assertEquals(1L, user.getTokenVersion());
         }
 }